@@ -0,0 +1,26 @@
+package com.irrigation.arrosage.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compteurs d'un cache, communs à toutes les instances
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheCounters {
+
+    /** Nombre d'entrées au dernier parcours SCAN */
+    private long size;
+    /** Parcours interrompu par son budget : size est un minorant */
+    private boolean sizeTruncated;
+    /** Date du dernier parcours, null si aucun */
+    private String scannedAt;
+    private long puts;
+    private long evictions;
+    private long clears;
+}
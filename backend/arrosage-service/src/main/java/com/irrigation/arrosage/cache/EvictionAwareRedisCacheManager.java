@@ -0,0 +1,59 @@
+package com.irrigation.arrosage.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.Map;
+
+/**
+ * RedisCacheManager dont les caches savent si une éviction a supprimé une entrée
+ *
+ * {@link RedisCache} n'implémente pas {@code evictIfPresent} : il supprime la clé et répond toujours false.
+ * Ici la suppression est un DEL dont le nombre de clés supprimées est retourné, en un seul aller-retour,
+ * pour ne compter que les évictions effectives.
+ */
+public class EvictionAwareRedisCacheManager extends RedisCacheManager {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    public EvictionAwareRedisCacheManager(RedisCacheWriter cacheWriter,
+                                          RedisConnectionFactory connectionFactory,
+                                          RedisCacheConfiguration defaultCacheConfiguration,
+                                          Map<String, RedisCacheConfiguration> initialCacheConfigurations) {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations);
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        return new EvictionAwareRedisCache(name, getCacheWriter(), cacheConfiguration, connectionFactory);
+    }
+
+    /**
+     * Cache Redis dont {@code evictIfPresent} indique si la clé existait
+     */
+    static class EvictionAwareRedisCache extends RedisCache {
+
+        private final RedisConnectionFactory connectionFactory;
+
+        EvictionAwareRedisCache(String name, RedisCacheWriter cacheWriter,
+                                RedisCacheConfiguration cacheConfiguration,
+                                RedisConnectionFactory connectionFactory) {
+            super(name, cacheWriter, cacheConfiguration);
+            this.connectionFactory = connectionFactory;
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            byte[] cacheKey = serializeCacheKey(createCacheKey(key));
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                Long removed = connection.keyCommands().del(cacheKey);
+                return removed != null && removed > 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index par station des clés du cache des prévisions qui portent sur des dates
+ *
+ * Chaque station a un ensemble trié Redis ({@code arrosage:forecasts-index:station:{id}}) dont les membres
+ * sont « début/fin/clé » : clés de période ({@code station:{id}:{début}:{fin}}) et de prévision
+ * ({@code id:{n}}), notées par leur date d'écriture. Les clés touchées par un changement météo se
+ * trouvent ainsi sans KEYS ni SCAN. Les membres plus vieux que la durée de vie du cache sont retirés à
+ * chaque écriture ; évincer une clé déjà expirée est sans effet.
+ */
+public class ForecastCacheIndex {
+
+    private static final String INDEX_KEY_PREFIX = "arrosage:forecasts-index:station:";
+    private static final Pattern PERIOD_KEY = Pattern.compile("station:(\\d+):(\\d{4}-\\d{2}-\\d{2}):(\\d{4}-\\d{2}-\\d{2})");
+    private static final String ID_KEY_PREFIX = "id:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long ttlMillis;
+
+    public ForecastCacheIndex(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Indexer une entrée écrite dans le cache des prévisions, si elle porte sur des dates
+     */
+    public void record(Object key, Object value) {
+        String cacheKey = key.toString();
+        Matcher period = PERIOD_KEY.matcher(cacheKey);
+        if (period.matches()) {
+            add(Long.parseLong(period.group(1)), period.group(2) + "/" + period.group(3) + "/" + cacheKey);
+        } else if (cacheKey.startsWith(ID_KEY_PREFIX) && value instanceof PrevisionMeteoDTO prevision
+                && prevision.getStationId() != null && prevision.getDate() != null) {
+            add(prevision.getStationId(), prevision.getDate() + "/" + prevision.getDate() + "/" + cacheKey);
+        }
+    }
+
+    private void add(Long stationId, String member) {
+        byte[] indexKey = bytes(INDEX_KEY_PREFIX + stationId);
+        long now = System.currentTimeMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            write(connection, indexKey, member, now);
+            return null;
+        });
+    }
+
+    private void write(RedisConnection connection, byte[] indexKey, String member, long now) {
+        connection.zSetCommands().zAdd(indexKey, now, bytes(member));
+        connection.zSetCommands().zRemRangeByScore(indexKey, Double.NEGATIVE_INFINITY, now - ttlMillis);
+        connection.keyCommands().pExpire(indexKey, ttlMillis);
+    }
+
+    /**
+     * Clés en cache de cette station dont la période contient cette date
+     */
+    public List<String> keysCovering(Long stationId, LocalDate date) {
+        long now = System.currentTimeMillis();
+        Set<String> members = redisTemplate.opsForZSet()
+                .rangeByScore(INDEX_KEY_PREFIX + stationId, now - ttlMillis, Double.POSITIVE_INFINITY);
+        List<String> keys = new ArrayList<>();
+        if (members == null) {
+            return keys;
+        }
+        for (String member : members) {
+            String[] parts = member.split("/", 3);
+            if (parts.length == 3 && !LocalDate.parse(parts[0]).isAfter(date) && !LocalDate.parse(parts[1]).isBefore(date)) {
+                keys.add(parts[2]);
+            }
+        }
+        return keys;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
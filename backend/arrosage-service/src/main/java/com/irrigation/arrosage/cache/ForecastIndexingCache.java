@@ -0,0 +1,96 @@
+package com.irrigation.arrosage.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache des prévisions qui tient à jour l'index par station de ses clés à chaque écriture
+ *
+ * L'index est une aide à l'invalidation : s'il ne peut être écrit, l'entrée reste en cache
+ * jusqu'à sa durée de vie.
+ */
+@Slf4j
+public class ForecastIndexingCache implements Cache {
+
+    private final Cache delegate;
+    private final ForecastCacheIndex index;
+
+    public ForecastIndexingCache(Cache delegate, ForecastCacheIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, () -> {
+            T value = valueLoader.call();
+            record(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        record(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            record(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private void record(Object key, Object value) {
+        try {
+            index.record(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Cannot index forecast cache key {}: {}", key, e.getMessage());
+        }
+    }
+}
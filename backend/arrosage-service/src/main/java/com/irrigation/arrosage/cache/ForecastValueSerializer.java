@@ -0,0 +1,135 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Sérialiseur des valeurs du cache des prévisions
+ *
+ * Une prévision ou une liste de prévisions est écrite par {@link PrevisionBinaryCodec} derrière un en-tête
+ * de trois octets (marque, version, forme), sans les métadonnées de type du JSON. Au-delà de
+ * {@code compressionThreshold} octets, le corps est compressé en LZ4 s'il y gagne. Toute autre valeur,
+ * et toute entrée écrite avant ce format, passe par le sérialiseur JSON.
+ */
+public class ForecastValueSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte VERSION = 1;
+
+    private static final int KIND_PREVISION = 1;
+    private static final int KIND_LIST = 2;
+    private static final int LZ4_FLAG = 0x80;
+    private static final int HEADER_LENGTH = 3;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    private final RedisSerializer<Object> jsonSerializer;
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold taille du corps à partir de laquelle tenter LZ4, 0 pour ne jamais compresser
+     */
+    public ForecastValueSerializer(RedisSerializer<Object> jsonSerializer, int compressionThreshold) {
+        this.jsonSerializer = jsonSerializer;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) {
+        if (value instanceof PrevisionMeteoDTO prevision) {
+            return frame(KIND_PREVISION, PrevisionBinaryCodec.encode(prevision));
+        }
+        if (value instanceof List<?> list && isPrevisionList(list)) {
+            return frame(KIND_LIST, PrevisionBinaryCodec.encodeList((List<PrevisionMeteoDTO>) list));
+        }
+        return jsonSerializer.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] != VERSION) {
+            throw new SerializationException("Unsupported cached forecast format version "
+                    + (bytes.length > 1 ? bytes[1] : "none"));
+        }
+        int kind = bytes[2] & 0xFF & ~LZ4_FLAG;
+        try {
+            byte[] body = bytes;
+            int offset = HEADER_LENGTH;
+            int length = bytes.length - HEADER_LENGTH;
+            if ((bytes[2] & LZ4_FLAG) != 0) {
+                body = decompress(bytes);
+                offset = 0;
+                length = body.length;
+            }
+            return switch (kind) {
+                case KIND_PREVISION -> PrevisionBinaryCodec.decode(body, offset, length);
+                case KIND_LIST -> PrevisionBinaryCodec.decodeList(body, offset, length);
+                default -> throw new SerializationException("Unknown cached forecast kind " + kind);
+            };
+        } catch (IOException | LZ4Exception e) {
+            throw new SerializationException("Cannot decode cached forecast", e);
+        }
+    }
+
+    private static boolean isPrevisionList(List<?> list) {
+        for (Object element : list) {
+            if (!(element instanceof PrevisionMeteoDTO)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * En-tête puis corps, compressé s'il dépasse le seuil et que LZ4 le réduit :
+     * la taille d'origine (4 octets) précède alors le bloc compressé
+     */
+    private byte[] frame(int kind, byte[] body) {
+        if (compressionThreshold > 0 && body.length >= compressionThreshold) {
+            byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(body.length)];
+            int compressedLength = COMPRESSOR.compress(body, 0, body.length, compressed, 0, compressed.length);
+            if (compressedLength + Integer.BYTES < body.length) {
+                return ByteBuffer.allocate(HEADER_LENGTH + Integer.BYTES + compressedLength)
+                        .put(MAGIC).put(VERSION).put((byte) (kind | LZ4_FLAG))
+                        .putInt(body.length)
+                        .put(compressed, 0, compressedLength)
+                        .array();
+            }
+        }
+        return ByteBuffer.allocate(HEADER_LENGTH + body.length)
+                .put(MAGIC).put(VERSION).put((byte) kind)
+                .put(body)
+                .array();
+    }
+
+    private static byte[] decompress(byte[] bytes) throws IOException {
+        if (bytes.length < HEADER_LENGTH + Integer.BYTES) {
+            throw new IOException("Truncated compressed forecast");
+        }
+        int length = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+        if (length < 0 || length > (bytes.length - HEADER_LENGTH - Integer.BYTES) * 255L) {
+            throw new IOException("Invalid uncompressed length " + length);
+        }
+        byte[] body = new byte[length];
+        int offset = HEADER_LENGTH + Integer.BYTES;
+        int decompressed = DECOMPRESSOR.decompress(bytes, offset, bytes.length - offset, body, 0);
+        if (decompressed != length) {
+            throw new IOException("Compressed forecast is " + decompressed + " bytes, expected " + length);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,129 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.metrics.CacheTierMeters;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache Redis instrumenté : succès, défauts et latence des lectures vers Micrometer,
+ * écritures, évictions effectives et vidages vers les compteurs partagés de {@link RedisCacheStatistics}
+ */
+public class InstrumentedCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheTierMeters meters;
+    private final RedisCacheStatistics statistics;
+
+    public InstrumentedCache(Cache delegate, CacheTierMeters meters, RedisCacheStatistics statistics) {
+        this.delegate = delegate;
+        this.meters = meters;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper wrapper = delegate.get(key);
+        meters.recordGet(System.nanoTime() - start);
+        if (wrapper != null) {
+            meters.hit();
+        } else {
+            meters.miss();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        recordPut();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            recordPut();
+        }
+        return existing;
+    }
+
+    /**
+     * Éviction immédiate, comptée seulement si la clé existait
+     */
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        if (evicted) {
+            recordEviction();
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        statistics.recordClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        statistics.recordClear(getName());
+        return invalidated;
+    }
+
+    private void recordPut() {
+        meters.put();
+        statistics.recordPut(getName());
+    }
+
+    private void recordEviction() {
+        meters.evict();
+        statistics.recordEviction(getName());
+    }
+}
@@ -0,0 +1,198 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodage binaire compact des {@link PrevisionMeteoDTO} mis en cache
+ *
+ * Les valeurs sont écrites dans l'ordre des champs, sans noms ni type, avec les entiers à longueur variable
+ * d'Avro : une date est un numéro de jour, un décimal sa valeur non mise à l'échelle et son échelle.
+ * Dans une liste, le nom et l'identifiant de station répétés d'une prévision à la suivante ne sont pas réécrits.
+ * Chaque champ commence par un index : 0 pour null, puis la forme de la valeur.
+ * Le codec ne porte pas de version : c'est l'en-tête de {@link ForecastValueSerializer} qui la porte.
+ */
+public final class PrevisionBinaryCodec {
+
+    private static final int NULL = 0;
+    private static final int VALUE = 1;
+    private static final int SAME_AS_PREVIOUS = 2;
+    private static final int BIG_UNSCALED = 2;
+
+    private PrevisionBinaryCodec() {
+    }
+
+    public static byte[] encode(PrevisionMeteoDTO prevision) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        try {
+            write(encoder, prevision, null);
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeList(List<PrevisionMeteoDTO> previsions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + previsions.size() * 24);
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        try {
+            encoder.writeInt(previsions.size());
+            PrevisionMeteoDTO previous = null;
+            for (PrevisionMeteoDTO prevision : previsions) {
+                write(encoder, prevision, previous);
+                previous = prevision;
+            }
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IOException si la valeur est tronquée
+     */
+    public static PrevisionMeteoDTO decode(byte[] data, int offset, int length) throws IOException {
+        return read(DecoderFactory.get().binaryDecoder(data, offset, length, null), null);
+    }
+
+    /**
+     * @throws IOException si la valeur est tronquée
+     */
+    public static List<PrevisionMeteoDTO> decodeList(byte[] data, int offset, int length) throws IOException {
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, offset, length, null);
+        int size = decoder.readInt();
+        if (size < 0 || size > length) {
+            throw new IOException("Invalid forecast count " + size);
+        }
+        List<PrevisionMeteoDTO> previsions = new ArrayList<>(size);
+        PrevisionMeteoDTO previous = null;
+        for (int i = 0; i < size; i++) {
+            previous = read(decoder, previous);
+            previsions.add(previous);
+        }
+        return previsions;
+    }
+
+    private static void write(BinaryEncoder encoder, PrevisionMeteoDTO prevision, PrevisionMeteoDTO previous)
+            throws IOException {
+        writeLong(encoder, prevision.getId());
+        if (previous != null && prevision.getStationId() != null && prevision.getStationId().equals(previous.getStationId())) {
+            encoder.writeIndex(SAME_AS_PREVIOUS);
+        } else {
+            writeLong(encoder, prevision.getStationId());
+        }
+        if (previous != null && prevision.getStationNom() != null && prevision.getStationNom().equals(previous.getStationNom())) {
+            encoder.writeIndex(SAME_AS_PREVIOUS);
+        } else {
+            writeString(encoder, prevision.getStationNom());
+        }
+        writeLong(encoder, prevision.getDate() != null ? prevision.getDate().toEpochDay() : null);
+        writeDecimal(encoder, prevision.getTemperatureMax());
+        writeDecimal(encoder, prevision.getTemperatureMin());
+        writeDecimal(encoder, prevision.getPluiePrevue());
+        writeDecimal(encoder, prevision.getVent());
+    }
+
+    private static PrevisionMeteoDTO read(BinaryDecoder decoder, PrevisionMeteoDTO previous) throws IOException {
+        Long id = readLong(decoder);
+        int index = decoder.readIndex();
+        Long stationId = index == SAME_AS_PREVIOUS ? previous(previous).getStationId()
+                : index == NULL ? null : decoder.readLong();
+        index = decoder.readIndex();
+        String stationNom = index == SAME_AS_PREVIOUS ? previous(previous).getStationNom()
+                : index == NULL ? null : decoder.readString();
+        Long epochDay = readLong(decoder);
+        return PrevisionMeteoDTO.builder()
+                .id(id)
+                .stationId(stationId)
+                .stationNom(stationNom)
+                .date(epochDay != null ? LocalDate.ofEpochDay(epochDay) : null)
+                .temperatureMax(readDecimal(decoder))
+                .temperatureMin(readDecimal(decoder))
+                .pluiePrevue(readDecimal(decoder))
+                .vent(readDecimal(decoder))
+                .build();
+    }
+
+    private static PrevisionMeteoDTO previous(PrevisionMeteoDTO previous) throws IOException {
+        if (previous == null) {
+            throw new IOException("First forecast refers to a previous one");
+        }
+        return previous;
+    }
+
+    private static void writeLong(BinaryEncoder encoder, Long value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(NULL);
+        } else {
+            encoder.writeIndex(VALUE);
+            encoder.writeLong(value);
+        }
+    }
+
+    private static Long readLong(BinaryDecoder decoder) throws IOException {
+        return decoder.readIndex() == NULL ? null : decoder.readLong();
+    }
+
+    private static void writeString(BinaryEncoder encoder, String value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(NULL);
+        } else {
+            encoder.writeIndex(VALUE);
+            encoder.writeString(value);
+        }
+    }
+
+    /**
+     * Valeur non mise à l'échelle sur un entier long si possible (25.3 : 253 et 1, trois octets),
+     * sinon en octets
+     */
+    private static void writeDecimal(BinaryEncoder encoder, BigDecimal value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(NULL);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            encoder.writeIndex(VALUE);
+            encoder.writeLong(unscaled.longValue());
+        } else {
+            encoder.writeIndex(BIG_UNSCALED);
+            encoder.writeBytes(unscaled.toByteArray());
+        }
+        encoder.writeInt(value.scale());
+    }
+
+    private static BigDecimal readDecimal(BinaryDecoder decoder) throws IOException {
+        int index = decoder.readIndex();
+        if (index == NULL) {
+            return null;
+        }
+        BigInteger unscaled;
+        if (index == VALUE) {
+            unscaled = BigInteger.valueOf(decoder.readLong());
+        } else {
+            ByteBuffer buffer = decoder.readBytes(null);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            unscaled = new BigInteger(bytes);
+        }
+        return new BigDecimal(unscaled, decoder.readInt());
+    }
+}
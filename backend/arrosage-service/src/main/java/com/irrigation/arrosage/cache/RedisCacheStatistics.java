@@ -0,0 +1,202 @@
+package com.irrigation.arrosage.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistiques des caches Redis tenues côté serveur
+ *
+ * Chaque cache a un hash {@code arrosage:cache-stats:{cache}} : les écritures, évictions et vidages
+ * sont comptés en mémoire, puis reportés périodiquement par chaque instance en un seul pipeline HINCRBY
+ * (aucun aller-retour Redis de plus par écriture ou éviction). La taille y est reportée par un parcours
+ * SCAN périodique. Le parcours avance par lots de {@code scan.count} clés et s'arrête après
+ * {@code scan.max-keys} : il ne bloque jamais Redis, au pire la taille est un minorant. Une seule instance
+ * parcourt par intervalle. Les statistiques sont lues dans ces hash, sans parcourir les clés.
+ */
+@Slf4j
+public class RedisCacheStatistics {
+
+    public static final String KEY_PREFIX = "arrosage:";
+
+    private static final String STATS_KEY_PREFIX = KEY_PREFIX + "cache-stats:";
+    private static final String SCAN_LEASE_KEY = STATS_KEY_PREFIX + "scan-lease";
+
+    private final StringRedisTemplate redisTemplate;
+    private final List<String> cacheNames;
+    private final int scanCount;
+    private final long scanMaxKeys;
+    private final Duration scanInterval;
+
+    /** Compteurs pas encore reportés dans Redis, par cache */
+    private final Map<String, PendingCounters> pending = new ConcurrentHashMap<>();
+
+    public RedisCacheStatistics(StringRedisTemplate redisTemplate, List<String> cacheNames,
+                                int scanCount, long scanMaxKeys, Duration scanInterval) {
+        this.redisTemplate = redisTemplate;
+        this.cacheNames = List.copyOf(cacheNames);
+        this.scanCount = scanCount;
+        this.scanMaxKeys = scanMaxKeys;
+        this.scanInterval = scanInterval;
+    }
+
+    public void recordPut(String cacheName) {
+        pending(cacheName).puts.increment();
+    }
+
+    public void recordEviction(String cacheName) {
+        pending(cacheName).evictions.increment();
+    }
+
+    public void recordClear(String cacheName) {
+        pending(cacheName).clears.increment();
+    }
+
+    private PendingCounters pending(String cacheName) {
+        return pending.computeIfAbsent(cacheName, name -> new PendingCounters());
+    }
+
+    /**
+     * Reporter dans Redis les compteurs accumulés depuis le dernier report, en un seul pipeline
+     * Si Redis ne répond pas, les compteurs sont gardés pour le report suivant.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.stats.flush-interval-ms:10000}")
+    @PreDestroy
+    public void flush() {
+        Map<String, long[]> deltas = new LinkedHashMap<>();
+        pending.forEach((cacheName, counters) -> {
+            long[] delta = counters.drain();
+            if (delta[0] + delta[1] + delta[2] > 0) {
+                deltas.put(cacheName, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                deltas.forEach((cacheName, delta) -> increment(connection, cacheName, delta));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            deltas.forEach((cacheName, delta) -> pending(cacheName).add(delta));
+            log.debug("Cannot flush cache statistics: {}", e.getMessage());
+        }
+    }
+
+    private static void increment(RedisConnection connection, String cacheName, long[] delta) {
+        byte[] key = bytes(STATS_KEY_PREFIX + cacheName);
+        if (delta[0] > 0) {
+            connection.hashCommands().hIncrBy(key, bytes("puts"), delta[0]);
+        }
+        if (delta[1] > 0) {
+            connection.hashCommands().hIncrBy(key, bytes("evictions"), delta[1]);
+        }
+        if (delta[2] > 0) {
+            connection.hashCommands().hIncrBy(key, bytes("clears"), delta[2]);
+            connection.hashCommands().hSet(key, bytes("size"), bytes("0"));
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compteurs de chaque cache
+     *
+     * @throws org.springframework.dao.DataAccessException si Redis ne répond pas
+     */
+    public Map<String, CacheCounters> snapshot() {
+        Map<String, CacheCounters> counters = new LinkedHashMap<>();
+        for (String cacheName : cacheNames) {
+            Map<Object, Object> fields = redisTemplate.opsForHash().entries(STATS_KEY_PREFIX + cacheName);
+            counters.put(cacheName, CacheCounters.builder()
+                    .size(number(fields.get("size")))
+                    .sizeTruncated(Boolean.parseBoolean((String) fields.get("size-truncated")))
+                    .scannedAt((String) fields.get("scanned-at"))
+                    .puts(number(fields.get("puts")))
+                    .evictions(number(fields.get("evictions")))
+                    .clears(number(fields.get("clears")))
+                    .build());
+        }
+        return counters;
+    }
+
+    private static long number(Object value) {
+        return value != null ? Long.parseLong((String) value) : 0;
+    }
+
+    /**
+     * Recompter les entrées de chaque cache par SCAN, si aucune autre instance ne l'a fait dans l'intervalle
+     */
+    @Scheduled(fixedDelayString = "${app.cache.stats.scan-interval-ms:300000}",
+            initialDelayString = "${app.cache.stats.scan-initial-delay-ms:60000}")
+    public void refreshSizes() {
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(SCAN_LEASE_KEY, "1", scanInterval))) {
+                return;
+            }
+            for (String cacheName : cacheNames) {
+                refreshSize(cacheName);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cannot refresh cache sizes: {}", e.getMessage());
+        }
+    }
+
+    void refreshSize(String cacheName) {
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + cacheName + "::*").count(scanCount).build();
+        long size = 0;
+        boolean truncated = false;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                if (size >= scanMaxKeys) {
+                    truncated = true;
+                    break;
+                }
+                cursor.next();
+                size++;
+            }
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("size", String.valueOf(size));
+        fields.put("size-truncated", String.valueOf(truncated));
+        fields.put("scanned-at", Instant.now().toString());
+        redisTemplate.opsForHash().putAll(STATS_KEY_PREFIX + cacheName, fields);
+        log.debug("Cache {} holds {}{} entries", cacheName, truncated ? "at least " : "", size);
+    }
+
+    /**
+     * Écritures, évictions et vidages d'un cache depuis le dernier report
+     */
+    private static final class PendingCounters {
+        private final LongAdder puts = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder clears = new LongAdder();
+
+        long[] drain() {
+            return new long[]{puts.sumThenReset(), evictions.sumThenReset(), clears.sumThenReset()};
+        }
+
+        void add(long[] delta) {
+            puts.add(delta[0]);
+            evictions.add(delta[1]);
+            clears.add(delta[2]);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.metrics.CacheTierMeters;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache à deux niveaux : Caffeine en mémoire (L1) devant le cache Redis partagé (L2)
+ *
+ * Une lecture trouvée en L1 ne coûte ni aller-retour réseau ni désérialisation ; un défaut de L1 lit L2
+ * et recopie la valeur en L1. Une écriture remplit L1 puis L2, si bien que L1 continue de servir quand
+ * Redis est indisponible. Une éviction vide L2 puis L1 et est diffusée aux autres instances.
+ * Les valeurs de L1 sont partagées entre appelants : elles ne doivent pas être modifiées.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheTierMeters localMeters;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote,
+                         CacheInvalidationBus invalidationBus,
+                         CacheTierMeters localMeters) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.localMeters = localMeters;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        long start = System.nanoTime();
+        Object value = local.getIfPresent(localKey);
+        localMeters.recordGet(System.nanoTime() - start);
+        if (value != null) {
+            localMeters.hit();
+            return new SimpleValueWrapper(value);
+        }
+        localMeters.miss();
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            local.put(localKey, wrapper.get());
+            localMeters.put();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value != null) {
+            local.put(localKey(key), value);
+            localMeters.put();
+        }
+        remote.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        Object current = existing != null ? existing.get() : value;
+        if (current != null) {
+            local.put(localKey(key), current);
+            localMeters.put();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        try {
+            remote.evict(key);
+        } finally {
+            local.invalidate(localKey);
+            localMeters.evict();
+            invalidationBus.publishEvict(name, localKey);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        try {
+            return remote.evictIfPresent(key);
+        } finally {
+            local.invalidate(localKey);
+            localMeters.evict();
+            invalidationBus.publishEvict(name, localKey);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            remote.clear();
+        } finally {
+            local.invalidateAll();
+            invalidationBus.publishClear(name);
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        try {
+            return remote.invalidate();
+        } finally {
+            local.invalidateAll();
+            invalidationBus.publishClear(name);
+        }
+    }
+
+    /**
+     * Vider une clé du niveau local seulement, sur invalidation d'une autre instance
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Vider le niveau local seulement, sur invalidation d'une autre instance
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    /**
+     * Clé du niveau local : la même conversion en texte que la clé Redis, pour que les instances
+     * s'accordent sur la clé à invalider
+     */
+    private static String localKey(Object key) {
+        return key.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.irrigation.arrosage.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * CacheManager qui place un cache Caffeine borné devant chaque cache Redis
+ *
+ * Taille et durée de vie locales sont données par cache sous forme de spécification Caffeine
+ * (ex. {@code maximumSize=10000,expireAfterWrite=60s}). La durée locale doit rester courte devant
+ * celle de Redis : c'est elle qui borne la fraîcheur si une invalidation n'arrive pas.
+ * Un cache sans spécification locale est servi par Redis seul. Le niveau Redis est toujours instrumenté.
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+    private final Function<String, String> localSpecs;
+    private final CacheInvalidationBus invalidationBus;
+    private final IrrigationMetricsCollector metricsCollector;
+    private final RedisCacheStatistics statistics;
+    private final Map<String, UnaryOperator<Cache>> redisDecorators = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager,
+                                Function<String, String> localSpecs,
+                                CacheInvalidationBus invalidationBus,
+                                IrrigationMetricsCollector metricsCollector,
+                                RedisCacheStatistics statistics) {
+        this.redisCacheManager = redisCacheManager;
+        this.localSpecs = localSpecs;
+        this.invalidationBus = invalidationBus;
+        this.metricsCollector = metricsCollector;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Envelopper le niveau Redis d'un cache, avant la création des caches
+     */
+    public void decorateRedisCache(String cacheName, UnaryOperator<Cache> decorator) {
+        redisDecorators.put(cacheName, decorator);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        redisCacheManager.initializeCaches();
+        return redisCacheManager.getCacheNames().stream()
+                .map(name -> decorate(redisCacheManager.getCache(name)))
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache remote = redisCacheManager.getCache(name);
+        return remote != null ? decorate(remote) : null;
+    }
+
+    private Cache decorate(Cache redisCache) {
+        String name = redisCache.getName();
+        Cache remote = new InstrumentedCache(
+                redisDecorators.getOrDefault(name, UnaryOperator.identity()).apply(redisCache),
+                metricsCollector.registerCacheTier(name, IrrigationMetricsCollector.CACHE_TIER_REDIS),
+                statistics);
+        String localSpec = localSpecs.apply(name);
+        if (localSpec == null) {
+            return remote;
+        }
+        TwoLevelCache cache = new TwoLevelCache(name,
+                Caffeine.from(localSpec).build(),
+                remote,
+                invalidationBus,
+                metricsCollector.registerCacheTier(name, IrrigationMetricsCollector.CACHE_TIER_LOCAL));
+        invalidationBus.register(cache);
+        return cache;
+    }
+}
@@ -47,14 +47,9 @@ public interface MeteoServiceClient {
     
     /**
      * Récupère les prévisions pour une station sur une période
-     * Cache: 2 heures avec clé composite (station + dates)
+     * Pas de cache ici : les périodes sont mises en cache jour par jour par ForecastDayGrid
      */
     @GetMapping("/api/previsions/station/{stationId}/periode")
-    @Cacheable(
-        value = "forecasts", 
-        key = "'station:' + #stationId + ':' + #startDate + ':' + #endDate",
-        unless = "#result == null or #result.isEmpty()"
-    )
     List<PrevisionMeteoDTO> getPrevisionsByPeriode(
             @PathVariable("stationId") Long stationId,
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
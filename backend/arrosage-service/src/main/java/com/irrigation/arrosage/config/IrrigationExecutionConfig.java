@@ -0,0 +1,52 @@
+package com.irrigation.arrosage.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration du pool de threads utilisé pour l'exécution parallèle des programmes d'arrosage
+ *
+ * Le pool est borné (taille + file d'attente) : lorsqu'il est saturé, la partition
+ * est exécutée par le thread du scheduler lui-même, ce qui ralentit naturellement le tick.
+ *
+ * Avec les threads virtuels (spring.threads.virtual.enabled=true, Java 21), chaque partition
+ * a son propre thread virtuel ; le nombre de partitions simultanées reste limité à pool-size
+ * (au-delà, la soumission attend), pour ne pas dépasser le pool de connexions JDBC.
+ */
+@Configuration
+public class IrrigationExecutionConfig {
+
+    @Bean(name = "irrigationExecutionExecutor")
+    public AsyncTaskExecutor irrigationExecutionExecutor(
+            Environment environment,
+            @Value("${app.scheduler.irrigation.parallel.pool-size:4}") int poolSize,
+            @Value("${app.scheduler.irrigation.parallel.queue-capacity:100}") int queueCapacity) {
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("irrigation-exec-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("irrigation-exec-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
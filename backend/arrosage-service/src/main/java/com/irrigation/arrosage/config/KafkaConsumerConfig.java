@@ -1,15 +1,28 @@
 package com.irrigation.arrosage.config;
 
+import com.irrigation.arrosage.kafka.WeatherChangeEventDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,31 +37,127 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${spring.kafka.listener.auto-startup:true}")
+    private boolean autoStartup;
+
+    @Value("${app.kafka.weather-change.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${app.kafka.weather-change.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    @Value("${app.kafka.topic.weather-change}")
+    private String weatherChangeTopic;
+
+    @Value("${app.kafka.weather-change.retry.batch-attempts:3}")
+    private int batchAttempts;
+
+    private final MeterRegistry meterRegistry;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
+        return instrumented(new DefaultKafkaConsumerFactory<>(consumerProperties(10)));
+    }
+
+    /**
+     * Consommateurs du mode lot : un poll peut ramener jusqu'à batch.max-poll-records événements
+     */
+    @Bean
+    public ConsumerFactory<String, Object> batchConsumerFactory() {
+        return instrumented(new DefaultKafkaConsumerFactory<>(consumerProperties(batchMaxPollRecords)));
+    }
+
+    /**
+     * Métriques du client Kafka dans Micrometer, dont le retard par partition
+     * (kafka.consumer.fetch.manager.records.lag, tags topic et partition)
+     */
+    private ConsumerFactory<String, Object> instrumented(DefaultKafkaConsumerFactory<String, Object> consumerFactory) {
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
+    }
+
+    private Map<String, Object> consumerProperties(int maxPollRecords) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        // Un message illisible part directement au DLT au lieu de bloquer sa partition
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        // Avro binaire ; JSON accepté pour les messages des producteurs pas encore migrés
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, WeatherChangeEventDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.irrigation.arrosage.event");
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.irrigation.arrosage.event.WeatherChangeEvent");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10);
-        
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        return props;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(Environment environment) {
+        // Un seul des deux modes consomme le topic
+        return listenerContainerFactory(consumerFactory(), autoStartup && !batchEnabled, environment);
+    }
+
+    /**
+     * Listeners des topics de retry et du DLT : actifs dans les deux modes, un lot en échec
+     * étant renvoyé événement par événement dans le premier topic de retry
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> retryKafkaListenerContainerFactory(Environment environment) {
+        return listenerContainerFactory(consumerFactory(), autoStartup, environment);
+    }
+
+    /**
+     * Listener en mode lot : le lot complet est acquitté en une fois (offsets commités par lot)
+     * Un lot en échec est réessayé sur place batch-attempts fois, puis ses événements partent
+     * dans le premier topic de retry où ils sont traités un par un : la partition n'est plus bloquée.
+     * Un message illisible n'est pas réessayé : il part directement dans le DLT.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            Environment environment, KafkaTemplate<String, Object> retryTopicKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                listenerContainerFactory(batchConsumerFactory(), autoStartup && batchEnabled, environment);
+        factory.setBatchListener(true);
+        DeadLetterPublishingRecoverer toFirstRetryTopic = new DeadLetterPublishingRecoverer(retryTopicKafkaTemplate,
+                (record, exception) -> new TopicPartition(isUnreadable(exception)
+                        ? weatherChangeTopic + KafkaDeadLetterConfig.DLT_SUFFIX
+                        : weatherChangeTopic + KafkaDeadLetterConfig.RETRY_TOPIC_SUFFIX + "-0", -1));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(toFirstRetryTopic,
+                new FixedBackOff(1000L, Math.max(batchAttempts - 1, 0))));
+        return factory;
+    }
+
+    private static boolean isUnreadable(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, Object> listenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory, boolean startup, Environment environment) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
         factory.setConcurrency(3);
+        factory.setAutoStartup(startup);
         factory.getContainerProperties().setAckMode(
                 org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Boucles de consommation sur des threads virtuels (spring.threads.virtual.enabled=true, Java 21)
+            SimpleAsyncTaskExecutor listenerExecutor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            listenerExecutor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(listenerExecutor);
+        }
         return factory;
     }
 }
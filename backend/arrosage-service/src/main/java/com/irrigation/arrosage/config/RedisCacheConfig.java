@@ -4,24 +4,41 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.irrigation.arrosage.cache.CacheInvalidationBus;
+import com.irrigation.arrosage.cache.EvictionAwareRedisCacheManager;
+import com.irrigation.arrosage.cache.ForecastCacheIndex;
+import com.irrigation.arrosage.cache.ForecastIndexingCache;
+import com.irrigation.arrosage.cache.ForecastValueSerializer;
+import com.irrigation.arrosage.cache.RedisCacheStatistics;
+import com.irrigation.arrosage.cache.TwoLevelCacheManager;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,9 +46,10 @@ import java.util.Map;
  * 
  * Features:
  * - Cache avec TTL de 2 heures pour les prévisions
- * - Serialization JSON avec Jackson
+ * - Serialization JSON avec Jackson, binaire compact pour les prévisions
  * - Gestion des erreurs Redis (fallback)
  * - Support des types Java 8 (LocalDate, LocalDateTime)
+ * - Cache local Caffeine devant Redis, invalidé entre instances par pub/sub
  */
 @Configuration
 @EnableCaching
@@ -39,15 +57,43 @@ public class RedisCacheConfig implements CachingConfigurer {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisCacheConfig.class);
 
+    private static final Duration FORECASTS_TTL = Duration.ofHours(2);
+
+    @Value("${app.cache.local.enabled:true}")
+    private boolean localCacheEnabled;
+
+    @Value("${app.cache.local.default-spec:maximumSize=1000,expireAfterWrite=60s}")
+    private String defaultLocalSpec;
+
+    @Value("${app.cache.stats.scan.count:1000}")
+    private int scanCount;
+
+    @Value("${app.cache.codec.compression-threshold-bytes:512}")
+    private int compressionThreshold;
+
     /**
      * Configuration du CacheManager Redis avec différents TTL par cache
+     * Avec app.cache.local.enabled, chaque cache Redis est précédé d'un cache Caffeine borné,
+     * dimensionné par app.cache.local.spec.{cache}.
+     * Les écritures du cache des prévisions sont indexées par station pour l'invalidation sur changement météo.
+     * Les clés sont préfixées par arrosage: et un vidage parcourt les clés par SCAN, jamais par KEYS.
+     * Le format des valeurs est choisi par cache avec app.cache.codec.{cache}.
+     * Une éviction dit si la clé existait, pour ne compter que les évictions effectives.
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     IrrigationMetricsCollector metricsCollector,
+                                     ForecastCacheIndex forecastCacheIndex,
+                                     RedisCacheStatistics cacheStatistics,
+                                     Environment environment) {
+        GenericJackson2JsonRedisSerializer jsonSerializer = createJsonSerializer();
+
         // Configuration par défaut: 2 heures de TTL
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofHours(2))
                 .disableCachingNullValues()
+                .prefixCacheNameWith(RedisCacheStatistics.KEY_PREFIX)
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(
                                 new StringRedisSerializer()
@@ -55,7 +101,7 @@ public class RedisCacheConfig implements CachingConfigurer {
                 )
                 .serializeValuesWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(
-                                createJsonSerializer()
+                                jsonSerializer
                         )
                 );
 
@@ -63,19 +109,79 @@ public class RedisCacheConfig implements CachingConfigurer {
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
         
         // Cache des prévisions météo: 2 heures
-        cacheConfigurations.put("forecasts", defaultConfig.entryTtl(Duration.ofHours(2)));
+        cacheConfigurations.put("forecasts", defaultConfig.entryTtl(FORECASTS_TTL)
+                .serializeValuesWith(valueSerializer("forecasts", jsonSerializer, environment)));
         
         // Cache des stations météo: 24 heures (données plus stables)
-        cacheConfigurations.put("stations", defaultConfig.entryTtl(Duration.ofHours(24)));
+        cacheConfigurations.put("stations", defaultConfig.entryTtl(Duration.ofHours(24))
+                .serializeValuesWith(valueSerializer("stations", jsonSerializer, environment)));
         
         // Cache des données météo courantes: 30 minutes
-        cacheConfigurations.put("weather-data", defaultConfig.entryTtl(Duration.ofMinutes(30)));
+        cacheConfigurations.put("weather-data", defaultConfig.entryTtl(Duration.ofMinutes(30))
+                .serializeValuesWith(valueSerializer("weather-data", jsonSerializer, environment)));
+
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(
+                connectionFactory, BatchStrategies.scan(scanCount));
+        RedisCacheManager redisCacheManager = new EvictionAwareRedisCacheManager(
+                cacheWriter, connectionFactory, defaultConfig, cacheConfigurations);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager,
+                name -> localCacheEnabled ? environment.getProperty("app.cache.local.spec." + name, defaultLocalSpec) : null,
+                cacheInvalidationBus, metricsCollector, cacheStatistics);
+        cacheManager.decorateRedisCache("forecasts", cache -> new ForecastIndexingCache(cache, forecastCacheIndex));
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withInitialCacheConfigurations(cacheConfigurations)
-                .transactionAware()
-                .build();
+    /**
+     * Sérialiseur des valeurs d'un cache selon app.cache.codec.{cache} :
+     * json (défaut, avec types) ou binary (prévisions en binaire compact, JSON pour le reste)
+     */
+    private RedisSerializationContext.SerializationPair<Object> valueSerializer(
+            String cacheName, RedisSerializer<Object> jsonSerializer, Environment environment) {
+        String codec = environment.getProperty("app.cache.codec." + cacheName, "json");
+        return switch (codec) {
+            case "json" -> RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer);
+            case "binary" -> RedisSerializationContext.SerializationPair.fromSerializer(
+                    new ForecastValueSerializer(jsonSerializer, compressionThreshold));
+            default -> throw new IllegalStateException("Unknown codec '" + codec + "' for cache " + cacheName);
+        };
+    }
+
+    /**
+     * Canal pub/sub des évictions, pour vider le cache local des autres instances
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(
+            RedisConnectionFactory connectionFactory,
+            @Value("${app.cache.local.invalidation-channel:arrosage:cache-invalidation}") String channel) {
+        return new CacheInvalidationBus(new StringRedisTemplate(connectionFactory), channel);
+    }
+
+    @Bean
+    public ForecastCacheIndex forecastCacheIndex(RedisConnectionFactory connectionFactory) {
+        return new ForecastCacheIndex(new StringRedisTemplate(connectionFactory), FORECASTS_TTL);
+    }
+
+    /**
+     * Compteurs des caches tenus dans Redis, tailles recalculées par SCAN borné
+     */
+    @Bean
+    public RedisCacheStatistics redisCacheStatistics(
+            RedisConnectionFactory connectionFactory,
+            @Value("${spring.cache.cache-names:forecasts,stations,weather-data}") List<String> cacheNames,
+            @Value("${app.cache.stats.scan.max-keys:100000}") long scanMaxKeys,
+            @Value("${app.cache.stats.scan-interval-ms:300000}") long scanIntervalMs) {
+        return new RedisCacheStatistics(new StringRedisTemplate(connectionFactory), cacheNames,
+                scanCount, scanMaxKeys, Duration.ofMillis(scanIntervalMs));
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(cacheInvalidationBus.getChannel()));
+        return container;
     }
 
     /**
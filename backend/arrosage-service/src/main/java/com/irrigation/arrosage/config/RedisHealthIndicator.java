@@ -2,6 +2,7 @@ package com.irrigation.arrosage.config;
 
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.stereotype.Component;
 
@@ -20,8 +21,9 @@ public class RedisHealthIndicator implements HealthIndicator {
 
     @Override
     public Health health() {
-        try {
-            String pong = redisConnectionFactory.getConnection().ping();
+        // La connexion est fermée pour être rendue au pool
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            String pong = connection.ping();
             if ("PONG".equals(pong)) {
                 return Health.up()
                         .withDetail("status", "Redis is available")
@@ -0,0 +1,21 @@
+package com.irrigation.arrosage.config;
+
+import com.irrigation.arrosage.event.SeverityThresholds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Seuils de sévérité des changements météo (pluie mm, température °C, vent km/h), alignés sur meteo-service
+ */
+@Configuration
+public class WeatherSeverityConfig {
+
+    @Bean
+    public SeverityThresholds severityThresholds(
+            @Value("${app.weather.severity.critical:20,10,20}") double[] critical,
+            @Value("${app.weather.severity.high:10,5,10}") double[] high,
+            @Value("${app.weather.severity.medium:5,3,5}") double[] medium) {
+        return new SeverityThresholds(critical, high, medium);
+    }
+}
@@ -58,7 +58,7 @@ public class JournalArrosageController {
     }
 
     @GetMapping("/periode")
-    @Operation(summary = "Journaux par période", description = "Récupère les journaux entre deux dates")
+    @Operation(summary = "Journaux par période", description = "Récupère les journaux entre deux dates, archives comprises")
     public ResponseEntity<List<JournalArrosageDTO>> getJournauxByPeriode(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
@@ -68,6 +68,15 @@ public class ProgrammeArrosageController {
         return ResponseEntity.ok(programmes);
     }
 
+    @GetMapping("/periode")
+    @Operation(summary = "Programmes par période", description = "Récupère les programmes planifiés entre deux dates, archives comprises")
+    public ResponseEntity<List<ProgrammeArrosageDTO>> getProgrammesByPeriode(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        List<ProgrammeArrosageDTO> programmes = programmeService.findByPeriode(startDate, endDate);
+        return ResponseEntity.ok(programmes);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Mettre à jour un programme", description = "Met à jour un programme existant")
     public ResponseEntity<ProgrammeArrosageDTO> updateProgramme(
@@ -0,0 +1,52 @@
+package com.irrigation.arrosage.controller;
+
+import com.irrigation.arrosage.kafka.WeatherDeadLetterReplayer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contrôleur d'administration des événements météo en échec (DLT)
+ */
+@RestController
+@RequestMapping("/api/admin/weather-events/dlt")
+@Tag(name = "Weather Events Administration", description = "APIs pour le rejeu des événements météo en échec")
+public class WeatherEventAdminController {
+
+    private final WeatherDeadLetterReplayer deadLetterReplayer;
+
+    public WeatherEventAdminController(WeatherDeadLetterReplayer deadLetterReplayer) {
+        this.deadLetterReplayer = deadLetterReplayer;
+    }
+
+    /**
+     * Événements en attente dans le DLT, par partition
+     */
+    @GetMapping
+    @Operation(summary = "Compter les événements météo en attente dans le DLT")
+    public ResponseEntity<Map<String, Object>> getPendingDeadLetters() {
+        Map<Integer, Long> partitions = deadLetterReplayer.pending();
+        Map<String, Object> response = new HashMap<>();
+        response.put("topic", deadLetterReplayer.getDeadLetterTopic());
+        response.put("pending", partitions.values().stream().mapToLong(Long::longValue).sum());
+        response.put("partitions", partitions);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Renvoie les événements du DLT dans le topic principal
+     */
+    @PostMapping("/replay")
+    @Operation(summary = "Rejouer les événements météo du DLT")
+    public ResponseEntity<Map<String, Object>> replayDeadLetters(@RequestParam(defaultValue = "100") int max) {
+        int replayed = deadLetterReplayer.replay(max);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Dead-lettered weather events replayed");
+        response.put("replayed", replayed);
+        return ResponseEntity.ok(response);
+    }
+}
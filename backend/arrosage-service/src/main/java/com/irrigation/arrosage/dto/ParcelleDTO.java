@@ -3,6 +3,7 @@ package com.irrigation.arrosage.dto;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,4 +28,9 @@ public class ParcelleDTO {
     
     @NotBlank(message = "Le type de culture est obligatoire")
     private String culture;
+    
+    @Size(max = 100, message = "Le nom de l'exploitation ne doit pas dépasser 100 caractères")
+    private String exploitation;
+    
+    private Long stationId;
 }
@@ -21,8 +21,10 @@ import java.time.LocalDateTime;
 @Builder
 public class JournalArrosage {
 
+    // Séquence avec allocation par blocs (pooled) : permet le regroupement des INSERT en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_arrosage_seq")
+    @SequenceGenerator(name = "journal_arrosage_seq", sequenceName = "journal_arrosage_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Le programme d'arrosage est obligatoire")
@@ -40,4 +42,8 @@ public class JournalArrosage {
 
     @Column(length = 500)
     private String remarque;
+
+    // Clé de l'entrée du journal local (écriture différée) : chaque entrée n'est insérée qu'une fois
+    @Column(name = "write_behind_key", length = 64, updatable = false)
+    private String writeBehindKey;
 }
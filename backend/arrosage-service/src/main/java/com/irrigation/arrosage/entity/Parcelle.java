@@ -38,4 +38,18 @@ public class Parcelle {
     @NotBlank(message = "Le type de culture est obligatoire")
     @Column(nullable = false, length = 100)
     private String culture;
+
+    /**
+     * Exploitation agricole de la parcelle (facultative)
+     * Sert à limiter le nombre d'arrosages simultanés sur un même réseau d'eau.
+     */
+    @Column(length = 100)
+    private String exploitation;
+
+    /**
+     * Station météo couvrant la parcelle (référence vers meteo-service, facultative)
+     * Seuls les programmes des parcelles de la station sont ajustés par ses changements météo.
+     */
+    @Column(name = "station_id")
+    private Long stationId;
 }
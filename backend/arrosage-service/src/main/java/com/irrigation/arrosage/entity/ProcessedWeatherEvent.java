@@ -0,0 +1,26 @@
+package com.irrigation.arrosage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant un événement de changement météo déjà appliqué
+ */
+@Entity
+@Table(name = "processed_weather_event")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedWeatherEvent {
+
+    @Id
+    @Column(name = "event_id", length = 64)
+    private String eventId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
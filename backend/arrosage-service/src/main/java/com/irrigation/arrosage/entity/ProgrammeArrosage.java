@@ -50,6 +50,13 @@ public class ProgrammeArrosage {
     @Column(nullable = false, length = 20)
     private StatutProgramme statut;
 
+    @Column(name = "date_reservation")
+    private LocalDateTime dateReservation; // prise en charge par une instance (EN_COURS)
+
+    // Clé de l'entrée du journal local (écriture différée) validée avec le passage à TERMINE
+    @Column(name = "write_behind_key", length = 64)
+    private String writeBehindKey;
+
     public enum StatutProgramme {
         PLANIFIE,
         EN_COURS,
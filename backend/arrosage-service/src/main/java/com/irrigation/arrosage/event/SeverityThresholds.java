@@ -0,0 +1,60 @@
+package com.irrigation.arrosage.event;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+
+/**
+ * Seuils de sévérité d'un changement météo, en table plate
+ *
+ * Mêmes seuils que meteo-service : ils servent à reclasser le changement net d'événements fusionnés.
+ * Pour chaque niveau (CRITICAL, HIGH, MEDIUM, du plus grave au moins grave) : écarts de pluie (mm),
+ * de température maximale (°C) et de vent (km/h) au-delà desquels le changement atteint ce niveau.
+ */
+public final class SeverityThresholds {
+
+    private static final ChangeSeverity[] LEVELS = {ChangeSeverity.CRITICAL, ChangeSeverity.HIGH, ChangeSeverity.MEDIUM};
+
+    /** Seuils historiques */
+    public static final SeverityThresholds DEFAULT = new SeverityThresholds(
+            new double[]{20, 10, 20},
+            new double[]{10, 5, 10},
+            new double[]{5, 3, 5});
+
+    /** [niveau * 3 + (0 pluie, 1 température, 2 vent)] */
+    private final double[] thresholds = new double[LEVELS.length * 3];
+
+    public SeverityThresholds(double[] critical, double[] high, double[] medium) {
+        double[][] levels = {critical, high, medium};
+        for (int level = 0; level < levels.length; level++) {
+            if (levels[level] == null || levels[level].length != 3) {
+                throw new IllegalArgumentException(
+                        "Severity thresholds of " + LEVELS[level] + " need 3 values: rain, temperature, wind");
+            }
+            System.arraycopy(levels[level], 0, thresholds, level * 3, 3);
+        }
+    }
+
+    public ChangeSeverity classify(WeatherConditions oldConditions, WeatherConditions newConditions) {
+        if (oldConditions == null || newConditions == null) {
+            return ChangeSeverity.LOW;
+        }
+        return classify(
+                difference(oldConditions.getPluiePrevue(), newConditions.getPluiePrevue()),
+                difference(oldConditions.getTemperatureMax(), newConditions.getTemperatureMax()),
+                difference(oldConditions.getVent(), newConditions.getVent()));
+    }
+
+    public ChangeSeverity classify(double rainDiff, double tempDiff, double windDiff) {
+        for (int level = 0; level < LEVELS.length; level++) {
+            int offset = level * 3;
+            if (rainDiff > thresholds[offset] || tempDiff > thresholds[offset + 1] || windDiff > thresholds[offset + 2]) {
+                return LEVELS[level];
+            }
+        }
+        return ChangeSeverity.LOW;
+    }
+
+    private static double difference(Double oldValue, Double newValue) {
+        return oldValue != null && newValue != null ? Math.abs(oldValue - newValue) : 0.0;
+    }
+}
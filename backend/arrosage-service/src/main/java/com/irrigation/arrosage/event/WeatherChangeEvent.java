@@ -11,6 +11,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class WeatherChangeEvent {
     
+    /**
+     * Identifiant unique attribué par meteo-service, null pour les anciens producteurs
+     */
+    private String eventId;
     private Long stationId;
     private String stationNom;
     private WeatherConditions oldConditions;
@@ -19,6 +23,12 @@ public class WeatherChangeEvent {
     private ChangeSeverity severity;
     private String description;
     
+    public WeatherChangeEvent(Long stationId, String stationNom, WeatherConditions oldConditions,
+                              WeatherConditions newConditions, LocalDateTime timestamp,
+                              ChangeSeverity severity, String description) {
+        this(null, stationId, stationNom, oldConditions, newConditions, timestamp, severity, description);
+    }
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,238 @@
+package com.irrigation.arrosage.event;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.message.BinaryMessageDecoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodage binaire Avro des {@link WeatherChangeEvent}
+ *
+ * Format « single object » d'Avro : marque C3 01, empreinte CRC-64 du schéma d'écriture (8 octets),
+ * puis les valeurs sans noms de champs. Les schémas sont des fichiers locaux (avro/weather-change-event-vN.avsc),
+ * sans registre : le dernier sert à écrire, tous sont reconnus à la lecture. Pour faire évoluer le format,
+ * ajouter un fichier vN+1 compatible avec le précédent et l'inscrire dans {@link #SCHEMA_VERSIONS}.
+ * Le même fichier est embarqué par meteo-service.
+ *
+ * Le schéma courant est écrit et lu champ par champ, comme le ferait une classe Avro générée ;
+ * un message d'une version antérieure passe par la résolution générique de schémas.
+ */
+public final class WeatherChangeEventAvro {
+
+    /** Du plus ancien au plus récent */
+    static final String[] SCHEMA_VERSIONS = {"avro/weather-change-event-v1.avsc"};
+
+    private static final Schema SCHEMA = load(SCHEMA_VERSIONS[SCHEMA_VERSIONS.length - 1]);
+    private static final byte[] HEADER = header(SCHEMA);
+    private static final ChangeSeverity[] SEVERITIES = ChangeSeverity.values();
+
+    /** Lecture des versions antérieures, vers le schéma courant */
+    private static final BinaryMessageDecoder<GenericRecord> DECODER = new BinaryMessageDecoder<>(GenericData.get(), SCHEMA);
+
+    static {
+        for (int i = 0; i < SCHEMA_VERSIONS.length - 1; i++) {
+            DECODER.addSchema(load(SCHEMA_VERSIONS[i]));
+        }
+        List<String> symbols = SCHEMA.getField("severity").schema().getTypes().get(1).getEnumSymbols();
+        if (!symbols.equals(Arrays.stream(SEVERITIES).map(Enum::name).toList())) {
+            throw new IllegalStateException("ChangeSeverity does not match the Avro schema symbols " + symbols);
+        }
+    }
+
+    private WeatherChangeEventAvro() {
+    }
+
+    /**
+     * Le message commence-t-il par la marque Avro single object ? (sinon : JSON d'un ancien producteur)
+     */
+    public static boolean isAvro(byte[] data) {
+        return data != null && data.length >= HEADER.length && data[0] == HEADER[0] && data[1] == HEADER[1];
+    }
+
+    public static byte[] encode(WeatherChangeEvent event) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.writeBytes(HEADER);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        try {
+            writeString(encoder, event.getEventId());
+            writeLong(encoder, event.getStationId());
+            writeString(encoder, event.getStationNom());
+            writeConditions(encoder, event.getOldConditions());
+            writeConditions(encoder, event.getNewConditions());
+            writeLong(encoder, toMicros(event.getTimestamp()));
+            if (event.getSeverity() == null) {
+                encoder.writeIndex(0);
+            } else {
+                encoder.writeIndex(1);
+                encoder.writeEnum(event.getSeverity().ordinal());
+            }
+            writeString(encoder, event.getDescription());
+            encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IOException si le message est tronqué ou écrit avec un schéma inconnu
+     */
+    public static WeatherChangeEvent decode(byte[] data) throws IOException {
+        if (!Arrays.equals(data, 0, HEADER.length, HEADER, 0, HEADER.length)) {
+            return fromRecord(DECODER.decode(data));
+        }
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, HEADER.length, data.length - HEADER.length, null);
+        String eventId = readString(decoder);
+        Long stationId = readLong(decoder);
+        String stationNom = readString(decoder);
+        WeatherConditions oldConditions = readConditions(decoder);
+        WeatherConditions newConditions = readConditions(decoder);
+        LocalDateTime timestamp = fromMicros(readLong(decoder));
+        ChangeSeverity severity = decoder.readIndex() == 0 ? null : SEVERITIES[decoder.readEnum()];
+        String description = readString(decoder);
+        return new WeatherChangeEvent(eventId, stationId, stationNom, oldConditions, newConditions,
+                timestamp, severity, description);
+    }
+
+    private static void writeConditions(BinaryEncoder encoder, WeatherConditions conditions) throws IOException {
+        if (conditions == null) {
+            encoder.writeIndex(0);
+            return;
+        }
+        encoder.writeIndex(1);
+        writeDouble(encoder, conditions.getTemperatureMax());
+        writeDouble(encoder, conditions.getTemperatureMin());
+        writeDouble(encoder, conditions.getPluiePrevue());
+        writeDouble(encoder, conditions.getVent());
+        writeLong(encoder, toMicros(conditions.getDate()));
+    }
+
+    private static WeatherConditions readConditions(BinaryDecoder decoder) throws IOException {
+        if (decoder.readIndex() == 0) {
+            return null;
+        }
+        return new WeatherConditions(readDouble(decoder), readDouble(decoder), readDouble(decoder),
+                readDouble(decoder), fromMicros(readLong(decoder)));
+    }
+
+    // Champs optionnels : union ["null", T], index 0 pour null
+
+    private static void writeString(BinaryEncoder encoder, String value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(0);
+        } else {
+            encoder.writeIndex(1);
+            encoder.writeString(value);
+        }
+    }
+
+    private static void writeLong(BinaryEncoder encoder, Long value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(0);
+        } else {
+            encoder.writeIndex(1);
+            encoder.writeLong(value);
+        }
+    }
+
+    private static void writeDouble(BinaryEncoder encoder, Double value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(0);
+        } else {
+            encoder.writeIndex(1);
+            encoder.writeDouble(value);
+        }
+    }
+
+    private static String readString(BinaryDecoder decoder) throws IOException {
+        return decoder.readIndex() == 0 ? null : decoder.readString();
+    }
+
+    private static Long readLong(BinaryDecoder decoder) throws IOException {
+        return decoder.readIndex() == 0 ? null : decoder.readLong();
+    }
+
+    private static Double readDouble(BinaryDecoder decoder) throws IOException {
+        return decoder.readIndex() == 0 ? null : decoder.readDouble();
+    }
+
+    private static WeatherChangeEvent fromRecord(GenericRecord record) {
+        Object severity = record.get("severity");
+        return new WeatherChangeEvent(
+                string(record.get("eventId")),
+                (Long) record.get("stationId"),
+                string(record.get("stationNom")),
+                conditionsFromRecord((GenericRecord) record.get("oldConditions")),
+                conditionsFromRecord((GenericRecord) record.get("newConditions")),
+                fromMicros((Long) record.get("timestamp")),
+                severity != null ? ChangeSeverity.valueOf(severity.toString()) : null,
+                string(record.get("description")));
+    }
+
+    private static WeatherConditions conditionsFromRecord(GenericRecord record) {
+        if (record == null) {
+            return null;
+        }
+        return new WeatherConditions(
+                (Double) record.get("temperatureMax"),
+                (Double) record.get("temperatureMin"),
+                (Double) record.get("pluiePrevue"),
+                (Double) record.get("vent"),
+                fromMicros((Long) record.get("date")));
+    }
+
+    private static Long toMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(Long micros) {
+        if (micros == null) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static byte[] header(Schema schema) {
+        return ByteBuffer.allocate(10).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) 0xC3).put((byte) 0x01)
+                .putLong(SchemaNormalization.parsingFingerprint64(schema))
+                .array();
+    }
+
+    private static Schema load(String resource) {
+        try (InputStream in = WeatherChangeEventAvro.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Avro schema not found on classpath: " + resource);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read Avro schema " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.irrigation.arrosage.exception;
+
+/**
+ * Levée quand un événement météo à appliquer a déjà été enregistré comme traité,
+ * typiquement par une autre instance après un rééquilibrage Kafka ; la transaction est annulée.
+ */
+public class DuplicateWeatherEventException extends RuntimeException {
+    public DuplicateWeatherEventException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,433 @@
+package com.irrigation.arrosage.journal;
+
+import com.irrigation.arrosage.dto.JournalArrosageDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local en ajout seul, découpé en segments de taille fixe projetés en mémoire (mmap)
+ *
+ * Format d'un enregistrement : [longueur int][crc32 int][date d'ajout long][données].
+ * Une longueur nulle marque la fin des données d'un segment (fichier pré-rempli de zéros).
+ * La position de lecture validée (segment, offset) est conservée dans un fichier checkpoint :
+ * au redémarrage, tout ce qui suit le checkpoint est relu. Un enregistrement incomplet
+ * (crc invalide, arrêt pendant l'écriture) termine le segment.
+ *
+ * Chaque entrée relue a une clé stable (identifiant du journal, segment, offset) : l'identifiant,
+ * tiré au premier démarrage et conservé dans le répertoire, distingue deux journaux d'instances différentes.
+ */
+@Slf4j
+public class JournalSegmentLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOG_ID_FILE = "log-id";
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceOnAppend;
+    private String logId;
+
+    // Écriture
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+
+    // Lecture (position validée par le checkpoint)
+    private long readSegment;
+    private int readOffset;
+    private long readBufferSegment = -1;
+    private ByteBuffer readBuffer;
+
+    private long pendingEntries;
+
+    public JournalSegmentLog(Path directory, int segmentSize, boolean forceOnAppend) {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Taille de segment trop petite: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceOnAppend = forceOnAppend;
+    }
+
+    /**
+     * Ouvrir le journal : relire le checkpoint, compter les entrées non vidées
+     * et se positionner en fin du dernier segment pour les prochains ajouts
+     */
+    public synchronized void open() {
+        try {
+            Files.createDirectories(directory);
+            logId = readOrCreateLogId();
+            List<Long> segments = listSegments();
+
+            long[] checkpoint = readCheckpoint();
+            if (checkpoint != null) {
+                readSegment = checkpoint[0];
+                readOffset = (int) checkpoint[1];
+            } else {
+                readSegment = segments.isEmpty() ? 0 : segments.get(0);
+                readOffset = 0;
+            }
+
+            // Parcourir les segments non vidés pour compter les entrées en attente
+            pendingEntries = 0;
+            writeSegment = readSegment;
+            int writeOffset = readOffset;
+            for (Long segment : segments) {
+                if (segment < readSegment) {
+                    continue;
+                }
+                ByteBuffer buffer = mapSegment(segment, FileChannel.MapMode.READ_ONLY);
+                int offset = segment == readSegment ? readOffset : 0;
+                while (true) {
+                    int next = nextRecordOffset(buffer, offset);
+                    if (next < 0) {
+                        break;
+                    }
+                    pendingEntries++;
+                    offset = next;
+                }
+                writeSegment = segment;
+                writeOffset = offset;
+            }
+
+            writeBuffer = mapSegment(writeSegment, FileChannel.MapMode.READ_WRITE);
+            writeBuffer.position(writeOffset);
+            // Effacer un éventuel enregistrement incomplet laissé par un arrêt brutal
+            if (writeOffset + Integer.BYTES <= segmentSize) {
+                writeBuffer.putInt(writeOffset, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'ouvrir le journal local " + directory, e);
+        }
+    }
+
+    /**
+     * Ajouter une entrée de journal (visible immédiatement par le lecteur)
+     *
+     * @return Clé de l'entrée, celle de {@link Entry#getKey()} à la relecture
+     */
+    public synchronized String append(JournalArrosageDTO journal) {
+        byte[] payload = encode(journal);
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Entrée de journal trop volumineuse: " + recordSize + " octets");
+        }
+
+        try {
+            if (writeBuffer.position() + recordSize + Integer.BYTES > segmentSize) {
+                rollSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de créer un nouveau segment de journal", e);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        int start = writeBuffer.position();
+        writeBuffer.position(start + Integer.BYTES);
+        writeBuffer.putInt((int) crc.getValue());
+        writeBuffer.putLong(System.currentTimeMillis());
+        writeBuffer.put(payload);
+        writeBuffer.putInt(writeBuffer.position(), 0);
+        // La longueur est écrite en dernier : un enregistrement n'est visible qu'une fois complet
+        writeBuffer.putInt(start, payload.length);
+
+        if (forceOnAppend) {
+            writeBuffer.force();
+        }
+        pendingEntries++;
+        return key(logId, writeSegment, start);
+    }
+
+    /**
+     * Écrire sur disque les entrées ajoutées (un seul fsync pour plusieurs ajouts)
+     */
+    public synchronized void force() {
+        writeBuffer.force();
+    }
+
+    /**
+     * Lire au plus maxEntries entrées à partir de la position validée, sans la déplacer
+     */
+    public synchronized List<Entry> read(int maxEntries) {
+        List<Entry> entries = new ArrayList<>(Math.min(maxEntries, 1024));
+        long segment = readSegment;
+        int offset = readOffset;
+
+        try {
+            while (entries.size() < maxEntries) {
+                ByteBuffer buffer = readBuffer(segment);
+                int next = nextRecordOffset(buffer, offset);
+                if (next < 0) {
+                    if (segment >= writeSegment) {
+                        break;
+                    }
+                    segment++;
+                    offset = 0;
+                    continue;
+                }
+                int length = buffer.getInt(offset);
+                long appendedAt = buffer.getLong(offset + Integer.BYTES + Integer.BYTES);
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER_SIZE, payload);
+                entries.add(new Entry(decode(payload), appendedAt, logId, segment, offset, next));
+                offset = next;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de relire le journal local", e);
+        }
+        return entries;
+    }
+
+    /**
+     * Valider la lecture jusqu'à l'entrée donnée incluse (entrées écrites en base)
+     * Les segments entièrement vidés sont supprimés.
+     */
+    public synchronized void commit(List<Entry> flushed) {
+        if (flushed.isEmpty()) {
+            return;
+        }
+        Entry last = flushed.get(flushed.size() - 1);
+        try {
+            writeCheckpoint(last.segment, last.nextOffset);
+            long previousSegment = readSegment;
+            readSegment = last.segment;
+            readOffset = last.nextOffset;
+            pendingEntries -= flushed.size();
+
+            for (long segment = previousSegment; segment < readSegment; segment++) {
+                if (segment == readBufferSegment) {
+                    readBuffer = null;
+                    readBufferSegment = -1;
+                }
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'enregistrer le checkpoint du journal local", e);
+        }
+    }
+
+    /**
+     * Nombre d'entrées ajoutées mais pas encore validées
+     */
+    public synchronized long getPendingEntries() {
+        return pendingEntries;
+    }
+
+    /**
+     * Date d'ajout (epoch ms) de la plus ancienne entrée non validée, ou -1 si le journal est vide
+     */
+    public synchronized long getOldestPendingTimestamp() {
+        if (pendingEntries == 0) {
+            return -1;
+        }
+        List<Entry> oldest = read(1);
+        return oldest.isEmpty() ? -1 : oldest.get(0).getAppendedAt();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writeBuffer != null) {
+            writeBuffer.force();
+            writeBuffer = null;
+        }
+        readBuffer = null;
+        readBufferSegment = -1;
+    }
+
+    private void rollSegment() throws IOException {
+        writeBuffer.force();
+        writeSegment++;
+        writeBuffer = mapSegment(writeSegment, FileChannel.MapMode.READ_WRITE);
+        log.debug("Rolled journal segment {}", writeSegment);
+    }
+
+    /**
+     * Offset de l'enregistrement suivant, ou -1 si aucun enregistrement valide à cet offset
+     */
+    private int nextRecordOffset(ByteBuffer buffer, int offset) {
+        if (offset + HEADER_SIZE > buffer.limit()) {
+            return -1;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_SIZE + length > buffer.limit()) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + HEADER_SIZE, length));
+        if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+            return -1;
+        }
+        return offset + HEADER_SIZE + length;
+    }
+
+    private ByteBuffer readBuffer(long segment) throws IOException {
+        if (segment != readBufferSegment) {
+            readBuffer = segment == writeSegment
+                    ? writeBuffer.duplicate()
+                    : mapSegment(segment, FileChannel.MapMode.READ_ONLY);
+            readBufferSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private MappedByteBuffer mapSegment(long segment, FileChannel.MapMode mode) throws IOException {
+        Path path = segmentPath(segment);
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long size = mode == FileChannel.MapMode.READ_ONLY ? Math.min(channel.size(), segmentSize) : segmentSize;
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private String readOrCreateLogId() throws IOException {
+        Path path = directory.resolve(LOG_ID_FILE);
+        if (Files.exists(path)) {
+            return Files.readString(path).trim();
+        }
+        String id = UUID.randomUUID().toString().replace("-", "");
+        Path temp = directory.resolve(LOG_ID_FILE + ".tmp");
+        Files.writeString(temp, id);
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return id;
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        return new long[]{buffer.getLong(), buffer.getInt()};
+    }
+
+    private void writeCheckpoint(long segment, int offset) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(segment).putInt(offset).flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String key(String logId, long segment, int offset) {
+        return logId + ":" + segment + ":" + offset;
+    }
+
+    static byte[] encode(JournalArrosageDTO journal) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(journal.getProgrammeId());
+            out.writeLong(journal.getDateExecution().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(journal.getDateExecution().getNano());
+            out.writeUTF(journal.getVolumeReel().toPlainString());
+            out.writeBoolean(journal.getRemarque() != null);
+            if (journal.getRemarque() != null) {
+                out.writeUTF(journal.getRemarque());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static JournalArrosageDTO decode(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            JournalArrosageDTO journal = new JournalArrosageDTO();
+            journal.setProgrammeId(in.readLong());
+            long epochSecond = in.readLong();
+            journal.setDateExecution(LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC));
+            journal.setVolumeReel(new BigDecimal(in.readUTF()));
+            if (in.readBoolean()) {
+                journal.setRemarque(in.readUTF());
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Entrée relue du journal, avec sa position pour la validation
+     */
+    public static class Entry {
+        private final JournalArrosageDTO journal;
+        private final long appendedAt;
+        private final String logId;
+        private final long segment;
+        private final int offset;
+        private final int nextOffset;
+
+        Entry(JournalArrosageDTO journal, long appendedAt, String logId, long segment, int offset, int nextOffset) {
+            this.journal = journal;
+            this.appendedAt = appendedAt;
+            this.logId = logId;
+            this.segment = segment;
+            this.offset = offset;
+            this.nextOffset = nextOffset;
+        }
+
+        public JournalArrosageDTO getJournal() {
+            return journal;
+        }
+
+        public long getAppendedAt() {
+            return appendedAt;
+        }
+
+        /**
+         * Clé unique de l'entrée, identique à chaque relecture
+         */
+        public String getKey() {
+            return key(logId, segment, offset);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.irrigation.arrosage.journal;
+
+import com.irrigation.arrosage.dto.JournalArrosageDTO;
+import com.irrigation.arrosage.service.JournalArrosageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.nio.file.Paths;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Écriture différée (write-behind) des journaux d'arrosage
+ *
+ * Lorsqu'elle est activée, les entrées de journal sont ajoutées au journal local
+ * {@link JournalSegmentLog} au lieu d'être insérées dans journal_arrosage : le seul accès à la base
+ * sur le chemin d'exécution reste la mise à jour du programme (TERMINE). Un vidage périodique les insère
+ * en lots ; les entrées non vidées sont relues au redémarrage.
+ *
+ * Garantie : aucun journal d'une exécution validée n'est perdu, aucun journal d'une exécution annulée
+ * n'est inséré. Les entrées sont ajoutées et écrites sur disque (fsync) avant la validation de la
+ * transaction d'exécution, et leur clé est enregistrée sur le programme avec le passage à TERMINE.
+ * Un échec de l'ajout annule donc l'exécution ; un arrêt après la validation retrouve l'entrée au
+ * redémarrage. Le vidage n'insère que les entrées dont la clé est celle du programme : une entrée
+ * encore sans décision est retenue (avec les suivantes) jusqu'à {@code settle-ms}, puis écartée comme
+ * celle d'une transaction annulée.
+ *
+ * Chaque ligne insérée porte la clé de son entrée : un lot relu après un arrêt entre l'insertion
+ * en base et l'écriture du checkpoint n'est pas inséré une seconde fois. Une entrée que la base
+ * refuse (programme supprimé, contrainte violée) est isolée en coupant le lot et mise à l'écart
+ * dans le sous-répertoire {@code dead-letter}, pour ne pas bloquer les suivantes. Une base
+ * indisponible ne met rien à l'écart : le lot est retenté au passage suivant.
+ */
+@Component
+@Slf4j
+public class WriteBehindJournal {
+
+    static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+    private final JournalArrosageService journalService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String directory;
+    private final int segmentSize;
+    private final int batchSize;
+    private final long settleMs;
+
+    private JournalSegmentLog segmentLog;
+    private JournalSegmentLog deadLetterLog;
+    private Counter flushedCounter;
+    private Counter flushFailuresCounter;
+    private Counter deadLetteredCounter;
+    private Counter discardedCounter;
+    private Timer flushTimer;
+
+    /**
+     * Un seul vidage à la fois
+     * Verrou plutôt que synchronized : un thread virtuel n'est pas épinglé pendant l'écriture JDBC.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public WriteBehindJournal(
+            JournalArrosageService journalService,
+            MeterRegistry meterRegistry,
+            @Value("${app.journal.write-behind.enabled:false}") boolean enabled,
+            @Value("${app.journal.write-behind.directory:${java.io.tmpdir}/arrosage-journal}") String directory,
+            @Value("${app.journal.write-behind.segment-size:8388608}") int segmentSize,
+            @Value("${app.journal.write-behind.batch-size:500}") int batchSize,
+            @Value("${app.journal.write-behind.settle-ms:60000}") long settleMs) {
+        this.journalService = journalService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.batchSize = batchSize;
+        this.settleMs = settleMs;
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        segmentLog = new JournalSegmentLog(Paths.get(directory), segmentSize, false);
+        segmentLog.open();
+        deadLetterLog = new JournalSegmentLog(Paths.get(directory).resolve(DEAD_LETTER_DIRECTORY), segmentSize, true);
+        deadLetterLog.open();
+
+        long pending = segmentLog.getPendingEntries();
+        if (pending > 0) {
+            log.warn("Write-behind journal: {} unflushed entry(ies) found in {}, replaying", pending, directory);
+        } else {
+            log.info("Write-behind journal enabled in {}", directory);
+        }
+
+        flushedCounter = Counter.builder("irrigation.journal.writebehind.flushed")
+                .description("Journal entries flushed from the local log to the database")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+
+        flushFailuresCounter = Counter.builder("irrigation.journal.writebehind.flush.failures")
+                .description("Failed flushes of the write-behind journal")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+
+        deadLetteredCounter = Counter.builder("irrigation.journal.writebehind.dead.lettered")
+                .description("Journal entries rejected by the database and set aside in the dead-letter log")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+
+        discardedCounter = Counter.builder("irrigation.journal.writebehind.discarded")
+                .description("Journal entries of rolled-back executions discarded by the flush")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+
+        flushTimer = Timer.builder("irrigation.journal.writebehind.flush.duration")
+                .description("Time taken to insert one batch of journal entries")
+                .tag("service", "arrosage")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        Gauge.builder("irrigation.journal.writebehind.backlog", segmentLog, JournalSegmentLog::getPendingEntries)
+                .description("Journal entries waiting to be flushed to the database")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+
+        Gauge.builder("irrigation.journal.writebehind.lag.seconds", this, WriteBehindJournal::getLagSeconds)
+                .description("Age of the oldest journal entry not yet flushed to the database")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ajouter des entrées de journal au journal local, écrites sur disque au retour
+     * Un seul fsync pour toutes les entrées d'une transaction d'exécution.
+     *
+     * @return Clés des entrées, à enregistrer sur leur programme dans la même transaction
+     */
+    public List<String> appendAll(List<JournalArrosageDTO> journals) {
+        List<String> keys = new ArrayList<>(journals.size());
+        for (JournalArrosageDTO journal : journals) {
+            keys.add(segmentLog.append(journal));
+        }
+        segmentLog.force();
+        return keys;
+    }
+
+    /**
+     * Vider le journal local vers la base, par lots, jusqu'à épuisement, échec ou entrée pas encore validée
+     * Si la base est indisponible, les entrées restent dans le journal local et sont retentées au passage suivant.
+     *
+     * @return Nombre d'entrées écrites en base
+     */
+    @Scheduled(fixedDelayString = "${app.journal.write-behind.flush-interval-ms:1000}")
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        long settledBefore = System.currentTimeMillis() - settleMs;
+        int flushed = 0;
+        List<JournalSegmentLog.Entry> batch;
+        while (!(batch = segmentLog.read(batchSize)).isEmpty()) {
+            BatchOutcome outcome = new BatchOutcome();
+            try {
+                flushed += write(batch, outcome);
+            } catch (Exception e) {
+                flushFailuresCounter.increment();
+                log.error("Write-behind journal flush failed, {} entry(ies) kept for retry: {}",
+                        segmentLog.getPendingEntries(), e.getMessage(), e);
+                break;
+            }
+            int settled = settle(batch, outcome, settledBefore);
+            segmentLog.commit(batch.subList(0, settled));
+            if (settled < batch.size()) {
+                // Relu au passage suivant : les entrées déjà insérées après celle-ci seront ignorées
+                break;
+            }
+        }
+
+        if (flushed > 0) {
+            log.debug("Write-behind journal flushed {} entry(ies)", flushed);
+        }
+        return flushed;
+    }
+
+    /**
+     * Écrire en base les entrées validées, au plus une fois chacune
+     * Un échec de la base elle-même est propagé. Tout autre échec vient des entrées : le lot est coupé
+     * en deux jusqu'à isoler celles qui échouent seules, mises à l'écart comme les entrées rejetées.
+     * Les entrées non insérées sont relevées dans outcome.
+     *
+     * @return Nombre d'entrées insérées en base
+     */
+    private int write(List<JournalSegmentLog.Entry> entries, BatchOutcome outcome) {
+        Map<String, JournalArrosageDTO> journals = new LinkedHashMap<>();
+        entries.forEach(entry -> journals.put(entry.getKey(), entry.getJournal()));
+        JournalArrosageService.WriteBehindResult result;
+        try {
+            result = flushTimer.record(() -> journalService.createAllOnce(journals));
+        } catch (RuntimeException e) {
+            if (isDatabaseFailure(e)) {
+                throw e;
+            }
+            if (entries.size() == 1) {
+                outcome.failures.put(entries.get(0).getKey(), e.getMessage());
+                return 0;
+            }
+            int half = entries.size() / 2;
+            return write(entries.subList(0, half), outcome) + write(entries.subList(half, entries.size()), outcome);
+        }
+
+        result.getRejected().forEach(key -> outcome.failures.put(key, "programme not found"));
+        outcome.rolledBack.addAll(result.getRolledBack());
+        outcome.uncommitted.addAll(result.getUncommitted());
+        flushedCounter.increment(result.getInserted());
+        return result.getInserted();
+    }
+
+    /**
+     * Régler le sort des entrées non insérées en tête de lot, jusqu'à la première entrée encore sans décision
+     * Une entrée non validée plus ancienne que settle-ms est celle d'une transaction annulée : elle est écartée.
+     * Les entrées suivantes seront relues au prochain passage, leur sort n'est donc pas réglé deux fois.
+     *
+     * @return Nombre d'entrées réglées, à valider dans le journal local
+     */
+    private int settle(List<JournalSegmentLog.Entry> batch, BatchOutcome outcome, long settledBefore) {
+        for (int i = 0; i < batch.size(); i++) {
+            JournalSegmentLog.Entry entry = batch.get(i);
+            String key = entry.getKey();
+            if (outcome.uncommitted.contains(key)) {
+                if (entry.getAppendedAt() > settledBefore) {
+                    log.debug("Write-behind journal entry {} of program {} not committed yet, flush held back",
+                            key, entry.getJournal().getProgrammeId());
+                    return i;
+                }
+                discard(entry);
+            } else if (outcome.rolledBack.contains(key)) {
+                discard(entry);
+            } else if (outcome.failures.containsKey(key)) {
+                deadLetter(entry, outcome.failures.get(key));
+            }
+        }
+        return batch.size();
+    }
+
+    private void discard(JournalSegmentLog.Entry entry) {
+        log.warn("Write-behind journal entry {} of program {} discarded: its execution was rolled back",
+                entry.getKey(), entry.getJournal().getProgrammeId());
+        discardedCounter.increment();
+    }
+
+    private void deadLetter(JournalSegmentLog.Entry entry, String reason) {
+        deadLetterLog.append(entry.getJournal());
+        log.error("Write-behind journal entry {} of program {} set aside in {}: {}",
+                entry.getKey(), entry.getJournal().getProgrammeId(), DEAD_LETTER_DIRECTORY, reason);
+        deadLetteredCounter.increment();
+    }
+
+    /**
+     * Échec de la base (connexion, délai, verrou) plutôt que des entrées : le lot doit être retenté tel quel
+     */
+    static boolean isDatabaseFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nombre d'entrées en attente d'écriture en base
+     */
+    public long getBacklog() {
+        return enabled ? segmentLog.getPendingEntries() : 0;
+    }
+
+    /**
+     * Âge en secondes de la plus ancienne entrée non écrite en base
+     */
+    public double getLagSeconds() {
+        if (!enabled) {
+            return 0.0;
+        }
+        long oldest = segmentLog.getOldestPendingTimestamp();
+        return oldest < 0 ? 0.0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    @PreDestroy
+    void close() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Final write-behind journal flush failed, entries will be replayed on restart: {}",
+                    e.getMessage());
+        }
+        segmentLog.close();
+        deadLetterLog.close();
+    }
+
+    /**
+     * Entrées d'un lot non insérées en base, par motif
+     */
+    private static class BatchOutcome {
+        private final Map<String, String> failures = new HashMap<>();
+        private final Set<String> rolledBack = new HashSet<>();
+        private final Set<String> uncommitted = new HashSet<>();
+    }
+}
@@ -1,27 +1,83 @@
 package com.irrigation.arrosage.kafka;
 
+import com.irrigation.arrosage.config.KafkaDeadLetterConfig;
+import com.irrigation.arrosage.event.SeverityThresholds;
 import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.exception.DuplicateWeatherEventException;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.service.ForecastCacheInvalidator;
+import com.irrigation.arrosage.service.ProcessedWeatherEventStore;
 import com.irrigation.arrosage.service.WeatherBasedSchedulingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.retrytopic.SameIntervalTopicReuseStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class KafkaWeatherConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaWeatherConsumer.class);
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(KafkaWeatherConsumer.class);
 
     private final WeatherBasedSchedulingService weatherBasedSchedulingService;
+    private final ProcessedWeatherEventStore processedWeatherEventStore;
+    private final IrrigationMetricsCollector metricsCollector;
+    private final ForecastCacheInvalidator forecastCacheInvalidator;
+    private final SeverityThresholds severityThresholds;
 
-    public KafkaWeatherConsumer(WeatherBasedSchedulingService weatherBasedSchedulingService) {
+    public KafkaWeatherConsumer(WeatherBasedSchedulingService weatherBasedSchedulingService,
+                                ProcessedWeatherEventStore processedWeatherEventStore,
+                                IrrigationMetricsCollector metricsCollector,
+                                ForecastCacheInvalidator forecastCacheInvalidator,
+                                SeverityThresholds severityThresholds) {
         this.weatherBasedSchedulingService = weatherBasedSchedulingService;
+        this.processedWeatherEventStore = processedWeatherEventStore;
+        this.metricsCollector = metricsCollector;
+        this.forecastCacheInvalidator = forecastCacheInvalidator;
+        this.severityThresholds = severityThresholds;
     }
 
+    /**
+     * Consume one weather change event, from the main topic or one of its retry topics
+     *
+     * A failing event is moved to the next retry topic (exponential backoff) and then to the DLT,
+     * so the partition keeps flowing; an unreadable payload goes straight to the DLT.
+     */
+    @RetryableTopic(
+            attempts = "${app.kafka.weather-change.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${app.kafka.weather-change.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${app.kafka.weather-change.retry.multiplier:4.0}",
+                    maxDelayExpression = "${app.kafka.weather-change.retry.max-delay-ms:60000}"),
+            retryTopicSuffix = KafkaDeadLetterConfig.RETRY_TOPIC_SUFFIX,
+            dltTopicSuffix = KafkaDeadLetterConfig.DLT_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            sameIntervalTopicReuseStrategy = SameIntervalTopicReuseStrategy.MULTIPLE_TOPICS,
+            numPartitions = "${app.kafka.weather-change.retry.partitions:3}",
+            replicationFactor = "${app.kafka.weather-change.retry.replication-factor:1}",
+            kafkaTemplate = "retryTopicKafkaTemplate",
+            listenerContainerFactory = "retryKafkaListenerContainerFactory"
+    )
     @KafkaListener(
             topics = "${app.kafka.topic.weather-change}",
             groupId = "${spring.kafka.consumer.group-id}",
@@ -29,17 +85,24 @@ public class KafkaWeatherConsumer {
     )
     public void consumeWeatherChangeEvent(
             @Payload WeatherChangeEvent event,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
             Acknowledgment acknowledgment) {
         
         try {
-            logger.info("Received weather change event from partition {} offset {} - Station: {}, Severity: {}", 
-                    partition, offset, event.getStationId(), event.getSeverity());
+            logger.info("Received weather change event from {}-{} offset {} - Station: {}, Severity: {}", 
+                    topic, partition, offset, event.getStationId(), event.getSeverity());
+            if (topic.contains(KafkaDeadLetterConfig.RETRY_TOPIC_SUFFIX)) {
+                metricsCollector.incrementWeatherRetry(topic);
+            }
             logger.debug("Event details: {}", event.getDescription());
             
-            // Process the event based on severity
-            processWeatherChange(event);
+            // Drop the cached forecasts of the changed dates, even if the event was already applied
+            forecastCacheInvalidator.evict(List.of(event));
+            
+            // Process the event based on severity, unless it was already applied
+            applyOnce(List.of(event));
             
             // Manually acknowledge the message after successful processing
             acknowledgment.acknowledge();
@@ -49,36 +112,224 @@ public class KafkaWeatherConsumer {
         } catch (Exception e) {
             logger.error("Error processing weather change event for station {}: {}", 
                     event.getStationId(), e.getMessage(), e);
-            // Don't acknowledge - message will be reprocessed or sent to DLQ
+            // Don't acknowledge - the event moves to the next retry topic, then to the DLT
+            throw e;
+        }
+    }
+
+    /**
+     * Weather change event that exhausted its retries
+     * The failure reason is in the kafka_dlt-exception-* headers; the event stays in the DLT
+     * until it is replayed through the admin endpoint.
+     */
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        String exception = header(record, KafkaHeaders.DLT_EXCEPTION_FQCN);
+        logger.error("Weather change event dead-lettered ({} offset {}, key {}): {} - {}",
+                record.topic(), record.offset(), record.key(), exception,
+                header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        metricsCollector.incrementWeatherDeadLetter(
+                exception != null ? exception.substring(exception.lastIndexOf('.') + 1) : "unknown");
+        acknowledgment.acknowledge();
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        org.apache.kafka.common.header.Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Consume a poll batch of weather change events (app.kafka.weather-change.batch.enabled=true)
+     *
+     * Events are merged per station and forecast date so that a burst of updates is applied once, then
+     * the whole batch is applied in one transaction and its offsets committed together. On failure nothing
+     * is acknowledged and the batch is redelivered; events already applied are skipped.
+     * A record that could not be deserialized stops the batch: the events before it are applied, then
+     * {@link BatchListenerFailedException} lets the error handler commit them, send the unreadable record
+     * to the DLT and redeliver the rest of the batch.
+     */
+    @KafkaListener(
+            id = "weatherChangeBatchListener",
+            topics = "${app.kafka.topic.weather-change}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumeWeatherChangeBatch(
+            List<ConsumerRecord<String, WeatherChangeEvent>> records,
+            Acknowledgment acknowledgment) {
+
+        int unreadable = firstUnreadable(records);
+        List<ConsumerRecord<String, WeatherChangeEvent>> readable =
+                unreadable < 0 ? records : records.subList(0, unreadable);
+        List<WeatherChangeEvent> events = readable.stream()
+                .map(ConsumerRecord::value)
+                .toList();
+
+        forecastCacheInvalidator.evict(events);
+
+        int merged;
+        try {
+            merged = applyOnce(events);
+            if (unreadable < 0) {
+                acknowledgment.acknowledge();
+            }
+        } catch (Exception e) {
+            logger.error("Error processing batch of {} weather change events: {}", records.size(), e.getMessage(), e);
             throw e;
         }
+
+        if (!readable.isEmpty()) {
+            metricsCollector.recordWeatherBatch(readable.size(), merged);
+            long now = System.currentTimeMillis();
+            readable.forEach(record -> metricsCollector.recordWeatherProcessingLag(now - record.timestamp()));
+            logger.info("Processed batch of {} weather change events ({} merged by station and date)",
+                    readable.size(), merged);
+        }
+
+        if (unreadable >= 0) {
+            ConsumerRecord<String, WeatherChangeEvent> record = records.get(unreadable);
+            logger.error("Unreadable weather change event at {}-{} offset {}",
+                    record.topic(), record.partition(), record.offset());
+            throw new BatchListenerFailedException("Unreadable weather change event",
+                    SerializationUtils.getExceptionFromHeader(record,
+                            SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR),
+                    unreadable);
+        }
     }
 
-    private void processWeatherChange(WeatherChangeEvent event) {
-        switch (event.getSeverity()) {
-            case CRITICAL:
-                logger.warn("CRITICAL weather change detected for station {} - Immediate action required", 
-                        event.getStationId());
-                weatherBasedSchedulingService.handleCriticalWeatherChange(event);
-                break;
-                
-            case HIGH:
-                logger.info("HIGH severity weather change for station {} - Adjusting schedules", 
-                        event.getStationId());
-                weatherBasedSchedulingService.handleHighSeverityWeatherChange(event);
-                break;
-                
-            case MEDIUM:
-                logger.info("MEDIUM severity weather change for station {} - Reviewing schedules", 
-                        event.getStationId());
-                weatherBasedSchedulingService.handleMediumSeverityWeatherChange(event);
-                break;
-                
-            case LOW:
-            default:
-                logger.debug("LOW severity weather change for station {} - No action needed", 
-                        event.getStationId());
-                break;
+    /**
+     * Index of the first record that ErrorHandlingDeserializer could not decode, -1 if all were read
+     */
+    private static int firstUnreadable(List<? extends ConsumerRecord<?, ?>> records) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<?, ?> record = records.get(i);
+            if (record.value() == null
+                    || record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Apply the events that were not applied yet, merged per station and forecast date
+     *
+     * Already applied events (redelivered after a rebalance) are filtered out from memory. If another
+     * instance applied some of them meanwhile, the transaction is rolled back on their processed-event
+     * row; they are then looked up in the database and the remaining events applied.
+     *
+     * @return Number of events merged into a newer event of the same station and date
+     */
+    private int applyOnce(List<WeatherChangeEvent> events) {
+        Map<String, WeatherChangeEvent> pending = pendingEvents(events);
+        int merged;
+        try {
+            merged = apply(pending);
+        } catch (DuplicateWeatherEventException e) {
+            logger.warn("Weather change events already applied by another instance: {}", e.getMessage());
+            processedWeatherEventStore.refreshFromDatabase(pending.keySet());
+            pending = pendingEvents(events);
+            merged = apply(pending);
+        }
+        int duplicates = events.size() - pending.size();
+        if (duplicates > 0) {
+            metricsCollector.recordWeatherEventsDuplicate(duplicates);
+            logger.info("Skipped {} already applied weather change event(s)", duplicates);
+        }
+        return merged;
+    }
+
+    private int apply(Map<String, WeatherChangeEvent> pending) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Collection<WeatherChangeEvent> merged = mergeByStationDay(List.copyOf(pending.values()), severityThresholds);
+        weatherBasedSchedulingService.applyWeatherChanges(merged, pending.keySet());
+        return pending.size() - merged.size();
+    }
+
+    /**
+     * Events not applied yet, by deduplication key, without duplicates within the list
+     */
+    private Map<String, WeatherChangeEvent> pendingEvents(List<WeatherChangeEvent> events) {
+        Map<String, WeatherChangeEvent> pending = new LinkedHashMap<>();
+        for (WeatherChangeEvent event : events) {
+            String eventId = ProcessedWeatherEventStore.keyOf(event);
+            if (!pending.containsKey(eventId) && !processedWeatherEventStore.isProcessed(eventId)) {
+                pending.put(eventId, event);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Merge the events of a batch per station and forecast date
+     *
+     * meteo-service publishes one event per station and forecast date, so only events of the same day are
+     * merged: each day keeps its own adjustment window. The merged event keeps the conditions before the
+     * first event and after the newest one (by timestamp, then batch order), so the net change of the burst
+     * is applied, and its severity is reclassified from that net change: two MEDIUM +6 mm updates apply as
+     * one HIGH +12 mm change, a critical alert followed by its reversal as low. The description is the
+     * newest event's.
+     */
+    static Collection<WeatherChangeEvent> mergeByStationDay(List<WeatherChangeEvent> events,
+                                                            SeverityThresholds thresholds) {
+        Map<String, StationDayChanges> byStationDay = new LinkedHashMap<>();
+        for (WeatherChangeEvent event : events) {
+            byStationDay.computeIfAbsent(stationDayKey(event), key -> new StationDayChanges(event)).add(event);
+        }
+        return byStationDay.values().stream()
+                .map(changes -> changes.toEvent(thresholds))
+                .toList();
+    }
+
+    private static String stationDayKey(WeatherChangeEvent event) {
+        LocalDate forecastDate = event.getNewConditions() != null && event.getNewConditions().getDate() != null
+                ? event.getNewConditions().getDate().toLocalDate()
+                : null;
+        return event.getStationId() + "|" + forecastDate;
+    }
+
+    /**
+     * Événements d'une station pour une date de prévision dans un lot
+     */
+    private static class StationDayChanges {
+        private WeatherChangeEvent oldest;
+        private WeatherChangeEvent newest;
+        private int count;
+
+        StationDayChanges(WeatherChangeEvent first) {
+            this.oldest = first;
+            this.newest = first;
+        }
+
+        void add(WeatherChangeEvent event) {
+            count++;
+            if (isBefore(event, oldest)) {
+                oldest = event;
+            }
+            if (!isBefore(event, newest)) {
+                newest = event;
+            }
+        }
+
+        WeatherChangeEvent toEvent(SeverityThresholds thresholds) {
+            if (count == 1) {
+                return newest;
+            }
+            return new WeatherChangeEvent(
+                    newest.getStationId(),
+                    newest.getStationNom(),
+                    oldest.getOldConditions(),
+                    newest.getNewConditions(),
+                    newest.getTimestamp(),
+                    thresholds.classify(oldest.getOldConditions(), newest.getNewConditions()),
+                    newest.getDescription());
+        }
+
+        private static boolean isBefore(WeatherChangeEvent event, WeatherChangeEvent other) {
+            return event.getTimestamp() != null && other.getTimestamp() != null
+                    && event.getTimestamp().isBefore(other.getTimestamp());
         }
     }
 }
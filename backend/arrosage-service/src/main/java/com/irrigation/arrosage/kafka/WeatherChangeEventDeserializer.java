@@ -0,0 +1,53 @@
+package com.irrigation.arrosage.kafka;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEventAvro;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Désérialiseur des changements météo : binaire Avro, ou JSON pour les messages des anciens producteurs
+ * (et ceux déjà présents dans les topics au moment du passage à Avro)
+ * Les propriétés du JsonDeserializer (paquets de confiance, type par défaut) s'applique au JSON.
+ */
+public class WeatherChangeEventDeserializer implements Deserializer<WeatherChangeEvent> {
+
+    private final JsonDeserializer<WeatherChangeEvent> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public WeatherChangeEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public WeatherChangeEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!WeatherChangeEventAvro.isAvro(data)) {
+            return headers != null
+                    ? jsonDeserializer.deserialize(topic, headers, data)
+                    : jsonDeserializer.deserialize(topic, data);
+        }
+        try {
+            return WeatherChangeEventAvro.decode(data);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot decode Avro weather change event from " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,165 @@
+package com.irrigation.arrosage.kafka;
+
+import com.irrigation.arrosage.config.KafkaDeadLetterConfig;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Rejeu du DLT des changements météo
+ *
+ * Les messages du DLT sont renvoyés tels quels (octets d'origine, sans les en-têtes d'erreur) dans le
+ * topic principal, où ils repassent par la déduplication et les topics de retry. Le groupe de rejeu
+ * commite l'offset de chaque message renvoyé : un message n'est rejoué qu'une fois, et ceux arrivés
+ * dans le DLT pendant le rejeu attendent le suivant.
+ */
+@Service
+@Slf4j
+public class WeatherDeadLetterReplayer {
+
+    /** En-tête ajouté aux messages rejoués : topic-partition@offset d'origine dans le DLT */
+    public static final String REPLAYED_FROM_HEADER = "x-replayed-from";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final int MAX_EMPTY_POLLS = 5;
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final ConsumerFactory<String, byte[]> dltReplayConsumerFactory;
+    private final KafkaTemplate<String, Object> retryTopicKafkaTemplate;
+    private final IrrigationMetricsCollector metricsCollector;
+    private final String weatherChangeTopic;
+    private final String deadLetterTopic;
+
+    public WeatherDeadLetterReplayer(
+            ConsumerFactory<String, byte[]> dltReplayConsumerFactory,
+            KafkaTemplate<String, Object> retryTopicKafkaTemplate,
+            IrrigationMetricsCollector metricsCollector,
+            @Value("${app.kafka.topic.weather-change}") String weatherChangeTopic) {
+        this.dltReplayConsumerFactory = dltReplayConsumerFactory;
+        this.retryTopicKafkaTemplate = retryTopicKafkaTemplate;
+        this.metricsCollector = metricsCollector;
+        this.weatherChangeTopic = weatherChangeTopic;
+        this.deadLetterTopic = weatherChangeTopic + KafkaDeadLetterConfig.DLT_SUFFIX;
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    /**
+     * Messages du DLT pas encore rejoués, par partition
+     * Lecture seule des offsets : les partitions ne sont pas assignées au consommateur.
+     */
+    public Map<Integer, Long> pending() {
+        try (Consumer<String, byte[]> consumer = dltReplayConsumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = partitions(consumer);
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+
+            Map<Integer, Long> pending = new TreeMap<>();
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                long from = Math.max(beginning.get(partition), offset != null ? offset.offset() : 0L);
+                pending.put(partition.partition(), Math.max(end.get(partition) - from, 0L));
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Renvoyer au plus {@code max} messages du DLT dans le topic principal
+     *
+     * @return nombre de messages rejoués
+     * @throws IllegalStateException si un envoi échoue ; les messages déjà renvoyés restent commités
+     */
+    public synchronized int replay(int max) {
+        try (Consumer<String, byte[]> consumer = dltReplayConsumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = partitions(consumer);
+            if (partitions.isEmpty() || max <= 0) {
+                return 0;
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndMetadata> replayed = new HashMap<>();
+            int count = 0;
+            try {
+                int emptyPolls = 0;
+                while (count < max && !reachedEnd(consumer, partitions, end) && emptyPolls < MAX_EMPTY_POLLS) {
+                    List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+                    consumer.poll(POLL_TIMEOUT).forEach(records::add);
+                    emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+                    for (ConsumerRecord<String, byte[]> record : records) {
+                        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                        if (count >= max || record.offset() >= end.get(partition)) {
+                            continue;
+                        }
+                        send(record);
+                        replayed.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                        count++;
+                    }
+                }
+            } finally {
+                if (!replayed.isEmpty()) {
+                    consumer.commitSync(replayed);
+                }
+                metricsCollector.recordWeatherDeadLettersReplayed(count);
+            }
+            log.info("Replayed {} dead-lettered weather change event(s) from {} to {}", count, deadLetterTopic, weatherChangeTopic);
+            return count;
+        }
+    }
+
+    private void send(ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, Object> replay = new ProducerRecord<>(weatherChangeTopic, record.key(), record.value());
+        String origin = record.topic() + "-" + record.partition() + "@" + record.offset();
+        replay.headers().add(REPLAYED_FROM_HEADER, origin.getBytes(StandardCharsets.UTF_8));
+        try {
+            retryTopicKafkaTemplate.send(replay).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay of " + origin + " interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Cannot replay " + origin + ": " + e.getMessage(), e);
+        }
+    }
+
+    private List<TopicPartition> partitions(Consumer<String, byte[]> consumer) {
+        List<PartitionInfo> infos = consumer.partitionsFor(deadLetterTopic);
+        if (infos == null) {
+            return List.of();
+        }
+        return infos.stream().map(info -> new TopicPartition(deadLetterTopic, info.partition())).toList();
+    }
+
+    private static boolean reachedEnd(Consumer<String, byte[]> consumer, List<TopicPartition> partitions,
+                                      Map<TopicPartition, Long> end) {
+        for (TopicPartition partition : partitions) {
+            if (consumer.position(partition) < end.get(partition)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
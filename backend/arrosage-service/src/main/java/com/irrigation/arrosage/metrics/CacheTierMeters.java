@@ -0,0 +1,52 @@
+package com.irrigation.arrosage.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of one cache tier (hits, misses, puts, evictions, lookup latency), resolved once per cache
+ * so that a lookup never searches the meter registry.
+ */
+public final class CacheTierMeters {
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Timer getTimer;
+
+    CacheTierMeters(Counter hits, Counter misses, Counter puts, Counter evictions, Timer getTimer) {
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.evictions = evictions;
+        this.getTimer = getTimer;
+    }
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    public void put() {
+        puts.increment();
+    }
+
+    public void evict() {
+        evictions.increment();
+    }
+
+    public void recordGet(long elapsedNanos) {
+        getTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
@@ -1,39 +1,83 @@
 package com.irrigation.arrosage.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Custom metrics collector for Arrosage Service
  * Tracks business-specific metrics for irrigation management and monitoring
+ *
+ * Execution pipeline meters are registered once at startup, one per outcome,
+ * so recording from the execution loop never looks up or creates a meter.
  */
 @Component
 @RequiredArgsConstructor
 public class IrrigationMetricsCollector {
     
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    
+    public static final String DEFERRAL_PARCELLE = "parcelle";
+    public static final String DEFERRAL_EXPLOITATION = "exploitation";
+    public static final String DEFERRAL_GLOBAL = "global";
+    
+    public static final String CACHE_TIER_LOCAL = "local";
+    public static final String CACHE_TIER_REDIS = "redis";
+    
     private final MeterRegistry meterRegistry;
     
     // Counters for tracking operations
     private Counter irrigationProgramsExecutedCounter;
+    private Counter programOutcomeSuccessCounter;
+    private Counter programOutcomeFailureCounter;
+    private Counter claimConflictsCounter;
+    private Counter staleClaimsReleasedCounter;
+    private Counter deferredParcelleCounter;
+    private Counter deferredExploitationCounter;
+    private Counter deferredGlobalCounter;
     private Counter irrigationProgramsCreatedCounter;
     private Counter parcellesCreatedCounter;
     private Counter sensorsReadCounter;
     private Counter alertsGeneratedCounter;
     private Counter waterUsageCounter;
+    private Counter weatherEventsMergedCounter;
+    private Counter weatherEventsDuplicateCounter;
+    private Counter weatherDedupDatabaseLookupsCounter;
+    private Counter weatherDeadLettersReplayedCounter;
+    
+    // Retry and dead-letter counters, one per topic / exception type (few distinct values)
+    private final Map<String, Counter> weatherRetryCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> weatherDeadLetterCounters = new ConcurrentHashMap<>();
+    
+    // Distribution summaries
+    private DistributionSummary weatherBatchSizeSummary;
     
     // Timers for measuring durations
     private Timer irrigationExecutionTimer;
+    private Timer dispatchLagTimer;
+    private Timer journalWriteTimer;
+    private Timer journalWriteFailureTimer;
+    private Timer tickTimer;
+    private Timer tickFailureTimer;
     private Timer sensorReadTimer;
+    private Timer weatherProcessingLagTimer;
     
     // Gauges for current state
     private AtomicInteger activeIrrigationPrograms;
     private AtomicInteger totalParcelles;
+    private AtomicLong programsBacklog;
+    private AtomicInteger admissionInFlight;
     
     @PostConstruct
     private void initializeMetrics() {
@@ -43,6 +87,32 @@ public class IrrigationMetricsCollector {
                 .tag("service", "arrosage")
                 .register(meterRegistry);
         
+        programOutcomeSuccessCounter = Counter.builder("irrigation.programs.outcome")
+                .description("Committed program executions by outcome (TERMINE or ANNULE)")
+                .tag("service", "arrosage")
+                .tag("outcome", OUTCOME_SUCCESS)
+                .register(meterRegistry);
+        
+        programOutcomeFailureCounter = Counter.builder("irrigation.programs.outcome")
+                .description("Committed program executions by outcome (TERMINE or ANNULE)")
+                .tag("service", "arrosage")
+                .tag("outcome", OUTCOME_FAILURE)
+                .register(meterRegistry);
+        
+        claimConflictsCounter = Counter.builder("irrigation.claim.conflicts")
+                .description("Programs already claimed by another instance when trying to execute them")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+        
+        staleClaimsReleasedCounter = Counter.builder("irrigation.claim.stale.released")
+                .description("Stale program reservations returned to PLANIFIE")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+        
+        deferredParcelleCounter = admissionDeferredCounter(DEFERRAL_PARCELLE);
+        deferredExploitationCounter = admissionDeferredCounter(DEFERRAL_EXPLOITATION);
+        deferredGlobalCounter = admissionDeferredCounter(DEFERRAL_GLOBAL);
+        
         irrigationProgramsCreatedCounter = Counter.builder("irrigation.programs.created")
                 .description("Total number of irrigation programs created")
                 .tag("service", "arrosage")
@@ -68,6 +138,32 @@ public class IrrigationMetricsCollector {
                 .tag("service", "arrosage")
                 .register(meterRegistry);
         
+        weatherEventsMergedCounter = Counter.builder("irrigation.weather.events.merged")
+                .description("Weather change events merged into a newer event of the same station and date within a batch")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+        
+        weatherEventsDuplicateCounter = Counter.builder("irrigation.weather.events.duplicate")
+                .description("Weather change events skipped because they were already applied")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+        
+        weatherDedupDatabaseLookupsCounter = Counter.builder("irrigation.weather.dedup.database.lookups")
+                .description("Duplicate checks that could not be answered from memory")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+        
+        weatherDeadLettersReplayedCounter = Counter.builder("irrigation.weather.dlt.replayed")
+                .description("Dead-lettered weather change events sent back to the main topic")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+        
+        weatherBatchSizeSummary = DistributionSummary.builder("irrigation.weather.batch.size")
+                .description("Weather change events received per consumer poll batch")
+                .tag("service", "arrosage")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
         // Initialize timers
         irrigationExecutionTimer = Timer.builder("irrigation.execution.duration")
                 .description("Time taken to execute an irrigation program")
@@ -75,12 +171,52 @@ public class IrrigationMetricsCollector {
                 .publishPercentiles(0.5, 0.95, 0.99)
                 .register(meterRegistry);
         
+        dispatchLagTimer = Timer.builder("irrigation.dispatch.lag")
+                .description("Delay between the planned time of a program and the start of its execution")
+                .tag("service", "arrosage")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
+        journalWriteTimer = Timer.builder("irrigation.journal.write.duration")
+                .description("Time taken to write the execution journal entries of a batch")
+                .tag("service", "arrosage")
+                .tag("outcome", OUTCOME_SUCCESS)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
+        journalWriteFailureTimer = Timer.builder("irrigation.journal.write.duration")
+                .description("Time taken to write the execution journal entries of a batch")
+                .tag("service", "arrosage")
+                .tag("outcome", OUTCOME_FAILURE)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
+        tickTimer = Timer.builder("irrigation.tick.duration")
+                .description("Time taken by a complete scheduled execution pass")
+                .tag("service", "arrosage")
+                .tag("outcome", OUTCOME_SUCCESS)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
+        tickFailureTimer = Timer.builder("irrigation.tick.duration")
+                .description("Time taken by a complete scheduled execution pass")
+                .tag("service", "arrosage")
+                .tag("outcome", OUTCOME_FAILURE)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
         sensorReadTimer = Timer.builder("irrigation.sensor.read.duration")
                 .description("Time taken to read sensor data")
                 .tag("service", "arrosage")
                 .publishPercentiles(0.5, 0.95, 0.99)
                 .register(meterRegistry);
         
+        weatherProcessingLagTimer = Timer.builder("irrigation.weather.processing.lag")
+                .description("Delay between the publication of a weather change event and the commit of its batch")
+                .tag("service", "arrosage")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
         // Initialize gauges
         activeIrrigationPrograms = new AtomicInteger(0);
         Gauge.builder("irrigation.programs.active", 
@@ -95,12 +231,60 @@ public class IrrigationMetricsCollector {
                 AtomicInteger::get)
                 .tag("service", "arrosage")
                 .register(meterRegistry);
+        
+        programsBacklog = new AtomicLong(0);
+        Gauge.builder("irrigation.programs.backlog",
+                programsBacklog,
+                AtomicLong::get)
+                .description("Due PLANIFIE programs waiting for execution")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+        
+        admissionInFlight = new AtomicInteger(0);
+        Gauge.builder("irrigation.admission.in.flight",
+                admissionInFlight,
+                AtomicInteger::get)
+                .description("Programs admitted for execution and not yet released by their pass")
+                .tag("service", "arrosage")
+                .register(meterRegistry);
+    }
+    
+    private Counter admissionDeferredCounter(String reason) {
+        return Counter.builder("irrigation.admission.deferred")
+                .description("Due programs deferred to a later pass by admission control")
+                .tag("service", "arrosage")
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
     
     public void incrementIrrigationProgramsExecuted() {
         irrigationProgramsExecutedCounter.increment();
     }
     
+    public void incrementClaimConflicts() {
+        claimConflictsCounter.increment();
+    }
+    
+    public void recordStaleClaimsReleased(int count) {
+        staleClaimsReleasedCounter.increment(count);
+    }
+    
+    /**
+     * Record a program deferred by admission control
+     * @param reason Limit that was reached (DEFERRAL_PARCELLE, DEFERRAL_EXPLOITATION or DEFERRAL_GLOBAL)
+     */
+    public void incrementAdmissionDeferred(String reason) {
+        switch (reason) {
+            case DEFERRAL_PARCELLE -> deferredParcelleCounter.increment();
+            case DEFERRAL_EXPLOITATION -> deferredExploitationCounter.increment();
+            default -> deferredGlobalCounter.increment();
+        }
+    }
+    
+    public void setAdmissionInFlight(int count) {
+        admissionInFlight.set(Math.max(count, 0));
+    }
+    
     public void incrementIrrigationProgramsCreated() {
         irrigationProgramsCreatedCounter.increment();
     }
@@ -129,6 +313,148 @@ public class IrrigationMetricsCollector {
         totalParcelles.set(count);
     }
     
+    public void setProgramsBacklog(long count) {
+        programsBacklog.set(Math.max(count, 0));
+    }
+    
+    /**
+     * Retirer du backlog les programmes traités par un lot
+     */
+    public void decrementProgramsBacklog(int count) {
+        programsBacklog.accumulateAndGet(count, (current, processed) -> Math.max(current - processed, 0));
+    }
+    
+    /**
+     * Record the execution of one program, once its outcome is committed
+     * irrigation.programs.executed and irrigation.execution.duration keep their untagged series;
+     * the outcome is counted by irrigation.programs.outcome.
+     * @param elapsedNanos Duration measured with System.nanoTime()
+     */
+    public void recordProgramExecution(long elapsedNanos, boolean success) {
+        irrigationExecutionTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (success) {
+            irrigationProgramsExecutedCounter.increment();
+            programOutcomeSuccessCounter.increment();
+        } else {
+            programOutcomeFailureCounter.increment();
+        }
+    }
+    
+    /**
+     * Record the delay between the planned time of a program and the start of its execution
+     * Programs started ahead of their planned time are recorded with a zero lag.
+     */
+    public void recordDispatchLag(long lagMillis) {
+        dispatchLagTimer.record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+    }
+    
+    public void recordJournalWrite(long elapsedNanos, boolean success) {
+        (success ? journalWriteTimer : journalWriteFailureTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordTick(long elapsedNanos, boolean success) {
+        (success ? tickTimer : tickFailureTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Record a weather change batch
+     * @param size Records received in the poll batch
+     * @param merged Events dropped because a newer event of the same station and date was in the batch
+     */
+    public void recordWeatherBatch(int size, int merged) {
+        weatherBatchSizeSummary.record(size);
+        weatherEventsMergedCounter.increment(merged);
+    }
+    
+    /**
+     * Record the delay between the Kafka timestamp of a weather change event and its processing
+     */
+    public void recordWeatherProcessingLag(long lagMillis) {
+        weatherProcessingLagTimer.record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+    }
+    
+    public void recordWeatherEventsDuplicate(int count) {
+        weatherEventsDuplicateCounter.increment(count);
+    }
+    
+    public void incrementWeatherDedupDatabaseLookups() {
+        weatherDedupDatabaseLookupsCounter.increment();
+    }
+    
+    /**
+     * Record a weather change event delivered again from a retry topic
+     */
+    public void incrementWeatherRetry(String topic) {
+        weatherRetryCounters.computeIfAbsent(topic, key -> Counter.builder("irrigation.weather.retries")
+                .description("Weather change events redelivered from a retry topic")
+                .tag("service", "arrosage")
+                .tag("topic", key)
+                .register(meterRegistry))
+                .increment();
+    }
+    
+    /**
+     * Record a weather change event that exhausted its retries
+     */
+    public void incrementWeatherDeadLetter(String exception) {
+        weatherDeadLetterCounters.computeIfAbsent(exception, key -> Counter.builder("irrigation.weather.dlt.events")
+                .description("Weather change events sent to the dead-letter topic")
+                .tag("service", "arrosage")
+                .tag("exception", key)
+                .register(meterRegistry))
+                .increment();
+    }
+    
+    public void recordWeatherDeadLettersReplayed(int count) {
+        weatherDeadLettersReplayedCounter.increment(count);
+    }
+    
+    /**
+     * Register the meters of one cache tier: lookups by result, puts, evictions,
+     * lookup latency and the hit ratio gauge
+     */
+    public CacheTierMeters registerCacheTier(String cacheName, String tier) {
+        CacheTierMeters meters = new CacheTierMeters(
+                cacheGetsCounter(cacheName, tier, "hit"),
+                cacheGetsCounter(cacheName, tier, "miss"),
+                cacheCounter("irrigation.cache.puts", "Values written to the cache tier", cacheName, tier),
+                cacheCounter("irrigation.cache.evictions", "Keys evicted from the cache tier", cacheName, tier),
+                Timer.builder("irrigation.cache.get.duration")
+                        .description("Cache lookup latency per tier")
+                        .tag("service", "arrosage")
+                        .tag("cache", cacheName)
+                        .tag("tier", tier)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry));
+        Gauge.builder("irrigation.cache.hit.ratio", meters, CacheTierMeters::hitRatio)
+                .description("Share of cache lookups answered by this tier")
+                .tag("service", "arrosage")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .strongReference(true)
+                .register(meterRegistry);
+        return meters;
+    }
+    
+    private Counter cacheCounter(String name, String description, String cacheName, String tier) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("service", "arrosage")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+    
+    private Counter cacheGetsCounter(String cacheName, String tier, String result) {
+        return Counter.builder("irrigation.cache.gets")
+                .description("Cache lookups per tier")
+                .tag("service", "arrosage")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
     public Timer.Sample startIrrigationExecutionTimer() {
         return Timer.start(meterRegistry);
     }
@@ -1,12 +1,15 @@
 package com.irrigation.arrosage.repository;
 
 import com.irrigation.arrosage.entity.JournalArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -34,4 +37,74 @@ public interface JournalArrosageRepository extends JpaRepository<JournalArrosage
      */
     @Query("SELECT j FROM JournalArrosage j WHERE j.programme.parcelle.id = :parcelleId ORDER BY j.dateExecution DESC")
     List<JournalArrosage> findByParcelleId(@Param("parcelleId") Long parcelleId);
+    
+    /**
+     * Clés d'écriture différée déjà présentes en base parmi celles données
+     */
+    @Query("SELECT j.writeBehindKey FROM JournalArrosage j WHERE j.writeBehindKey IN :keys")
+    List<String> findExistingWriteBehindKeys(@Param("keys") Collection<String> keys);
+    
+    /**
+     * Plus ancienne date d'exécution des journaux des programmes d'un statut donné planifiés avant une date limite
+     */
+    @Query("SELECT MIN(j.dateExecution) FROM JournalArrosage j "
+            + "WHERE j.programme.statut = :statut AND j.programme.datePlanifiee < :cutoff")
+    LocalDateTime findOldestDateExecution(
+            @Param("statut") ProgrammeArrosage.StatutProgramme statut,
+            @Param("cutoff") LocalDateTime cutoff
+    );
+    
+    /**
+     * Plus récente date d'exécution des journaux des programmes d'un statut donné planifiés avant une date limite
+     */
+    @Query("SELECT MAX(j.dateExecution) FROM JournalArrosage j "
+            + "WHERE j.programme.statut = :statut AND j.programme.datePlanifiee < :cutoff")
+    LocalDateTime findLatestDateExecution(
+            @Param("statut") ProgrammeArrosage.StatutProgramme statut,
+            @Param("cutoff") LocalDateTime cutoff
+    );
+    
+    /**
+     * Rechercher les journaux archivés d'un programme
+     */
+    @Query(value = """
+            SELECT a.id AS "id", a.programme_id AS "programmeId", pc.nom AS "parcelleNom",
+                   a.date_execution AS "dateExecution", a.volume_reel AS "volumeReel", a.remarque AS "remarque"
+            FROM journal_arrosage_archive a LEFT JOIN parcelle pc ON pc.id = a.parcelle_id
+            WHERE a.programme_id = :programmeId
+            ORDER BY a.date_execution DESC
+            """, nativeQuery = true)
+    List<ArchivedJournal> findArchivedByProgrammeId(@Param("programmeId") Long programmeId);
+    
+    /**
+     * Rechercher les journaux archivés entre deux dates (seules les partitions concernées sont lues)
+     */
+    @Query(value = """
+            SELECT a.id AS "id", a.programme_id AS "programmeId", pc.nom AS "parcelleNom",
+                   a.date_execution AS "dateExecution", a.volume_reel AS "volumeReel", a.remarque AS "remarque"
+            FROM journal_arrosage_archive a LEFT JOIN parcelle pc ON pc.id = a.parcelle_id
+            WHERE a.date_execution BETWEEN :startDate AND :endDate
+            ORDER BY a.date_execution DESC
+            """, nativeQuery = true)
+    List<ArchivedJournal> findArchivedByDateExecutionBetween(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+    
+    /**
+     * Projection d'un journal archivé
+     */
+    interface ArchivedJournal {
+        Long getId();
+        
+        Long getProgrammeId();
+        
+        String getParcelleNom();
+        
+        LocalDateTime getDateExecution();
+        
+        BigDecimal getVolumeReel();
+        
+        String getRemarque();
+    }
 }
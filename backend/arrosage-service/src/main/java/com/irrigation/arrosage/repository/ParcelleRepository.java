@@ -2,6 +2,7 @@ package com.irrigation.arrosage.repository;
 
 import com.irrigation.arrosage.entity.Parcelle;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +23,19 @@ public interface ParcelleRepository extends JpaRepository<Parcelle, Long> {
      * Rechercher toutes les parcelles d'une culture spécifique
      */
     List<Parcelle> findByCulture(String culture);
+    
+    /**
+     * Station de chaque parcelle, pour l'index station → parcelles
+     */
+    @Query("SELECT p.id AS id, p.stationId AS stationId FROM Parcelle p")
+    List<StationLink> findStationLinks();
+    
+    /**
+     * Projection du rattachement d'une parcelle à sa station
+     */
+    interface StationLink {
+        Long getId();
+        
+        Long getStationId();
+    }
 }
@@ -0,0 +1,46 @@
+package com.irrigation.arrosage.repository;
+
+import com.irrigation.arrosage.entity.ProcessedWeatherEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository pour les événements météo déjà appliqués
+ */
+@Repository
+public interface ProcessedWeatherEventRepository extends JpaRepository<ProcessedWeatherEvent, String> {
+
+    /**
+     * Enregistrer des événements en une seule requête, sans échouer sur ceux déjà présents
+     *
+     * @param eventIds Identifiants séparés par des virgules
+     * @return Nombre d'événements enregistrés : inférieur au nombre d'identifiants si certains l'étaient déjà
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO processed_weather_event (event_id, processed_at)
+            SELECT event_id, :processedAt FROM unnest(string_to_array(:eventIds, ',')) AS event_id
+            ON CONFLICT (event_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(
+            @Param("eventIds") String eventIds,
+            @Param("processedAt") LocalDateTime processedAt
+    );
+
+    @Query("SELECT e.eventId FROM ProcessedWeatherEvent e WHERE e.eventId IN :eventIds")
+    List<String> findExistingIds(@Param("eventIds") Collection<String> eventIds);
+
+    @Query("SELECT e.eventId FROM ProcessedWeatherEvent e WHERE e.processedAt >= :since")
+    List<String> findIdsProcessedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedWeatherEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
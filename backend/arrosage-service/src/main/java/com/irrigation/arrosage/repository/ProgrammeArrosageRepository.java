@@ -2,12 +2,16 @@ package com.irrigation.arrosage.repository;
 
 import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité ProgrammeArrosage
@@ -49,6 +53,43 @@ public interface ProgrammeArrosageRepository extends JpaRepository<ProgrammeArro
             @Param("statut") ProgrammeArrosage.StatutProgramme statut
     );
     
+    /**
+     * Rechercher les programmes de quelques parcelles entre deux dates avec un statut spécifique
+     * (index idx_programme_parcelle_statut_date)
+     */
+    @Query("SELECT p FROM ProgrammeArrosage p WHERE p.parcelle.id IN :parcelleIds AND p.statut = :statut AND p.datePlanifiee BETWEEN :startDate AND :endDate ORDER BY p.datePlanifiee")
+    List<ProgrammeArrosage> findByParcelleIdInAndDatePlanifieeBetweenAndStatut(
+            @Param("parcelleIds") Collection<Long> parcelleIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("statut") ProgrammeArrosage.StatutProgramme statut
+    );
+    
+    /**
+     * Ajuster en une requête les programmes planifiés de quelques parcelles entre deux dates
+     * Volume arrondi à 2 décimales, durée calculée en double précision puis tronquée à la minute
+     * (comme {@link com.irrigation.arrosage.service.WeatherAdjustment#applyTo}) ; facteurs à 1 et statut PLANIFIE
+     * pour ne rien changer.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE programme_arrosage
+            SET statut = :statut,
+                volume_prevu = ROUND(volume_prevu * :volumeFactor, 2),
+                duree = TRUNC(CAST(duree AS DOUBLE PRECISION) * CAST(:dureeFactor AS DOUBLE PRECISION))
+            WHERE parcelle_id IN (:parcelleIds)
+              AND statut = 'PLANIFIE'
+              AND date_planifiee BETWEEN :startDate AND :endDate
+            """, nativeQuery = true)
+    int adjustPlannedProgrammes(
+            @Param("parcelleIds") Collection<Long> parcelleIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("statut") String statut,
+            @Param("volumeFactor") BigDecimal volumeFactor,
+            @Param("dureeFactor") BigDecimal dureeFactor
+    );
+    
     /**
      * Rechercher les programmes avant une date avec un statut spécifique
      */
@@ -57,4 +98,195 @@ public interface ProgrammeArrosageRepository extends JpaRepository<ProgrammeArro
             @Param("date") LocalDateTime date,
             @Param("statut") ProgrammeArrosage.StatutProgramme statut
     );
+    
+    /**
+     * Origine du curseur de pagination par clé (date_planifiee, id) : avant tout programme
+     */
+    LocalDateTime KEYSET_ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    /**
+     * Compter les programmes avant une date avec un statut spécifique
+     */
+    @Query("SELECT COUNT(p) FROM ProgrammeArrosage p WHERE p.datePlanifiee <= :date AND p.statut = :statut")
+    long countByDatePlanifieeBeforeAndStatut(
+            @Param("date") LocalDateTime date,
+            @Param("statut") ProgrammeArrosage.StatutProgramme statut
+    );
+    
+    /**
+     * Réserver atomiquement un lot de programmes dus (PLANIFIE -> EN_COURS) en une seule requête
+     * Les lignes déjà verrouillées par une autre instance sont ignorées (SKIP LOCKED),
+     * ce qui permet à plusieurs réplicas de vider la file en parallèle sans conflit.
+     * Seuls les programmes situés après le curseur (afterDate, afterId) sont pris : le lot suivant
+     * reprend là où le précédent s'est arrêté, même si celui-ci a été annulé (rollback).
+     * L'ordre des lignes retournées n'est pas garanti.
+     */
+    @Query(value = """
+            UPDATE programme_arrosage SET statut = 'EN_COURS', date_reservation = :date
+            WHERE id IN (
+                SELECT id FROM programme_arrosage
+                WHERE statut = 'PLANIFIE' AND date_planifiee <= :date
+                  AND (date_planifiee, id) > (:afterDate, :afterId)
+                ORDER BY date_planifiee, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            RETURNING *
+            """, nativeQuery = true)
+    List<ProgrammeArrosage> claimDueProgrammesAfter(
+            @Param("date") LocalDateTime date,
+            @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit
+    );
+    
+    /**
+     * Réserver le premier lot de programmes dus (sans curseur)
+     */
+    default List<ProgrammeArrosage> claimDueProgrammes(LocalDateTime date, int limit) {
+        return claimDueProgrammesAfter(date, KEYSET_ORIGIN, 0L, limit);
+    }
+    
+    /**
+     * Réserver un programme précis s'il est encore PLANIFIE
+     * Retourne 0 si le programme a déjà été pris en charge
+     */
+    @Modifying
+    @Query("UPDATE ProgrammeArrosage p SET p.statut = :enCours, p.dateReservation = :date WHERE p.id = :id AND p.statut = :planifie")
+    int claimProgramme(
+            @Param("id") Long id,
+            @Param("date") LocalDateTime date,
+            @Param("planifie") ProgrammeArrosage.StatutProgramme planifie,
+            @Param("enCours") ProgrammeArrosage.StatutProgramme enCours
+    );
+    
+    /**
+     * Remettre en PLANIFIE les réservations abandonnées (instance arrêtée pendant l'exécution)
+     */
+    @Modifying
+    @Query("UPDATE ProgrammeArrosage p SET p.statut = :planifie, p.dateReservation = null WHERE p.statut = :enCours AND p.dateReservation < :cutoff")
+    int releaseStaleReservations(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("planifie") ProgrammeArrosage.StatutProgramme planifie,
+            @Param("enCours") ProgrammeArrosage.StatutProgramme enCours
+    );
+    
+    /**
+     * Échéances (id, date planifiée) des programmes d'un statut donné dans une fenêtre de temps
+     * Projection légère utilisée pour alimenter la roue temporelle de déclenchement.
+     */
+    @Query("SELECT p.id AS id, p.datePlanifiee AS datePlanifiee FROM ProgrammeArrosage p "
+            + "WHERE p.statut = :statut AND p.datePlanifiee > :after AND p.datePlanifiee <= :until")
+    List<Echeance> findEcheances(
+            @Param("statut") ProgrammeArrosage.StatutProgramme statut,
+            @Param("after") LocalDateTime after,
+            @Param("until") LocalDateTime until
+    );
+    
+    /**
+     * Vérifier s'il existe des programmes d'un statut donné échus à une date
+     */
+    boolean existsByStatutAndDatePlanifieeLessThanEqual(ProgrammeArrosage.StatutProgramme statut, LocalDateTime date);
+    
+    /**
+     * Date planifiée la plus ancienne des programmes d'un statut donné avant une date limite
+     */
+    @Query("SELECT MIN(p.datePlanifiee) FROM ProgrammeArrosage p WHERE p.statut = :statut AND p.datePlanifiee < :cutoff")
+    LocalDateTime findOldestDatePlanifiee(
+            @Param("statut") ProgrammeArrosage.StatutProgramme statut,
+            @Param("cutoff") LocalDateTime cutoff
+    );
+    
+    /**
+     * Déplacer un lot de programmes TERMINE antérieurs à la date limite, avec leurs journaux,
+     * vers les tables d'archive partitionnées par mois
+     * Une seule requête (DELETE ... RETURNING alimentant les INSERT) : le lot est déplacé
+     * atomiquement, sans aller-retour des lignes par l'application.
+     * 
+     * @return Nombre de programmes archivés
+     */
+    @Modifying
+    @Query(value = """
+            WITH lot AS (
+                SELECT id, parcelle_id FROM programme_arrosage
+                WHERE statut = 'TERMINE' AND date_planifiee < :cutoff
+                ORDER BY date_planifiee, id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            ), journaux AS (
+                DELETE FROM journal_arrosage j USING lot WHERE j.programme_id = lot.id
+                RETURNING j.id, j.programme_id, lot.parcelle_id, j.date_execution, j.volume_reel, j.remarque
+            ), journaux_archives AS (
+                INSERT INTO journal_arrosage_archive
+                    (id, programme_id, parcelle_id, date_execution, volume_reel, remarque, date_archivage)
+                SELECT id, programme_id, parcelle_id, date_execution, volume_reel, remarque, :archivedAt FROM journaux
+            ), programmes AS (
+                DELETE FROM programme_arrosage p USING lot WHERE p.id = lot.id
+                RETURNING p.*
+            )
+            INSERT INTO programme_arrosage_archive
+                (id, parcelle_id, date_planifiee, duree, volume_prevu, statut, date_reservation, date_archivage)
+            SELECT id, parcelle_id, date_planifiee, duree, volume_prevu, statut, date_reservation, :archivedAt
+            FROM programmes
+            """, nativeQuery = true)
+    int archiveCompletedChunk(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("limit") int limit,
+            @Param("archivedAt") LocalDateTime archivedAt
+    );
+    
+    /**
+     * Rechercher un programme archivé
+     */
+    @Query(value = """
+            SELECT a.id AS "id", a.parcelle_id AS "parcelleId", pc.nom AS "parcelleNom",
+                   a.date_planifiee AS "datePlanifiee", a.duree AS "duree", a.volume_prevu AS "volumePrevu",
+                   a.statut AS "statut"
+            FROM programme_arrosage_archive a LEFT JOIN parcelle pc ON pc.id = a.parcelle_id
+            WHERE a.id = :id
+            """, nativeQuery = true)
+    Optional<ArchivedProgramme> findArchivedById(@Param("id") Long id);
+    
+    /**
+     * Rechercher les programmes archivés entre deux dates (seules les partitions concernées sont lues)
+     */
+    @Query(value = """
+            SELECT a.id AS "id", a.parcelle_id AS "parcelleId", pc.nom AS "parcelleNom",
+                   a.date_planifiee AS "datePlanifiee", a.duree AS "duree", a.volume_prevu AS "volumePrevu",
+                   a.statut AS "statut"
+            FROM programme_arrosage_archive a LEFT JOIN parcelle pc ON pc.id = a.parcelle_id
+            WHERE a.date_planifiee BETWEEN :startDate AND :endDate
+            ORDER BY a.date_planifiee
+            """, nativeQuery = true)
+    List<ArchivedProgramme> findArchivedByDatePlanifieeBetween(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+    
+    /**
+     * Projection d'échéance d'un programme
+     */
+    interface Echeance {
+        Long getId();
+        
+        LocalDateTime getDatePlanifiee();
+    }
+    
+    /**
+     * Projection d'un programme archivé
+     */
+    interface ArchivedProgramme {
+        Long getId();
+        
+        Long getParcelleId();
+        
+        String getParcelleNom();
+        
+        LocalDateTime getDatePlanifiee();
+        
+        Integer getDuree();
+        
+        BigDecimal getVolumePrevu();
+        
+        ProgrammeArrosage.StatutProgramme getStatut();
+    }
 }
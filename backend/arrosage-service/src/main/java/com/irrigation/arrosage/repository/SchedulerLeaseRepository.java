@@ -0,0 +1,67 @@
+package com.irrigation.arrosage.repository;
+
+import com.irrigation.arrosage.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository pour les baux des tâches planifiées
+ * Toutes les dates sont calculées avec l'horloge de la base : pas de dérive d'horloge entre réplicas.
+ */
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Prendre ou renouveler le bail d'une tâche en une seule requête
+     * Réussit si le bail n'existe pas, a expiré ou est déjà détenu par ce détenteur ;
+     * le jeton de fencing n'est incrémenté qu'au changement de détenteur.
+     *
+     * @return Jeton de fencing, ou null si un autre détenteur a un bail valide
+     */
+    @Query(value = """
+            INSERT INTO scheduler_lease AS l (job_name, owner, fencing_token, expires_at, renewed_at)
+            VALUES (:jobName, :owner, 1, LOCALTIMESTAMP + :leaseMillis * INTERVAL '1 millisecond', LOCALTIMESTAMP)
+            ON CONFLICT (job_name) DO UPDATE
+            SET fencing_token = CASE WHEN l.owner = EXCLUDED.owner THEN l.fencing_token ELSE l.fencing_token + 1 END,
+                owner = EXCLUDED.owner,
+                expires_at = EXCLUDED.expires_at,
+                renewed_at = EXCLUDED.renewed_at
+            WHERE l.owner = EXCLUDED.owner OR l.expires_at <= LOCALTIMESTAMP
+            RETURNING fencing_token
+            """, nativeQuery = true)
+    Long tryAcquire(
+            @Param("jobName") String jobName,
+            @Param("owner") String owner,
+            @Param("leaseMillis") long leaseMillis
+    );
+
+    /**
+     * Jeton du bail encore valide de ce détenteur, verrouillé en partage jusqu'à la fin de la transaction :
+     * le bail ne peut pas changer de détenteur tant que la transaction qui l'a vérifié n'est pas terminée
+     *
+     * @return Jeton de fencing, ou null si le bail a expiré ou appartient à un autre détenteur
+     */
+    @Query(value = """
+            SELECT fencing_token FROM scheduler_lease
+            WHERE job_name = :jobName AND owner = :owner AND expires_at > LOCALTIMESTAMP
+            FOR SHARE
+            """, nativeQuery = true)
+    Long findValidToken(
+            @Param("jobName") String jobName,
+            @Param("owner") String owner
+    );
+
+    /**
+     * Libérer un bail (arrêt de l'instance) : il peut être repris immédiatement
+     */
+    @Modifying
+    @Query(value = "UPDATE scheduler_lease SET expires_at = LOCALTIMESTAMP WHERE job_name = :jobName AND owner = :owner",
+            nativeQuery = true)
+    int release(
+            @Param("jobName") String jobName,
+            @Param("owner") String owner
+    );
+}
@@ -0,0 +1,239 @@
+package com.irrigation.arrosage.rules;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.rules.WeatherRuleSet.ActionType;
+import com.irrigation.arrosage.service.WeatherAdjustment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table de décision compilée à partir d'un {@link WeatherRuleSet}
+ *
+ * Les règles sont aplaties dans des tableaux parallèles : pour chaque sévérité une plage de règles,
+ * pour chaque règle une plage de conditions (grandeur, opérateur, seuil). L'évaluation parcourt ces
+ * tableaux sans allouer ; seules les règles proportionnelles sous leur plafond construisent leur ajustement.
+ * Immuable : un rechargement compile une nouvelle table.
+ */
+final class CompiledWeatherRules {
+
+    private static final ChangeSeverity[] SEVERITIES = ChangeSeverity.values();
+
+    /** Règles de la sévérité s : [ruleStart[s], ruleStart[s + 1]) */
+    private final int[] ruleStart;
+    /** Conditions de la règle r : [conditionStart[r], conditionStart[r + 1]) */
+    private final int[] conditionStart;
+    private final WeatherRuleField[] fields;
+    private final WeatherRuleOperator[] operators;
+    private final double[] thresholds;
+
+    /** Ajustement fixe de la règle, null pour une règle proportionnelle */
+    private final WeatherAdjustment[] adjustments;
+    private final WeatherRuleField[] reductionFields;
+    private final double[] reductionDivisors;
+    private final double[] reductionMax;
+    /** Ajustement précalculé d'une règle proportionnelle quand la réduction atteint son plafond */
+    private final WeatherAdjustment[] cappedAdjustments;
+    private final String[] reasons;
+    private final String[] names;
+
+    private CompiledWeatherRules(List<WeatherRuleSet.Rule> ordered, int[] ruleStart) {
+        int ruleCount = ordered.size();
+        int conditionCount = ordered.stream().mapToInt(rule -> rule.getWhen().size()).sum();
+
+        this.ruleStart = ruleStart;
+        this.conditionStart = new int[ruleCount + 1];
+        this.fields = new WeatherRuleField[conditionCount];
+        this.operators = new WeatherRuleOperator[conditionCount];
+        this.thresholds = new double[conditionCount];
+        this.adjustments = new WeatherAdjustment[ruleCount];
+        this.reductionFields = new WeatherRuleField[ruleCount];
+        this.reductionDivisors = new double[ruleCount];
+        this.reductionMax = new double[ruleCount];
+        this.cappedAdjustments = new WeatherAdjustment[ruleCount];
+        this.reasons = new String[ruleCount];
+        this.names = new String[ruleCount];
+
+        int c = 0;
+        for (int r = 0; r < ruleCount; r++) {
+            WeatherRuleSet.Rule rule = ordered.get(r);
+            conditionStart[r] = c;
+            for (WeatherRuleSet.Condition condition : rule.getWhen()) {
+                fields[c] = condition.getField();
+                operators[c] = condition.getOp();
+                thresholds[c] = condition.getValue();
+                c++;
+            }
+            names[r] = rule.getName();
+            reasons[r] = rule.getReason() != null ? rule.getReason() : rule.getName();
+            WeatherRuleSet.Action action = rule.getAction();
+            switch (action.getType()) {
+                case NONE -> adjustments[r] = WeatherAdjustment.NONE;
+                case CANCEL -> adjustments[r] = WeatherAdjustment.cancel(reasons[r]);
+                case SCALE -> adjustments[r] = WeatherAdjustment.scale(
+                        action.getVolumeFactor(), action.getDureeFactor(), reasons[r]);
+                case REDUCE_VOLUME -> {
+                    reductionFields[r] = action.getField();
+                    reductionDivisors[r] = action.getDivisor();
+                    reductionMax[r] = action.getMax();
+                    cappedAdjustments[r] = reduceVolume(action.getMax(), reasons[r]);
+                }
+            }
+        }
+        conditionStart[ruleCount] = c;
+    }
+
+    /**
+     * Valider et compiler les règles
+     *
+     * @throws IllegalArgumentException si une règle est incomplète ou incohérente
+     */
+    static CompiledWeatherRules compile(WeatherRuleSet ruleSet) {
+        if (ruleSet == null || ruleSet.getRules() == null) {
+            throw new IllegalArgumentException("No weather rules defined");
+        }
+        ruleSet.getRules().forEach(CompiledWeatherRules::validate);
+
+        // Une règle sans sévérité est recopiée, à sa place, dans la plage de chaque sévérité
+        List<WeatherRuleSet.Rule> ordered = new ArrayList<>();
+        int[] ruleStart = new int[SEVERITIES.length + 1];
+        for (ChangeSeverity severity : SEVERITIES) {
+            ruleStart[severity.ordinal()] = ordered.size();
+            for (WeatherRuleSet.Rule rule : ruleSet.getRules()) {
+                if (rule.getSeverity() == null || rule.getSeverity() == severity) {
+                    ordered.add(rule);
+                }
+            }
+        }
+        ruleStart[SEVERITIES.length] = ordered.size();
+        return new CompiledWeatherRules(ordered, ruleStart);
+    }
+
+    private static void validate(WeatherRuleSet.Rule rule) {
+        String name = rule.getName() != null ? rule.getName() : "<unnamed>";
+        if (rule.getWhen() == null) {
+            throw new IllegalArgumentException("Rule " + name + ": 'when' must be a list");
+        }
+        for (WeatherRuleSet.Condition condition : rule.getWhen()) {
+            if (condition == null || condition.getField() == null || condition.getOp() == null
+                    || condition.getValue() == null) {
+                throw new IllegalArgumentException("Rule " + name + ": conditions need a field, an op and a value");
+            }
+        }
+        WeatherRuleSet.Action action = rule.getAction();
+        if (action == null || action.getType() == null) {
+            throw new IllegalArgumentException("Rule " + name + ": missing action type");
+        }
+        if (action.getType() == ActionType.SCALE
+                && (!isPositive(action.getVolumeFactor()) || !isPositive(action.getDureeFactor()))) {
+            throw new IllegalArgumentException("Rule " + name + ": SCALE factors must be positive");
+        }
+        if (action.getType() == ActionType.REDUCE_VOLUME && (action.getField() == null
+                || !isPositive(action.getDivisor()) || action.getMax() == null
+                || action.getMax() < 0 || action.getMax() >= 1)) {
+            throw new IllegalArgumentException(
+                    "Rule " + name + ": REDUCE_VOLUME needs a field, a positive divisor and a max in [0, 1)");
+        }
+    }
+
+    private static boolean isPositive(Double value) {
+        return value != null && value > 0;
+    }
+
+    /**
+     * Ajustement à appliquer pour ce changement météo, {@link WeatherAdjustment#NONE} si aucune règle ne s'applique
+     */
+    WeatherAdjustment evaluate(WeatherChangeEvent event) {
+        int rule = match(event);
+        if (rule < 0) {
+            return WeatherAdjustment.NONE;
+        }
+        WeatherAdjustment adjustment = adjustments[rule];
+        if (adjustment != null) {
+            return adjustment;
+        }
+        double reduction = read(reductionFields[rule], event) / reductionDivisors[rule];
+        if (reduction >= reductionMax[rule]) {
+            return cappedAdjustments[rule];
+        }
+        if (!(reduction > 0)) {
+            return WeatherAdjustment.NONE;
+        }
+        return reduceVolume(reduction, reasons[rule]);
+    }
+
+    private static WeatherAdjustment reduceVolume(double reduction, String reason) {
+        return WeatherAdjustment.scale(1 - reduction, 1, reason.replace("{percent}", String.valueOf((int) (reduction * 100))));
+    }
+
+    /**
+     * Index de la première règle applicable, -1 si aucune
+     */
+    int match(WeatherChangeEvent event) {
+        ChangeSeverity severity = event.getSeverity();
+        if (severity == null) {
+            return -1;
+        }
+        int end = ruleStart[severity.ordinal() + 1];
+        for (int r = ruleStart[severity.ordinal()]; r < end; r++) {
+            if (matches(r, event)) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int rule, WeatherChangeEvent event) {
+        int end = conditionStart[rule + 1];
+        for (int c = conditionStart[rule]; c < end; c++) {
+            double value = read(fields[c], event);
+            double threshold = thresholds[c];
+            boolean result = switch (operators[c]) {
+                case GT -> value > threshold;
+                case GE -> value >= threshold;
+                case LT -> value < threshold;
+                case LE -> value <= threshold;
+            };
+            if (!result) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String ruleName(int rule) {
+        return names[rule];
+    }
+
+    int ruleCount() {
+        return names.length;
+    }
+
+    static double read(WeatherRuleField field, WeatherChangeEvent event) {
+        WeatherConditions oldConditions = event.getOldConditions();
+        WeatherConditions newConditions = event.getNewConditions();
+        return switch (field) {
+            case NEW_PLUIE -> pluie(newConditions);
+            case NEW_VENT -> vent(newConditions);
+            case NEW_TEMPERATURE_MAX -> temperatureMax(newConditions);
+            case DELTA_PLUIE -> pluie(newConditions) - pluie(oldConditions);
+            case DELTA_VENT -> vent(newConditions) - vent(oldConditions);
+            case DELTA_TEMPERATURE_MAX_ABS -> Math.abs(temperatureMax(newConditions) - temperatureMax(oldConditions));
+        };
+    }
+
+    private static double pluie(WeatherConditions conditions) {
+        return conditions != null && conditions.getPluiePrevue() != null ? conditions.getPluiePrevue() : Double.NaN;
+    }
+
+    private static double vent(WeatherConditions conditions) {
+        return conditions != null && conditions.getVent() != null ? conditions.getVent() : Double.NaN;
+    }
+
+    private static double temperatureMax(WeatherConditions conditions) {
+        return conditions != null && conditions.getTemperatureMax() != null
+                ? conditions.getTemperatureMax() : Double.NaN;
+    }
+}
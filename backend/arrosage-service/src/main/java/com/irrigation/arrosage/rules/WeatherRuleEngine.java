@@ -0,0 +1,100 @@
+package com.irrigation.arrosage.rules;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.service.WeatherAdjustment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Moteur de règles d'ajustement météo
+ *
+ * Les règles sont lues depuis {@code app.weather.rules.location} (classpath par défaut, ou un fichier
+ * monté, par exemple une ConfigMap) et compilées une fois en table de décision. Le fichier est surveillé :
+ * une modification est rechargée sans redémarrage ; un fichier invalide est rejeté et les règles
+ * précédentes restent en vigueur.
+ */
+@Component
+@Slf4j
+public class WeatherRuleEngine {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+
+    private volatile CompiledWeatherRules rules;
+    private volatile long lastModified;
+
+    public WeatherRuleEngine(ResourceLoader resourceLoader,
+                             @Value("${app.weather.rules.location:classpath:weather-rules.json}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        reload();
+    }
+
+    /**
+     * Ajustement à appliquer aux programmes concernés par ce changement météo
+     */
+    public WeatherAdjustment evaluate(WeatherChangeEvent event) {
+        return rules.evaluate(event);
+    }
+
+    /**
+     * Recharger les règles si le fichier a changé
+     */
+    @Scheduled(fixedDelayString = "${app.weather.rules.reload-interval-ms:30000}",
+            initialDelayString = "${app.weather.rules.reload-interval-ms:30000}")
+    public void reloadIfModified() {
+        long modified = lastModified(resourceLoader.getResource(location));
+        if (modified == 0 || modified == lastModified) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            lastModified = modified; // ne pas réessayer tant que le fichier n'a pas changé
+            log.error("Invalid weather rules in {}, keeping the previous rules: {}", location, e.getMessage());
+        }
+    }
+
+    /**
+     * Lire et compiler les règles, puis remplacer la table en vigueur
+     *
+     * @throws IllegalStateException si les règles ne peuvent être lues ou sont invalides
+     */
+    public synchronized void reload() {
+        Resource resource = resourceLoader.getResource(location);
+        long modified = lastModified(resource);
+        CompiledWeatherRules compiled;
+        try (InputStream in = resource.getInputStream()) {
+            compiled = CompiledWeatherRules.compile(objectMapper.readValue(in, WeatherRuleSet.class));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load weather rules from " + location + ": " + e.getMessage(), e);
+        }
+        rules = compiled;
+        lastModified = modified;
+        log.info("Weather rules loaded from {}: {} compiled rule(s)", location, compiled.ruleCount());
+    }
+
+    CompiledWeatherRules getRules() {
+        return rules;
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0; // ressource sans date (jar) : pas de rechargement
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.irrigation.arrosage.rules;
+
+/**
+ * Grandeur d'un changement météo sur laquelle porte une condition de règle
+ *
+ * Une valeur absente (prévision incomplète) vaut NaN : toute comparaison est alors fausse.
+ */
+public enum WeatherRuleField {
+    /** Pluie prévue après le changement (mm) */
+    NEW_PLUIE,
+    /** Vent prévu après le changement (km/h) */
+    NEW_VENT,
+    /** Température maximale prévue après le changement (°C) */
+    NEW_TEMPERATURE_MAX,
+    /** Hausse de la pluie prévue (mm, négative si baisse) */
+    DELTA_PLUIE,
+    /** Hausse du vent prévu (km/h, négative si baisse) */
+    DELTA_VENT,
+    /** Écart absolu de température maximale (°C) */
+    DELTA_TEMPERATURE_MAX_ABS
+}
@@ -0,0 +1,11 @@
+package com.irrigation.arrosage.rules;
+
+/**
+ * Comparaison d'une grandeur météo à un seuil
+ */
+public enum WeatherRuleOperator {
+    GT,
+    GE,
+    LT,
+    LE
+}
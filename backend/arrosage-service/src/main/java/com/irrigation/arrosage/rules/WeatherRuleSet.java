@@ -0,0 +1,64 @@
+package com.irrigation.arrosage.rules;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Règles d'ajustement météo telles que déclarées dans le fichier de règles
+ *
+ * Pour une sévérité donnée, la première règle dont toutes les conditions sont vraies s'applique.
+ */
+@Data
+@NoArgsConstructor
+public class WeatherRuleSet {
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class Rule {
+        private String name;
+        /** Sévérité concernée, null pour toutes */
+        private ChangeSeverity severity;
+        /** Conditions combinées par ET ; aucune condition : la règle s'applique toujours */
+        private List<Condition> when = new ArrayList<>();
+        private Action action;
+        /** Motif journalisé ; {percent} est remplacé par la réduction des règles proportionnelles */
+        private String reason;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Condition {
+        private WeatherRuleField field;
+        private WeatherRuleOperator op;
+        private Double value;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Action {
+        private ActionType type;
+        private Double volumeFactor = 1.0;
+        private Double dureeFactor = 1.0;
+        /** REDUCE_VOLUME : réduction de volume = min(max, field / divisor) */
+        private WeatherRuleField field;
+        private Double divisor;
+        private Double max;
+    }
+
+    public enum ActionType {
+        /** Aucun ajustement, arrête l'évaluation */
+        NONE,
+        /** Annuler les programmes */
+        CANCEL,
+        /** Multiplier volume et durée par des facteurs fixes */
+        SCALE,
+        /** Réduire le volume proportionnellement à une grandeur, dans une limite */
+        REDUCE_VOLUME
+    }
+}
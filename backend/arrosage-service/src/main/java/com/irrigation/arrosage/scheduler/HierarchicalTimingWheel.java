@@ -0,0 +1,198 @@
+package com.irrigation.arrosage.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Roue temporelle hiérarchique (hierarchical timing wheel)
+ *
+ * Le premier niveau compte wheelSize cases de tickMs ; chaque niveau supérieur, créé à la demande,
+ * couvre l'intervalle complet du niveau inférieur par case. Une échéance lointaine est rangée
+ * dans un niveau grossier puis redescend vers les niveaux fins à mesure que l'horloge avance.
+ * Ajout et annulation en O(1) ; seules les cases non vides sont triées (file de priorité).
+ *
+ * L'horloge est pilotée de l'extérieur par {@link #advance(long)}, ce qui la rend testable.
+ *
+ * @param <K> Clé des échéances (une seule échéance par clé)
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final int wheelSize;
+    private final Wheel root;
+    private final PriorityQueue<Bucket> buckets = new PriorityQueue<>(Comparator.comparingLong(bucket -> bucket.expiration));
+    private final Map<K, Entry> entries = new HashMap<>();
+    private final Set<K> ready = new LinkedHashSet<>();
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs et wheelSize doivent être positifs");
+        }
+        this.wheelSize = wheelSize;
+        this.root = new Wheel(tickMs, startMs);
+    }
+
+    /**
+     * Programmer (ou reprogrammer) l'échéance d'une clé
+     * L'échéance est arrondie au tick supérieur : une clé n'est jamais rendue avant son échéance.
+     * Une échéance déjà passée est rendue au prochain {@link #advance(long)}.
+     */
+    public synchronized void schedule(K key, long deadlineMs) {
+        cancel(key);
+        long tickMs = root.tickMs;
+        Entry entry = new Entry(key, Math.floorDiv(deadlineMs + tickMs - 1, tickMs) * tickMs);
+        if (root.add(entry)) {
+            entries.put(key, entry);
+        } else {
+            ready.add(key);
+        }
+    }
+
+    /**
+     * Annuler l'échéance d'une clé
+     *
+     * @return true si une échéance était programmée
+     */
+    public synchronized boolean cancel(K key) {
+        Entry entry = entries.remove(key);
+        if (entry != null && entry.bucket != null) {
+            entry.bucket.entries.remove(entry);
+            entry.bucket = null;
+        }
+        return ready.remove(key) || entry != null;
+    }
+
+    /**
+     * Avancer l'horloge jusqu'à nowMs
+     *
+     * @return Clés dont l'échéance est atteinte, dans l'ordre des échéances (au plus un tick de retard)
+     */
+    public synchronized List<K> advance(long nowMs) {
+        Bucket bucket;
+        while ((bucket = buckets.peek()) != null && bucket.expiration <= nowMs) {
+            buckets.poll();
+            root.advanceClock(bucket.expiration);
+            for (Entry entry : bucket.drain()) {
+                // Redescendre vers un niveau plus fin, ou déclencher si l'échéance est atteinte
+                if (!root.add(entry)) {
+                    entries.remove(entry.key);
+                    ready.add(entry.key);
+                }
+            }
+        }
+        root.advanceClock(nowMs);
+
+        List<K> due = new ArrayList<>(ready);
+        ready.clear();
+        return due;
+    }
+
+    /**
+     * Nombre d'échéances en attente
+     */
+    public synchronized int size() {
+        return entries.size() + ready.size();
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key) || ready.contains(key);
+    }
+
+    /**
+     * Un niveau de la roue
+     */
+    private class Wheel {
+        private final long tickMs;
+        private final long intervalMs;
+        private final Bucket[] slots;
+        private long currentTime;
+        private Wheel overflow;
+
+        Wheel(long tickMs, long startMs) {
+            this.tickMs = tickMs;
+            this.intervalMs = tickMs * wheelSize;
+            this.currentTime = startMs - (startMs % tickMs);
+            this.slots = new HierarchicalTimingWheel.Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                slots[i] = new Bucket();
+            }
+        }
+
+        /**
+         * @return false si l'échéance est déjà atteinte (moins d'un tick)
+         */
+        boolean add(Entry entry) {
+            long deadline = entry.deadlineMs;
+            if (deadline < currentTime + tickMs) {
+                return false;
+            }
+            if (deadline < currentTime + intervalMs) {
+                long virtualId = deadline / tickMs;
+                Bucket bucket = slots[(int) (virtualId % wheelSize)];
+                bucket.entries.add(entry);
+                entry.bucket = bucket;
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    buckets.add(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Wheel(intervalMs, currentTime);
+            }
+            return overflow.add(entry);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    /**
+     * Case de la roue : échéances partageant la même fenêtre de temps
+     */
+    private class Bucket {
+        private final Set<Entry> entries = new LinkedHashSet<>();
+        private long expiration = -1;
+
+        /**
+         * @return true si la case doit être (re)placée dans la file de priorité
+         */
+        boolean setExpiration(long expirationMs) {
+            if (expiration == expirationMs) {
+                return false;
+            }
+            expiration = expirationMs;
+            return true;
+        }
+
+        List<Entry> drain() {
+            List<Entry> drained = new ArrayList<>(entries);
+            entries.clear();
+            expiration = -1;
+            drained.forEach(entry -> entry.bucket = null);
+            drained.sort(Comparator.comparingLong(entry -> entry.deadlineMs));
+            return drained;
+        }
+    }
+
+    private class Entry {
+        private final K key;
+        private final long deadlineMs;
+        private Bucket bucket;
+
+        Entry(K key, long deadlineMs) {
+            this.key = key;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.irrigation.arrosage.scheduler;
 
+import com.irrigation.arrosage.service.ArchiveService;
 import com.irrigation.arrosage.service.IrrigationExecutionService;
+import com.irrigation.arrosage.service.PartitionedExecutionEngine;
+import com.irrigation.arrosage.service.SchedulerLeaseService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -11,6 +14,8 @@ import java.time.LocalDateTime;
 
 /**
  * Scheduler pour l'exécution automatique des programmes d'arrosage planifiés
+ * Avec plusieurs réplicas, chaque tâche n'est exécutée que par l'instance leader
+ * (voir {@link SchedulerLeaseService}).
  */
 @Component
 @RequiredArgsConstructor
@@ -23,19 +28,37 @@ import java.time.LocalDateTime;
 public class IrrigationScheduler {
 
     private final IrrigationExecutionService executionService;
+    private final PartitionedExecutionEngine partitionedExecutionEngine;
+    private final TimeWheelDispatcher timeWheelDispatcher;
+    private final ArchiveService archiveService;
+    private final SchedulerLeaseService schedulerLeaseService;
 
     /**
      * Tâche planifiée pour exécuter les programmes d'arrosage
      * Exécutée toutes les 5 minutes par défaut
+     * Utilise le moteur parallèle partitionné par parcelle lorsqu'il est activé
+     * Inactive lorsque la roue temporelle déclenche les programmes à leur heure
      */
     @Scheduled(cron = "${app.scheduler.irrigation.cron:0 */5 * * * *}")
     public void executeScheduledIrrigationPrograms() {
+        if (timeWheelDispatcher.isEnabled()) {
+            log.debug("Time-wheel dispatcher enabled, skipping cron execution check");
+            return;
+        }
+        if (!schedulerLeaseService.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, this::executeDuePrograms)) {
+            log.debug("Another instance is the execution leader, skipping cron execution check");
+        }
+    }
+
+    private void executeDuePrograms() {
         LocalDateTime executionTime = LocalDateTime.now();
         
         log.info("=== Starting scheduled irrigation execution check at {} ===", executionTime);
         
         try {
-            int executedCount = executionService.executeScheduledPrograms(executionTime);
+            int executedCount = partitionedExecutionEngine.isEnabled()
+                    ? partitionedExecutionEngine.executeScheduledPrograms(executionTime)
+                    : executionService.executeScheduledPrograms(executionTime);
             
             if (executedCount > 0) {
                 log.info("Successfully executed {} irrigation program(s)", executedCount);
@@ -54,14 +77,20 @@ public class IrrigationScheduler {
     /**
      * Tâche de nettoyage pour archiver les anciens programmes terminés
      * Exécutée tous les jours à minuit
+     * Les programmes plus anciens que la rétention (app.archive.retention) sont déplacés vers les archives
      */
     @Scheduled(cron = "${app.scheduler.cleanup.cron:0 0 0 * * *}")
     public void cleanupOldPrograms() {
+        if (!schedulerLeaseService.runIfLeader(SchedulerLeaseService.JOB_CLEANUP, this::archiveOldPrograms)) {
+            log.debug("Another instance is the cleanup leader, skipping cleanup");
+        }
+    }
+
+    private void archiveOldPrograms() {
         log.info("=== Starting cleanup of old irrigation programs ===");
         
         try {
-            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-            int archivedCount = executionService.archiveCompletedPrograms(cutoffDate);
+            int archivedCount = archiveService.archiveCompletedPrograms();
             
             if (archivedCount > 0) {
                 log.info("Archived {} old irrigation program(s)", archivedCount);
@@ -0,0 +1,220 @@
+package com.irrigation.arrosage.scheduler;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.service.ExecutionAdmission;
+import com.irrigation.arrosage.service.IrrigationExecutionService;
+import com.irrigation.arrosage.service.PartitionedExecutionEngine;
+import com.irrigation.arrosage.service.SchedulerLeaseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Déclenchement des programmes d'arrosage à leur heure planifiée par une roue temporelle
+ *
+ * Les programmes PLANIFIE des prochaines heures (horizon) sont chargés en mémoire dans une
+ * {@link HierarchicalTimingWheel}. À chaque échéance, les programmes dus sont réservés et
+ * exécutés par le chemin habituel (SKIP LOCKED), à un tick près au lieu d'un passage cron.
+ * La roue est tenue à jour par {@link com.irrigation.arrosage.service.ProgrammeArrosageService}
+ * (création, modification, suppression) ; un rapprochement périodique avec la base sert de filet
+ * de sécurité (programmes modifiés par un autre chemin ou une autre instance).
+ * Si le contrôle d'admission a différé des programmes, un nouveau passage est programmé après le délai
+ * de report plutôt que d'attendre le prochain rapprochement.
+ * Avec l'élection de leader, seule l'instance qui détient le bail d'exécution déclenche les passages.
+ */
+@Component
+@Slf4j
+public class TimeWheelDispatcher {
+
+    /** Échéance de relance des programmes différés (les identifiants de programme sont positifs) */
+    static final Long DEFERRED_RETRY_KEY = -1L;
+
+    private final ProgrammeArrosageRepository programmeRepository;
+    private final IrrigationExecutionService executionService;
+    private final PartitionedExecutionEngine partitionedExecutionEngine;
+    private final ExecutionAdmission executionAdmission;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final boolean enabled;
+    private final Duration horizon;
+    private final HierarchicalTimingWheel<Long> wheel;
+
+    public TimeWheelDispatcher(
+            ProgrammeArrosageRepository programmeRepository,
+            IrrigationExecutionService executionService,
+            PartitionedExecutionEngine partitionedExecutionEngine,
+            ExecutionAdmission executionAdmission,
+            SchedulerLeaseService schedulerLeaseService,
+            @Value("${app.scheduler.irrigation.time-wheel.enabled:false}") boolean enabled,
+            @Value("${app.scheduler.irrigation.time-wheel.tick-ms:100}") long tickMs,
+            @Value("${app.scheduler.irrigation.time-wheel.wheel-size:64}") int wheelSize,
+            @Value("${app.scheduler.irrigation.time-wheel.horizon:PT24H}") Duration horizon) {
+        this.programmeRepository = programmeRepository;
+        this.executionService = executionService;
+        this.partitionedExecutionEngine = partitionedExecutionEngine;
+        this.executionAdmission = executionAdmission;
+        this.schedulerLeaseService = schedulerLeaseService;
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Charger la roue au démarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            log.info("Time-wheel dispatcher enabled (horizon {})", horizon);
+            reconcile();
+        }
+    }
+
+    /**
+     * Avancer la roue et exécuter les programmes dont l'échéance est atteinte
+     * Le délai fixe regroupe naturellement les échéances survenues pendant une exécution.
+     */
+    @Scheduled(fixedDelayString = "${app.scheduler.irrigation.time-wheel.tick-ms:100}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (!due.isEmpty()) {
+            log.debug("Time wheel fired for program(s) {}", due);
+            dispatch(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Rapprochement avec la base : recharger les échéances de l'horizon et rattraper
+     * les programmes échus qui n'auraient pas été déclenchés
+     */
+    @Scheduled(fixedDelayString = "${app.scheduler.irrigation.time-wheel.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.scheduler.irrigation.time-wheel.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<ProgrammeArrosageRepository.Echeance> upcoming = programmeRepository
+                    .findEcheances(StatutProgramme.PLANIFIE, now, now.plus(horizon));
+            upcoming.forEach(echeance -> wheel.schedule(echeance.getId(), toEpochMillis(echeance.getDatePlanifiee())));
+            log.debug("Time wheel reconciled: {} upcoming program(s), {} pending", upcoming.size(), wheel.size());
+
+            if (programmeRepository.existsByStatutAndDatePlanifieeLessThanEqual(StatutProgramme.PLANIFIE, now)) {
+                log.info("Reconciliation found overdue program(s), dispatching");
+                dispatch(now);
+            }
+        } catch (Exception e) {
+            log.error("Time wheel reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Programme créé ou modifié : (re)programmer ou retirer son échéance après validation
+     */
+    public void onProgrammeSaved(ProgrammeArrosage programme) {
+        if (!enabled || programme.getId() == null) {
+            return;
+        }
+        Long id = programme.getId();
+        StatutProgramme statut = programme.getStatut();
+        LocalDateTime datePlanifiee = programme.getDatePlanifiee();
+        afterCommit(() -> {
+            if (statut == StatutProgramme.PLANIFIE && datePlanifiee != null
+                    && !datePlanifiee.isAfter(LocalDateTime.now().plus(horizon))) {
+                wheel.schedule(id, toEpochMillis(datePlanifiee));
+            } else {
+                wheel.cancel(id);
+            }
+        });
+    }
+
+    /**
+     * Programme supprimé : retirer son échéance après validation
+     */
+    public void onProgrammeDeleted(Long programmeId) {
+        if (enabled) {
+            afterCommit(() -> wheel.cancel(programmeId));
+        }
+    }
+
+    /**
+     * Nombre d'échéances en mémoire
+     */
+    public int getPendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Exécuter les programmes dus si cette instance est leader de l'exécution
+     * (chaque réplica a sa roue, un seul déclenche)
+     */
+    private void dispatch(LocalDateTime executionTime) {
+        schedulerLeaseService.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, () -> dispatchAsLeader(executionTime));
+    }
+
+    private void dispatchAsLeader(LocalDateTime executionTime) {
+        try {
+            int executedCount = partitionedExecutionEngine.isEnabled()
+                    ? partitionedExecutionEngine.executeScheduledPrograms(executionTime)
+                    : executionService.executeScheduledPrograms(executionTime);
+            if (executedCount > 0) {
+                log.info("Time wheel dispatched {} irrigation program(s)", executedCount);
+            }
+            scheduleDeferredRetry();
+        } catch (Exception e) {
+            log.error("Error during time-wheel dispatch: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Programmer un nouveau passage si des programmes dus attendent encore (différés par le contrôle d'admission)
+     */
+    private void scheduleDeferredRetry() {
+        if (executionAdmission.isEnabled() && programmeRepository
+                .existsByStatutAndDatePlanifieeLessThanEqual(StatutProgramme.PLANIFIE, LocalDateTime.now())) {
+            Duration deferDelay = executionAdmission.getDeferDelay();
+            log.debug("Due program(s) still waiting after dispatch, retrying in {}", deferDelay);
+            wheel.schedule(DEFERRED_RETRY_KEY, System.currentTimeMillis() + deferDelay.toMillis());
+        }
+    }
+
+    /**
+     * Appliquer la modification après la validation de la transaction en cours
+     * (un programme déclenché avant sa validation serait invisible pour la réservation)
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,156 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.repository.JournalArrosageRepository;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Archivage des programmes d'arrosage terminés
+ *
+ * Les programmes TERMINE plus anciens que la durée de rétention sont déplacés, avec leurs journaux,
+ * vers des tables d'archive partitionnées par mois (programme_arrosage_archive, journal_arrosage_archive).
+ * Le déplacement se fait par lots, chaque lot dans sa propre transaction courte : les tables actives
+ * et leurs index restent à la taille de la période de rétention.
+ */
+@Service
+@Slf4j
+public class ArchiveService {
+
+    static final String PROGRAMME_ARCHIVE = "programme_arrosage_archive";
+    static final String JOURNAL_ARCHIVE = "journal_arrosage_archive";
+
+    private final ProgrammeArrosageRepository programmeRepository;
+    private final JournalArrosageRepository journalRepository;
+    private final EntityManager entityManager;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+
+    /** Partitions mensuelles déjà vérifiées par cette instance */
+    private final Set<String> knownPartitions = ConcurrentHashMap.newKeySet();
+
+    public ArchiveService(
+            ProgrammeArrosageRepository programmeRepository,
+            JournalArrosageRepository journalRepository,
+            EntityManager entityManager,
+            SchedulerLeaseService schedulerLeaseService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.archive.retention:P30D}") Duration retention,
+            @Value("${app.archive.chunk-size:1000}") int chunkSize) {
+        this.programmeRepository = programmeRepository;
+        this.journalRepository = journalRepository;
+        this.entityManager = entityManager;
+        this.schedulerLeaseService = schedulerLeaseService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Archiver les programmes terminés plus anciens que la durée de rétention
+     *
+     * @return Nombre de programmes archivés
+     */
+    public int archiveCompletedPrograms() {
+        return archiveCompletedPrograms(getArchiveCutoff());
+    }
+
+    /**
+     * Archiver les programmes terminés planifiés avant la date limite
+     *
+     * @param cutoffDate Date limite - programmes avant cette date seront archivés
+     * @return Nombre de programmes archivés
+     */
+    public int archiveCompletedPrograms(LocalDateTime cutoffDate) {
+        // Partitions mémorisées seulement une fois leur création validée
+        knownPartitions.addAll(transactionTemplate.execute(status -> createPartitions(cutoffDate)));
+
+        int archived = 0;
+        int chunkCount = 0;
+        int moved;
+        do {
+            LocalDateTime archivedAt = LocalDateTime.now();
+            moved = transactionTemplate.execute(status -> {
+                schedulerLeaseService.checkFence();
+                return programmeRepository.archiveCompletedChunk(cutoffDate, chunkSize, archivedAt);
+            });
+            archived += moved;
+            chunkCount++;
+        } while (moved == chunkSize);
+
+        if (archived > 0) {
+            log.info("Archived {} completed program(s) older than {} in {} chunk(s)", archived, cutoffDate, chunkCount);
+        }
+        return archived;
+    }
+
+    /**
+     * Date avant laquelle l'historique se trouve (en partie) dans les tables d'archive
+     */
+    public LocalDateTime getArchiveCutoff() {
+        return LocalDateTime.now().minus(retention);
+    }
+
+    /**
+     * Une recherche commençant à cette date doit-elle aussi lire les archives ?
+     */
+    public boolean includesArchivedHistory(LocalDateTime startDate) {
+        return startDate != null && startDate.isBefore(getArchiveCutoff());
+    }
+
+    /**
+     * Créer les partitions mensuelles couvrant les programmes et journaux à archiver
+     * (les lignes hors partition sont rangées dans la partition par défaut)
+     */
+    private List<String> createPartitions(LocalDateTime cutoffDate) {
+        List<String> partitions = new ArrayList<>();
+        LocalDateTime oldestProgramme = programmeRepository.findOldestDatePlanifiee(StatutProgramme.TERMINE, cutoffDate);
+        if (oldestProgramme == null) {
+            return partitions;
+        }
+        ensurePartitions(PROGRAMME_ARCHIVE, "date_planifiee", oldestProgramme, cutoffDate, partitions);
+
+        LocalDateTime oldestJournal = journalRepository.findOldestDateExecution(StatutProgramme.TERMINE, cutoffDate);
+        LocalDateTime latestJournal = journalRepository.findLatestDateExecution(StatutProgramme.TERMINE, cutoffDate);
+        if (oldestJournal != null && latestJournal != null) {
+            ensurePartitions(JOURNAL_ARCHIVE, "date_execution", oldestJournal, latestJournal, partitions);
+        }
+        return partitions;
+    }
+
+    private void ensurePartitions(String table, String column, LocalDateTime from, LocalDateTime to,
+                                  List<String> partitions) {
+        YearMonth last = YearMonth.from(to);
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            String partition = table + "_" + month;
+            if (knownPartitions.contains(partition)) {
+                continue;
+            }
+            Object created = entityManager
+                    .createNativeQuery("SELECT ensure_archive_partition(:parent, :column, :month)")
+                    .setParameter("parent", table)
+                    .setParameter("column", column)
+                    .setParameter("month", month.atDay(1))
+                    .getSingleResult();
+            if (Boolean.TRUE.equals(created)) {
+                log.info("Created archive partition {} for {}", table, month);
+            }
+            partitions.add(partition);
+        }
+    }
+}
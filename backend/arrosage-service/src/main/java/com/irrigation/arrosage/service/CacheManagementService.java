@@ -1,15 +1,19 @@
 package com.irrigation.arrosage.service;
 
+import com.irrigation.arrosage.cache.CacheCounters;
+import com.irrigation.arrosage.cache.RedisCacheStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Objects;
-import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Service de gestion du cache Redis
@@ -22,10 +26,15 @@ public class CacheManagementService {
 
     private final CacheManager cacheManager;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCacheStatistics cacheStatistics;
+    private final ForecastDayGrid forecastDayGrid;
 
-    public CacheManagementService(CacheManager cacheManager, RedisTemplate<String, Object> redisTemplate) {
+    public CacheManagementService(CacheManager cacheManager, RedisTemplate<String, Object> redisTemplate,
+                                  RedisCacheStatistics cacheStatistics, ForecastDayGrid forecastDayGrid) {
         this.cacheManager = cacheManager;
         this.redisTemplate = redisTemplate;
+        this.cacheStatistics = cacheStatistics;
+        this.forecastDayGrid = forecastDayGrid;
     }
 
     /**
@@ -45,12 +54,13 @@ public class CacheManagementService {
     }
 
     /**
-     * Vide le cache pour une station et une période spécifique
+     * Vide le cache pour une station et une période spécifique (entrée de la période et jours de la période)
      */
     @CacheEvict(value = "forecasts", key = "'station:' + #stationId + ':' + #startDate + ':' + #endDate")
     public void evictForecastsForPeriod(Long stationId, LocalDate startDate, LocalDate endDate) {
         logger.info("Evicting forecasts for station {} and period {}-{} from cache", 
             stationId, startDate, endDate);
+        forecastDayGrid.evict(stationId, startDate, endDate);
     }
 
     /**
@@ -63,18 +73,19 @@ public class CacheManagementService {
 
     /**
      * Récupère les statistiques du cache Redis
+     * Lues dans les compteurs tenus côté serveur : aucune clé n'est parcourue à la demande,
+     * les tailles sont celles du dernier parcours SCAN périodique.
      */
     public CacheStats getCacheStats() {
         CacheStats stats = new CacheStats();
         
         try {
-            // Compte le nombre de clés pour chaque cache
-            stats.setForecastsCacheSize(countKeys("arrosage:forecasts*"));
-            stats.setStationsCacheSize(countKeys("arrosage:stations*"));
-            stats.setWeatherDataCacheSize(countKeys("arrosage:weather-data*"));
-            
-            // Informations Redis
-            stats.setRedisAvailable(isRedisAvailable());
+            Map<String, CacheCounters> counters = cacheStatistics.snapshot();
+            stats.setCaches(counters);
+            stats.setForecastsCacheSize(size(counters, "forecasts"));
+            stats.setStationsCacheSize(size(counters, "stations"));
+            stats.setWeatherDataCacheSize(size(counters, "weather-data"));
+            stats.setRedisAvailable(true);
             
             logger.debug("Cache stats: forecasts={}, stations={}, weather-data={}", 
                 stats.getForecastsCacheSize(), 
@@ -91,10 +102,11 @@ public class CacheManagementService {
 
     /**
      * Vérifie si Redis est disponible
+     * La connexion est rendue au pool après le ping.
      */
     public boolean isRedisAvailable() {
         try {
-            redisTemplate.getConnectionFactory().getConnection().ping();
+            redisTemplate.execute((RedisCallback<String>) RedisConnection::ping);
             return true;
         } catch (Exception e) {
             logger.warn("Redis is not available: {}", e.getMessage());
@@ -102,17 +114,9 @@ public class CacheManagementService {
         }
     }
 
-    /**
-     * Compte le nombre de clés correspondant à un pattern
-     */
-    private long countKeys(String pattern) {
-        try {
-            Set<String> keys = redisTemplate.keys(pattern);
-            return keys != null ? keys.size() : 0;
-        } catch (Exception e) {
-            logger.warn("Error counting keys for pattern {}: {}", pattern, e.getMessage());
-            return 0;
-        }
+    private static long size(Map<String, CacheCounters> counters, String cacheName) {
+        CacheCounters cacheCounters = counters.get(cacheName);
+        return cacheCounters != null ? cacheCounters.getSize() : 0;
     }
 
     /**
@@ -123,6 +127,7 @@ public class CacheManagementService {
         private long stationsCacheSize;
         private long weatherDataCacheSize;
         private boolean redisAvailable;
+        private Map<String, CacheCounters> caches = new LinkedHashMap<>();
 
         public long getForecastsCacheSize() {
             return forecastsCacheSize;
@@ -155,5 +160,13 @@ public class CacheManagementService {
         public void setRedisAvailable(boolean redisAvailable) {
             this.redisAvailable = redisAvailable;
         }
+
+        public Map<String, CacheCounters> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, CacheCounters> caches) {
+            this.caches = caches;
+        }
     }
 }
@@ -0,0 +1,223 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.Parcelle;
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contrôle d'admission des programmes d'arrosage avant leur exécution
+ *
+ * Chaque programme réservé doit obtenir une place : au plus max-per-parcelle programmes par parcelle,
+ * max-per-exploitation par exploitation et max-in-flight pour toute l'instance. Une place est rendue
+ * dès la fin de l'exécution de son programme, réussie ou non ({@link Slot#release}) ; la fermeture du
+ * passage rend celles qui resteraient. Un programme sans place est différé (remis en PLANIFIE) et repris
+ * par un passage suivant, au lieu d'être tenté puis marqué ANNULE.
+ * Une limite inférieure ou égale à 0 est désactivée.
+ */
+@Component
+@Slf4j
+public class ExecutionAdmission {
+
+    private final IrrigationMetricsCollector metricsCollector;
+    private final boolean enabled;
+    private final int maxPerParcelle;
+    private final int maxPerExploitation;
+    private final int maxInFlight;
+    private final Duration deferDelay;
+
+    /** Places occupées, toutes passes ouvertes confondues (accès sous le verrou de l'instance) */
+    private final Map<Long, Integer> parcelleInFlight = new HashMap<>();
+    private final Map<String, Integer> exploitationInFlight = new HashMap<>();
+    private int inFlight;
+
+    public ExecutionAdmission(
+            IrrigationMetricsCollector metricsCollector,
+            @Value("${app.scheduler.irrigation.admission.enabled:false}") boolean enabled,
+            @Value("${app.scheduler.irrigation.admission.max-per-parcelle:2}") int maxPerParcelle,
+            @Value("${app.scheduler.irrigation.admission.max-per-exploitation:20}") int maxPerExploitation,
+            @Value("${app.scheduler.irrigation.admission.max-in-flight:500}") int maxInFlight,
+            @Value("${app.scheduler.irrigation.admission.defer-delay:PT1M}") Duration deferDelay) {
+        this.metricsCollector = metricsCollector;
+        this.enabled = enabled;
+        this.maxPerParcelle = maxPerParcelle;
+        this.maxPerExploitation = maxPerExploitation;
+        this.maxInFlight = maxInFlight;
+        this.deferDelay = deferDelay;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Délai avant de relancer un passage lorsque des programmes ont été différés
+     */
+    public Duration getDeferDelay() {
+        return deferDelay;
+    }
+
+    /**
+     * Ouvrir les admissions d'un passage d'exécution
+     * Les places encore tenues sont rendues à la fermeture du passage.
+     */
+    public Slot openSlot() {
+        return new Slot();
+    }
+
+    /**
+     * Nombre de programmes admis et pas encore rendus
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized String acquire(Long parcelleId, String exploitation) {
+        if (maxInFlight > 0 && inFlight >= maxInFlight) {
+            return IrrigationMetricsCollector.DEFERRAL_GLOBAL;
+        }
+        if (maxPerParcelle > 0 && parcelleInFlight.getOrDefault(parcelleId, 0) >= maxPerParcelle) {
+            return IrrigationMetricsCollector.DEFERRAL_PARCELLE;
+        }
+        if (maxPerExploitation > 0 && exploitation != null
+                && exploitationInFlight.getOrDefault(exploitation, 0) >= maxPerExploitation) {
+            return IrrigationMetricsCollector.DEFERRAL_EXPLOITATION;
+        }
+        parcelleInFlight.merge(parcelleId, 1, Integer::sum);
+        if (exploitation != null) {
+            exploitationInFlight.merge(exploitation, 1, Integer::sum);
+        }
+        inFlight++;
+        metricsCollector.setAdmissionInFlight(inFlight);
+        return null;
+    }
+
+    private synchronized void release(Collection<Place> places) {
+        for (Place place : places) {
+            parcelleInFlight.computeIfPresent(place.parcelleId, (key, count) -> count > 1 ? count - 1 : null);
+            if (place.exploitation != null) {
+                exploitationInFlight.computeIfPresent(place.exploitation, (key, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+        inFlight = Math.max(inFlight - places.size(), 0);
+        metricsCollector.setAdmissionInFlight(inFlight);
+    }
+
+    private synchronized int remainingInFlight() {
+        return Math.max(maxInFlight - inFlight, 0);
+    }
+
+    /**
+     * Place tenue par un programme admis
+     */
+    private static final class Place {
+        private final Long parcelleId;
+        private final String exploitation;
+
+        private Place(Long parcelleId, String exploitation) {
+            this.parcelleId = parcelleId;
+            this.exploitation = exploitation;
+        }
+    }
+
+    /**
+     * Admissions d'un passage d'exécution
+     */
+    public final class Slot implements AutoCloseable {
+
+        /** Places tenues par programme ; rendues depuis les threads d'exécution en mode partitionné */
+        private final Map<Long, Place> held = new ConcurrentHashMap<>();
+        private int admittedCount;
+        private int deferredCount;
+        private boolean closed;
+
+        private Slot() {
+        }
+
+        /**
+         * Réserver une place pour un programme
+         *
+         * @return false si une limite est atteinte : le programme doit être différé
+         */
+        public boolean tryAdmit(ProgrammeArrosage programme) {
+            if (!enabled) {
+                return true;
+            }
+            Parcelle parcelle = programme.getParcelle();
+            // L'exploitation n'est lue (chargement de la parcelle) que si sa limite est active
+            String exploitation = maxPerExploitation > 0 ? parcelle.getExploitation() : null;
+            String reason = acquire(parcelle.getId(), exploitation);
+            if (reason != null) {
+                deferredCount++;
+                metricsCollector.incrementAdmissionDeferred(reason);
+                log.debug("Program {} deferred by admission control ({} limit reached)", programme.getId(), reason);
+                return false;
+            }
+            held.put(programme.getId(), new Place(parcelle.getId(), exploitation));
+            admittedCount++;
+            return true;
+        }
+
+        /**
+         * Rendre la place d'un programme dont l'exécution est terminée, réussie ou non
+         * Sans effet si le programme n'en tient pas (non admis, déjà rendu, contrôle désactivé).
+         */
+        public void release(Long programmeId) {
+            Place place = held.remove(programmeId);
+            if (place != null) {
+                ExecutionAdmission.this.release(List.of(place));
+            }
+        }
+
+        /**
+         * Nombre de places encore disponibles pour l'instance (illimité sans limite globale)
+         */
+        public int remaining() {
+            return enabled && maxInFlight > 0 ? remainingInFlight() : Integer.MAX_VALUE;
+        }
+
+        /**
+         * Plus aucune place globale : inutile de réserver d'autres programmes dans ce passage
+         */
+        public boolean isFull() {
+            return remaining() == 0;
+        }
+
+        public int getAdmittedCount() {
+            return admittedCount;
+        }
+
+        public int getDeferredCount() {
+            return deferredCount;
+        }
+
+        /**
+         * Rendre les places encore tenues à la fin du passage (exécution interrompue)
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (!held.isEmpty()) {
+                List<Place> remaining = new ArrayList<>(held.values());
+                held.clear();
+                ExecutionAdmission.this.release(remaining);
+            }
+            if (deferredCount > 0) {
+                log.info("Admission control deferred {} program(s) to a later pass", deferredCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.cache.ForecastCacheIndex;
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Éviction des prévisions en cache touchées par des changements météo
+ *
+ * Pour chaque station changée sont évincées la liste complète ({@code all}), la liste de la station
+ * ({@code station:{id}}), le jour de chaque date changée ({@code station:{id}:day:{date}}) et, d'après
+ * l'index par station, chaque période et chaque prévision qui contient une date changée. La prochaine
+ * lecture les recharge depuis meteo-service. Une erreur de cache est journalisée sans bloquer le
+ * traitement des événements : les entrées expirent alors avec leur durée de vie.
+ */
+@Component
+@Slf4j
+public class ForecastCacheInvalidator {
+
+    static final String FORECASTS_CACHE = "forecasts";
+
+    private final CacheManager cacheManager;
+    private final ForecastCacheIndex forecastCacheIndex;
+
+    public ForecastCacheInvalidator(CacheManager cacheManager, ForecastCacheIndex forecastCacheIndex) {
+        this.cacheManager = cacheManager;
+        this.forecastCacheIndex = forecastCacheIndex;
+    }
+
+    public void evict(Collection<WeatherChangeEvent> events) {
+        Cache cache = cacheManager.getCache(FORECASTS_CACHE);
+        if (cache == null || events.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> keys = keysToEvict(changedDates(events));
+            keys.forEach(cache::evict);
+            log.debug("Evicted {} forecast cache key(s) after {} weather change event(s)", keys.size(), events.size());
+        } catch (RuntimeException e) {
+            log.warn("Cannot evict forecasts changed by {} weather change event(s): {}", events.size(), e.getMessage());
+        }
+    }
+
+    private Set<String> keysToEvict(Map<Long, Set<LocalDate>> changedDates) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add("all");
+        changedDates.forEach((stationId, dates) -> {
+            keys.add("station:" + stationId);
+            for (LocalDate date : dates) {
+                keys.add(ForecastDayGrid.dayKey(stationId, date));
+                keys.addAll(forecastCacheIndex.keysCovering(stationId, date));
+            }
+        });
+        return keys;
+    }
+
+    private static Map<Long, Set<LocalDate>> changedDates(Collection<WeatherChangeEvent> events) {
+        Map<Long, Set<LocalDate>> dates = new LinkedHashMap<>();
+        for (WeatherChangeEvent event : events) {
+            if (event.getStationId() == null) {
+                continue;
+            }
+            Set<LocalDate> stationDates = dates.computeIfAbsent(event.getStationId(), id -> new LinkedHashSet<>());
+            addDate(stationDates, event.getOldConditions());
+            addDate(stationDates, event.getNewConditions());
+        }
+        return dates;
+    }
+
+    private static void addDate(Set<LocalDate> dates, WeatherConditions conditions) {
+        if (conditions != null && conditions.getDate() != null) {
+            dates.add(conditions.getDate().toLocalDate());
+        }
+    }
+}
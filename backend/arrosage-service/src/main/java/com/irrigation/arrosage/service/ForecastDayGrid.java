@@ -0,0 +1,135 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.client.MeteoServiceClient;
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prévisions d'une période assemblées jour par jour depuis le cache des prévisions
+ *
+ * Chaque jour d'une station est une entrée {@code station:{id}:day:{date}} du cache {@code forecasts},
+ * liste éventuellement vide si meteo-service n'a rien pour ce jour. Une période est lue jour par jour
+ * et seuls les jours manquants sont demandés, en un seul appel couvrant du premier au dernier manquant :
+ * des fenêtres glissantes (01..04 puis 02..05) ne coûtent plus qu'un jour chacune.
+ * Une réponse vide n'est pas mise en cache (meteo-service indisponible ou sans prévisions).
+ * Une erreur de cache est journalisée et le jour est traité comme manquant.
+ */
+@Component
+@Slf4j
+public class ForecastDayGrid {
+
+    private final CacheManager cacheManager;
+    private final MeteoServiceClient meteoServiceClient;
+    private final int maxDays;
+
+    public ForecastDayGrid(CacheManager cacheManager,
+                           MeteoServiceClient meteoServiceClient,
+                           @Value("${app.cache.forecast-grid.max-days:31}") int maxDays) {
+        this.cacheManager = cacheManager;
+        this.meteoServiceClient = meteoServiceClient;
+        this.maxDays = maxDays;
+    }
+
+    static String dayKey(Long stationId, LocalDate date) {
+        return "station:" + stationId + ":day:" + date;
+    }
+
+    /**
+     * Prévisions de la station du premier au dernier jour inclus, par date croissante
+     * Une période de plus de app.cache.forecast-grid.max-days jours est demandée directement.
+     */
+    public List<PrevisionMeteoDTO> getPrevisionsByPeriode(Long stationId, LocalDate startDate, LocalDate endDate) {
+        Cache cache = cacheManager.getCache(ForecastCacheInvalidator.FORECASTS_CACHE);
+        if (cache == null || endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= maxDays) {
+            return meteoServiceClient.getPrevisionsByPeriode(stationId, startDate, endDate);
+        }
+
+        Map<LocalDate, List<PrevisionMeteoDTO>> days = new LinkedHashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            List<PrevisionMeteoDTO> day = read(cache, stationId, date);
+            days.put(date, day);
+            if (day == null) {
+                firstMissing = firstMissing == null ? date : firstMissing;
+                lastMissing = date;
+            }
+        }
+
+        if (firstMissing != null) {
+            List<PrevisionMeteoDTO> fetched = meteoServiceClient.getPrevisionsByPeriode(stationId, firstMissing, lastMissing);
+            Map<LocalDate, List<PrevisionMeteoDTO>> fetchedDays = byDay(fetched);
+            for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+                if (days.get(date) != null) {
+                    continue;
+                }
+                List<PrevisionMeteoDTO> day = fetchedDays.getOrDefault(date, List.of());
+                days.put(date, day);
+                if (!fetched.isEmpty()) {
+                    write(cache, stationId, date, day);
+                }
+            }
+            log.debug("Station {} period {}..{}: fetched {}..{} from meteo-service",
+                    stationId, startDate, endDate, firstMissing, lastMissing);
+        }
+
+        List<PrevisionMeteoDTO> previsions = new ArrayList<>();
+        days.values().forEach(previsions::addAll);
+        return previsions;
+    }
+
+    /**
+     * Évincer les jours d'une période
+     */
+    public void evict(Long stationId, LocalDate startDate, LocalDate endDate) {
+        Cache cache = cacheManager.getCache(ForecastCacheInvalidator.FORECASTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            cache.evict(dayKey(stationId, date));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PrevisionMeteoDTO> read(Cache cache, Long stationId, LocalDate date) {
+        try {
+            return cache.get(dayKey(stationId, date), List.class);
+        } catch (RuntimeException e) {
+            log.warn("Cannot read cached forecasts of station {} on {}: {}", stationId, date, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void write(Cache cache, Long stationId, LocalDate date, List<PrevisionMeteoDTO> day) {
+        try {
+            cache.put(dayKey(stationId, date), day);
+        } catch (RuntimeException e) {
+            log.warn("Cannot cache forecasts of station {} on {}: {}", stationId, date, e.getMessage());
+        }
+    }
+
+    /**
+     * Prévisions regroupées par date, dans l'ordre de la réponse ; celles sans date ne sont pas placées
+     */
+    private static Map<LocalDate, List<PrevisionMeteoDTO>> byDay(List<PrevisionMeteoDTO> previsions) {
+        Map<LocalDate, List<PrevisionMeteoDTO>> days = new LinkedHashMap<>();
+        for (PrevisionMeteoDTO prevision : previsions) {
+            if (prevision.getDate() != null) {
+                days.computeIfAbsent(prevision.getDate(), date -> new ArrayList<>()).add(prevision);
+            }
+        }
+        return days;
+    }
+}
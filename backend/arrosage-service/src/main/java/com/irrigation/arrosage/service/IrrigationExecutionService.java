@@ -4,18 +4,29 @@ import com.irrigation.arrosage.dto.JournalArrosageDTO;
 import com.irrigation.arrosage.entity.JournalArrosage;
 import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.journal.WriteBehindJournal;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
 import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Service pour l'exécution automatique des programmes d'arrosage
@@ -27,90 +38,426 @@ public class IrrigationExecutionService {
 
     private final ProgrammeArrosageRepository programmeRepository;
     private final JournalArrosageService journalService;
+    private final WriteBehindJournal writeBehindJournal;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final IrrigationMetricsCollector metricsCollector;
+    private final ExecutionAdmission executionAdmission;
+    private final SchedulerLeaseService schedulerLeaseService;
     private final Random random = new Random();
 
+    private static final Comparator<ProgrammeArrosage> EXECUTION_ORDER = Comparator
+            .comparing(ProgrammeArrosage::getDatePlanifiee)
+            .thenComparing(ProgrammeArrosage::getId);
+
+    @Value("${app.scheduler.irrigation.claim-batch-size:100}")
+    private int claimBatchSize = 100;
+
+    @Value("${app.scheduler.irrigation.claim-timeout:PT30M}")
+    private Duration claimTimeout = Duration.ofMinutes(30);
+
     /**
      * Exécuter tous les programmes planifiés dont l'heure est arrivée
+     * Les programmes sont réservés par lots (PLANIFIE -> EN_COURS) avec SKIP LOCKED,
+     * plusieurs instances peuvent donc exécuter ce traitement en même temps.
+     * 
+     * Chaque lot est parcouru par clé (date_planifiee, id) et exécuté dans sa propre transaction,
+     * puis le contexte de persistance est vidé : la mémoire utilisée reste constante
+     * quelle que soit la taille du retard à rattraper (après un arrêt du service par exemple).
+     * 
+     * Avec le contrôle d'admission, les programmes au-delà des limites par parcelle, par exploitation
+     * ou globale sont remis en PLANIFIE dans la transaction de leur lot et repris au passage suivant.
      * 
      * @param executionTime Heure d'exécution de référence
      * @return Nombre de programmes exécutés
      */
-    @Transactional
     public int executeScheduledPrograms(LocalDateTime executionTime) {
-        // Trouver tous les programmes PLANIFIE dont la date est passée ou actuelle
-        List<ProgrammeArrosage> programsToExecute = programmeRepository
-                .findByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE);
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            int executedCount = executeDueChunks(executionTime);
+            completed = true;
+            return executedCount;
+        } finally {
+            metricsCollector.recordTick(System.nanoTime() - start, completed);
+        }
+    }
+
+    private int executeDueChunks(LocalDateTime executionTime) {
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.executeWithoutResult(status -> releaseStaleClaims(executionTime));
+        refreshBacklog(executionTime);
         
-        if (programsToExecute.isEmpty()) {
+        KeysetCursor cursor = new KeysetCursor();
+        int successCount = 0;
+        int failureCount = 0;
+        int deferredCount = 0;
+        int chunkCount = 0;
+        
+        try (ExecutionAdmission.Slot slot = executionAdmission.openSlot()) {
+            while (!slot.isFull()) {
+                int succeeded;
+                try {
+                    succeeded = chunkTransaction.execute(status -> executeNextChunk(executionTime, cursor, slot));
+                } catch (RuntimeException e) {
+                    if (cursor.getClaimedCount() == 0) {
+                        throw e;
+                    }
+                    // Lot annulé (ses programmes sont redevenus PLANIFIE) : reprendre un par un
+                    // les programmes admis pour isoler celui en échec
+                    log.warn("Chunk of {} program(s) rolled back ({}), executing them one by one",
+                            cursor.getClaimedCount(), e.getMessage());
+                    succeeded = executeIndividually(cursor.getChunkIds(), executionTime, chunkTransaction);
+                }
+                
+                if (cursor.getClaimedCount() == 0) {
+                    break;
+                }
+                successCount += succeeded;
+                failureCount += cursor.getChunkSize() - succeeded;
+                deferredCount += cursor.getClaimedCount() - cursor.getChunkSize();
+                chunkCount++;
+                // Les programmes différés restent dans la file d'attente
+                metricsCollector.decrementProgramsBacklog(cursor.getChunkSize());
+            }
+        }
+        
+        if (successCount + failureCount + deferredCount == 0) {
             log.debug("No programs scheduled for execution at {}", executionTime);
             return 0;
         }
         
-        log.info("Found {} program(s) scheduled for execution", programsToExecute.size());
+        log.info("Execution summary: {} succeeded, {} failed, {} deferred in {} chunk(s)",
+                successCount, failureCount, deferredCount, chunkCount);
+        return successCount;
+    }
+
+    /**
+     * Réserver et exécuter le lot suivant le curseur, puis vider le contexte de persistance
+     * Les programmes refusés par le contrôle d'admission sont différés sans être exécutés.
+     * 
+     * @return Nombre de programmes du lot exécutés avec succès
+     */
+    private int executeNextChunk(LocalDateTime executionTime, KeysetCursor cursor, ExecutionAdmission.Slot slot) {
+        cursor.reset();
+        List<ProgrammeArrosage> chunk = claimDueProgrammes(executionTime, cursor.getAfterDate(), cursor.getAfterId(),
+                Math.min(claimBatchSize, slot.remaining()));
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        log.info("Claimed {} program(s) for execution", chunk.size());
         
-        AtomicInteger successCount = new AtomicInteger(0);
-        AtomicInteger failureCount = new AtomicInteger(0);
+        List<ProgrammeArrosage> admitted = new ArrayList<>(chunk.size());
+        for (ProgrammeArrosage programme : chunk) {
+            if (slot.tryAdmit(programme)) {
+                admitted.add(programme);
+            } else {
+                deferProgramme(programme);
+            }
+        }
+        cursor.advance(chunk, admitted);
         
-        programsToExecute.forEach(programme -> {
+        List<ProgrammeArrosage> completed = new ArrayList<>(admitted.size());
+        List<JournalArrosageDTO> journals = new ArrayList<>(admitted.size());
+        for (ProgrammeArrosage programme : admitted) {
+            long start = System.nanoTime();
             try {
-                executeSingleProgram(programme, executionTime);
-                successCount.incrementAndGet();
+                JournalArrosageDTO journal = simulateClaimedProgram(programme, executionTime);
+                markCompleted(programme, journal);
+                completed.add(programme);
+                journals.add(journal);
+                recordExecutionAfterCommit(System.nanoTime() - start, true);
             } catch (Exception e) {
-                failureCount.incrementAndGet();
+                recordExecutionAfterCommit(System.nanoTime() - start, false);
                 log.error("Failed to execute program {}: {}", programme.getId(), e.getMessage(), e);
                 handleExecutionFailure(programme, e.getMessage());
+            } finally {
+                slot.release(programme.getId());
             }
-        });
+        }
         
-        log.info("Execution summary: {} succeeded, {} failed", successCount.get(), failureCount.get());
-        return successCount.get();
+        // Journaux du lot écrits en une seule fois (INSERT regroupés en batch JDBC ou journal local)
+        writeJournals(completed, journals);
+        
+        entityManager.flush();
+        entityManager.clear();
+        return journals.size();
+    }
+
+    /**
+     * Exécuter les programmes d'un lot annulé un par un, chacun dans sa propre transaction
+     * Un programme en échec est marqué ANNULE sans affecter les autres.
+     * 
+     * @return Nombre de programmes exécutés avec succès
+     */
+    private int executeIndividually(List<Long> programmeIds, LocalDateTime executionTime,
+                                    TransactionTemplate transactionTemplate) {
+        int succeeded = 0;
+        for (Long programmeId : programmeIds) {
+            try {
+                Boolean executed = transactionTemplate.execute(status -> programmeRepository.findById(programmeId)
+                        .map(programme -> executeSingleProgram(programme, executionTime))
+                        .orElse(false));
+                if (Boolean.TRUE.equals(executed)) {
+                    succeeded++;
+                }
+            } catch (Exception e) {
+                log.error("Failed to execute program {}: {}", programmeId, e.getMessage(), e);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> programmeRepository.findById(programmeId)
+                            .ifPresent(programme -> handleExecutionFailure(programme, e.getMessage())));
+                } catch (Exception failure) {
+                    log.error("Failed to handle execution failure for program {}: {}",
+                            programmeId, failure.getMessage(), failure);
+                }
+            }
+        }
+        return succeeded;
+    }
+
+    /**
+     * Réserver le prochain lot de programmes dus, triés par date planifiée
+     */
+    public List<ProgrammeArrosage> claimDueProgrammes(LocalDateTime executionTime) {
+        return claimDueProgrammes(executionTime, ProgrammeArrosageRepository.KEYSET_ORIGIN, 0L);
+    }
+
+    /**
+     * Réserver le prochain lot de programmes dus situés après le curseur (afterDate, afterId)
+     */
+    public List<ProgrammeArrosage> claimDueProgrammes(LocalDateTime executionTime, LocalDateTime afterDate, Long afterId) {
+        return claimDueProgrammes(executionTime, afterDate, afterId, claimBatchSize);
+    }
+
+    /**
+     * Réserver au plus limit programmes dus situés après le curseur (afterDate, afterId)
+     * Avec l'élection de leader, le bail de l'instance est vérifié dans la même transaction.
+     */
+    public List<ProgrammeArrosage> claimDueProgrammes(LocalDateTime executionTime, LocalDateTime afterDate, Long afterId,
+                                                      int limit) {
+        schedulerLeaseService.checkFence();
+        List<ProgrammeArrosage> claimed = new ArrayList<>(programmeRepository.claimDueProgrammesAfter(
+                executionTime, afterDate, afterId, Math.min(limit, claimBatchSize)));
+        claimed.sort(EXECUTION_ORDER);
+        return claimed;
+    }
+
+    /**
+     * Différer un programme réservé refusé par le contrôle d'admission : retour en PLANIFIE,
+     * sans journal ni échec, il sera repris par un passage suivant
+     */
+    public void deferProgramme(ProgrammeArrosage programme) {
+        programme.setStatut(StatutProgramme.PLANIFIE);
+        programme.setDateReservation(null);
+        programmeRepository.save(programme);
+    }
+
+    /**
+     * Remettre en PLANIFIE les programmes réservés par une instance qui ne les a jamais terminés
+     * 
+     * @return Nombre de réservations libérées
+     */
+    @Transactional
+    public int releaseStaleClaims(LocalDateTime executionTime) {
+        int released = programmeRepository.releaseStaleReservations(
+                executionTime.minus(claimTimeout), StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS);
+        if (released > 0) {
+            metricsCollector.recordStaleClaimsReleased(released);
+            log.warn("Released {} stale program reservation(s) older than {}", released, claimTimeout);
+        }
+        return released;
+    }
+
+    /**
+     * Mettre à jour la jauge du nombre de programmes dus en attente d'exécution
+     */
+    public void refreshBacklog(LocalDateTime executionTime) {
+        metricsCollector.setProgramsBacklog(
+                programmeRepository.countByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE));
     }
 
     /**
      * Exécuter un seul programme d'arrosage
-     * Utilise une isolation SERIALIZABLE pour éviter les conflits de concurrent execution
+     * La réservation est faite par une mise à jour conditionnelle atomique :
+     * si une autre instance a déjà pris le programme, l'exécution est ignorée.
+     * 
+     * @return true si le programme a été exécuté, false s'il était déjà pris en charge
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void executeSingleProgram(ProgrammeArrosage programme, LocalDateTime executionTime) {
-        log.info("Starting execution of program {} for parcelle {}", 
-                programme.getId(), programme.getParcelle().getNom());
-        
-        // Vérifier que le programme n'a pas déjà été pris par un autre thread
-        ProgrammeArrosage freshProgramme = programmeRepository.findById(programme.getId())
-                .orElseThrow(() -> new RuntimeException("Programme not found: " + programme.getId()));
+    @Transactional
+    public boolean executeSingleProgram(ProgrammeArrosage programme, LocalDateTime executionTime) {
+        int claimed = programmeRepository.claimProgramme(
+                programme.getId(), executionTime, StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS);
         
-        if (freshProgramme.getStatut() != StatutProgramme.PLANIFIE) {
-            log.warn("Program {} already in status {}, skipping execution", 
-                    programme.getId(), freshProgramme.getStatut());
-            return;
+        if (claimed == 0) {
+            metricsCollector.incrementClaimConflicts();
+            log.warn("Program {} already claimed or no longer PLANIFIE, skipping execution", programme.getId());
+            return false;
         }
         
-        // Marquer comme EN_COURS
-        freshProgramme.setStatut(StatutProgramme.EN_COURS);
-        programmeRepository.save(freshProgramme);
+        programme.setStatut(StatutProgramme.EN_COURS);
+        programme.setDateReservation(executionTime);
         
         try {
-            // Simuler l'exécution de l'arrosage
-            ExecutionResult result = simulateIrrigationExecution(freshProgramme);
-            
-            // Créer l'entrée de journal
-            createJournalEntry(freshProgramme, result, executionTime);
-            
-            // Marquer comme TERMINE
-            freshProgramme.setStatut(StatutProgramme.TERMINE);
-            programmeRepository.save(freshProgramme);
-            
-            log.info("Successfully completed program {} - Volume: {} m³, Duration: {} min", 
-                    freshProgramme.getId(), result.getActualVolume(), freshProgramme.getDuree());
-            
+            executeClaimedProgram(programme, executionTime);
+            return true;
         } catch (Exception e) {
             // En cas d'erreur, remettre en PLANIFIE pour retry
-            freshProgramme.setStatut(StatutProgramme.PLANIFIE);
-            programmeRepository.save(freshProgramme);
+            programme.setStatut(StatutProgramme.PLANIFIE);
+            programme.setDateReservation(null);
+            programmeRepository.save(programme);
             throw e;
         }
     }
 
+    /**
+     * Exécuter un programme déjà réservé (statut EN_COURS)
+     * Une seule écriture du programme : passage à TERMINE
+     * Une exécution réussie n'est comptée qu'après la validation de la transaction ; un échec l'est
+     * à la fin de la transaction, qu'il annule.
+     */
+    @Transactional
+    public void executeClaimedProgram(ProgrammeArrosage programme, LocalDateTime executionTime) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            JournalArrosageDTO journal = simulateClaimedProgram(programme, executionTime);
+            
+            // Créer l'entrée de journal
+            if (writeBehindJournal.isEnabled()) {
+                appendJournals(List.of(programme), List.of(journal));
+            } else {
+                long journalStart = System.nanoTime();
+                boolean written = false;
+                try {
+                    journalService.create(journal);
+                    written = true;
+                } finally {
+                    metricsCollector.recordJournalWrite(System.nanoTime() - journalStart, written);
+                }
+            }
+            log.debug("Created journal entry for program {}", programme.getId());
+            
+            markCompleted(programme, journal);
+            succeeded = true;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            if (succeeded) {
+                recordExecutionAfterCommit(elapsedNanos, true);
+            } else {
+                runAfterCompletion(() -> metricsCollector.recordProgramExecution(elapsedNanos, false));
+            }
+        }
+    }
+
+    /**
+     * Compter une exécution quand la transaction est validée
+     * Un lot annulé puis repris programme par programme n'est ainsi compté qu'une fois.
+     */
+    private void recordExecutionAfterCommit(long elapsedNanos, boolean success) {
+        runAfterCommit(() -> metricsCollector.recordProgramExecution(elapsedNanos, success));
+    }
+
+    /**
+     * Écrire les journaux d'un lot : en base, ou dans le journal local en mode write-behind
+     */
+    private void writeJournals(List<ProgrammeArrosage> programmes, List<JournalArrosageDTO> journals) {
+        if (writeBehindJournal.isEnabled()) {
+            appendJournals(programmes, journals);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean written = false;
+        try {
+            journalService.createAll(journals);
+            written = true;
+        } finally {
+            metricsCollector.recordJournalWrite(System.nanoTime() - start, written);
+        }
+    }
+
+    /**
+     * Ajouter au journal local les journaux des programmes exécutés, avant la validation de la transaction
+     * La clé de chaque entrée est enregistrée sur son programme avec le passage à TERMINE : le vidage
+     * n'insère que les entrées d'une transaction validée. Un échec de l'ajout annule la transaction.
+     */
+    private void appendJournals(List<ProgrammeArrosage> programmes, List<JournalArrosageDTO> journals) {
+        long start = System.nanoTime();
+        boolean written = false;
+        try {
+            List<String> keys = writeBehindJournal.appendAll(journals);
+            for (int i = 0; i < programmes.size(); i++) {
+                programmes.get(i).setWriteBehindKey(keys.get(i));
+            }
+            written = true;
+        } finally {
+            metricsCollector.recordJournalWrite(System.nanoTime() - start, written);
+        }
+    }
+
+    /**
+     * Exécuter une action après la validation de la transaction en cours, ou tout de suite hors transaction
+     * Rien n'est exécuté si la transaction est annulée.
+     */
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Exécuter une action à la fin de la transaction en cours, validée ou annulée, ou tout de suite hors transaction
+     */
+    private static void runAfterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Simuler l'exécution d'un programme réservé
+     * 
+     * @return Entrée de journal à écrire pour cette exécution
+     */
+    private JournalArrosageDTO simulateClaimedProgram(ProgrammeArrosage programme, LocalDateTime executionTime) {
+        log.info("Starting execution of program {} for parcelle {}", 
+                programme.getId(), programme.getParcelle().getNom());
+        if (programme.getDatePlanifiee() != null) {
+            metricsCollector.recordDispatchLag(
+                    ChronoUnit.MILLIS.between(programme.getDatePlanifiee(), LocalDateTime.now()));
+        }
+        
+        // Simuler l'exécution de l'arrosage
+        ExecutionResult result = simulateIrrigationExecution(programme);
+        return buildJournalEntry(programme, result, executionTime);
+    }
+
+    /**
+     * Marquer un programme exécuté comme TERMINE
+     */
+    private void markCompleted(ProgrammeArrosage programme, JournalArrosageDTO journal) {
+        programme.setStatut(StatutProgramme.TERMINE);
+        programmeRepository.save(programme);
+        double volume = journal.getVolumeReel().doubleValue();
+        runAfterCommit(() -> metricsCollector.recordWaterUsage(volume));
+        
+        log.info("Successfully completed program {} - Volume: {} m³, Duration: {} min", 
+                programme.getId(), journal.getVolumeReel(), programme.getDuree());
+    }
+
     /**
      * Simuler l'exécution de l'arrosage avec variance réaliste
      */
@@ -148,24 +495,21 @@ public class IrrigationExecutionService {
     }
 
     /**
-     * Créer une entrée de journal pour l'exécution
+     * Construire l'entrée de journal pour l'exécution
      */
-    private void createJournalEntry(ProgrammeArrosage programme, ExecutionResult result, LocalDateTime executionTime) {
+    private JournalArrosageDTO buildJournalEntry(ProgrammeArrosage programme, ExecutionResult result, LocalDateTime executionTime) {
         JournalArrosageDTO journalDTO = new JournalArrosageDTO();
         journalDTO.setProgrammeId(programme.getId());
         journalDTO.setDateExecution(executionTime);
         journalDTO.setVolumeReel(result.getActualVolume());
         journalDTO.setRemarque(result.getRemarque());
-        
-        journalService.create(journalDTO);
-        
-        log.debug("Created journal entry for program {}", programme.getId());
+        return journalDTO;
     }
 
     /**
      * Gérer les échecs d'exécution
      */
-    private void handleExecutionFailure(ProgrammeArrosage programme, String errorMessage) {
+    public void handleExecutionFailure(ProgrammeArrosage programme, String errorMessage) {
         try {
             programme.setStatut(StatutProgramme.ANNULE);
             programmeRepository.save(programme);
@@ -188,27 +532,53 @@ public class IrrigationExecutionService {
     }
 
     /**
-     * Archiver les programmes terminés anciens (soft delete)
-     * 
-     * @param cutoffDate Date limite - programmes avant cette date seront archivés
-     * @return Nombre de programmes archivés
+     * Curseur de pagination par clé (date_planifiee, id) sur les programmes dus
      */
-    @Transactional
-    public int archiveCompletedPrograms(LocalDateTime cutoffDate) {
-        List<ProgrammeArrosage> oldPrograms = programmeRepository
-                .findByDatePlanifieeBeforeAndStatut(cutoffDate, StatutProgramme.TERMINE);
-        
-        if (oldPrograms.isEmpty()) {
-            return 0;
+    private static class KeysetCursor {
+        private LocalDateTime afterDate = ProgrammeArrosageRepository.KEYSET_ORIGIN;
+        private Long afterId = 0L;
+        private List<Long> chunkIds = new ArrayList<>();
+        private int claimedCount;
+
+        void reset() {
+            chunkIds = new ArrayList<>();
+            claimedCount = 0;
+        }
+
+        /**
+         * Avancer après tout le lot réservé (les programmes différés ne sont pas repris dans ce passage)
+         * en ne retenant que les programmes admis
+         */
+        void advance(List<ProgrammeArrosage> sortedChunk, List<ProgrammeArrosage> admitted) {
+            ProgrammeArrosage last = sortedChunk.get(sortedChunk.size() - 1);
+            afterDate = last.getDatePlanifiee();
+            afterId = last.getId();
+            claimedCount = sortedChunk.size();
+            chunkIds = admitted.stream().map(ProgrammeArrosage::getId).collect(Collectors.toList());
+        }
+
+        LocalDateTime getAfterDate() {
+            return afterDate;
+        }
+
+        Long getAfterId() {
+            return afterId;
+        }
+
+        List<Long> getChunkIds() {
+            return chunkIds;
+        }
+
+        /**
+         * Nombre de programmes admis du lot
+         */
+        int getChunkSize() {
+            return chunkIds.size();
+        }
+
+        int getClaimedCount() {
+            return claimedCount;
         }
-        
-        log.info("Archiving {} completed programs older than {}", oldPrograms.size(), cutoffDate);
-        
-        // Pour l'instant, on les laisse en base
-        // Dans une vraie application, on pourrait les marquer comme archivés ou les déplacer
-        // vers une table d'archives
-        
-        return oldPrograms.size();
     }
 
     /**
@@ -5,13 +5,22 @@ import com.irrigation.arrosage.entity.JournalArrosage;
 import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import com.irrigation.arrosage.repository.JournalArrosageRepository;
 import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +31,7 @@ public class JournalArrosageService {
 
     private final JournalArrosageRepository journalRepository;
     private final ProgrammeArrosageRepository programmeRepository;
+    private final ArchiveService archiveService;
 
     public JournalArrosageDTO create(JournalArrosageDTO dto) {
         log.info("Création d'un nouveau journal d'arrosage pour le programme ID: {}", dto.getProgrammeId());
@@ -40,6 +50,101 @@ public class JournalArrosageService {
         return mapToDTO(saved);
     }
 
+    /**
+     * Créer en une fois les journaux d'un lot d'exécutions
+     * Les programmes sont chargés en une seule requête et les INSERT sont regroupés en batch JDBC
+     * (identifiants pré-alloués par la séquence, hibernate.jdbc.batch_size).
+     */
+    public List<JournalArrosageDTO> createAll(List<JournalArrosageDTO> dtos) {
+        if (dtos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.info("Création de {} journaux d'arrosage", dtos.size());
+        
+        Set<Long> programmeIds = dtos.stream()
+                .map(JournalArrosageDTO::getProgrammeId)
+                .collect(Collectors.toSet());
+        Map<Long, ProgrammeArrosage> programmes = programmeRepository.findAllById(programmeIds).stream()
+                .collect(Collectors.toMap(ProgrammeArrosage::getId, Function.identity()));
+        
+        List<JournalArrosage> journals = new ArrayList<>(dtos.size());
+        for (JournalArrosageDTO dto : dtos) {
+            ProgrammeArrosage programme = programmes.get(dto.getProgrammeId());
+            if (programme == null) {
+                throw new RuntimeException("Programme non trouvé avec l'ID: " + dto.getProgrammeId());
+            }
+            journals.add(mapToEntity(dto, programme));
+            
+            // Mettre à jour le statut du programme si nécessaire (entité gérée, écrite au flush)
+            if (programme.getStatut() == ProgrammeArrosage.StatutProgramme.PLANIFIE) {
+                programme.setStatut(ProgrammeArrosage.StatutProgramme.TERMINE);
+            }
+        }
+        
+        return journalRepository.saveAll(journals).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Créer les journaux vidés du journal local (écriture différée), au plus une fois chacun
+     * Les clés déjà présentes en base (lot inséré juste avant un arrêt) sont ignorées. Seules les entrées
+     * validées sont insérées : celles dont la clé a été enregistrée sur le programme avec son passage à TERMINE
+     * (ou, programme TERMINE sans clé, ajoutées après la validation par une version précédente).
+     * Les autres sont retournées au lieu de faire échouer tout le lot.
+     * 
+     * @param dtos Journaux par clé d'entrée du journal local
+     * @return Nombre de journaux insérés et clés des entrées non insérées
+     */
+    public WriteBehindResult createAllOnce(Map<String, JournalArrosageDTO> dtos) {
+        if (dtos.isEmpty()) {
+            return WriteBehindResult.EMPTY;
+        }
+        Set<String> existing = new HashSet<>(journalRepository.findExistingWriteBehindKeys(dtos.keySet()));
+        if (!existing.isEmpty()) {
+            log.warn("{} journaux d'arrosage déjà écrits ignorés", existing.size());
+        }
+        
+        Set<Long> programmeIds = dtos.values().stream()
+                .map(JournalArrosageDTO::getProgrammeId)
+                .collect(Collectors.toSet());
+        Map<Long, ProgrammeArrosage> programmes = programmeRepository.findAllById(programmeIds).stream()
+                .collect(Collectors.toMap(ProgrammeArrosage::getId, Function.identity()));
+        
+        Set<String> rejected = new LinkedHashSet<>();
+        Set<String> rolledBack = new LinkedHashSet<>();
+        Set<String> uncommitted = new LinkedHashSet<>();
+        List<JournalArrosage> journals = new ArrayList<>(dtos.size());
+        dtos.forEach((key, dto) -> {
+            if (existing.contains(key)) {
+                return;
+            }
+            ProgrammeArrosage programme = programmes.get(dto.getProgrammeId());
+            if (programme == null) {
+                rejected.add(key);
+                return;
+            }
+            String committedKey = programme.getWriteBehindKey();
+            if (committedKey == null && programme.getStatut() != ProgrammeArrosage.StatutProgramme.TERMINE) {
+                // Transaction de l'exécution encore en cours, ou annulée
+                uncommitted.add(key);
+                return;
+            }
+            if (committedKey != null && !committedKey.equals(key)) {
+                // Exécution annulée puis reprise : le programme a été validé avec une autre entrée
+                rolledBack.add(key);
+                return;
+            }
+            JournalArrosage journal = mapToEntity(dto, programme);
+            journal.setWriteBehindKey(key);
+            journals.add(journal);
+        });
+        
+        log.info("Création de {} journaux d'arrosage différés", journals.size());
+        journalRepository.saveAll(journals);
+        return new WriteBehindResult(journals.size(), rejected, rolledBack, uncommitted);
+    }
+
     @Transactional(readOnly = true)
     public List<JournalArrosageDTO> findAll() {
         return journalRepository.findAll().stream()
@@ -54,11 +159,20 @@ public class JournalArrosageService {
                 .orElseThrow(() -> new RuntimeException("Journal non trouvé avec l'ID: " + id));
     }
 
+    /**
+     * Journaux d'un programme, lus dans les archives si le programme a été archivé
+     */
     @Transactional(readOnly = true)
     public List<JournalArrosageDTO> findByProgrammeId(Long programmeId) {
-        return journalRepository.findByProgrammeId(programmeId).stream()
+        List<JournalArrosageDTO> journaux = journalRepository.findByProgrammeId(programmeId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
+        if (!journaux.isEmpty()) {
+            return journaux;
+        }
+        return journalRepository.findArchivedByProgrammeId(programmeId).stream()
+                .map(this::mapArchivedToDTO)
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
@@ -68,11 +182,22 @@ public class JournalArrosageService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Journaux d'une période, complétés par les archives lorsque la période dépasse la rétention
+     */
     @Transactional(readOnly = true)
     public List<JournalArrosageDTO> findByPeriode(LocalDateTime startDate, LocalDateTime endDate) {
-        return journalRepository.findByDateExecutionBetween(startDate, endDate).stream()
+        List<JournalArrosageDTO> journaux = journalRepository.findByDateExecutionBetween(startDate, endDate).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
+        if (!archiveService.includesArchivedHistory(startDate)) {
+            return journaux;
+        }
+        journalRepository.findArchivedByDateExecutionBetween(startDate, endDate).stream()
+                .map(this::mapArchivedToDTO)
+                .forEach(journaux::add);
+        journaux.sort(Comparator.comparing(JournalArrosageDTO::getDateExecution).reversed());
+        return journaux;
     }
 
     public JournalArrosageDTO update(Long id, JournalArrosageDTO dto) {
@@ -110,6 +235,17 @@ public class JournalArrosageService {
                 .build();
     }
 
+    private JournalArrosageDTO mapArchivedToDTO(JournalArrosageRepository.ArchivedJournal archived) {
+        return JournalArrosageDTO.builder()
+                .id(archived.getId())
+                .programmeId(archived.getProgrammeId())
+                .parcelleNom(archived.getParcelleNom())
+                .dateExecution(archived.getDateExecution())
+                .volumeReel(archived.getVolumeReel())
+                .remarque(archived.getRemarque())
+                .build();
+    }
+
     private JournalArrosageDTO mapToDTO(JournalArrosage entity) {
         return JournalArrosageDTO.builder()
                 .id(entity.getId())
@@ -120,4 +256,21 @@ public class JournalArrosageService {
                 .remarque(entity.getRemarque())
                 .build();
     }
+
+    /**
+     * Résultat de l'écriture d'un lot du journal local
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class WriteBehindResult {
+        public static final WriteBehindResult EMPTY = new WriteBehindResult(0, Set.of(), Set.of(), Set.of());
+
+        private final int inserted;
+        /** Programme introuvable */
+        private final Set<String> rejected;
+        /** Programme validé avec une autre entrée */
+        private final Set<String> rolledBack;
+        /** Programme pas encore validé : transaction en cours ou annulée */
+        private final Set<String> uncommitted;
+    }
 }
@@ -18,11 +18,13 @@ import java.util.stream.Collectors;
 public class ParcelleService {
 
     private final ParcelleRepository parcelleRepository;
+    private final StationParcelleIndex stationParcelleIndex;
 
     public ParcelleDTO create(ParcelleDTO dto) {
         log.info("Création d'une nouvelle parcelle: {}", dto.getNom());
         Parcelle parcelle = mapToEntity(dto);
         Parcelle saved = parcelleRepository.save(parcelle);
+        stationParcelleIndex.onParcelleSaved(saved);
         return mapToDTO(saved);
     }
 
@@ -50,8 +52,11 @@ public class ParcelleService {
         parcelle.setNom(dto.getNom());
         parcelle.setSuperficie(dto.getSuperficie());
         parcelle.setCulture(dto.getCulture());
+        parcelle.setExploitation(dto.getExploitation());
+        parcelle.setStationId(dto.getStationId());
         
         Parcelle updated = parcelleRepository.save(parcelle);
+        stationParcelleIndex.onParcelleSaved(updated);
         return mapToDTO(updated);
     }
 
@@ -61,6 +66,7 @@ public class ParcelleService {
             throw new RuntimeException("Parcelle non trouvée avec l'ID: " + id);
         }
         parcelleRepository.deleteById(id);
+        stationParcelleIndex.onParcelleDeleted(id);
     }
 
     @Transactional(readOnly = true)
@@ -77,6 +83,8 @@ public class ParcelleService {
                 .nom(dto.getNom())
                 .superficie(dto.getSuperficie())
                 .culture(dto.getCulture())
+                .exploitation(dto.getExploitation())
+                .stationId(dto.getStationId())
                 .build();
     }
 
@@ -86,6 +94,8 @@ public class ParcelleService {
                 .nom(entity.getNom())
                 .superficie(entity.getSuperficie())
                 .culture(entity.getCulture())
+                .exploitation(entity.getExploitation())
+                .stationId(entity.getStationId())
                 .build();
     }
 }
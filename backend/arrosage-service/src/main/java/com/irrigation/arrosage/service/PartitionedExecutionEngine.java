@@ -0,0 +1,278 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Moteur d'exécution parallèle des programmes d'arrosage
+ *
+ * Les programmes dus sont réservés par lots puis regroupés par parcelle : chaque
+ * partition est exécutée sur un pool de threads borné, dans l'ordre chronologique,
+ * et chaque programme dans sa propre transaction courte.
+ *
+ * Chaque programme aboutit au même statut qu'avec {@link IrrigationExecutionService#executeScheduledPrograms}
+ * (TERMINE, ou ANNULE avec un journal d'échec), mais par un autre chemin : un échec est marqué aussitôt
+ * dans une transaction séparée, sans annulation ni reprise un par un d'un lot. Les journaux sont écrits
+ * programme par programme : pas d'INSERT regroupés en batch JDBC, et un fsync par programme en mode
+ * write-behind.
+ * Le contrôle d'admission ({@link ExecutionAdmission}) est appliqué à la réservation : les programmes
+ * refusés sont remis en PLANIFIE dans la même transaction et ne sont pas repris dans ce passage.
+ */
+@Service
+@Slf4j
+public class PartitionedExecutionEngine {
+
+    private final ProgrammeArrosageRepository programmeRepository;
+    private final IrrigationExecutionService executionService;
+    private final Executor executor;
+    private final IrrigationMetricsCollector metricsCollector;
+    private final ExecutionAdmission executionAdmission;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public PartitionedExecutionEngine(
+            ProgrammeArrosageRepository programmeRepository,
+            IrrigationExecutionService executionService,
+            @Qualifier("irrigationExecutionExecutor") Executor executor,
+            IrrigationMetricsCollector metricsCollector,
+            ExecutionAdmission executionAdmission,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.scheduler.irrigation.parallel.enabled:false}") boolean enabled) {
+        this.programmeRepository = programmeRepository;
+        this.executionService = executionService;
+        this.executor = executor;
+        this.metricsCollector = metricsCollector;
+        this.executionAdmission = executionAdmission;
+        this.enabled = enabled;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Exécuter tous les programmes planifiés dont l'heure est arrivée, partitionnés par parcelle
+     * Les programmes sont réservés par lots (SKIP LOCKED) puis exécutés lot après lot
+     *
+     * @param executionTime Heure d'exécution de référence
+     * @return Nombre de programmes exécutés
+     */
+    public int executeScheduledPrograms(LocalDateTime executionTime) {
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            int executedCount = executeDuePartitions(executionTime, start);
+            completed = true;
+            return executedCount;
+        } finally {
+            metricsCollector.recordTick(System.nanoTime() - start, completed);
+        }
+    }
+
+    private int executeDuePartitions(LocalDateTime executionTime, long start) {
+        executionService.releaseStaleClaims(executionTime);
+        executionService.refreshBacklog(executionTime);
+
+        int successCount = 0;
+        int failureCount = 0;
+        int partitionCount = 0;
+        ClaimCursor cursor = new ClaimCursor();
+
+        try (ExecutionAdmission.Slot slot = executionAdmission.openSlot()) {
+            while (!slot.isFull()) {
+                Map<Long, List<Long>> partitions = claimPartitions(executionTime, cursor, slot);
+                if (cursor.getClaimedCount() == 0) {
+                    break;
+                }
+                if (partitions.isEmpty()) {
+                    continue;
+                }
+                int programCount = partitions.values().stream().mapToInt(List::size).sum();
+                log.info("Claimed {} program(s) for execution across {} parcelle partition(s)",
+                        programCount, partitions.size());
+
+                List<CompletableFuture<PartitionResult>> futures = new ArrayList<>(partitions.size());
+                partitions.forEach((parcelleId, programmeIds) -> futures.add(CompletableFuture.supplyAsync(
+                        () -> executePartition(parcelleId, programmeIds, executionTime, slot::release), executor)));
+
+                for (CompletableFuture<PartitionResult> future : futures) {
+                    PartitionResult result = future.join();
+                    successCount += result.getSucceeded();
+                    failureCount += result.getFailed();
+                }
+                partitionCount += partitions.size();
+                metricsCollector.decrementProgramsBacklog(programCount);
+            }
+        }
+
+        if (successCount + failureCount == 0) {
+            log.debug("No programs executed at {}", executionTime);
+            return 0;
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Execution summary: {} succeeded, {} failed, {} partition(s) in {} ms",
+                successCount, failureCount, partitionCount, elapsedMs);
+        return successCount;
+    }
+
+    /**
+     * Réserver le prochain lot de programmes dus dans une transaction courte validée immédiatement,
+     * différer ceux refusés par le contrôle d'admission, puis grouper les identifiants admis par parcelle
+     * (ordre chronologique conservé dans chaque partition)
+     */
+    private Map<Long, List<Long>> claimPartitions(LocalDateTime executionTime, ClaimCursor cursor,
+                                                  ExecutionAdmission.Slot slot) {
+        return transactionTemplate.execute(status -> {
+            List<ProgrammeArrosage> claimed = executionService.claimDueProgrammes(
+                    executionTime, cursor.getAfterDate(), cursor.getAfterId(), slot.remaining());
+            cursor.advance(claimed);
+
+            Map<Long, List<Long>> partitions = new LinkedHashMap<>();
+            for (ProgrammeArrosage programme : claimed) {
+                if (slot.tryAdmit(programme)) {
+                    partitions.computeIfAbsent(programme.getParcelle().getId(), parcelleId -> new ArrayList<>())
+                            .add(programme.getId());
+                } else {
+                    executionService.deferProgramme(programme);
+                }
+            }
+            return partitions;
+        });
+    }
+
+    /**
+     * Exécuter séquentiellement les programmes d'une parcelle
+     * onFinished est appelé à la fin de chaque exécution, réussie ou non (place d'admission rendue).
+     */
+    PartitionResult executePartition(Long parcelleId, List<Long> programmeIds, LocalDateTime executionTime,
+                                     Consumer<Long> onFinished) {
+        long start = System.nanoTime();
+        int succeeded = 0;
+        int failed = 0;
+
+        for (Long programmeId : programmeIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> programmeRepository.findById(programmeId)
+                        .ifPresent(programme -> executionService.executeClaimedProgram(programme, executionTime)));
+                succeeded++;
+            } catch (Exception e) {
+                failed++;
+                log.error("Failed to execute program {}: {}", programmeId, e.getMessage(), e);
+                markFailed(programmeId, e.getMessage());
+            } finally {
+                onFinished.accept(programmeId);
+            }
+        }
+
+        PartitionResult result = new PartitionResult(parcelleId, succeeded, failed, System.nanoTime() - start);
+        log.info("Partition parcelle {}: {} succeeded, {} failed in {} ms ({} programs/s)",
+                parcelleId, succeeded, failed, result.getElapsedMillis(),
+                String.format("%.1f", result.getThroughput()));
+        return result;
+    }
+
+    /**
+     * Marquer un programme en échec dans une transaction séparée
+     * (la transaction d'exécution a été annulée)
+     */
+    private void markFailed(Long programmeId, String errorMessage) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> programmeRepository.findById(programmeId)
+                    .ifPresent(programme -> executionService.handleExecutionFailure(programme, errorMessage)));
+        } catch (Exception e) {
+            log.error("Failed to handle execution failure for program {}: {}", programmeId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Curseur (date_planifiee, id) sur les programmes dus : les programmes différés, redevenus
+     * PLANIFIE, ne sont pas réservés une seconde fois pendant le même passage
+     */
+    private static class ClaimCursor {
+        private LocalDateTime afterDate = ProgrammeArrosageRepository.KEYSET_ORIGIN;
+        private Long afterId = 0L;
+        private int claimedCount;
+
+        void advance(List<ProgrammeArrosage> sortedClaimed) {
+            claimedCount = sortedClaimed.size();
+            if (!sortedClaimed.isEmpty()) {
+                ProgrammeArrosage last = sortedClaimed.get(sortedClaimed.size() - 1);
+                afterDate = last.getDatePlanifiee();
+                afterId = last.getId();
+            }
+        }
+
+        LocalDateTime getAfterDate() {
+            return afterDate;
+        }
+
+        Long getAfterId() {
+            return afterId;
+        }
+
+        int getClaimedCount() {
+            return claimedCount;
+        }
+    }
+
+    /**
+     * Résultat de l'exécution d'une partition
+     */
+    static class PartitionResult {
+        private final Long parcelleId;
+        private final int succeeded;
+        private final int failed;
+        private final long elapsedNanos;
+
+        PartitionResult(Long parcelleId, int succeeded, int failed, long elapsedNanos) {
+            this.parcelleId = parcelleId;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Long getParcelleId() {
+            return parcelleId;
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        /**
+         * Débit de la partition en programmes par seconde
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0.0 : (succeeded + failed) * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+}
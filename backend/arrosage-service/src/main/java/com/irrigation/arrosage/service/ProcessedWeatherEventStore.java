@@ -0,0 +1,181 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.exception.DuplicateWeatherEventException;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.repository.ProcessedWeatherEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Registre des événements météo déjà appliqués
+ *
+ * La table processed_weather_event fait foi : un événement y est inscrit dans la transaction qui met
+ * à jour les programmes, et sa clé primaire empêche deux applications, même par deux instances.
+ * Devant la table, un LRU des derniers événements et un filtre de Bloom de tous ceux de la période
+ * de rétention répondent sans aller en base : un doublon récent est trouvé dans le LRU, un nouvel
+ * événement est écarté par le filtre. Seuls un faux positif du filtre ou un doublon plus ancien que
+ * le LRU coûtent une lecture.
+ */
+@Component
+@Slf4j
+public class ProcessedWeatherEventStore {
+
+    private static final Pattern VALID_EVENT_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final ProcessedWeatherEventRepository repository;
+    private final IrrigationMetricsCollector metricsCollector;
+    private final int expectedEvents;
+    private final Duration retention;
+
+    /** Derniers événements appliqués, par ordre d'accès */
+    private final Map<String, Boolean> recentEvents;
+
+    /** Tous les événements de la période de rétention, chargé au premier usage */
+    private volatile BloomFilter bloomFilter;
+
+    public ProcessedWeatherEventStore(
+            ProcessedWeatherEventRepository repository,
+            IrrigationMetricsCollector metricsCollector,
+            @Value("${app.weather.dedup.recent-events:100000}") int recentEventsSize,
+            @Value("${app.weather.dedup.expected-events:1000000}") int expectedEvents,
+            @Value("${app.weather.dedup.retention:P7D}") Duration retention) {
+        this.repository = repository;
+        this.metricsCollector = metricsCollector;
+        this.expectedEvents = expectedEvents;
+        this.retention = retention;
+        this.recentEvents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentEventsSize;
+            }
+        };
+    }
+
+    /**
+     * Clé de déduplication d'un événement : son identifiant, ou à défaut une clé dérivée de son contenu
+     * (événements publiés avant l'ajout de l'identifiant)
+     */
+    public static String keyOf(WeatherChangeEvent event) {
+        String eventId = event.getEventId();
+        if (eventId != null && VALID_EVENT_ID.matcher(eventId).matches()) {
+            return eventId;
+        }
+        String identity = eventId + "|" + event.getStationId() + "|" + event.getTimestamp() + "|"
+                + event.getSeverity() + "|" + event.getOldConditions() + "|" + event.getNewConditions();
+        return UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * L'événement a-t-il déjà été appliqué ?
+     */
+    public boolean isProcessed(String eventId) {
+        synchronized (recentEvents) {
+            if (recentEvents.get(eventId) != null) {
+                return true;
+            }
+        }
+        if (!bloomFilter().mightContain(eventId)) {
+            return false;
+        }
+        metricsCollector.incrementWeatherDedupDatabaseLookups();
+        boolean processed = repository.existsById(eventId);
+        if (processed) {
+            remember(List.of(eventId));
+        }
+        return processed;
+    }
+
+    /**
+     * Inscrire les événements comme appliqués dans la transaction en cours
+     * Ils ne sont ajoutés au LRU et au filtre qu'après validation.
+     *
+     * @throws DuplicateWeatherEventException si l'un d'eux l'était déjà : la transaction doit être annulée
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markProcessed(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        int inserted = repository.insertIfAbsent(String.join(",", eventIds), LocalDateTime.now());
+        if (inserted < eventIds.size()) {
+            throw new DuplicateWeatherEventException(
+                    (eventIds.size() - inserted) + " of " + eventIds.size() + " weather event(s) already applied");
+        }
+        List<String> committed = List.copyOf(eventIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(committed);
+            }
+        });
+    }
+
+    /**
+     * Après un conflit, relire en base lesquels de ces événements sont déjà appliqués
+     */
+    public void refreshFromDatabase(Collection<String> eventIds) {
+        metricsCollector.incrementWeatherDedupDatabaseLookups();
+        List<String> processed = repository.findExistingIds(eventIds);
+        remember(processed);
+        log.info("{} of {} weather event(s) were already applied by another instance", processed.size(), eventIds.size());
+    }
+
+    /**
+     * Supprimer les événements plus anciens que la rétention et reconstruire le filtre
+     * La rétention doit couvrir la rétention du topic Kafka : un événement purgé ne peut plus être relivré.
+     */
+    @Scheduled(cron = "${app.weather.dedup.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = repository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        synchronized (this) {
+            bloomFilter = null; // rechargé au prochain usage
+        }
+        log.info("Purged {} processed weather event(s) older than {}", deleted, retention);
+    }
+
+    private void remember(Collection<String> eventIds) {
+        BloomFilter filter = bloomFilter();
+        synchronized (recentEvents) {
+            for (String eventId : eventIds) {
+                recentEvents.put(eventId, Boolean.TRUE);
+            }
+        }
+        eventIds.forEach(filter::put);
+    }
+
+    private BloomFilter bloomFilter() {
+        BloomFilter current = bloomFilter;
+        if (current == null) {
+            synchronized (this) {
+                if (bloomFilter == null) {
+                    BloomFilter loaded = new BloomFilter(expectedEvents, BLOOM_FALSE_POSITIVE_RATE);
+                    List<String> eventIds = repository.findIdsProcessedSince(LocalDateTime.now().minus(retention));
+                    eventIds.forEach(loaded::put);
+                    bloomFilter = loaded;
+                    log.debug("Processed weather event filter loaded with {} event(s)", eventIds.size());
+                }
+                current = bloomFilter;
+            }
+        }
+        return current;
+    }
+}
@@ -1,12 +1,12 @@
 package com.irrigation.arrosage.service;
 
-import com.irrigation.arrosage.client.MeteoServiceClient;
 import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
 import com.irrigation.arrosage.dto.ProgrammeArrosageDTO;
 import com.irrigation.arrosage.entity.Parcelle;
 import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import com.irrigation.arrosage.repository.ParcelleRepository;
 import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.scheduler.TimeWheelDispatcher;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,7 +28,9 @@ public class ProgrammeArrosageService {
 
     private final ProgrammeArrosageRepository programmeRepository;
     private final ParcelleRepository parcelleRepository;
-    private final MeteoServiceClient meteoServiceClient;
+    private final ForecastDayGrid forecastDayGrid;
+    private final TimeWheelDispatcher timeWheelDispatcher;
+    private final ArchiveService archiveService;
 
     public ProgrammeArrosageDTO create(ProgrammeArrosageDTO dto) {
         log.info("Création d'un nouveau programme d'arrosage pour la parcelle ID: {}", dto.getParcelleId());
@@ -36,6 +39,7 @@ public class ProgrammeArrosageService {
         
         ProgrammeArrosage programme = mapToEntity(dto, parcelle);
         ProgrammeArrosage saved = programmeRepository.save(programme);
+        timeWheelDispatcher.onProgrammeSaved(saved);
         return mapToDTO(saved);
     }
 
@@ -53,7 +57,7 @@ public class ProgrammeArrosageService {
         LocalDate startDate = datePlanifiee.toLocalDate();
         LocalDate endDate = startDate.plusDays(3);
         
-        List<PrevisionMeteoDTO> previsions = meteoServiceClient.getPrevisionsByPeriode(stationId, startDate, endDate);
+        List<PrevisionMeteoDTO> previsions = forecastDayGrid.getPrevisionsByPeriode(stationId, startDate, endDate);
         
         // Calculer les besoins en eau basés sur les prévisions
         BigDecimal pluiePrevueTotale = previsions.stream()
@@ -75,6 +79,7 @@ public class ProgrammeArrosageService {
                 .build();
         
         ProgrammeArrosage saved = programmeRepository.save(programme);
+        timeWheelDispatcher.onProgrammeSaved(saved);
         log.info("Programme créé avec volume: {} m³ et durée: {} min", volumePrevu, duree);
         
         return mapToDTO(saved);
@@ -102,6 +107,7 @@ public class ProgrammeArrosageService {
                 .build();
         
         ProgrammeArrosage saved = programmeRepository.save(programme);
+        timeWheelDispatcher.onProgrammeSaved(saved);
         return mapToDTO(saved);
     }
 
@@ -129,13 +135,35 @@ public class ProgrammeArrosageService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Programme par identifiant, recherché dans les archives s'il n'est plus dans la table active
+     */
     @Transactional(readOnly = true)
     public ProgrammeArrosageDTO findById(Long id) {
         return programmeRepository.findById(id)
                 .map(this::mapToDTO)
+                .or(() -> programmeRepository.findArchivedById(id).map(this::mapArchivedToDTO))
                 .orElseThrow(() -> new RuntimeException("Programme non trouvé avec l'ID: " + id));
     }
 
+    /**
+     * Programmes planifiés sur une période, complétés par les archives lorsque la période dépasse la rétention
+     */
+    @Transactional(readOnly = true)
+    public List<ProgrammeArrosageDTO> findByPeriode(LocalDateTime startDate, LocalDateTime endDate) {
+        List<ProgrammeArrosageDTO> programmes = programmeRepository.findByDatePlanifieeBetween(startDate, endDate).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+        if (!archiveService.includesArchivedHistory(startDate)) {
+            return programmes;
+        }
+        programmeRepository.findArchivedByDatePlanifieeBetween(startDate, endDate).stream()
+                .map(this::mapArchivedToDTO)
+                .forEach(programmes::add);
+        programmes.sort(Comparator.comparing(ProgrammeArrosageDTO::getDatePlanifiee));
+        return programmes;
+    }
+
     @Transactional(readOnly = true)
     public List<ProgrammeArrosageDTO> findByParcelleId(Long parcelleId) {
         return programmeRepository.findByParcelleId(parcelleId).stream()
@@ -166,6 +194,7 @@ public class ProgrammeArrosageService {
         programme.setStatut(dto.getStatut());
         
         ProgrammeArrosage updated = programmeRepository.save(programme);
+        timeWheelDispatcher.onProgrammeSaved(updated);
         return mapToDTO(updated);
     }
 
@@ -174,6 +203,7 @@ public class ProgrammeArrosageService {
             throw new RuntimeException("Programme non trouvé avec l'ID: " + id);
         }
         programmeRepository.deleteById(id);
+        timeWheelDispatcher.onProgrammeDeleted(id);
     }
 
     private ProgrammeArrosage mapToEntity(ProgrammeArrosageDTO dto, Parcelle parcelle) {
@@ -187,6 +217,18 @@ public class ProgrammeArrosageService {
                 .build();
     }
 
+    private ProgrammeArrosageDTO mapArchivedToDTO(ProgrammeArrosageRepository.ArchivedProgramme archived) {
+        return ProgrammeArrosageDTO.builder()
+                .id(archived.getId())
+                .parcelleId(archived.getParcelleId())
+                .parcelleNom(archived.getParcelleNom())
+                .datePlanifiee(archived.getDatePlanifiee())
+                .duree(archived.getDuree())
+                .volumePrevu(archived.getVolumePrevu())
+                .statut(archived.getStatut())
+                .build();
+    }
+
     private ProgrammeArrosageDTO mapToDTO(ProgrammeArrosage entity) {
         return ProgrammeArrosageDTO.builder()
                 .id(entity.getId())
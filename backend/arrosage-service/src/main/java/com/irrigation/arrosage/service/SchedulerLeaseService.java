@@ -0,0 +1,218 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.repository.SchedulerLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Élection d'un leader par tâche planifiée entre les réplicas du service
+ *
+ * Chaque tâche (exécution des programmes, archivage) a un bail dans la table scheduler_lease.
+ * Seule l'instance qui détient le bail exécute la tâche ; les autres l'ignorent. Le bail est
+ * renouvelé périodiquement ; celui d'une instance arrêtée expire après lease-duration et est
+ * repris par une autre instance au renouvellement suivant.
+ *
+ * Le jeton de fencing du bail est revérifié dans chaque transaction de réservation
+ * ({@link #checkFence()}) : une instance qui a perdu son bail (pause longue, coupure réseau)
+ * ne peut plus réserver de programmes, même si elle croit encore être leader.
+ */
+@Service
+@Slf4j
+public class SchedulerLeaseService {
+
+    public static final String JOB_EXECUTION = "irrigation-execution";
+    public static final String JOB_CLEANUP = "irrigation-cleanup";
+
+    private static final List<String> JOBS = List.of(JOB_EXECUTION, JOB_CLEANUP);
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration leaseDuration;
+    private final String owner;
+
+    /** Jetons des baux détenus par cette instance */
+    private final Map<String, Long> heldTokens = new ConcurrentHashMap<>();
+
+    /** Bail de la tâche exécutée par le thread courant */
+    private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+
+    public SchedulerLeaseService(
+            SchedulerLeaseRepository leaseRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.scheduler.leader-election.enabled:false}") boolean enabled,
+            @Value("${app.scheduler.leader-election.lease-duration:PT30S}") Duration leaseDuration,
+            @Value("${app.scheduler.leader-election.instance-id:${HOSTNAME:arrosage-service}}") String instanceId) {
+        this.leaseRepository = leaseRepository;
+        this.enabled = enabled;
+        this.leaseDuration = leaseDuration;
+        // Suffixe aléatoire : une instance redémarrée sous le même nom est un nouveau détenteur
+        this.owner = instanceId + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        JOBS.forEach(job -> Gauge.builder("irrigation.scheduler.leader", heldTokens,
+                        tokens -> tokens.containsKey(job) ? 1 : 0)
+                .description("1 when this instance holds the lease of the scheduled job")
+                .tag("service", "arrosage")
+                .tag("job", job)
+                .register(meterRegistry));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Cette instance détient-elle le bail de la tâche (d'après son dernier renouvellement) ?
+     */
+    public boolean isLeader(String job) {
+        return !enabled || heldTokens.containsKey(job);
+    }
+
+    /**
+     * Exécuter la tâche si cette instance détient (ou obtient) son bail
+     * Sans élection de leader, la tâche est toujours exécutée.
+     *
+     * @return false si une autre instance détient le bail
+     */
+    public boolean runIfLeader(String job, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return true;
+        }
+        Long token = tryAcquire(job);
+        if (token == null) {
+            log.debug("Lease {} held by another instance, skipping", job);
+            return false;
+        }
+
+        Lease previous = currentLease.get();
+        currentLease.set(new Lease(job, token));
+        try {
+            task.run();
+            return true;
+        } finally {
+            if (previous == null) {
+                currentLease.remove();
+            } else {
+                currentLease.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Vérifier, dans la transaction en cours, que le bail de la tâche exécutée par ce thread est toujours
+     * détenu avec le même jeton de fencing. Le bail est verrouillé en partage jusqu'à la fin de la transaction.
+     * Hors tâche élue (élection désactivée, appel direct), rien n'est vérifié.
+     *
+     * @throws IllegalStateException si le bail a expiré ou a changé de détenteur
+     */
+    public void checkFence() {
+        Lease lease = currentLease.get();
+        if (lease == null) {
+            return;
+        }
+        Long token = leaseRepository.findValidToken(lease.getJob(), owner);
+        if (!lease.getToken().equals(token)) {
+            heldTokens.remove(lease.getJob(), lease.getToken());
+            throw new IllegalStateException("Bail " + lease.getJob() + " perdu (jeton " + lease.getToken()
+                    + ", jeton actuel " + token + ")");
+        }
+    }
+
+    /**
+     * Renouveler les baux détenus et reprendre ceux des instances arrêtées
+     * La période de renouvellement doit rester nettement inférieure à la durée du bail.
+     */
+    @Scheduled(fixedDelayString = "${app.scheduler.leader-election.renew-interval-ms:10000}")
+    public void renewLeases() {
+        if (enabled) {
+            JOBS.forEach(this::tryAcquire);
+        }
+    }
+
+    /**
+     * Libérer les baux à l'arrêt : une autre instance les reprend sans attendre leur expiration
+     */
+    @PreDestroy
+    public void releaseLeases() {
+        if (!enabled) {
+            return;
+        }
+        heldTokens.keySet().forEach(job -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> leaseRepository.release(job, owner));
+                log.info("Released scheduler lease {}", job);
+            } catch (Exception e) {
+                log.warn("Failed to release scheduler lease {}: {}", job, e.getMessage());
+            }
+        });
+        heldTokens.clear();
+    }
+
+    /**
+     * Prendre ou renouveler le bail d'une tâche
+     *
+     * @return Jeton de fencing, ou null si une autre instance détient le bail
+     */
+    private Long tryAcquire(String job) {
+        Long token;
+        try {
+            token = transactionTemplate.execute(status ->
+                    leaseRepository.tryAcquire(job, owner, leaseDuration.toMillis()));
+        } catch (Exception e) {
+            log.error("Failed to acquire scheduler lease {}: {}", job, e.getMessage(), e);
+            token = null;
+        }
+
+        Long previous = token == null ? heldTokens.remove(job) : heldTokens.put(job, token);
+        if (token != null && !token.equals(previous)) {
+            log.info("Acquired scheduler lease {} as {} (fencing token {})", job, owner, token);
+        } else if (token == null && previous != null) {
+            log.warn("Lost scheduler lease {} (fencing token {})", job, previous);
+        }
+        return token;
+    }
+
+    /**
+     * Bail détenu pendant l'exécution d'une tâche
+     */
+    private static class Lease {
+        private final String job;
+        private final Long token;
+
+        Lease(String job, Long token) {
+            this.job = job;
+            this.token = token;
+        }
+
+        String getJob() {
+            return job;
+        }
+
+        Long getToken() {
+            return token;
+        }
+    }
+}
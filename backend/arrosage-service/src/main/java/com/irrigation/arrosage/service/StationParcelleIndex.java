@@ -0,0 +1,141 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.Parcelle;
+import com.irrigation.arrosage.repository.ParcelleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index en mémoire station météo → parcelles
+ *
+ * Permet de ne chercher que les programmes des parcelles couvertes par la station d'un changement météo.
+ * L'index est chargé au premier usage, tenu à jour par {@link ParcelleService} après validation
+ * des modifications et rechargé périodiquement (parcelles modifiées par une autre instance ou en SQL).
+ *
+ * Les parcelles sans station (données antérieures au rattachement) restent concernées par
+ * toutes les stations, comme avant, jusqu'à ce qu'une station leur soit attribuée.
+ */
+@Component
+@Slf4j
+public class StationParcelleIndex {
+
+    private final ParcelleRepository parcelleRepository;
+
+    /** Station de chaque parcelle (null : parcelle sans station) ; remplacé en entier à chaque modification */
+    private volatile Snapshot snapshot;
+
+    public StationParcelleIndex(ParcelleRepository parcelleRepository) {
+        this.parcelleRepository = parcelleRepository;
+    }
+
+    /**
+     * Parcelles concernées par un changement météo de la station : celles de la station
+     * et celles qui n'ont pas encore de station
+     */
+    public Set<Long> getAffectedParcelleIds(Long stationId) {
+        Snapshot current = snapshot();
+        Set<Long> parcelleIds = new HashSet<>(current.unlinked);
+        parcelleIds.addAll(current.byStation.getOrDefault(stationId, Set.of()));
+        return parcelleIds;
+    }
+
+    /**
+     * Recharger l'index depuis la base
+     */
+    @Scheduled(fixedDelayString = "${app.weather.station-index.refresh-interval-ms:300000}",
+            initialDelayString = "${app.weather.station-index.refresh-interval-ms:300000}")
+    public void refresh() {
+        Map<Long, Long> stationByParcelle = new HashMap<>();
+        parcelleRepository.findStationLinks()
+                .forEach(link -> stationByParcelle.put(link.getId(), link.getStationId()));
+        snapshot = new Snapshot(stationByParcelle);
+        log.debug("Station index loaded: {} parcelle(s), {} without station",
+                stationByParcelle.size(), snapshot.unlinked.size());
+    }
+
+    /**
+     * Parcelle créée ou modifiée : mettre à jour sa station après validation
+     */
+    public void onParcelleSaved(Parcelle parcelle) {
+        if (parcelle.getId() == null) {
+            return;
+        }
+        Long parcelleId = parcelle.getId();
+        Long stationId = parcelle.getStationId();
+        afterCommit(() -> update(parcelleId, stationId, false));
+    }
+
+    /**
+     * Parcelle supprimée : la retirer de l'index après validation
+     */
+    public void onParcelleDeleted(Long parcelleId) {
+        afterCommit(() -> update(parcelleId, null, true));
+    }
+
+    private synchronized void update(Long parcelleId, Long stationId, boolean deleted) {
+        if (snapshot == null) {
+            return; // chargé complet au premier usage
+        }
+        Map<Long, Long> stationByParcelle = new HashMap<>(snapshot.stationByParcelle);
+        if (deleted) {
+            stationByParcelle.remove(parcelleId);
+        } else {
+            stationByParcelle.put(parcelleId, stationId);
+        }
+        snapshot = new Snapshot(stationByParcelle);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * État immuable de l'index
+     */
+    private static class Snapshot {
+        private final Map<Long, Long> stationByParcelle;
+        private final Map<Long, Set<Long>> byStation = new HashMap<>();
+        private final Set<Long> unlinked = new HashSet<>();
+
+        Snapshot(Map<Long, Long> stationByParcelle) {
+            this.stationByParcelle = stationByParcelle;
+            stationByParcelle.forEach((parcelleId, stationId) -> {
+                if (stationId == null) {
+                    unlinked.add(parcelleId);
+                } else {
+                    byStation.computeIfAbsent(stationId, key -> new HashSet<>()).add(parcelleId);
+                }
+            });
+        }
+    }
+}
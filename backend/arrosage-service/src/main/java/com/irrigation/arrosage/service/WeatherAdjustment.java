@@ -0,0 +1,68 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Ajustement identique pour tous les programmes concernés par un changement météo
+ *
+ * Un ajustement uniforme peut être appliqué programme par programme ({@link #applyTo}) ou par un seul
+ * UPDATE ensembliste ; les deux chemins donnent le même résultat : volume arrondi à 2 décimales
+ * (HALF_UP), durée multipliée en double précision puis tronquée à la minute, comme
+ * {@code (int) (duree * 1.4)} avant l'introduction des ajustements (45 x 1.4 donne 62).
+ */
+@Getter
+public final class WeatherAdjustment {
+
+    /** Aucun changement */
+    public static final WeatherAdjustment NONE = new WeatherAdjustment(null, BigDecimal.ONE, BigDecimal.ONE, "no change");
+
+    /** Nouveau statut, null si inchangé */
+    private final StatutProgramme statut;
+    private final BigDecimal volumeFactor;
+    private final BigDecimal dureeFactor;
+    private final String reason;
+
+    private WeatherAdjustment(StatutProgramme statut, BigDecimal volumeFactor, BigDecimal dureeFactor, String reason) {
+        this.statut = statut;
+        this.volumeFactor = volumeFactor;
+        this.dureeFactor = dureeFactor;
+        this.reason = reason;
+    }
+
+    public static WeatherAdjustment cancel(String reason) {
+        return new WeatherAdjustment(StatutProgramme.ANNULE, BigDecimal.ONE, BigDecimal.ONE, reason);
+    }
+
+    public static WeatherAdjustment scale(double volumeFactor, double dureeFactor, String reason) {
+        return new WeatherAdjustment(null, BigDecimal.valueOf(volumeFactor), BigDecimal.valueOf(dureeFactor), reason);
+    }
+
+    public boolean isNone() {
+        return statut == null && volumeFactor.compareTo(BigDecimal.ONE) == 0 && dureeFactor.compareTo(BigDecimal.ONE) == 0;
+    }
+
+    /**
+     * Appliquer l'ajustement à un programme chargé
+     */
+    public void applyTo(ProgrammeArrosage programme) {
+        if (statut != null) {
+            programme.setStatut(statut);
+        }
+        if (volumeFactor.compareTo(BigDecimal.ONE) != 0) {
+            programme.setVolumePrevu(programme.getVolumePrevu().multiply(volumeFactor).setScale(2, RoundingMode.HALF_UP));
+        }
+        if (dureeFactor.compareTo(BigDecimal.ONE) != 0) {
+            programme.setDuree((int) (programme.getDuree() * dureeFactor.doubleValue()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return reason;
+    }
+}
@@ -3,15 +3,17 @@ package com.irrigation.arrosage.service;
 import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
 import com.irrigation.arrosage.event.WeatherChangeEvent;
-import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
 import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.rules.WeatherRuleEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -20,7 +22,62 @@ import java.util.List;
 @Transactional
 public class WeatherBasedSchedulingService {
 
+    /** Taille maximale de la liste IN d'une requête de programmes */
+    private static final int PARCELLE_IDS_PER_QUERY = 1000;
+
     private final ProgrammeArrosageRepository programmeRepository;
+    private final StationParcelleIndex stationParcelleIndex;
+    private final WeatherRuleEngine weatherRuleEngine;
+    private final ProcessedWeatherEventStore processedWeatherEventStore;
+
+    @Value("${app.weather.bulk-update.enabled:true}")
+    private boolean bulkUpdateEnabled;
+
+    /**
+     * Apply weather changes once: the ids of the source events are recorded in the same
+     * transaction as the programme updates, so a redelivered event cannot be applied again
+     *
+     * @throws com.irrigation.arrosage.exception.DuplicateWeatherEventException if one of the
+     *         events was already applied; nothing is changed
+     */
+    public void applyWeatherChanges(Collection<WeatherChangeEvent> events, Collection<String> sourceEventIds) {
+        processedWeatherEventStore.markProcessed(sourceEventIds);
+        applyWeatherChanges(events);
+    }
+
+    /**
+     * Apply a batch of weather changes in a single transaction
+     */
+    public void applyWeatherChanges(Collection<WeatherChangeEvent> events) {
+        events.forEach(this::handleWeatherChange);
+        log.info("Applied {} weather change(s) in one transaction", events.size());
+    }
+
+    /**
+     * Dispatch a weather change to the handler of its severity
+     * LOW severity changes need no action. The adjustment itself comes from the
+     * weather rules compiled by {@link WeatherRuleEngine}.
+     */
+    public void handleWeatherChange(WeatherChangeEvent event) {
+        switch (event.getSeverity()) {
+            case CRITICAL:
+                handleCriticalWeatherChange(event);
+                break;
+
+            case HIGH:
+                handleHighSeverityWeatherChange(event);
+                break;
+
+            case MEDIUM:
+                handleMediumSeverityWeatherChange(event);
+                break;
+
+            case LOW:
+            default:
+                log.debug("LOW severity weather change for station {} - No action needed", event.getStationId());
+                break;
+        }
+    }
 
     /**
      * Handle CRITICAL severity weather changes
@@ -30,32 +87,8 @@ public class WeatherBasedSchedulingService {
         log.warn("Handling CRITICAL weather change for station {}: {}", 
                 event.getStationId(), event.getDescription());
         
-        LocalDateTime eventDate = event.getNewConditions().getDate();
-        List<ProgrammeArrosage> affectedProgrammes = findAffectedProgrammes(eventDate);
-        
-        WeatherConditions newConditions = event.getNewConditions();
-        
-        for (ProgrammeArrosage programme : affectedProgrammes) {
-            // Cancel if heavy rain expected
-            if (newConditions.getPluiePrevue() != null && newConditions.getPluiePrevue() > 20) {
-                programme.setStatut(StatutProgramme.ANNULE);
-                log.info("Programme {} CANCELLED due to heavy rain forecast ({}mm)", 
-                        programme.getId(), newConditions.getPluiePrevue());
-            }
-            // Reschedule if extreme temperature change
-            else if (hasExtremeTemperatureChange(event)) {
-                adjustProgrammeForTemperature(programme, newConditions);
-                log.info("Programme {} ADJUSTED for extreme temperature change", programme.getId());
-            }
-            // Adjust for high wind
-            else if (newConditions.getVent() != null && newConditions.getVent() > 30) {
-                programme.setDuree((int) (programme.getDuree() * 1.4)); // Increase duration by 40%
-                log.info("Programme {} duration increased by 40% due to high wind", programme.getId());
-            }
-        }
-        
-        programmeRepository.saveAll(affectedProgrammes);
-        log.info("Processed {} programmes for CRITICAL weather change", affectedProgrammes.size());
+        int processed = applyAdjustment(event, weatherRuleEngine.evaluate(event));
+        log.info("Processed {} programmes for CRITICAL weather change", processed);
     }
 
     /**
@@ -66,35 +99,8 @@ public class WeatherBasedSchedulingService {
         log.info("Handling HIGH severity weather change for station {}: {}", 
                 event.getStationId(), event.getDescription());
         
-        LocalDateTime eventDate = event.getNewConditions().getDate();
-        List<ProgrammeArrosage> affectedProgrammes = findAffectedProgrammes(eventDate);
-        
-        WeatherConditions oldConditions = event.getOldConditions();
-        WeatherConditions newConditions = event.getNewConditions();
-        
-        for (ProgrammeArrosage programme : affectedProgrammes) {
-            // Adjust for rain
-            if (hasSignificantRainIncrease(oldConditions, newConditions)) {
-                double rainDiff = newConditions.getPluiePrevue() - oldConditions.getPluiePrevue();
-                double reductionFactor = Math.min(0.5, rainDiff / 20.0); // Max 50% reduction
-                programme.setVolumePrevu(programme.getVolumePrevu().multiply(
-                        BigDecimal.valueOf(1 - reductionFactor)).setScale(2, java.math.RoundingMode.HALF_UP));
-                log.info("Programme {} volume reduced by {}% due to rain forecast", 
-                        programme.getId(), (int)(reductionFactor * 100));
-            }
-            // Adjust for temperature
-            else if (hasSignificantTemperatureChange(event)) {
-                adjustProgrammeForTemperature(programme, newConditions);
-            }
-            // Adjust for wind
-            else if (hasSignificantWindIncrease(oldConditions, newConditions)) {
-                programme.setDuree((int) (programme.getDuree() * 1.2)); // Increase duration by 20%
-                log.info("Programme {} duration increased by 20% due to wind", programme.getId());
-            }
-        }
-        
-        programmeRepository.saveAll(affectedProgrammes);
-        log.info("Processed {} programmes for HIGH severity weather change", affectedProgrammes.size());
+        int processed = applyAdjustment(event, weatherRuleEngine.evaluate(event));
+        log.info("Processed {} programmes for HIGH severity weather change", processed);
     }
 
     /**
@@ -105,107 +111,88 @@ public class WeatherBasedSchedulingService {
         log.info("Handling MEDIUM severity weather change for station {}: {}", 
                 event.getStationId(), event.getDescription());
         
-        LocalDateTime eventDate = event.getNewConditions().getDate();
-        List<ProgrammeArrosage> affectedProgrammes = findAffectedProgrammes(eventDate);
-        
-        WeatherConditions oldConditions = event.getOldConditions();
-        WeatherConditions newConditions = event.getNewConditions();
-        
-        for (ProgrammeArrosage programme : affectedProgrammes) {
-            // Minor rain adjustment
-            if (newConditions.getPluiePrevue() != null && 
-                oldConditions.getPluiePrevue() != null &&
-                newConditions.getPluiePrevue() > oldConditions.getPluiePrevue() + 5) {
-                
-                programme.setVolumePrevu(programme.getVolumePrevu().multiply(
-                        BigDecimal.valueOf(0.9)).setScale(2, java.math.RoundingMode.HALF_UP)); // Reduce by 10%
-                log.info("Programme {} volume reduced by 10% due to moderate rain increase", 
-                        programme.getId());
-            }
-            // Minor wind adjustment
-            else if (newConditions.getVent() != null &&
-                     oldConditions.getVent() != null &&
-                     newConditions.getVent() > oldConditions.getVent() + 7) {
-                
-                programme.setDuree((int) (programme.getDuree() * 1.1)); // Increase by 10%
-                log.info("Programme {} duration increased by 10% due to moderate wind increase", 
-                        programme.getId());
-            }
-        }
-        
-        programmeRepository.saveAll(affectedProgrammes);
-        log.info("Processed {} programmes for MEDIUM severity weather change", affectedProgrammes.size());
+        int processed = applyAdjustment(event, weatherRuleEngine.evaluate(event));
+        log.info("Processed {} programmes for MEDIUM severity weather change", processed);
     }
 
     /**
-     * Find programmes affected by the weather change
-     * Returns programmes scheduled within 24 hours of the event date
+     * Apply a uniform adjustment to the programmes affected by the weather change
+     * With the bulk path, one set-based UPDATE per chunk of parcelles replaces loading,
+     * dirty-checking and updating each programme.
+     *
+     * @return Number of programmes adjusted
      */
-    private List<ProgrammeArrosage> findAffectedProgrammes(LocalDateTime eventDate) {
-        LocalDateTime startDate = eventDate.minusHours(12);
-        LocalDateTime endDate = eventDate.plusHours(36);
-        
-        return programmeRepository.findByDatePlanifieeBetweenAndStatut(
-                startDate, 
-                endDate, 
-                StatutProgramme.PLANIFIE
-        );
-    }
-
-    private boolean hasExtremeTemperatureChange(WeatherChangeEvent event) {
-        WeatherConditions old = event.getOldConditions();
-        WeatherConditions newC = event.getNewConditions();
-        
-        if (old.getTemperatureMax() == null || newC.getTemperatureMax() == null) {
-            return false;
+    int applyAdjustment(WeatherChangeEvent event, WeatherAdjustment adjustment) {
+        if (adjustment.isNone()) {
+            return 0;
         }
-        
-        return Math.abs(newC.getTemperatureMax() - old.getTemperatureMax()) > 10;
+        int processed = bulkUpdateEnabled
+                ? bulkUpdateAffectedProgrammes(event, adjustment)
+                : updateAffectedProgrammes(event, adjustment);
+        log.info("{} programme(s) of station {} adjusted: {}", processed, event.getStationId(), adjustment);
+        return processed;
     }
 
-    private boolean hasSignificantTemperatureChange(WeatherChangeEvent event) {
-        WeatherConditions old = event.getOldConditions();
-        WeatherConditions newC = event.getNewConditions();
-        
-        if (old.getTemperatureMax() == null || newC.getTemperatureMax() == null) {
-            return false;
-        }
-        
-        return Math.abs(newC.getTemperatureMax() - old.getTemperatureMax()) > 5;
+    /**
+     * Entity path: load, adjust and save each affected programme
+     */
+    int updateAffectedProgrammes(WeatherChangeEvent event, WeatherAdjustment adjustment) {
+        List<ProgrammeArrosage> affectedProgrammes = findAffectedProgrammes(event);
+        affectedProgrammes.forEach(adjustment::applyTo);
+        programmeRepository.saveAll(affectedProgrammes);
+        return affectedProgrammes.size();
     }
 
-    private boolean hasSignificantRainIncrease(WeatherConditions old, WeatherConditions newC) {
-        if (old.getPluiePrevue() == null || newC.getPluiePrevue() == null) {
-            return false;
+    /**
+     * Set-based path: one UPDATE per chunk of parcelles, with the adjustment computed once
+     */
+    int bulkUpdateAffectedProgrammes(WeatherChangeEvent event, WeatherAdjustment adjustment) {
+        LocalDateTime eventDate = event.getNewConditions().getDate();
+        StatutProgramme statut = adjustment.getStatut() != null ? adjustment.getStatut() : StatutProgramme.PLANIFIE;
+        int updated = 0;
+        for (List<Long> parcelleIds : affectedParcelleIdChunks(event)) {
+            updated += programmeRepository.adjustPlannedProgrammes(
+                    parcelleIds,
+                    eventDate.minusHours(12),
+                    eventDate.plusHours(36),
+                    statut.name(),
+                    adjustment.getVolumeFactor(),
+                    adjustment.getDureeFactor());
         }
-        
-        return newC.getPluiePrevue() > old.getPluiePrevue() + 10;
+        return updated;
     }
 
-    private boolean hasSignificantWindIncrease(WeatherConditions old, WeatherConditions newC) {
-        if (old.getVent() == null || newC.getVent() == null) {
-            return false;
-        }
+    /**
+     * Find programmes affected by the weather change
+     * Returns programmes of the parcelles covered by the event's station
+     * scheduled within 24 hours of the event date
+     */
+    private List<ProgrammeArrosage> findAffectedProgrammes(WeatherChangeEvent event) {
+        LocalDateTime eventDate = event.getNewConditions().getDate();
+        LocalDateTime startDate = eventDate.minusHours(12);
+        LocalDateTime endDate = eventDate.plusHours(36);
         
-        return newC.getVent() > old.getVent() + 10;
+        List<ProgrammeArrosage> programmes = new ArrayList<>();
+        for (List<Long> parcelleIds : affectedParcelleIdChunks(event)) {
+            programmes.addAll(programmeRepository.findByParcelleIdInAndDatePlanifieeBetweenAndStatut(
+                    parcelleIds,
+                    startDate,
+                    endDate,
+                    StatutProgramme.PLANIFIE
+            ));
+        }
+        return programmes;
     }
 
-    private void adjustProgrammeForTemperature(ProgrammeArrosage programme, WeatherConditions conditions) {
-        if (conditions.getTemperatureMax() == null) {
-            return;
-        }
-        
-        // Increase water volume for higher temperatures
-        if (conditions.getTemperatureMax() > 30) {
-            programme.setVolumePrevu(programme.getVolumePrevu().multiply(
-                    BigDecimal.valueOf(1.3)).setScale(2, java.math.RoundingMode.HALF_UP)); // +30%
-            programme.setDuree((int) (programme.getDuree() * 1.2)); // +20%
-        } else if (conditions.getTemperatureMax() > 25) {
-            programme.setVolumePrevu(programme.getVolumePrevu().multiply(
-                    BigDecimal.valueOf(1.15)).setScale(2, java.math.RoundingMode.HALF_UP)); // +15%
-        } else if (conditions.getTemperatureMax() < 15) {
-            programme.setVolumePrevu(programme.getVolumePrevu().multiply(
-                    BigDecimal.valueOf(0.85)).setScale(2, java.math.RoundingMode.HALF_UP)); // -15%
+    /**
+     * Parcelles covered by the event's station, in chunks small enough for an IN list
+     */
+    private List<List<Long>> affectedParcelleIdChunks(WeatherChangeEvent event) {
+        List<Long> parcelleIds = new ArrayList<>(stationParcelleIndex.getAffectedParcelleIds(event.getStationId()));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < parcelleIds.size(); from += PARCELLE_IDS_PER_QUERY) {
+            chunks.add(parcelleIds.subList(from, Math.min(from + PARCELLE_IDS_PER_QUERY, parcelleIds.size())));
         }
+        return chunks;
     }
 }
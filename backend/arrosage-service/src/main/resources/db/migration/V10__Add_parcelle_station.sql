@@ -0,0 +1,13 @@
+-- Weather station (meteo-service) covering the parcelle, used to scope weather-change handling
+ALTER TABLE parcelle ADD COLUMN station_id BIGINT;
+
+-- Create indexes
+CREATE INDEX idx_parcelle_station ON parcelle(station_id);
+
+-- Programmes of a set of parcelles by status and date (weather-change lookup);
+-- its leading column also serves parcelle_id lookups
+CREATE INDEX idx_programme_parcelle_statut_date ON programme_arrosage(parcelle_id, statut, date_planifiee);
+DROP INDEX IF EXISTS idx_programme_parcelle;
+
+-- Add comments
+COMMENT ON COLUMN parcelle.station_id IS 'Station météo (meteo-service) couvrant la parcelle';
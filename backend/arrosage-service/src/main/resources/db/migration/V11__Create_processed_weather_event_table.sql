@@ -0,0 +1,14 @@
+-- Processed weather change events: an event is applied at most once
+-- The row is inserted in the same transaction as the programme updates; a redelivered event
+-- (rebalance between commit and offset acknowledgement) finds its row and is skipped.
+CREATE TABLE processed_weather_event (
+    event_id VARCHAR(64) PRIMARY KEY,
+    processed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_processed_weather_event_processed_at ON processed_weather_event(processed_at);
+
+-- Add comments
+COMMENT ON TABLE processed_weather_event IS 'Événements de changement météo déjà appliqués (déduplication)';
+COMMENT ON COLUMN processed_weather_event.event_id IS 'Identifiant de l''événement (ou clé dérivée pour les anciens producteurs)';
+COMMENT ON COLUMN processed_weather_event.processed_at IS 'Date d''application, pour la purge après la rétention';
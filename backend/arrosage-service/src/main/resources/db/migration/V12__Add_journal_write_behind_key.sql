@@ -0,0 +1,9 @@
+-- Idempotent write-behind flush: a journal inserted from the local log carries the key of its log entry
+-- A batch replayed after a crash between the insert and the checkpoint finds its keys and is skipped.
+ALTER TABLE journal_arrosage ADD COLUMN write_behind_key VARCHAR(64);
+
+CREATE UNIQUE INDEX idx_journal_arrosage_write_behind_key ON journal_arrosage(write_behind_key)
+    WHERE write_behind_key IS NOT NULL;
+
+-- Add comments
+COMMENT ON COLUMN journal_arrosage.write_behind_key IS 'Clé de l''entrée du journal local (écriture différée), null pour une écriture directe';
@@ -0,0 +1,7 @@
+-- Write-behind journal: the execution entry is appended to the local log before the transaction commits
+-- and its key is stored with the TERMINE status. The flush only inserts entries whose key matches,
+-- so an entry left by a rolled-back execution is never inserted.
+ALTER TABLE programme_arrosage ADD COLUMN write_behind_key VARCHAR(64);
+
+-- Add comments
+COMMENT ON COLUMN programme_arrosage.write_behind_key IS 'Clé de l''entrée du journal local de l''exécution validée (écriture différée), null sinon';
@@ -0,0 +1,8 @@
+-- Reservation of due programmes (claim PLANIFIE -> EN_COURS with SKIP LOCKED)
+ALTER TABLE programme_arrosage ADD COLUMN date_reservation TIMESTAMP;
+
+-- Index supporting the claim query (statut = 'PLANIFIE' AND date_planifiee <= ? ORDER BY date_planifiee, id)
+CREATE INDEX idx_programme_statut_date ON programme_arrosage(statut, date_planifiee, id);
+
+-- Add comments
+COMMENT ON COLUMN programme_arrosage.date_reservation IS 'Date de prise en charge du programme par une instance (EN_COURS)';
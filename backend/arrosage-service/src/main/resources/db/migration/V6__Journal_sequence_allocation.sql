@@ -0,0 +1,3 @@
+-- Allocate journal_arrosage ids in blocks of 50 (pooled optimizer, allocationSize = 50)
+-- Hibernate pre-allocates identifiers, which allows JDBC batching of the inserts
+ALTER SEQUENCE journal_arrosage_id_seq INCREMENT BY 50;
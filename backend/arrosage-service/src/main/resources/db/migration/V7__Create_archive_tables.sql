@@ -0,0 +1,63 @@
+-- Archive tables for completed programmes and their journals, partitioned by month
+-- Rows are moved out of programme_arrosage / journal_arrosage by the archival job
+-- (no foreign keys: archived history outlives deleted parcelles)
+CREATE TABLE programme_arrosage_archive (
+    id BIGINT NOT NULL,
+    parcelle_id BIGINT NOT NULL,
+    date_planifiee TIMESTAMP NOT NULL,
+    duree INTEGER NOT NULL,
+    volume_prevu NUMERIC(10, 2) NOT NULL,
+    statut VARCHAR(20) NOT NULL,
+    date_reservation TIMESTAMP,
+    date_archivage TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, date_planifiee)
+) PARTITION BY RANGE (date_planifiee);
+
+CREATE TABLE journal_arrosage_archive (
+    id BIGINT NOT NULL,
+    programme_id BIGINT NOT NULL,
+    parcelle_id BIGINT NOT NULL,
+    date_execution TIMESTAMP NOT NULL,
+    volume_reel NUMERIC(10, 2) NOT NULL,
+    remarque VARCHAR(500),
+    date_archivage TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, date_execution)
+) PARTITION BY RANGE (date_execution);
+
+-- Rows outside any monthly partition
+CREATE TABLE programme_arrosage_archive_default PARTITION OF programme_arrosage_archive DEFAULT;
+CREATE TABLE journal_arrosage_archive_default PARTITION OF journal_arrosage_archive DEFAULT;
+
+-- Create indexes (propagated to every partition)
+CREATE INDEX idx_programme_archive_parcelle ON programme_arrosage_archive(parcelle_id, date_planifiee);
+CREATE INDEX idx_journal_archive_programme ON journal_arrosage_archive(programme_id);
+CREATE INDEX idx_journal_archive_parcelle ON journal_arrosage_archive(parcelle_id, date_execution);
+
+-- Create the monthly partition <parent>_YYYY_MM if missing
+-- Rows of that month already stored in the default partition are moved into it before attaching.
+CREATE OR REPLACE FUNCTION ensure_archive_partition(p_parent TEXT, p_column TEXT, p_month DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month)::DATE;
+    v_to DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::DATE;
+    v_name TEXT := p_parent || '_' || to_char(v_from, 'YYYY_MM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(v_name));
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name, p_parent);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                   p_parent || '_default', p_column, v_from, p_column, v_to, v_name);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', p_parent, v_name, v_from, v_to);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Add comments
+COMMENT ON TABLE programme_arrosage_archive IS 'Archive mensuelle des programmes d''arrosage terminés';
+COMMENT ON TABLE journal_arrosage_archive IS 'Archive mensuelle des journaux des programmes archivés';
+COMMENT ON COLUMN programme_arrosage_archive.date_archivage IS 'Date de déplacement vers l''archive';
+COMMENT ON COLUMN journal_arrosage_archive.parcelle_id IS 'Parcelle du programme (dénormalisée à l''archivage)';
+COMMENT ON COLUMN journal_arrosage_archive.date_archivage IS 'Date de déplacement vers l''archive';
@@ -0,0 +1,8 @@
+-- Farm (exploitation) owning the parcelle, used to limit concurrent irrigation per farm
+ALTER TABLE parcelle ADD COLUMN exploitation VARCHAR(100);
+
+-- Create indexes
+CREATE INDEX idx_parcelle_exploitation ON parcelle(exploitation);
+
+-- Add comments
+COMMENT ON COLUMN parcelle.exploitation IS 'Exploitation agricole de la parcelle (limite d''arrosages simultanés)';
@@ -0,0 +1,16 @@
+-- Scheduler leases: one leader per scheduled job across service replicas
+-- The fencing token increases each time the lease changes owner; writes made by the leader
+-- check it so a replica that lost its lease (long pause, network partition) cannot act any more.
+CREATE TABLE scheduler_lease (
+    job_name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(200) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    renewed_at TIMESTAMP NOT NULL
+);
+
+-- Add comments
+COMMENT ON TABLE scheduler_lease IS 'Baux des tâches planifiées (élection d''un leader par tâche)';
+COMMENT ON COLUMN scheduler_lease.owner IS 'Instance détentrice du bail';
+COMMENT ON COLUMN scheduler_lease.fencing_token IS 'Jeton incrémenté à chaque changement de détenteur';
+COMMENT ON COLUMN scheduler_lease.expires_at IS 'Fin de validité du bail (horloge de la base)';
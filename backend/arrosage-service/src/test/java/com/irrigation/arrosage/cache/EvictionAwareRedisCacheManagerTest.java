@@ -0,0 +1,77 @@
+package com.irrigation.arrosage.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EvictionAwareRedisCacheManagerTest {
+
+    @Mock
+    private RedisCacheWriter cacheWriter;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .prefixCacheNameWith(RedisCacheStatistics.KEY_PREFIX);
+        EvictionAwareRedisCacheManager manager = new EvictionAwareRedisCacheManager(
+                cacheWriter, connectionFactory, config, Map.of("forecasts", config));
+        manager.initializeCaches();
+        cache = manager.getCache("forecasts");
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+    }
+
+    @Test
+    void testEvictIfPresent_TrueWhenTheKeyExisted() {
+        // Given
+        byte[] key = "arrosage:forecasts::station:1".getBytes(StandardCharsets.UTF_8);
+        when(keyCommands.del(key)).thenReturn(1L);
+
+        // When
+        boolean evicted = cache.evictIfPresent("station:1");
+
+        // Then - un seul DEL, connexion rendue
+        assertThat(evicted).isTrue();
+        verify(connection).close();
+        verify(cacheWriter, never()).remove(any(), any());
+    }
+
+    @Test
+    void testEvictIfPresent_FalseWhenTheKeyWasAbsent() {
+        // Given
+        when(keyCommands.del(any(byte[].class))).thenReturn(0L);
+
+        // When
+        boolean evicted = cache.evictIfPresent("station:2");
+
+        // Then
+        assertThat(evicted).isFalse();
+    }
+}
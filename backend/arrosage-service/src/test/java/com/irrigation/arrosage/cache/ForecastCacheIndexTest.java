@@ -0,0 +1,110 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ForecastCacheIndexTest {
+
+    private static final Duration TTL = Duration.ofHours(2);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private ForecastCacheIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ForecastCacheIndex(redisTemplate, TTL);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecord_IndexesPeriodKeyUnderItsStation() {
+        // Given
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisZSetCommands zSetCommands = mock(RedisZSetCommands.class);
+        when(connection.zSetCommands()).thenReturn(zSetCommands);
+        when(connection.keyCommands()).thenReturn(mock(RedisKeyCommands.class));
+
+        // When
+        index.record("station:7:2025-06-01:2025-06-04", List.of());
+
+        // Then - un seul aller-retour : ajout, purge des membres expirés, durée de vie de l'index
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        verify(zSetCommands).zAdd(eq(bytes("arrosage:forecasts-index:station:7")), anyDouble(),
+                eq(bytes("2025-06-01/2025-06-04/station:7:2025-06-01:2025-06-04")));
+        verify(zSetCommands).zRemRangeByScore(eq(bytes("arrosage:forecasts-index:station:7")),
+                eq(Double.NEGATIVE_INFINITY), anyDouble());
+    }
+
+    @Test
+    void testRecord_IgnoresKeysWithoutDates() {
+        // When
+        index.record("all", List.of());
+        index.record("station:7", List.of());
+        index.record("id:3", null);
+
+        // Then
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testRecord_IndexesPrevisionByItsDate() {
+        // When
+        index.record("id:3", PrevisionMeteoDTO.builder().id(3L).stationId(7L).date(LocalDate.of(2025, 6, 2)).build());
+
+        // Then
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testKeysCovering_KeepsPeriodsContainingTheDate() {
+        // Given
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq("arrosage:forecasts-index:station:7"), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+                .thenReturn(new LinkedHashSet<>(List.of(
+                        "2025-06-01/2025-06-04/station:7:2025-06-01:2025-06-04",
+                        "2025-06-03/2025-06-06/station:7:2025-06-03:2025-06-06",
+                        "2025-05-28/2025-05-31/station:7:2025-05-28:2025-05-31",
+                        "2025-06-02/2025-06-02/id:3")));
+
+        // When
+        List<String> keys = index.keysCovering(7L, LocalDate.of(2025, 6, 2));
+
+        // Then
+        assertThat(keys).containsExactly("station:7:2025-06-01:2025-06-04", "id:3");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark des valeurs du cache des prévisions : JSON avec types (ancien format) contre binaire compact
+ *
+ * Affiche d'abord les octets stockés par entrée (une prévision, les 7 jours d'une station, toutes les stations),
+ * puis mesure le temps d'encodage et de décodage d'une entrée « station » (JMH). Lancement :
+ * mvn test -Dtest=ForecastValueSerializerBenchmark -Dbenchmark.cache-codec=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastValueSerializerBenchmark {
+
+    private static final int STATIONS = 100;
+    private static final int DAYS = 7;
+    private static final int COMPRESSION_THRESHOLD = 512;
+
+    private List<List<PrevisionMeteoDTO>> entries;
+    private byte[][] jsonPayloads;
+    private byte[][] binaryPayloads;
+    private RedisSerializer<Object> jsonSerializer;
+    private RedisSerializer<Object> binarySerializer;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = ForecastValueSerializerTest.jsonSerializer();
+        binarySerializer = new ForecastValueSerializer(jsonSerializer, COMPRESSION_THRESHOLD);
+        entries = stationEntries(previsions());
+        jsonPayloads = new byte[STATIONS][];
+        binaryPayloads = new byte[STATIONS][];
+        for (int i = 0; i < STATIONS; i++) {
+            jsonPayloads[i] = jsonSerializer.serialize(entries.get(i));
+            binaryPayloads[i] = binarySerializer.serialize(entries.get(i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATIONS)
+    public void jsonSerialize(Blackhole blackhole) {
+        for (List<PrevisionMeteoDTO> entry : entries) {
+            blackhole.consume(jsonSerializer.serialize(entry));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATIONS)
+    public void binarySerialize(Blackhole blackhole) {
+        for (List<PrevisionMeteoDTO> entry : entries) {
+            blackhole.consume(binarySerializer.serialize(entry));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATIONS)
+    public void jsonDeserialize(Blackhole blackhole) {
+        for (byte[] payload : jsonPayloads) {
+            blackhole.consume(jsonSerializer.deserialize(payload));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATIONS)
+    public void binaryDeserialize(Blackhole blackhole) {
+        for (byte[] payload : binaryPayloads) {
+            blackhole.consume(binarySerializer.deserialize(payload));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.cache-codec", matches = "true")
+    void runBenchmark() throws RunnerException {
+        List<PrevisionMeteoDTO> all = previsions();
+        RedisSerializer<Object> json = ForecastValueSerializerTest.jsonSerializer();
+        RedisSerializer<Object> binary = new ForecastValueSerializer(json, 0);
+        RedisSerializer<Object> compressed = new ForecastValueSerializer(json, COMPRESSION_THRESHOLD);
+        printSizes("id:{n}", all.get(0), json, binary, compressed);
+        printSizes("station:{id}", stationEntries(all).get(0), json, binary, compressed);
+        printSizes("all", all, json, binary, compressed);
+
+        new Runner(new OptionsBuilder()
+                .include(ForecastValueSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static void printSizes(String entry, Object value, RedisSerializer<Object> json,
+                                   RedisSerializer<Object> binary, RedisSerializer<Object> compressed) {
+        System.out.printf("%s: json %d B, binary %d B, binary+lz4 %d B%n", entry,
+                json.serialize(value).length, binary.serialize(value).length, compressed.serialize(value).length);
+    }
+
+    private static List<List<PrevisionMeteoDTO>> stationEntries(List<PrevisionMeteoDTO> all) {
+        List<List<PrevisionMeteoDTO>> entries = new ArrayList<>();
+        for (int i = 0; i < STATIONS; i++) {
+            entries.add(new ArrayList<>(all.subList(i * DAYS, (i + 1) * DAYS)));
+        }
+        return entries;
+    }
+
+    /**
+     * Prévisions représentatives : 7 jours pour chaque station, valeurs au dixième comme celles du service météo
+     */
+    private static List<PrevisionMeteoDTO> previsions() {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.of(2025, 11, 19);
+        List<PrevisionMeteoDTO> previsions = new ArrayList<>();
+        for (int i = 0; i < STATIONS * DAYS; i++) {
+            long stationId = i / DAYS + 1;
+            previsions.add(PrevisionMeteoDTO.builder()
+                    .id(10_000L + i)
+                    .stationId(stationId)
+                    .stationNom("Station météo " + stationId)
+                    .date(today.plusDays(i % DAYS))
+                    .temperatureMax(BigDecimal.valueOf(150 + random.nextInt(250), 1))
+                    .temperatureMin(BigDecimal.valueOf(20 + random.nextInt(150), 1))
+                    .pluiePrevue(BigDecimal.valueOf(random.nextInt(300), 1))
+                    .vent(BigDecimal.valueOf(random.nextInt(500), 1))
+                    .build());
+        }
+        return previsions;
+    }
+}
@@ -0,0 +1,155 @@
+package com.irrigation.arrosage.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastValueSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = jsonSerializer();
+    private final ForecastValueSerializer serializer = new ForecastValueSerializer(jsonSerializer, 512);
+
+    @Test
+    void testList_RoundTripWithoutTypeMetadata() {
+        // Given
+        List<PrevisionMeteoDTO> previsions = previsions(7);
+
+        // When
+        byte[] bytes = serializer.serialize(previsions);
+
+        // Then
+        assertThat(bytes[0]).isEqualTo(ForecastValueSerializer.MAGIC);
+        assertThat(new String(bytes)).doesNotContain("PrevisionMeteoDTO");
+        assertThat(bytes.length).isLessThan(jsonSerializer.serialize(previsions).length / 4);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(previsions);
+    }
+
+    @Test
+    void testPrevision_RoundTripWithNullFields() {
+        // Given
+        PrevisionMeteoDTO prevision = PrevisionMeteoDTO.builder().id(3L).stationId(7L)
+                .date(LocalDate.of(2025, 6, 2)).pluiePrevue(new BigDecimal("12.50")).build();
+
+        // When
+        Object decoded = serializer.deserialize(serializer.serialize(prevision));
+
+        // Then - l'échelle des décimaux est conservée
+        assertThat(decoded).isEqualTo(prevision);
+        assertThat(((PrevisionMeteoDTO) decoded).getPluiePrevue().scale()).isEqualTo(2);
+    }
+
+    @Test
+    void testDecimal_BeyondLongRange() {
+        // Given
+        PrevisionMeteoDTO prevision = PrevisionMeteoDTO.builder()
+                .vent(new BigDecimal("123456789012345678901234567890.123")).build();
+
+        // When / Then
+        assertThat(serializer.deserialize(serializer.serialize(prevision))).isEqualTo(prevision);
+    }
+
+    @Test
+    void testLargeList_CompressedAboveThreshold() {
+        // Given - toutes les stations : le corps dépasse le seuil
+        List<PrevisionMeteoDTO> previsions = previsions(700);
+        ForecastValueSerializer uncompressed = new ForecastValueSerializer(jsonSerializer, 0);
+
+        // When
+        byte[] bytes = serializer.serialize(previsions);
+
+        // Then
+        assertThat(bytes[2] & 0x80).isNotZero();
+        assertThat(bytes.length).isLessThan(uncompressed.serialize(previsions).length);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(previsions);
+    }
+
+    @Test
+    void testLegacyJsonEntry_StillReadable() {
+        // Given - entrée écrite avant le format binaire
+        List<PrevisionMeteoDTO> previsions = previsions(3);
+        byte[] json = jsonSerializer.serialize(new ArrayList<>(previsions));
+
+        // When / Then
+        assertThat(serializer.deserialize(json)).isEqualTo(previsions);
+    }
+
+    @Test
+    void testOtherValues_FallBackToJson() {
+        // Given
+        Map<String, Object> value = new HashMap<>(Map.of("station", "Nord"));
+
+        // When
+        byte[] bytes = serializer.serialize(value);
+
+        // Then
+        assertThat(bytes[0]).isNotEqualTo(ForecastValueSerializer.MAGIC);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+    }
+
+    @Test
+    void testUnknownVersion_IsRejected() {
+        // Given
+        byte[] bytes = serializer.serialize(previsions(1));
+        bytes[1] = (byte) (ForecastValueSerializer.VERSION + 1);
+
+        // When / Then - traité comme un défaut de cache par le gestionnaire d'erreurs
+        assertThatThrownBy(() -> serializer.deserialize(bytes)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void testTruncatedEntry_IsRejected() {
+        // Given
+        byte[] bytes = serializer.serialize(previsions(7));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        // When / Then
+        assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationException.class);
+    }
+
+    private static List<PrevisionMeteoDTO> previsions(int count) {
+        List<PrevisionMeteoDTO> previsions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long stationId = i / 7;
+            previsions.add(PrevisionMeteoDTO.builder()
+                    .id(1000L + i)
+                    .stationId(stationId)
+                    .stationNom("Station " + stationId)
+                    .date(LocalDate.of(2025, 6, 1).plusDays(i % 7))
+                    .temperatureMax(new BigDecimal("28.4").add(BigDecimal.valueOf(i % 5)))
+                    .temperatureMin(new BigDecimal("14.1"))
+                    .pluiePrevue(BigDecimal.valueOf(i % 3, 1))
+                    .vent(new BigDecimal("12.0"))
+                    .build());
+        }
+        return previsions;
+    }
+
+    /**
+     * Même configuration que RedisCacheConfig
+     */
+    static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder().allowIfBaseType(Object.class).build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+}
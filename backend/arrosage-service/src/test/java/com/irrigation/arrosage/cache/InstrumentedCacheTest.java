@@ -0,0 +1,96 @@
+package com.irrigation.arrosage.cache;
+
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentedCacheTest {
+
+    @Mock
+    private RedisCacheStatistics statistics;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstrumentedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        IrrigationMetricsCollector metricsCollector = new IrrigationMetricsCollector(meterRegistry);
+        cache = new InstrumentedCache(new ConcurrentMapCache("forecasts"),
+                metricsCollector.registerCacheTier("forecasts", IrrigationMetricsCollector.CACHE_TIER_REDIS),
+                statistics);
+    }
+
+    @Test
+    void testGet_CountsHitsMissesAndLatency() {
+        // Given
+        cache.put("station:1", "prevision");
+
+        // When
+        cache.get("station:1");
+        cache.get("station:2");
+
+        // Then
+        assertThat(gets("hit")).isEqualTo(1.0);
+        assertThat(gets("miss")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("irrigation.cache.get.duration").tag("tier", "redis").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void testPut_IncrementsSharedCounter() {
+        // When
+        cache.put("station:1", "prevision");
+        cache.putIfAbsent("station:1", "autre");
+
+        // Then - le second appel n'écrit rien
+        verify(statistics, times(1)).recordPut("forecasts");
+        assertThat(redisCount("irrigation.cache.puts")).isEqualTo(1.0);
+    }
+
+    @Test
+    void testGetWithLoader_CountsTheLoadedPut() {
+        // When
+        Object value = cache.get("station:1", () -> "prevision");
+
+        // Then
+        assertThat(value).isEqualTo("prevision");
+        assertThat(gets("miss")).isEqualTo(1.0);
+        verify(statistics).recordPut("forecasts");
+    }
+
+    @Test
+    void testEvict_IncrementsSharedCounters() {
+        // Given
+        cache.put("station:1", "prevision");
+
+        // When
+        cache.evict("station:1");
+        cache.evict("station:1");
+        boolean evicted = cache.evictIfPresent("station:1");
+        cache.clear();
+
+        // Then - l'éviction d'une clé absente n'est pas comptée, quelle que soit la méthode
+        assertThat(evicted).isFalse();
+        verify(statistics, times(1)).recordEviction("forecasts");
+        verify(statistics).recordClear("forecasts");
+        assertThat(redisCount("irrigation.cache.evictions")).isEqualTo(1.0);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("irrigation.cache.gets").tag("tier", "redis").tag("result", result).counter().count();
+    }
+
+    private double redisCount(String name) {
+        return meterRegistry.get(name).tag("tier", "redis").counter().count();
+    }
+}
@@ -0,0 +1,183 @@
+package com.irrigation.arrosage.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisCacheStatisticsTest {
+
+    private static final Duration SCAN_INTERVAL = Duration.ofMinutes(5);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisHashCommands hashCommands;
+
+    private RedisCacheStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new RedisCacheStatistics(redisTemplate, List.of("forecasts", "stations"), 500, 3, SCAN_INTERVAL);
+    }
+
+    @Test
+    void testRecordPut_CountsLocallyWithoutCallingRedis() {
+        // When
+        statistics.recordPut("forecasts");
+        statistics.recordEviction("forecasts");
+        statistics.recordClear("stations");
+
+        // Then - aucun aller-retour Redis par écriture ou éviction
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_IncrementsServerSideCountersInOnePipeline() {
+        // Given
+        statistics.recordPut("forecasts");
+        statistics.recordPut("forecasts");
+        statistics.recordEviction("forecasts");
+        statistics.recordClear("stations");
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+            return List.of();
+        });
+        when(connection.hashCommands()).thenReturn(hashCommands);
+
+        // When
+        statistics.flush();
+        statistics.flush();
+
+        // Then - un seul pipeline, le second report n'a rien à envoyer
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(hashCommands).hIncrBy(bytes("arrosage:cache-stats:forecasts"), bytes("puts"), 2L);
+        verify(hashCommands).hIncrBy(bytes("arrosage:cache-stats:forecasts"), bytes("evictions"), 1L);
+        verify(hashCommands).hIncrBy(bytes("arrosage:cache-stats:stations"), bytes("clears"), 1L);
+        verify(hashCommands).hSet(bytes("arrosage:cache-stats:stations"), bytes("size"), bytes("0"));
+        verifyNoMoreInteractions(hashCommands);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_RedisErrorKeepsCountersForNextFlush() {
+        // Given
+        statistics.recordPut("forecasts");
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new QueryTimeoutException("Redis down"))
+                .thenAnswer(invocation -> {
+                    ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(connection);
+                    return List.of();
+                });
+        when(connection.hashCommands()).thenReturn(hashCommands);
+
+        // When - ne lève pas : la mise en cache ne dépend pas des statistiques
+        statistics.flush();
+        statistics.recordPut("forecasts");
+        statistics.flush();
+
+        // Then
+        verify(hashCommands).hIncrBy(bytes("arrosage:cache-stats:forecasts"), bytes("puts"), 2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRefreshSizes_ScanStopsAtBudget() {
+        // Given - plus de clés que le budget de 3
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), eq(SCAN_INTERVAL))).thenReturn(true);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true);
+
+        // When
+        statistics.refreshSizes();
+
+        // Then - motif du cache, taille minorée, curseur fermé
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        verify(redisTemplate, times(2)).scan(options.capture());
+        assertThat(options.getAllValues().get(0).getPattern()).isEqualTo("arrosage:forecasts::*");
+        assertThat(options.getAllValues().get(0).getCount()).isEqualTo(500);
+        verify(cursor, times(6)).next();
+        verify(cursor, times(2)).close();
+        ArgumentCaptor<Map<String, String>> fields = ArgumentCaptor.forClass(Map.class);
+        verify(hashOperations).putAll(eq("arrosage:cache-stats:forecasts"), fields.capture());
+        assertThat(fields.getValue()).containsEntry("size", "3").containsEntry("size-truncated", "true");
+    }
+
+    @Test
+    void testRefreshSizes_SkippedWhenAnotherInstanceScanned() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), eq(SCAN_INTERVAL))).thenReturn(false);
+
+        // When
+        statistics.refreshSizes();
+
+        // Then
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+        verify(hashOperations, never()).putAll(anyString(), anyMap());
+    }
+
+    @Test
+    void testSnapshot_ReadsCountersWithoutScanning() {
+        // Given
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("arrosage:cache-stats:forecasts")).thenReturn(Map.of(
+                "size", "42", "size-truncated", "false", "puts", "120", "evictions", "7", "clears", "1"));
+        when(hashOperations.entries("arrosage:cache-stats:stations")).thenReturn(Map.of());
+
+        // When
+        Map<String, CacheCounters> counters = statistics.snapshot();
+
+        // Then
+        assertThat(counters.get("forecasts").getSize()).isEqualTo(42);
+        assertThat(counters.get("forecasts").getPuts()).isEqualTo(120);
+        assertThat(counters.get("forecasts").getEvictions()).isEqualTo(7);
+        assertThat(counters.get("stations").getSize()).isZero();
+        assertThat(counters.get("stations").getScannedAt()).isNull();
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,188 @@
+package com.irrigation.arrosage.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    private static final String CHANNEL = "arrosage:cache-invalidation";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private Cache remote;
+    private CacheInvalidationBus invalidationBus;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        IrrigationMetricsCollector metricsCollector = new IrrigationMetricsCollector(meterRegistry);
+        remote = spy(new ConcurrentMapCache("forecasts"));
+        invalidationBus = new CacheInvalidationBus(redisTemplate, CHANNEL);
+        cache = new TwoLevelCache("forecasts",
+                Caffeine.newBuilder().maximumSize(100).build(),
+                remote,
+                invalidationBus,
+                metricsCollector.registerCacheTier("forecasts", IrrigationMetricsCollector.CACHE_TIER_LOCAL));
+        invalidationBus.register(cache);
+    }
+
+    @Test
+    void testGet_LocalHitDoesNotReadRedis() {
+        // Given - valeur présente dans Redis seulement
+        remote.put("station:1", List.of("prevision"));
+
+        // When
+        Object first = cache.get("station:1").get();
+        Object second = cache.get("station:1").get();
+
+        // Then - seule la première lecture va jusqu'à Redis
+        assertThat(second).isSameAs(first);
+        verify(remote, times(1)).get("station:1");
+        assertThat(gets("local", "hit")).isEqualTo(1.0);
+        assertThat(gets("local", "miss")).isEqualTo(1.0);
+        assertThat(localCount("irrigation.cache.puts")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("irrigation.cache.get.duration").tag("tier", "local").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("irrigation.cache.hit.ratio").tag("tier", "local").gauge().value())
+                .isEqualTo(0.5);
+    }
+
+    @Test
+    void testGet_MissOnBothTiers() {
+        // When
+        Cache.ValueWrapper wrapper = cache.get("station:2");
+
+        // Then
+        assertThat(wrapper).isNull();
+        assertThat(gets("local", "miss")).isEqualTo(1.0);
+        assertThat(localCount("irrigation.cache.puts")).isZero();
+    }
+
+    @Test
+    void testPut_KeepsServingLocallyWhenRedisFails() {
+        // Given - Redis indisponible
+        doThrow(new IllegalStateException("Redis down")).when(remote).put(anyString(), any());
+
+        // When
+        try {
+            cache.put("station:1", "prevision");
+        } catch (IllegalStateException expected) {
+            // le gestionnaire d'erreurs de cache journalise et continue
+        }
+
+        // Then
+        assertThat(cache.get("station:1", String.class)).isEqualTo("prevision");
+        verify(remote, never()).get("station:1");
+    }
+
+    @Test
+    void testEvict_ClearsBothTiersAndPublishes() {
+        // Given
+        cache.put("station:1", "prevision");
+
+        // When
+        cache.evict("station:1");
+
+        // Then
+        assertThat(cache.get("station:1")).isNull();
+        assertThat(localCount("irrigation.cache.evictions")).isEqualTo(1.0);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), endsWith("\tforecasts\tstation:1"));
+    }
+
+    @Test
+    void testClear_PublishesWithoutKey() {
+        // When
+        cache.clear();
+
+        // Then
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), endsWith("\tforecasts"));
+    }
+
+    @Test
+    void testOnMessage_EvictsLocalTierOnly() {
+        // Given - valeur en L1, éviction publiée par une autre instance
+        cache.put("station:1", "prevision");
+        cache.put("station:2", "prevision");
+        clearInvocations(remote);
+
+        // When
+        invalidationBus.onMessage(message("other-instance\tforecasts\tstation:1"), null);
+
+        // Then - la clé est relue depuis Redis, l'autre reste locale, Redis n'est pas vidé
+        cache.get("station:1");
+        cache.get("station:2");
+        verify(remote).get("station:1");
+        verify(remote, never()).get("station:2");
+        verify(remote, never()).evict(any());
+    }
+
+    @Test
+    void testOnMessage_ClearsLocalTier() {
+        // Given
+        cache.put("station:1", "prevision");
+        clearInvocations(remote);
+
+        // When
+        invalidationBus.onMessage(message("other-instance\tforecasts"), null);
+
+        // Then
+        cache.get("station:1");
+        verify(remote).get("station:1");
+        verify(remote, never()).clear();
+    }
+
+    @Test
+    void testOnMessage_IgnoresOwnInvalidations() {
+        // Given - capturer le message publié par cette instance
+        cache.put("station:1", "prevision");
+        cache.evict("station:other");
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), captor.capture());
+        String own = captor.getValue().replace("station:other", "station:1");
+        clearInvocations(remote);
+
+        // When
+        invalidationBus.onMessage(message(own), null);
+
+        // Then - déjà traité localement au moment de l'éviction
+        cache.get("station:1");
+        verify(remote, never()).get("station:1");
+    }
+
+    private double gets(String tier, String result) {
+        return meterRegistry.get("irrigation.cache.gets").tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    private double localCount(String name) {
+        return meterRegistry.get(name).tag("tier", "local").counter().count();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,7 +5,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
 import redis.embedded.RedisServer;
 
 import java.io.IOException;
@@ -15,13 +21,28 @@ import static org.assertj.core.api.Assertions.assertThat;
 /**
  * Tests unitaires pour la configuration du cache Redis avec embedded Redis
  */
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.flyway.enabled=true"
+})
 @TestPropertySource(properties = {
         "spring.data.redis.host=localhost",
         "spring.data.redis.port=6370"  // Port différent pour éviter les conflits
 })
+@Testcontainers(disabledWithoutDocker = true)
 public class RedisCacheConfigTest {
 
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
     private static RedisServer redisServer;
 
     @Autowired
@@ -37,7 +58,7 @@ public class RedisCacheConfigTest {
     }
 
     @AfterAll
-    static void stopRedis() {
+    static void stopRedis() throws IOException {
         if (redisServer != null) {
             redisServer.stop();
         }
@@ -0,0 +1,135 @@
+package com.irrigation.arrosage.integration;
+
+import com.irrigation.arrosage.journal.WriteBehindJournal;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.service.ArchiveService;
+import com.irrigation.arrosage.service.ExecutionAdmission;
+import com.irrigation.arrosage.service.IrrigationExecutionService;
+import com.irrigation.arrosage.service.JournalArrosageService;
+import com.irrigation.arrosage.service.SchedulerLeaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de rattrapage d'un retard d'exécution : 1 million de programmes échus
+ *
+ * Vérifie que le parcours par lots (curseur par clé + vidage du contexte de persistance)
+ * garde une consommation mémoire constante. Lancement :
+ * mvn test -Dtest=BacklogReplayBenchmarkTest -Dbenchmark.backlog=true [-Dbenchmark.backlog.rows=1000000]
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "app.scheduler.irrigation.claim-batch-size=500"
+})
+@Import({IrrigationExecutionService.class, JournalArrosageService.class, WriteBehindJournal.class,
+        ArchiveService.class, ExecutionAdmission.class, SchedulerLeaseService.class, IrrigationMetricsCollector.class, SimpleMeterRegistry.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark.backlog", matches = "true")
+class BacklogReplayBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.backlog.rows", 1_000_000);
+
+    // Un retard de 1M programmes chargé d'un bloc dépasse largement cette marge
+    private static final long MAX_HEAP_GROWTH_BYTES = 256L * 1024 * 1024;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private IrrigationExecutionService executionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+
+        jdbcTemplate.update("DELETE FROM journal_arrosage");
+        jdbcTemplate.update("DELETE FROM programme_arrosage");
+        jdbcTemplate.update("""
+                INSERT INTO programme_arrosage (parcelle_id, date_planifiee, duree, volume_prevu, statut)
+                SELECT p.id, ?::timestamp - (g * INTERVAL '1 second'), 30, 10.00, 'PLANIFIE'
+                FROM generate_series(1, ?) g
+                JOIN parcelle p ON p.id = (SELECT MIN(id) FROM parcelle) + (g % 5)
+                """, now, ROWS);
+        jdbcTemplate.execute("ANALYZE programme_arrosage");
+    }
+
+    @Test
+    void replayBacklogWithFlatHeap() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "heap-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        int executed = executionService.executeScheduledPrograms(now);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        running.set(false);
+        sampler.join();
+
+        long growth = peak.get() - baseline;
+        System.out.printf("Backlog replay: %d programmes in %d ms (%.0f programmes/s), peak heap growth %d MB%n",
+                executed, elapsedMs, executed * 1000.0 / Math.max(elapsedMs, 1), growth / (1024 * 1024));
+
+        assertThat(executed).isEqualTo(ROWS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM programme_arrosage WHERE statut = 'TERMINE'", Integer.class)).isEqualTo(ROWS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM journal_arrosage", Integer.class)).isEqualTo(ROWS);
+        assertThat(growth).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+}
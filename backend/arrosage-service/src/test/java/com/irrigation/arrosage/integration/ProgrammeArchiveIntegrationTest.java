@@ -0,0 +1,176 @@
+package com.irrigation.arrosage.integration;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.repository.JournalArrosageRepository;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.service.ArchiveService;
+import com.irrigation.arrosage.service.SchedulerLeaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archivage des programmes terminés vers les tables partitionnées par mois, sur un vrai PostgreSQL
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "app.archive.chunk-size=7"
+})
+@Import({ArchiveService.class, SchedulerLeaseService.class, SimpleMeterRegistry.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ProgrammeArchiveIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ProgrammeArrosageRepository programmeRepository;
+
+    @Autowired
+    private JournalArrosageRepository journalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime cutoff;
+
+    @BeforeEach
+    void setUp() {
+        cutoff = LocalDateTime.now().minusDays(30);
+
+        jdbcTemplate.update("DELETE FROM journal_arrosage");
+        jdbcTemplate.update("DELETE FROM programme_arrosage");
+        jdbcTemplate.update("DELETE FROM journal_arrosage_archive");
+        jdbcTemplate.update("DELETE FROM programme_arrosage_archive");
+
+        // 20 programmes terminés sur trois mois, chacun avec un journal
+        for (int i = 0; i < 20; i++) {
+            LocalDateTime date = cutoff.minusDays(5 + i * 3);
+            long id = insertProgramme(date, "TERMINE");
+            insertJournal(id, date.plusMinutes(2));
+        }
+        // Non archivables : trop récent, ou pas terminé
+        insertProgramme(cutoff.plusDays(1), "TERMINE");
+        insertProgramme(cutoff.minusDays(10), "ANNULE");
+    }
+
+    @Test
+    void completedProgrammesAreMovedWithTheirJournalsInChunks() {
+        // When
+        int archived = archiveService.archiveCompletedPrograms(cutoff);
+
+        // Then
+        assertThat(archived).isEqualTo(20);
+        assertThat(count("programme_arrosage")).isEqualTo(2);
+        assertThat(count("journal_arrosage")).isZero();
+        assertThat(count("programme_arrosage_archive")).isEqualTo(20);
+        assertThat(count("journal_arrosage_archive")).isEqualTo(20);
+
+        // Chaque mois concerné a sa partition, la partition par défaut reste vide
+        YearMonth oldest = YearMonth.from(cutoff.minusDays(5 + 19 * 3));
+        assertThat(partitionExists("programme_arrosage_archive_" + oldest.toString().replace('-', '_'))).isTrue();
+        assertThat(count("programme_arrosage_archive_default")).isZero();
+        assertThat(count("journal_arrosage_archive_default")).isZero();
+
+        // Un second passage n'a plus rien à déplacer
+        assertThat(archiveService.archiveCompletedPrograms(cutoff)).isZero();
+    }
+
+    @Test
+    void archivedHistoryIsReadableThroughRepositories() {
+        // Given
+        Long programmeId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM programme_arrosage WHERE statut = 'TERMINE'", Long.class);
+        archiveService.archiveCompletedPrograms(cutoff);
+
+        // When
+        ProgrammeArrosageRepository.ArchivedProgramme programme =
+                programmeRepository.findArchivedById(programmeId).orElseThrow();
+        List<JournalArrosageRepository.ArchivedJournal> journaux =
+                journalRepository.findArchivedByProgrammeId(programmeId);
+        List<JournalArrosageRepository.ArchivedJournal> periode =
+                journalRepository.findArchivedByDateExecutionBetween(cutoff.minusDays(20), cutoff);
+
+        // Then
+        assertThat(programme.getStatut()).isEqualTo(StatutProgramme.TERMINE);
+        assertThat(programme.getParcelleNom()).isNotBlank();
+        assertThat(programme.getDatePlanifiee()).isBefore(cutoff);
+        assertThat(journaux).hasSize(1);
+        assertThat(journaux.get(0).getVolumeReel()).isEqualByComparingTo("9.50");
+        assertThat(periode).isNotEmpty().allSatisfy(journal ->
+                assertThat(journal.getDateExecution()).isBetween(cutoff.minusDays(20), cutoff));
+    }
+
+    @Test
+    void rowsParkedInDefaultPartitionMoveToTheirMonthlyPartition() {
+        // Given - un programme archivé avant la création de la partition de son mois
+        LocalDateTime date = LocalDateTime.of(2020, 3, 15, 6, 0);
+        jdbcTemplate.update("INSERT INTO programme_arrosage_archive "
+                + "(id, parcelle_id, date_planifiee, duree, volume_prevu, statut, date_archivage) "
+                + "VALUES (999999, 1, ?, 30, 10.00, 'TERMINE', now())", Timestamp.valueOf(date));
+
+        // When
+        Boolean created = jdbcTemplate.queryForObject(
+                "SELECT ensure_archive_partition('programme_arrosage_archive', 'date_planifiee', DATE '2020-03-01')",
+                Boolean.class);
+
+        // Then
+        assertThat(created).isTrue();
+        assertThat(count("programme_arrosage_archive_default")).isZero();
+        assertThat(count("programme_arrosage_archive_2020_03")).isEqualTo(1);
+    }
+
+    private long insertProgramme(LocalDateTime datePlanifiee, String statut) {
+        return jdbcTemplate.queryForObject("INSERT INTO programme_arrosage "
+                + "(parcelle_id, date_planifiee, duree, volume_prevu, statut) VALUES (1, ?, 30, 10.00, ?) RETURNING id",
+                Long.class, Timestamp.valueOf(datePlanifiee), statut);
+    }
+
+    private void insertJournal(long programmeId, LocalDateTime dateExecution) {
+        jdbcTemplate.update("INSERT INTO journal_arrosage (id, programme_id, date_execution, volume_reel, remarque) "
+                + "VALUES (nextval('journal_arrosage_id_seq'), ?, ?, 9.50, 'ok')",
+                programmeId, Timestamp.valueOf(dateExecution));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private boolean partitionExists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+}
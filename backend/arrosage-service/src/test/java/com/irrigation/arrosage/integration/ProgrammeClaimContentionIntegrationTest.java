@@ -0,0 +1,189 @@
+package com.irrigation.arrosage.integration;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests de contention de la réservation des programmes (SKIP LOCKED) sur un vrai PostgreSQL
+ * Chaque thread simule une instance d'arrosage-service qui vide la file en parallèle.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ProgrammeClaimContentionIntegrationTest {
+
+    private static final int PROGRAMME_COUNT = 500;
+    private static final int REPLICAS = 4;
+    private static final int BATCH_SIZE = 25;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ProgrammeArrosageRepository programmeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+
+        jdbcTemplate.update("DELETE FROM journal_arrosage");
+        jdbcTemplate.update("DELETE FROM programme_arrosage");
+
+        List<Object[]> rows = new ArrayList<>(PROGRAMME_COUNT);
+        for (int i = 0; i < PROGRAMME_COUNT; i++) {
+            rows.add(new Object[]{(long) (i % 5) + 1, Timestamp.valueOf(now.minusMinutes(i + 1))});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO programme_arrosage (parcelle_id, date_planifiee, duree, volume_prevu, statut) "
+                        + "VALUES (?, ?, 30, 10.00, 'PLANIFIE')", rows);
+    }
+
+    @Test
+    void concurrentReplicasClaimEachProgrammeExactlyOnce() throws Exception {
+        ExecutorService replicas = Executors.newFixedThreadPool(REPLICAS);
+        CyclicBarrier start = new CyclicBarrier(REPLICAS);
+
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int r = 0; r < REPLICAS; r++) {
+            futures.add(replicas.submit(() -> {
+                TransactionTemplate tx = new TransactionTemplate(transactionManager);
+                List<Long> claimedIds = new ArrayList<>();
+                start.await();
+                while (true) {
+                    List<Long> batch = tx.execute(status -> programmeRepository
+                            .claimDueProgrammes(now, BATCH_SIZE).stream()
+                            .map(ProgrammeArrosage::getId)
+                            .collect(Collectors.toList()));
+                    if (batch.isEmpty()) {
+                        return claimedIds;
+                    }
+                    claimedIds.addAll(batch);
+                }
+            }));
+        }
+
+        List<Long> allClaimed = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            allClaimed.addAll(future.get(60, TimeUnit.SECONDS));
+        }
+        replicas.shutdown();
+
+        // Aucun programme réservé deux fois, aucun oublié
+        assertThat(allClaimed).hasSize(PROGRAMME_COUNT);
+        assertThat(new HashSet<>(allClaimed)).hasSize(PROGRAMME_COUNT);
+        assertThat(countByStatut("EN_COURS")).isEqualTo(PROGRAMME_COUNT);
+        assertThat(countByStatut("PLANIFIE")).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM programme_arrosage WHERE date_reservation IS NULL", Integer.class)).isZero();
+    }
+
+    @Test
+    void lockedRowsAreSkippedInsteadOfBlocking() throws Exception {
+        CountDownLatch firstReplicaClaimed = new CountDownLatch(1);
+        CountDownLatch releaseFirstReplica = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Première instance : réserve un lot et garde sa transaction ouverte
+        Future<List<Long>> firstReplica = executor.submit(() -> new TransactionTemplate(transactionManager)
+                .execute(status -> {
+                    List<Long> ids = programmeRepository.claimDueProgrammes(now, 10).stream()
+                            .map(ProgrammeArrosage::getId)
+                            .collect(Collectors.toList());
+                    firstReplicaClaimed.countDown();
+                    try {
+                        releaseFirstReplica.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return ids;
+                }));
+
+        assertThat(firstReplicaClaimed.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // Seconde instance : ne doit ni attendre ni reprendre les lignes verrouillées
+        List<Long> secondReplica = new TransactionTemplate(transactionManager)
+                .execute(status -> programmeRepository.claimDueProgrammes(now, PROGRAMME_COUNT).stream()
+                        .map(ProgrammeArrosage::getId)
+                        .collect(Collectors.toList()));
+
+        releaseFirstReplica.countDown();
+        Set<Long> firstIds = new HashSet<>(firstReplica.get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertThat(firstIds).hasSize(10);
+        assertThat(secondReplica).hasSize(PROGRAMME_COUNT - 10);
+        assertThat(secondReplica).doesNotContainAnyElementsOf(firstIds);
+    }
+
+    @Test
+    void staleReservationsAreReleased() {
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> programmeRepository.claimDueProgrammes(now.minusHours(1), BATCH_SIZE));
+
+        Integer released = new TransactionTemplate(transactionManager)
+                .execute(status -> programmeRepository.releaseStaleReservations(
+                        now.minusMinutes(30), StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS));
+
+        assertThat(released).isEqualTo(BATCH_SIZE);
+        assertThat(countByStatut("EN_COURS")).isZero();
+        assertThat(countByStatut("PLANIFIE")).isEqualTo(PROGRAMME_COUNT);
+    }
+
+    private int countByStatut(String statut) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM programme_arrosage WHERE statut = ?", Integer.class, statut);
+    }
+}
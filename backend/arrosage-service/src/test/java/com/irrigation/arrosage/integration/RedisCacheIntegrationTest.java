@@ -1,5 +1,6 @@
 package com.irrigation.arrosage.integration;
 
+import com.irrigation.arrosage.cache.RedisCacheStatistics;
 import com.irrigation.arrosage.client.MeteoServiceClient;
 import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
 import com.irrigation.arrosage.service.CacheManagementService;
@@ -12,12 +13,13 @@ import org.springframework.cache.CacheManager;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,18 +30,28 @@ import static org.mockito.Mockito.*;
 /**
  * Tests d'intégration pour le cache Redis avec Testcontainers
  */
-@SpringBootTest
-@Testcontainers
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.flyway.enabled=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
 public class RedisCacheIntegrationTest {
 
     @Container
     static GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
             .withExposedPorts(6379);
 
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
     @DynamicPropertySource
     static void redisProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.data.redis.host", redis::getHost);
         registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
     }
 
     @Autowired
@@ -48,6 +60,9 @@ public class RedisCacheIntegrationTest {
     @Autowired
     private CacheManagementService cacheManagementService;
 
+    @Autowired
+    private RedisCacheStatistics cacheStatistics;
+
     @MockBean
     private MeteoServiceClient meteoServiceClient;
 
@@ -114,13 +129,16 @@ public class RedisCacheIntegrationTest {
         List<PrevisionMeteoDTO> mockForecasts = createMockForecasts(stationId);
         when(meteoServiceClient.getPrevisionsByStation(stationId)).thenReturn(mockForecasts);
 
-        // Act
-        meteoServiceClient.getPrevisionsByStation(stationId);
+        // Act - les compteurs sont reportés et les tailles recalculées périodiquement
+        cacheManager.getCache("forecasts").put("station:" + stationId, meteoServiceClient.getPrevisionsByStation(stationId));
+        cacheStatistics.flush();
+        cacheStatistics.refreshSizes();
         CacheManagementService.CacheStats stats = cacheManagementService.getCacheStats();
 
         // Assert
         assertThat(stats).isNotNull();
-        assertThat(stats.getForecastsSize()).isGreaterThan(0);
+        assertThat(stats.getForecastsCacheSize()).isGreaterThan(0);
+        assertThat(stats.getCaches().get("forecasts").getPuts()).isGreaterThan(0);
     }
 
     @Test
@@ -164,9 +182,9 @@ public class RedisCacheIntegrationTest {
         CacheManagementService.CacheStats stats = cacheManagementService.getCacheStats();
 
         // Assert - Les caches devraient être vides
-        assertThat(stats.getForecastsSize()).isEqualTo(0);
-        assertThat(stats.getStationsSize()).isEqualTo(0);
-        assertThat(stats.getWeatherDataSize()).isEqualTo(0);
+        assertThat(stats.getForecastsCacheSize()).isEqualTo(0);
+        assertThat(stats.getStationsCacheSize()).isEqualTo(0);
+        assertThat(stats.getWeatherDataCacheSize()).isEqualTo(0);
     }
 
     private List<PrevisionMeteoDTO> createMockForecasts(Long stationId) {
@@ -176,11 +194,10 @@ public class RedisCacheIntegrationTest {
             forecast.setId((long) i);
             forecast.setStationId(stationId);
             forecast.setDate(LocalDate.now().plusDays(i));
-            forecast.setTemperature(20.0 + i);
-            forecast.setHumidite(60.0);
-            forecast.setPrecipitations(0.0);
-            forecast.setVentVitesse(10.0);
-            forecast.setCreatedAt(LocalDateTime.now());
+            forecast.setTemperatureMax(BigDecimal.valueOf(20 + i));
+            forecast.setTemperatureMin(BigDecimal.valueOf(10 + i));
+            forecast.setPluiePrevue(BigDecimal.ZERO);
+            forecast.setVent(BigDecimal.TEN);
             forecasts.add(forecast);
         }
         return forecasts;
@@ -0,0 +1,144 @@
+package com.irrigation.arrosage.integration;
+
+import com.irrigation.arrosage.repository.SchedulerLeaseRepository;
+import com.irrigation.arrosage.service.SchedulerLeaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Élection du leader entre deux instances du scheduler sur un vrai PostgreSQL
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class SchedulerLeaseIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(1);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SchedulerLeaseService first;
+    private SchedulerLeaseService second;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM scheduler_lease");
+        first = instance("arrosage-1");
+        second = instance("arrosage-2");
+    }
+
+    @Test
+    void testOnlyOneInstanceRunsTheJob() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+
+        // When
+        boolean firstRan = first.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, runs::incrementAndGet);
+        boolean secondRan = second.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, runs::incrementAndGet);
+        boolean firstRanAgain = first.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, runs::incrementAndGet);
+
+        // Then - le leader renouvelle son bail sans changer de jeton
+        assertThat(firstRan).isTrue();
+        assertThat(secondRan).isFalse();
+        assertThat(firstRanAgain).isTrue();
+        assertThat(runs).hasValue(2);
+        assertThat(token(SchedulerLeaseService.JOB_EXECUTION)).isEqualTo(1L);
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOverAndStaleLeaderIsFenced() {
+        // Given - le premier leader est suspendu au milieu de sa tâche
+        AtomicInteger secondRuns = new AtomicInteger();
+
+        // When/Then
+        assertThatThrownBy(() -> first.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, () -> {
+            sleep(LEASE.plusMillis(200));
+            assertThat(second.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, secondRuns::incrementAndGet)).isTrue();
+            inTransaction(first::checkFence);
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(secondRuns).hasValue(1);
+        assertThat(token(SchedulerLeaseService.JOB_EXECUTION)).isEqualTo(2L);
+        assertThat(first.isLeader(SchedulerLeaseService.JOB_EXECUTION)).isFalse();
+    }
+
+    @Test
+    void testReleasedLeaseIsTakenOverImmediately() {
+        // Given
+        first.renewLeases();
+
+        // When
+        first.releaseLeases();
+        second.renewLeases();
+
+        // Then
+        assertThat(second.isLeader(SchedulerLeaseService.JOB_EXECUTION)).isTrue();
+        assertThat(second.isLeader(SchedulerLeaseService.JOB_CLEANUP)).isTrue();
+        assertThat(token(SchedulerLeaseService.JOB_CLEANUP)).isEqualTo(2L);
+    }
+
+    private SchedulerLeaseService instance(String instanceId) {
+        return new SchedulerLeaseService(leaseRepository, transactionManager, new SimpleMeterRegistry(), true,
+                LEASE, instanceId);
+    }
+
+    private Long token(String job) {
+        return jdbcTemplate.queryForObject("SELECT fencing_token FROM scheduler_lease WHERE job_name = ?",
+                Long.class, job);
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.irrigation.arrosage.integration;
+
+import com.irrigation.arrosage.ArrosageServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparaison threads plateforme / threads virtuels sur les endpoints de lecture
+ * /api/programmes et /api/journaux (débit et latence p99)
+ *
+ * Le service complet est démarré deux fois sur le même PostgreSQL, avec puis sans
+ * spring.threads.virtual.enabled ; le mode virtuel n'est mesuré que sur Java 21+.
+ *
+ * Lancement : mvn test -Pjava21 -Dtest=ThreadModelLoadBenchmarkTest -Dbenchmark.load=true
+ * (optionnel : -Dbenchmark.load.clients=400 -Dbenchmark.load.seconds=20)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark.load", matches = "true")
+class ThreadModelLoadBenchmarkTest {
+
+    private static final int PARCELLE_COUNT = 50;
+    private static final int PROGRAMMES_PER_PARCELLE = 40;
+    private static final int CLIENTS = Integer.getInteger("benchmark.load.clients", 400);
+    private static final int SECONDS = Integer.getInteger("benchmark.load.seconds", 20);
+    private static final int WARMUP_SECONDS = 5;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void compareThreadModelsOnReadEndpoints() throws Exception {
+        // Given/When
+        Map<String, LoadResult> platform = runLoad(false);
+        Map<String, LoadResult> virtual = JRE.currentVersion().compareTo(JRE.JAVA_21) >= 0 ? runLoad(true) : Map.of();
+
+        // Then
+        System.out.printf("%n%d clients, %d s per endpoint%n", CLIENTS, SECONDS);
+        System.out.printf("%-28s %-9s %12s %10s %10s %8s%n", "endpoint", "threads", "req/s", "p50 ms", "p99 ms", "errors");
+        platform.forEach((endpoint, result) -> print(endpoint, "platform", result));
+        virtual.forEach((endpoint, result) -> print(endpoint, "virtual", result));
+        if (virtual.isEmpty()) {
+            System.out.println("Virtual threads skipped: Java 21 required (current " + JRE.currentVersion() + ")");
+        }
+
+        platform.values().forEach(result -> assertThat(result.getErrors()).isZero());
+        virtual.values().forEach(result -> assertThat(result.getErrors()).isZero());
+    }
+
+    /**
+     * Démarrer le service dans le mode demandé et mesurer chaque endpoint
+     */
+    private Map<String, LoadResult> runLoad(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ArrosageServiceApplication.class)
+                .properties(applicationProperties(virtualThreads))
+                .run()) {
+            seedIfEmpty(context.getBean(JdbcTemplate.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            Map<String, String> endpoints = new LinkedHashMap<>();
+            endpoints.put("/api/programmes/parcelle/{id}", "http://localhost:" + port + "/api/programmes/parcelle/");
+            endpoints.put("/api/journaux/parcelle/{id}", "http://localhost:" + port + "/api/journaux/parcelle/");
+
+            Map<String, LoadResult> results = new LinkedHashMap<>();
+            for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+                drive(endpoint.getValue(), WARMUP_SECONDS);
+                results.put(endpoint.getKey(), drive(endpoint.getValue(), SECONDS));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Charge en boucle fermée : chaque client enchaîne les requêtes pendant la durée donnée
+     */
+    private LoadResult drive(String baseUrl, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<ClientResult>> futures = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    ClientResult result = new ClientResult();
+                    while (System.nanoTime() < deadline) {
+                        long parcelleId = ThreadLocalRandom.current().nextLong(1, PARCELLE_COUNT + 1);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + parcelleId))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            result.record(System.nanoTime() - start, response.statusCode() == 200);
+                        } catch (Exception e) {
+                            result.record(System.nanoTime() - start, false);
+                        }
+                    }
+                    return result;
+                }));
+            }
+
+            ClientResult total = new ClientResult();
+            for (Future<ClientResult> future : futures) {
+                total.merge(future.get());
+            }
+            return total.toLoadResult(seconds);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private Map<String, Object> applicationProperties(boolean virtualThreads) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.threads.virtual.enabled", virtualThreads);
+        properties.put("spring.datasource.url", postgres.getJdbcUrl());
+        properties.put("spring.datasource.username", postgres.getUsername());
+        properties.put("spring.datasource.password", postgres.getPassword());
+        properties.put("spring.flyway.enabled", true);
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.cloud.config.enabled", false);
+        properties.put("eureka.client.enabled", false);
+        properties.put("spring.kafka.listener.auto-startup", false);
+        properties.put("spring.zipkin.enabled", false);
+        properties.put("management.tracing.enabled", false);
+        properties.put("app.scheduler.irrigation.enabled", false);
+        properties.put("logging.level.com.irrigation.arrosage", "WARN");
+        properties.put("logging.level.org.springframework.cloud.openfeign", "WARN");
+        return properties;
+    }
+
+    private void seedIfEmpty(JdbcTemplate jdbcTemplate) {
+        Integer programmes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM programme_arrosage", Integer.class);
+        if (programmes != null && programmes >= PARCELLE_COUNT * PROGRAMMES_PER_PARCELLE) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM journal_arrosage");
+        jdbcTemplate.update("DELETE FROM programme_arrosage");
+        jdbcTemplate.update("DELETE FROM parcelle");
+        jdbcTemplate.update("ALTER SEQUENCE parcelle_id_seq RESTART WITH 1");
+        jdbcTemplate.update("INSERT INTO parcelle (nom, superficie, culture) "
+                + "SELECT 'Parcelle ' || g, 1000 + g, 'Tomates' FROM generate_series(1, ?) g", PARCELLE_COUNT);
+        jdbcTemplate.update("INSERT INTO programme_arrosage (parcelle_id, date_planifiee, duree, volume_prevu, statut) "
+                + "SELECT p.id, now() - (g || ' hours')::interval, 30, 10.00, 'TERMINE' "
+                + "FROM parcelle p CROSS JOIN generate_series(1, ?) g", PROGRAMMES_PER_PARCELLE);
+        jdbcTemplate.update("INSERT INTO journal_arrosage (id, programme_id, date_execution, volume_reel, remarque) "
+                + "SELECT nextval('journal_arrosage_id_seq'), id, date_planifiee, 9.80, 'ok' FROM programme_arrosage");
+    }
+
+    private static void print(String endpoint, String threads, LoadResult result) {
+        System.out.printf("%-28s %-9s %12.1f %10.1f %10.1f %8d%n", endpoint, threads,
+                result.getThroughput(), result.getP50Millis(), result.getP99Millis(), result.getErrors());
+    }
+
+    /**
+     * Latences mesurées par un client
+     */
+    private static class ClientResult {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long latencyNanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        void merge(ClientResult other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        LoadResult toLoadResult(int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new LoadResult((double) count / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), errors);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Résultat d'une mesure sur un endpoint
+     */
+    private static class LoadResult {
+        private final double throughput;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final int errors;
+
+        LoadResult(double throughput, double p50Millis, double p99Millis, int errors) {
+            this.throughput = throughput;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.errors = errors;
+        }
+
+        double getThroughput() {
+            return throughput;
+        }
+
+        double getP50Millis() {
+            return p50Millis;
+        }
+
+        double getP99Millis() {
+            return p99Millis;
+        }
+
+        int getErrors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.irrigation.arrosage.integration;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.rules.WeatherRuleEngine;
+import com.irrigation.arrosage.service.ProcessedWeatherEventStore;
+import com.irrigation.arrosage.service.StationParcelleIndex;
+import com.irrigation.arrosage.service.WeatherBasedSchedulingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark des ajustements météo : chargement des entités + saveAll contre un UPDATE ensembliste
+ *
+ * 100 000 programmes planifiés sur les parcelles d'une station reçoivent le même ajustement
+ * par les deux chemins ; les deux doivent donner le même état final. Lancement :
+ * mvn test -Dtest=WeatherAdjustmentBenchmarkTest -Dbenchmark.weather=true [-Dbenchmark.weather.rows=100000]
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+@Import({WeatherBasedSchedulingService.class, StationParcelleIndex.class, WeatherRuleEngine.class,
+        ProcessedWeatherEventStore.class, IrrigationMetricsCollector.class, SimpleMeterRegistry.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark.weather", matches = "true")
+class WeatherAdjustmentBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.weather.rows", 100_000);
+    private static final int PARCELLES = 200;
+    private static final long STATION_ID = 1L;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private WeatherBasedSchedulingService weatherBasedSchedulingService;
+
+    @Autowired
+    private StationParcelleIndex stationParcelleIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime eventDate;
+
+    @BeforeEach
+    void setUp() {
+        eventDate = LocalDateTime.now().plusDays(1).withNano(0);
+
+        jdbcTemplate.update("DELETE FROM journal_arrosage");
+        jdbcTemplate.update("DELETE FROM programme_arrosage");
+        jdbcTemplate.update("DELETE FROM parcelle");
+        jdbcTemplate.update("INSERT INTO parcelle (nom, superficie, culture, station_id) "
+                + "SELECT 'Parcelle ' || g, 1000 + g, 'Tomates', ? FROM generate_series(1, ?) g", STATION_ID, PARCELLES);
+        stationParcelleIndex.refresh();
+    }
+
+    @Test
+    void compareEntityAndSetBasedPaths() {
+        // Given - pluie en hausse de 15 mm : volume réduit de 50 % sur toute la fenêtre
+        WeatherChangeEvent event = new WeatherChangeEvent(STATION_ID, "Station 1",
+                new WeatherConditions(25.0, 15.0, 0.0, 10.0, eventDate),
+                new WeatherConditions(25.0, 15.0, 15.0, 10.0, eventDate),
+                LocalDateTime.now(), ChangeSeverity.HIGH, "Pluie en hausse");
+
+        // When
+        seedProgrammes();
+        Object expectedVolume = jdbcTemplate.queryForObject(
+                "SELECT SUM(ROUND(volume_prevu * 0.5, 2)) FROM programme_arrosage", Object.class);
+        long entityMs = run(event, false);
+        Map<String, Object> entityResult = aggregate();
+
+        seedProgrammes();
+        long bulkMs = run(event, true);
+        Map<String, Object> bulkResult = aggregate();
+
+        // Then
+        System.out.printf("Weather adjustment of %d programmes: entity path %d ms, set-based path %d ms (x%.1f)%n",
+                ROWS, entityMs, bulkMs, (double) entityMs / Math.max(bulkMs, 1));
+        assertThat(bulkResult).isEqualTo(entityResult);
+        assertThat(bulkResult.get("volume")).isEqualTo(expectedVolume);
+        assertThat(((Number) bulkResult.get("programmes")).intValue()).isEqualTo(ROWS);
+    }
+
+    private long run(WeatherChangeEvent event, boolean bulk) {
+        ReflectionTestUtils.setField(weatherBasedSchedulingService, "bulkUpdateEnabled", bulk);
+        long start = System.nanoTime();
+        weatherBasedSchedulingService.handleWeatherChange(event);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void seedProgrammes() {
+        jdbcTemplate.update("DELETE FROM programme_arrosage");
+        jdbcTemplate.update("""
+                INSERT INTO programme_arrosage (parcelle_id, date_planifiee, duree, volume_prevu, statut)
+                SELECT p.id, ?::timestamp + ((g % 48) * INTERVAL '30 minutes'), 30 + g % 60, 10.00 + (g % 100) / 7.0, 'PLANIFIE'
+                FROM generate_series(1, ?) g
+                JOIN parcelle p ON p.id = (SELECT MIN(id) FROM parcelle) + (g % ?)
+                """, eventDate.minusHours(12), ROWS, PARCELLES);
+        jdbcTemplate.execute("ANALYZE programme_arrosage");
+    }
+
+    private Map<String, Object> aggregate() {
+        return jdbcTemplate.queryForMap("""
+                SELECT COUNT(*) AS programmes, SUM(volume_prevu) AS volume, SUM(duree) AS duree
+                FROM programme_arrosage WHERE statut = 'PLANIFIE'
+                """);
+    }
+}
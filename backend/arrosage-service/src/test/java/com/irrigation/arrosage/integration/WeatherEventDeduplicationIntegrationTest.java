@@ -0,0 +1,107 @@
+package com.irrigation.arrosage.integration;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.exception.DuplicateWeatherEventException;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.rules.WeatherRuleEngine;
+import com.irrigation.arrosage.service.ProcessedWeatherEventStore;
+import com.irrigation.arrosage.service.StationParcelleIndex;
+import com.irrigation.arrosage.service.WeatherBasedSchedulingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Un événement météo relivré n'est appliqué qu'une fois, sur un vrai PostgreSQL
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@Import({WeatherBasedSchedulingService.class, StationParcelleIndex.class, WeatherRuleEngine.class,
+        ProcessedWeatherEventStore.class, IrrigationMetricsCollector.class, SimpleMeterRegistry.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class WeatherEventDeduplicationIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private WeatherBasedSchedulingService weatherBasedSchedulingService;
+
+    @Autowired
+    private StationParcelleIndex stationParcelleIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime eventDate;
+
+    @BeforeEach
+    void setUp() {
+        eventDate = LocalDateTime.now().plusDays(1).withNano(0);
+        jdbcTemplate.update("DELETE FROM processed_weather_event");
+        jdbcTemplate.update("DELETE FROM journal_arrosage");
+        jdbcTemplate.update("DELETE FROM programme_arrosage");
+        jdbcTemplate.update("DELETE FROM parcelle");
+        jdbcTemplate.update("INSERT INTO parcelle (nom, superficie, culture, station_id) VALUES ('Parcelle 1', 1000, 'Tomates', 1)");
+        jdbcTemplate.update("""
+                INSERT INTO programme_arrosage (parcelle_id, date_planifiee, duree, volume_prevu, statut)
+                SELECT id, ?, 30, 20.00, 'PLANIFIE' FROM parcelle
+                """, eventDate);
+        stationParcelleIndex.refresh();
+    }
+
+    @Test
+    void testRedeliveredEventIsNotAppliedTwice() {
+        // Given - pluie modérée : volume -10 %
+        WeatherChangeEvent event = new WeatherChangeEvent("0b7e4f57-2a1c-4f0e-8d5b-6c3a9e1f2d40", 1L, "Station 1",
+                new WeatherConditions(25.0, 15.0, 0.0, 10.0, eventDate),
+                new WeatherConditions(25.0, 15.0, 6.0, 10.0, eventDate),
+                LocalDateTime.now(), ChangeSeverity.MEDIUM, "Pluie");
+        List<String> eventIds = List.of(ProcessedWeatherEventStore.keyOf(event));
+
+        // When - relivraison après un rééquilibrage
+        weatherBasedSchedulingService.applyWeatherChanges(List.of(event), eventIds);
+
+        // Then - la seconde application est annulée en entier
+        assertThatThrownBy(() -> weatherBasedSchedulingService.applyWeatherChanges(List.of(event), eventIds))
+                .isInstanceOf(DuplicateWeatherEventException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT volume_prevu FROM programme_arrosage", BigDecimal.class))
+                .isEqualByComparingTo("18.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_weather_event", Integer.class))
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,169 @@
+package com.irrigation.arrosage.journal;
+
+import com.irrigation.arrosage.dto.JournalArrosageDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalSegmentLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndRead_RoundTrip() {
+        // Given
+        JournalSegmentLog log = open();
+        JournalArrosageDTO journal = journal(1L, "24.75", "Arrosage effectué avec succès");
+
+        // When
+        String firstKey = log.append(journal);
+        String secondKey = log.append(journal(2L, "10.00", null));
+        List<JournalSegmentLog.Entry> entries = log.read(10);
+
+        // Then
+        assertThat(entries).hasSize(2);
+        JournalArrosageDTO read = entries.get(0).getJournal();
+        assertThat(read.getProgrammeId()).isEqualTo(1L);
+        assertThat(read.getDateExecution()).isEqualTo(journal.getDateExecution());
+        assertThat(read.getVolumeReel()).isEqualByComparingTo("24.75");
+        assertThat(read.getRemarque()).isEqualTo("Arrosage effectué avec succès");
+        assertThat(entries.get(1).getJournal().getRemarque()).isNull();
+        assertThat(entries.get(0).getAppendedAt()).isPositive();
+        assertThat(entries).extracting(JournalSegmentLog.Entry::getKey).containsExactly(firstKey, secondKey);
+        assertThat(log.getPendingEntries()).isEqualTo(2);
+    }
+
+    @Test
+    void testCommit_AdvancesReadPosition() {
+        // Given
+        JournalSegmentLog log = open();
+        for (long id = 1; id <= 5; id++) {
+            log.append(journal(id, "5.00", "ok"));
+        }
+
+        // When
+        log.commit(log.read(3));
+
+        // Then
+        assertThat(log.getPendingEntries()).isEqualTo(2);
+        assertThat(log.read(10)).extracting(entry -> entry.getJournal().getProgrammeId())
+                .containsExactly(4L, 5L);
+    }
+
+    @Test
+    void testAppend_RollsSegmentsAndDeletesFlushedOnes() throws Exception {
+        // Given - assez d'entrées pour remplir plusieurs segments
+        JournalSegmentLog log = open();
+        for (long id = 1; id <= 200; id++) {
+            log.append(journal(id, "12.50", "Arrosage effectué avec succès, volume conforme aux prévisions"));
+        }
+        assertThat(segmentCount()).isGreaterThan(1);
+
+        // When
+        List<JournalSegmentLog.Entry> entries = log.read(1000);
+        log.commit(entries);
+
+        // Then
+        assertThat(entries).hasSize(200);
+        assertThat(entries).extracting(entry -> entry.getJournal().getProgrammeId())
+                .startsWith(1L, 2L, 3L).endsWith(199L, 200L);
+        assertThat(log.getPendingEntries()).isZero();
+        assertThat(segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testOpen_ReplaysUnflushedEntriesAfterRestart() {
+        // Given
+        JournalSegmentLog log = open();
+        for (long id = 1; id <= 120; id++) {
+            log.append(journal(id, "8.00", "Arrosage effectué avec succès, volume conforme aux prévisions"));
+        }
+        log.commit(log.read(50));
+        log.close();
+
+        // When - redémarrage
+        JournalSegmentLog reopened = open();
+
+        // Then
+        assertThat(reopened.getPendingEntries()).isEqualTo(70);
+        List<JournalSegmentLog.Entry> replayed = reopened.read(1000);
+        assertThat(replayed).hasSize(70);
+        assertThat(replayed.get(0).getJournal().getProgrammeId()).isEqualTo(51L);
+
+        // Les nouveaux ajouts suivent les entrées relues
+        reopened.append(journal(121L, "8.00", "ok"));
+        assertThat(reopened.read(1000)).hasSize(71).last()
+                .satisfies(entry -> assertThat(entry.getJournal().getProgrammeId()).isEqualTo(121L));
+    }
+
+    @Test
+    void testOpen_IgnoresTornRecord() throws Exception {
+        // Given - une entrée dont les données sont corrompues (arrêt pendant l'écriture)
+        JournalSegmentLog log = open();
+        log.append(journal(1L, "8.00", "ok"));
+        log.append(journal(2L, "8.00", "ok"));
+        log.close();
+        Path segment;
+        try (Stream<Path> segments = segments()) {
+            segment = segments.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            byte[] firstRecord = new byte[16];
+            file.readFully(firstRecord);
+            int firstLength = ByteBuffer.wrap(firstRecord).getInt();
+            // Corrompre le dernier octet des données du second enregistrement
+            long secondPayloadEnd = 16L + firstLength + 16L + firstLength - 1;
+            file.seek(secondPayloadEnd);
+            byte last = file.readByte();
+            file.seek(secondPayloadEnd);
+            file.writeByte(last ^ 0xFF);
+        }
+
+        // When
+        JournalSegmentLog reopened = open();
+
+        // Then - seule l'entrée intègre est relue, et l'écriture reprend à sa suite
+        assertThat(reopened.getPendingEntries()).isEqualTo(1);
+        reopened.append(journal(3L, "8.00", "ok"));
+        assertThat(reopened.read(10)).extracting(entry -> entry.getJournal().getProgrammeId())
+                .containsExactly(1L, 3L);
+    }
+
+    private JournalSegmentLog open() {
+        JournalSegmentLog log = new JournalSegmentLog(directory, SEGMENT_SIZE, false);
+        log.open();
+        return log;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> segments = segments()) {
+            return segments.count();
+        }
+    }
+
+    private Stream<Path> segments() throws Exception {
+        return Files.list(directory).filter(path -> path.toString().endsWith(".seg")).sorted();
+    }
+
+    private JournalArrosageDTO journal(Long programmeId, String volume, String remarque) {
+        JournalArrosageDTO dto = new JournalArrosageDTO();
+        dto.setProgrammeId(programmeId);
+        dto.setDateExecution(LocalDateTime.of(2025, 11, 18, 10, 0, 30, 123_000_000));
+        dto.setVolumeReel(new BigDecimal(volume));
+        dto.setRemarque(remarque);
+        return dto;
+    }
+}
@@ -0,0 +1,288 @@
+package com.irrigation.arrosage.journal;
+
+import com.irrigation.arrosage.dto.JournalArrosageDTO;
+import com.irrigation.arrosage.service.JournalArrosageService;
+import com.irrigation.arrosage.service.JournalArrosageService.WriteBehindResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindJournalTest {
+
+    @Mock
+    private JournalArrosageService journalService;
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        journal = newJournal();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void testFlush_InsertsAppendedEntriesInBatches() {
+        // Given
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L), entry(3L)));
+        when(journalService.createAllOnce(any())).thenAnswer(invocation -> insertedAll(invocation.getArgument(0)));
+
+        // When
+        int flushed = journal.flush();
+
+        // Then - lots de 2 entrées
+        assertThat(flushed).isEqualTo(3);
+        ArgumentCaptor<Map<String, JournalArrosageDTO>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(journalService, times(2)).createAllOnce(captor.capture());
+        assertThat(captor.getAllValues()).extracting(Map::size).containsExactly(2, 1);
+        assertThat(journal.getBacklog()).isZero();
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.flushed").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.backlog").gauge().value()).isZero();
+    }
+
+    @Test
+    void testFlush_FailureKeepsEntriesForRetry() {
+        // Given
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L)));
+        when(journalService.createAllOnce(any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenAnswer(invocation -> insertedAll(invocation.getArgument(0)));
+
+        // When
+        int firstAttempt = journal.flush();
+
+        // Then
+        assertThat(firstAttempt).isZero();
+        assertThat(journal.getBacklog()).isEqualTo(2);
+        assertThat(journal.getLagSeconds()).isGreaterThanOrEqualTo(0.0);
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.flush.failures").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.dead.lettered").counter().count()).isZero();
+
+        // Retry on next tick
+        assertThat(journal.flush()).isEqualTo(2);
+        assertThat(journal.getBacklog()).isZero();
+    }
+
+    @Test
+    void testOpen_ReplaysUnflushedEntriesAfterRestart() {
+        // Given - la base est indisponible à l'arrêt
+        ArgumentCaptor<Map<String, JournalArrosageDTO>> beforeRestart = ArgumentCaptor.forClass(Map.class);
+        when(journalService.createAllOnce(beforeRestart.capture()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L), entry(3L)));
+        journal.close();
+
+        // When - redémarrage avec la base disponible
+        reset(journalService);
+        when(journalService.createAllOnce(any())).thenAnswer(invocation -> insertedAll(invocation.getArgument(0)));
+        meterRegistry = new SimpleMeterRegistry();
+        journal = newJournal();
+
+        // Then
+        assertThat(journal.getBacklog()).isEqualTo(3);
+        assertThat(journal.flush()).isEqualTo(3);
+        ArgumentCaptor<Map<String, JournalArrosageDTO>> afterRestart = ArgumentCaptor.forClass(Map.class);
+        verify(journalService, times(2)).createAllOnce(afterRestart.capture());
+
+        // Mêmes clés à la relecture : les lignes déjà insérées avant l'arrêt seraient ignorées
+        assertThat(afterRestart.getAllValues().get(0).keySet())
+                .isEqualTo(beforeRestart.getAllValues().get(0).keySet());
+    }
+
+    @Test
+    void testFlush_DeadLettersEntriesOfMissingProgramme() {
+        // Given - le programme 2 a été supprimé
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L), entry(3L)));
+        when(journalService.createAllOnce(any())).thenAnswer(invocation -> {
+            Map<String, JournalArrosageDTO> journals = invocation.getArgument(0);
+            Set<String> rejected = keysOf(journals, 2L);
+            return new WriteBehindResult(journals.size() - rejected.size(), rejected, Set.of(), Set.of());
+        });
+
+        // When
+        int flushed = journal.flush();
+
+        // Then - les autres entrées sont écrites, le journal local est vidé
+        assertThat(flushed).isEqualTo(2);
+        assertThat(journal.getBacklog()).isZero();
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.dead.lettered").counter().count()).isEqualTo(1.0);
+        assertThat(deadLetters()).extracting(JournalArrosageDTO::getProgrammeId).containsExactly(2L);
+    }
+
+    @Test
+    void testFlush_SplitsBatchToIsolateRejectedEntry() {
+        // Given - la base refuse toute insertion contenant l'entrée du programme 2
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L), entry(3L)));
+        when(journalService.createAllOnce(any())).thenAnswer(invocation -> {
+            Map<String, JournalArrosageDTO> journals = invocation.getArgument(0);
+            if (journals.values().stream().anyMatch(dto -> dto.getProgrammeId() == 2L)) {
+                throw new DataIntegrityViolationException("value too long for type character varying(500)");
+            }
+            return insertedAll(journals);
+        });
+
+        // When
+        int flushed = journal.flush();
+
+        // Then - lot [1, 2] coupé en [1] et [2], puis lot [3]
+        assertThat(flushed).isEqualTo(2);
+        assertThat(journal.getBacklog()).isZero();
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.flush.failures").counter().count()).isZero();
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.dead.lettered").counter().count()).isEqualTo(1.0);
+        assertThat(deadLetters()).extracting(JournalArrosageDTO::getProgrammeId).containsExactly(2L);
+    }
+
+    @Test
+    void testFlush_DatabaseFailureDuringSplitKeepsBatch() {
+        // Given - l'entrée 2 est refusée, puis la base devient indisponible
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L)));
+        when(journalService.createAllOnce(any()))
+                .thenThrow(new DataIntegrityViolationException("constraint violation"))
+                .thenThrow(new CannotCreateTransactionException("Connection refused"));
+
+        // When
+        int flushed = journal.flush();
+
+        // Then - rien n'est mis à l'écart, le lot est retenté au passage suivant
+        assertThat(flushed).isZero();
+        assertThat(journal.getBacklog()).isEqualTo(2);
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.dead.lettered").counter().count()).isZero();
+    }
+
+    @Test
+    void testAppendAll_ReturnsKeysOfTheFlushedEntries() {
+        // Given
+        List<String> keys = journal.appendAll(Arrays.asList(entry(1L), entry(2L)));
+        when(journalService.createAllOnce(any())).thenAnswer(invocation -> insertedAll(invocation.getArgument(0)));
+
+        // When
+        journal.flush();
+
+        // Then - clés enregistrées sur les programmes = clés vues par le vidage
+        ArgumentCaptor<Map<String, JournalArrosageDTO>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(journalService).createAllOnce(captor.capture());
+        assertThat(captor.getValue().keySet()).containsExactlyElementsOf(keys);
+    }
+
+    @Test
+    void testFlush_HoldsBackUncommittedEntryUntilItsTransactionEnds() {
+        // Given - la transaction du programme 1 n'est pas encore validée, celle du programme 2 l'est
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L)));
+        when(journalService.createAllOnce(any())).thenAnswer(invocation -> {
+            Map<String, JournalArrosageDTO> journals = invocation.getArgument(0);
+            Set<String> uncommitted = keysOf(journals, 1L);
+            return new WriteBehindResult(journals.size() - uncommitted.size(), Set.of(), Set.of(), uncommitted);
+        });
+
+        // When
+        int flushed = journal.flush();
+
+        // Then - rien n'est validé dans le journal local : les deux entrées sont relues au passage suivant
+        assertThat(flushed).isEqualTo(1);
+        assertThat(journal.getBacklog()).isEqualTo(2);
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.discarded").counter().count()).isZero();
+
+        // La transaction est validée : l'entrée 2, déjà insérée, est ignorée par la base
+        doReturn(new WriteBehindResult(1, Set.of(), Set.of(), Set.of())).when(journalService).createAllOnce(any());
+        assertThat(journal.flush()).isEqualTo(1);
+        assertThat(journal.getBacklog()).isZero();
+    }
+
+    @Test
+    void testFlush_DiscardsEntriesOfRolledBackExecutions() {
+        // Given - le programme 1 a été repris et validé avec une autre entrée ; le programme 2 n'a jamais été
+        // validé et son entrée est plus ancienne que le délai de décision
+        journal.close();
+        journal = newJournal(0L);
+        journal.appendAll(Arrays.asList(entry(1L), entry(2L), entry(3L)));
+        when(journalService.createAllOnce(any())).thenAnswer(invocation -> {
+            Map<String, JournalArrosageDTO> journals = invocation.getArgument(0);
+            Set<String> rolledBack = keysOf(journals, 1L);
+            Set<String> uncommitted = keysOf(journals, 2L);
+            return new WriteBehindResult(journals.size() - rolledBack.size() - uncommitted.size(),
+                    Set.of(), rolledBack, uncommitted);
+        });
+
+        // When
+        int flushed = journal.flush();
+
+        // Then - ni insérées ni mises à l'écart, le journal local est vidé
+        assertThat(flushed).isEqualTo(1);
+        assertThat(journal.getBacklog()).isZero();
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.discarded").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("irrigation.journal.writebehind.dead.lettered").counter().count()).isZero();
+    }
+
+    private WriteBehindJournal newJournal() {
+        return newJournal(60_000L);
+    }
+
+    private WriteBehindJournal newJournal(long settleMs) {
+        WriteBehindJournal writeBehindJournal = new WriteBehindJournal(journalService, meterRegistry, true,
+                directory.toString(), 64 * 1024, 2, settleMs);
+        writeBehindJournal.open();
+        return writeBehindJournal;
+    }
+
+    private static WriteBehindResult insertedAll(Map<String, JournalArrosageDTO> journals) {
+        return new WriteBehindResult(journals.size(), Set.of(), Set.of(), Set.of());
+    }
+
+    private static Set<String> keysOf(Map<String, JournalArrosageDTO> journals, Long programmeId) {
+        return journals.entrySet().stream()
+                .filter(e -> e.getValue().getProgrammeId().equals(programmeId))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private List<JournalArrosageDTO> deadLetters() {
+        JournalSegmentLog deadLetterLog = new JournalSegmentLog(
+                directory.resolve(WriteBehindJournal.DEAD_LETTER_DIRECTORY), 64 * 1024, false);
+        deadLetterLog.open();
+        try {
+            return deadLetterLog.read(100).stream().map(JournalSegmentLog.Entry::getJournal).toList();
+        } finally {
+            deadLetterLog.close();
+        }
+    }
+
+    private JournalArrosageDTO entry(Long programmeId) {
+        JournalArrosageDTO dto = new JournalArrosageDTO();
+        dto.setProgrammeId(programmeId);
+        dto.setDateExecution(LocalDateTime.of(2025, 11, 18, 10, 0));
+        dto.setVolumeReel(new BigDecimal("24.50"));
+        dto.setRemarque("Arrosage effectué avec succès");
+        return dto;
+    }
+}
@@ -15,25 +15,44 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.annotation.DirtiesContext;
-
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.flyway.enabled=true"
+})
 @EmbeddedKafka(
         partitions = 1,
-        brokerProperties = {
-                "listeners=PLAINTEXT://localhost:9093",
-                "port=9093"
-        },
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers",
         topics = {"weather-change-events"}
 )
 @DirtiesContext
+@Testcontainers(disabledWithoutDocker = true)
 class KafkaWeatherConsumerIntegrationTest {
 
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
     @Autowired
     private KafkaTemplate<String, Object> kafkaTemplate;
 
@@ -57,7 +76,7 @@ class KafkaWeatherConsumerIntegrationTest {
         // Create test parcelle
         testParcelle = new Parcelle();
         testParcelle.setNom("Parcelle Test Kafka");
-        testParcelle.setSuperficie(5000.0);
+        testParcelle.setSuperficie(new BigDecimal("5000"));
         testParcelle.setCulture("Tomates");
         testParcelle = parcelleRepository.save(testParcelle);
     }
@@ -88,7 +107,7 @@ class KafkaWeatherConsumerIntegrationTest {
         // Then - Wait for consumer to process and verify volume was reduced
         await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
             ProgrammeArrosage updated = programmeRepository.findById(programme.getId()).orElseThrow();
-            assertThat(updated.getVolumePrevu()).isLessThan(25.0);
+            assertThat(updated.getVolumePrevu()).isLessThan(new BigDecimal("25.0"));
         });
     }
 
@@ -158,7 +177,7 @@ class KafkaWeatherConsumerIntegrationTest {
         // Given
         LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withHour(6).withMinute(0);
         ProgrammeArrosage programme = createProgramme(tomorrow, 60, 20.0);
-        double originalVolume = programme.getVolumePrevu();
+        BigDecimal originalVolume = programme.getVolumePrevu();
 
         // Medium severity change
         WeatherConditions oldConditions = new WeatherConditions(23.0, 13.0, 0.0, 5.0, tomorrow);
@@ -190,7 +209,7 @@ class KafkaWeatherConsumerIntegrationTest {
         programme.setParcelle(testParcelle);
         programme.setDatePlanifiee(datePlanifiee);
         programme.setDuree(duree);
-        programme.setVolumePrevu(volume);
+        programme.setVolumePrevu(BigDecimal.valueOf(volume));
         programme.setStatut(StatutProgramme.PLANIFIE);
         return programmeRepository.save(programme);
     }
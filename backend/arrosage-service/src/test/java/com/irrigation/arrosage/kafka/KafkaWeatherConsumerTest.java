@@ -0,0 +1,339 @@
+package com.irrigation.arrosage.kafka;
+
+import com.irrigation.arrosage.event.SeverityThresholds;
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.exception.DuplicateWeatherEventException;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.service.ForecastCacheInvalidator;
+import com.irrigation.arrosage.service.ProcessedWeatherEventStore;
+import com.irrigation.arrosage.service.WeatherBasedSchedulingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaWeatherConsumerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 18, 10, 0);
+
+    @Mock
+    private WeatherBasedSchedulingService weatherBasedSchedulingService;
+
+    @Mock
+    private ProcessedWeatherEventStore processedWeatherEventStore;
+
+    @Mock
+    private IrrigationMetricsCollector metricsCollector;
+
+    @Mock
+    private ForecastCacheInvalidator forecastCacheInvalidator;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private KafkaWeatherConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new KafkaWeatherConsumer(weatherBasedSchedulingService, processedWeatherEventStore,
+                metricsCollector, forecastCacheInvalidator, SeverityThresholds.DEFAULT);
+    }
+
+    @Test
+    void testMergeByStationDay_KeepsNetChangeAndReclassifiesSeverity() {
+        // Given - trois mises à jour de la station 1, dont la plus récente reçue en second
+        WeatherChangeEvent first = event(1L, T0, ChangeSeverity.MEDIUM, conditions(0.0), conditions(8.0));
+        WeatherChangeEvent newest = event(1L, T0.plusMinutes(10), ChangeSeverity.LOW, conditions(25.0), conditions(26.0));
+        WeatherChangeEvent middle = event(1L, T0.plusMinutes(5), ChangeSeverity.CRITICAL, conditions(8.0), conditions(25.0));
+        WeatherChangeEvent otherStation = event(2L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0));
+
+        // When
+        List<WeatherChangeEvent> merged = new ArrayList<>(
+                KafkaWeatherConsumer.mergeByStationDay(List.of(first, newest, otherStation, middle),
+                        SeverityThresholds.DEFAULT));
+
+        // Then
+        assertThat(merged).hasSize(2);
+        WeatherChangeEvent station1 = merged.get(0);
+        assertThat(station1.getStationId()).isEqualTo(1L);
+        assertThat(station1.getOldConditions().getPluiePrevue()).isEqualTo(0.0);
+        assertThat(station1.getNewConditions().getPluiePrevue()).isEqualTo(26.0);
+        assertThat(station1.getTimestamp()).isEqualTo(T0.plusMinutes(10));
+        assertThat(station1.getSeverity()).isEqualTo(ChangeSeverity.CRITICAL);
+        assertThat(merged.get(1)).isSameAs(otherStation);
+    }
+
+    @Test
+    void testMergeByStationDay_SmallStepsAddUpToAHigherSeverity() {
+        // Given - deux hausses MEDIUM de 6 mm
+        WeatherChangeEvent first = event(1L, T0, ChangeSeverity.MEDIUM, conditions(0.0), conditions(6.0));
+        WeatherChangeEvent second = event(1L, T0.plusMinutes(5), ChangeSeverity.MEDIUM, conditions(6.0), conditions(12.0));
+
+        // When
+        List<WeatherChangeEvent> merged = new ArrayList<>(
+                KafkaWeatherConsumer.mergeByStationDay(List.of(first, second), SeverityThresholds.DEFAULT));
+
+        // Then - appliquées comme un changement HIGH de 12 mm
+        assertThat(merged).hasSize(1);
+        assertThat(merged.get(0).getSeverity()).isEqualTo(ChangeSeverity.HIGH);
+        assertThat(merged.get(0).getOldConditions().getPluiePrevue()).isEqualTo(0.0);
+        assertThat(merged.get(0).getNewConditions().getPluiePrevue()).isEqualTo(12.0);
+    }
+
+    @Test
+    void testMergeByStationDay_KeepsEachForecastDateApart() {
+        // Given - deux dates de prévision de la même station dans le lot
+        WeatherChangeEvent tomorrow = event(1L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0));
+        WeatherChangeEvent dayAfter = event(1L, T0.plusMinutes(5), ChangeSeverity.MEDIUM,
+                conditions(0.0, T0.plusDays(2)), conditions(6.0, T0.plusDays(2)));
+
+        // When
+        Collection<WeatherChangeEvent> merged =
+                KafkaWeatherConsumer.mergeByStationDay(List.of(tomorrow, dayAfter), SeverityThresholds.DEFAULT);
+
+        // Then - chaque date garde son propre ajustement
+        assertThat(merged).containsExactly(tomorrow, dayAfter);
+    }
+
+    @Test
+    void testMergeByStationDay_ReversedAlertIsLow() {
+        // Given - alerte critique puis retour au calme dans le même lot
+        WeatherChangeEvent critical = event(1L, T0, ChangeSeverity.CRITICAL, conditions(0.0), conditions(30.0));
+        WeatherChangeEvent low = event(1L, T0.plusMinutes(5), ChangeSeverity.LOW, conditions(30.0), conditions(2.0));
+
+        // When
+        List<WeatherChangeEvent> merged = new ArrayList<>(
+                KafkaWeatherConsumer.mergeByStationDay(List.of(critical, low), SeverityThresholds.DEFAULT));
+
+        // Then - même résultat que les deux événements appliqués l'un après l'autre
+        assertThat(merged).hasSize(1);
+        assertThat(merged.get(0).getSeverity()).isEqualTo(ChangeSeverity.LOW);
+        assertThat(merged.get(0).getOldConditions().getPluiePrevue()).isEqualTo(0.0);
+        assertThat(merged.get(0).getNewConditions().getPluiePrevue()).isEqualTo(2.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testConsumeWeatherChangeBatch_AppliesMergedEventsOnceAndAcknowledges() {
+        // Given
+        List<ConsumerRecord<String, WeatherChangeEvent>> records = List.of(
+                record(0, event(1L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0))),
+                record(1, event(1L, T0.plusMinutes(1), ChangeSeverity.HIGH, conditions(12.0), conditions(15.0))),
+                record(2, event(2L, T0, ChangeSeverity.MEDIUM, conditions(0.0), conditions(6.0))));
+
+        // When
+        consumer.consumeWeatherChangeBatch(records, acknowledgment);
+
+        // Then
+        ArgumentCaptor<Collection<WeatherChangeEvent>> applied = ArgumentCaptor.forClass(Collection.class);
+        verify(weatherBasedSchedulingService, times(1)).applyWeatherChanges(applied.capture(), argThat(ids -> ids.size() == 3));
+        assertThat(applied.getValue()).extracting(WeatherChangeEvent::getStationId).containsExactly(1L, 2L);
+        verify(acknowledgment).acknowledge();
+        verify(metricsCollector).recordWeatherBatch(3, 1);
+        verify(metricsCollector, times(3)).recordWeatherProcessingLag(anyLong());
+    }
+
+    @Test
+    void testConsumeWeatherChangeBatch_DoesNotAcknowledgeOnFailure() {
+        // Given
+        List<ConsumerRecord<String, WeatherChangeEvent>> records = List.of(
+                record(0, event(1L, T0, ChangeSeverity.CRITICAL, conditions(0.0), conditions(30.0))));
+        doThrow(new RuntimeException("Database unavailable"))
+                .when(weatherBasedSchedulingService).applyWeatherChanges(anyCollection(), anyCollection());
+
+        // When/Then - le lot sera relivré
+        assertThatThrownBy(() -> consumer.consumeWeatherChangeBatch(records, acknowledgment))
+                .isInstanceOf(RuntimeException.class);
+        verify(acknowledgment, never()).acknowledge();
+        verify(metricsCollector, never()).recordWeatherProcessingLag(anyLong());
+    }
+
+    @Test
+    void testConsumeWeatherChangeBatch_StopsAtUnreadableRecord() {
+        // Given - le troisième message n'a pas pu être désérialisé
+        WeatherChangeEvent first = event(1L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0));
+        WeatherChangeEvent second = event(2L, T0, ChangeSeverity.MEDIUM, conditions(0.0), conditions(6.0));
+        ConsumerRecord<String, WeatherChangeEvent> poison =
+                new ConsumerRecord<>("weather-change-events", 0, 2L, "station-3", null);
+        SerializationUtils.deserializationException(poison.headers(), new byte[] {'{'},
+                new DeserializationException("failed to deserialize", new byte[] {'{'}, false, null), false);
+        List<ConsumerRecord<String, WeatherChangeEvent>> records = List.of(
+                record(0, first), record(1, second), poison,
+                record(3, event(4L, T0, ChangeSeverity.LOW, conditions(0.0), conditions(1.0))));
+
+        // When/Then - les événements qui le précèdent sont appliqués, le gestionnaire d'erreurs envoie
+        // le message illisible au DLT et relivre la suite du lot
+        assertThatThrownBy(() -> consumer.consumeWeatherChangeBatch(records, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(2);
+                    assertThat(e.getCause()).isInstanceOf(DeserializationException.class);
+                });
+        verify(weatherBasedSchedulingService).applyWeatherChanges(eq(List.of(first, second)), anyCollection());
+        verify(acknowledgment, never()).acknowledge();
+        verify(metricsCollector).recordWeatherBatch(2, 0);
+    }
+
+    @Test
+    void testConsumeWeatherChangeBatch_UnreadableFirstRecordAppliesNothing() {
+        // Given
+        ConsumerRecord<String, WeatherChangeEvent> poison =
+                new ConsumerRecord<>("weather-change-events", 0, 0L, "station-1", null);
+
+        // When/Then
+        assertThatThrownBy(() -> consumer.consumeWeatherChangeBatch(List.of(poison), acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class,
+                        e -> assertThat(e.getIndex()).isZero());
+        verify(weatherBasedSchedulingService, never()).applyWeatherChanges(anyCollection(), anyCollection());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void testConsumeWeatherChangeBatch_SkipsEventsAlreadyApplied() {
+        // Given - la moitié du lot a été appliquée avant un rééquilibrage, puis relivrée
+        WeatherChangeEvent applied = event(1L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0));
+        WeatherChangeEvent fresh = event(2L, T0, ChangeSeverity.MEDIUM, conditions(0.0), conditions(6.0));
+        when(processedWeatherEventStore.isProcessed(ProcessedWeatherEventStore.keyOf(applied))).thenReturn(true);
+
+        // When
+        consumer.consumeWeatherChangeBatch(List.of(record(0, applied), record(1, fresh)), acknowledgment);
+
+        // Then - le cache est évincé pour tout le lot, y compris l'événement déjà appliqué
+        verify(weatherBasedSchedulingService).applyWeatherChanges(
+                eq(List.of(fresh)), eq(Set.of(ProcessedWeatherEventStore.keyOf(fresh))));
+        verify(forecastCacheInvalidator).evict(List.of(applied, fresh));
+        verify(metricsCollector).recordWeatherEventsDuplicate(1);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void testConsumeWeatherChangeEvent_OnlyAcknowledgesEventAlreadyApplied() {
+        // Given
+        WeatherChangeEvent event = event(1L, T0, ChangeSeverity.CRITICAL, conditions(0.0), conditions(30.0));
+        when(processedWeatherEventStore.isProcessed(anyString())).thenReturn(true);
+
+        // When
+        consumer.consumeWeatherChangeEvent(event, "weather-change-events", 0, 42L, acknowledgment);
+
+        // Then
+        verify(weatherBasedSchedulingService, never()).applyWeatherChanges(anyCollection(), anyCollection());
+        verify(forecastCacheInvalidator).evict(List.of(event));
+        verify(acknowledgment).acknowledge();
+        verify(metricsCollector, never()).incrementWeatherRetry(anyString());
+    }
+
+    @Test
+    void testConsumeWeatherChangeEvent_CountsDeliveryFromRetryTopic() {
+        // Given
+        WeatherChangeEvent event = event(1L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0));
+
+        // When
+        consumer.consumeWeatherChangeEvent(event, "weather-change-events-retry-1", 2, 7L, acknowledgment);
+
+        // Then
+        verify(metricsCollector).incrementWeatherRetry("weather-change-events-retry-1");
+        verify(weatherBasedSchedulingService).applyWeatherChanges(
+                eq(List.of(event)), eq(Set.of(ProcessedWeatherEventStore.keyOf(event))));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void testConsumeWeatherChangeEvent_RethrowsSoTheEventMovesToTheNextRetryTopic() {
+        // Given
+        WeatherChangeEvent event = event(1L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0));
+        doThrow(new RuntimeException("Database unavailable"))
+                .when(weatherBasedSchedulingService).applyWeatherChanges(anyCollection(), anyCollection());
+
+        // When/Then
+        assertThatThrownBy(() -> consumer.consumeWeatherChangeEvent(
+                event, "weather-change-events", 0, 42L, acknowledgment))
+                .isInstanceOf(RuntimeException.class);
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void testHandleDeadLetter_CountsFailureReasonAndAcknowledges() {
+        // Given - en-têtes posés par le DeadLetterPublishingRecoverer
+        ConsumerRecord<String, Object> deadLetter = new ConsumerRecord<>(
+                "weather-change-events-dlt", 0, 3L, "station-1", new byte[] {'{'});
+        deadLetter.headers().add(KafkaHeaders.DLT_EXCEPTION_FQCN,
+                "org.springframework.kafka.support.serializer.DeserializationException".getBytes(StandardCharsets.UTF_8));
+        deadLetter.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE,
+                "failed to deserialize".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        consumer.handleDeadLetter(deadLetter, acknowledgment);
+
+        // Then
+        verify(metricsCollector).incrementWeatherDeadLetter("DeserializationException");
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void testConsumeWeatherChangeBatch_AppliesRemainingEventsWhenAnotherInstanceAppliedSome() {
+        // Given - la station 1 a été appliquée par une autre instance entre-temps
+        WeatherChangeEvent other = event(1L, T0, ChangeSeverity.HIGH, conditions(0.0), conditions(12.0));
+        WeatherChangeEvent fresh = event(2L, T0, ChangeSeverity.MEDIUM, conditions(0.0), conditions(6.0));
+        String otherId = ProcessedWeatherEventStore.keyOf(other);
+        when(processedWeatherEventStore.isProcessed(anyString())).thenReturn(false);
+        doThrow(new DuplicateWeatherEventException("1 of 2 weather event(s) already applied"))
+                .doNothing()
+                .when(weatherBasedSchedulingService).applyWeatherChanges(anyCollection(), anyCollection());
+        doAnswer(invocation -> {
+            when(processedWeatherEventStore.isProcessed(otherId)).thenReturn(true);
+            return null;
+        }).when(processedWeatherEventStore).refreshFromDatabase(anyCollection());
+
+        // When
+        consumer.consumeWeatherChangeBatch(List.of(record(0, other), record(1, fresh)), acknowledgment);
+
+        // Then
+        verify(weatherBasedSchedulingService).applyWeatherChanges(
+                eq(List.of(fresh)), eq(Set.of(ProcessedWeatherEventStore.keyOf(fresh))));
+        verify(metricsCollector).recordWeatherEventsDuplicate(1);
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static ConsumerRecord<String, WeatherChangeEvent> record(long offset, WeatherChangeEvent event) {
+        return new ConsumerRecord<>("weather-change-events", 0, offset, "station-" + event.getStationId(), event);
+    }
+
+    private static WeatherChangeEvent event(Long stationId, LocalDateTime timestamp, ChangeSeverity severity,
+                                            WeatherConditions oldConditions, WeatherConditions newConditions) {
+        return new WeatherChangeEvent(stationId, "Station " + stationId, oldConditions, newConditions,
+                timestamp, severity, "Changement météo");
+    }
+
+    private static WeatherConditions conditions(double pluie) {
+        return conditions(pluie, T0.plusDays(1));
+    }
+
+    private static WeatherConditions conditions(double pluie, LocalDateTime date) {
+        return new WeatherConditions(25.0, 15.0, pluie, 10.0, date);
+    }
+}
@@ -0,0 +1,150 @@
+package com.irrigation.arrosage.kafka;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.event.WeatherChangeEventAvro;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WeatherChangeEventDeserializerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 18, 10, 15, 30, 123_456_000);
+
+    private WeatherChangeEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        deserializer = new WeatherChangeEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "com.irrigation.arrosage.event",
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false,
+                JsonDeserializer.VALUE_DEFAULT_TYPE, WeatherChangeEvent.class.getName()), false);
+    }
+
+    @Test
+    void testDeserialize_AvroRoundTripKeepsEveryField() {
+        // Given
+        WeatherChangeEvent event = new WeatherChangeEvent("5f0c1d1e-2b7a-4c55-9d3e-7d8a0b6c1f42", 12L, "Station Nord",
+                new WeatherConditions(25.5, 14.0, 0.0, 10.0, T0.plusDays(1)),
+                new WeatherConditions(31.0, 18.5, 22.5, 35.0, T0.plusDays(1)),
+                T0, ChangeSeverity.CRITICAL, "Augmentation des précipitations prévues de 22,5 mm.");
+
+        // When
+        byte[] data = WeatherChangeEventAvro.encode(event);
+        WeatherChangeEvent decoded = deserializer.deserialize("weather-change-events", data);
+
+        // Then
+        assertThat(WeatherChangeEventAvro.isAvro(data)).isTrue();
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    @Test
+    void testEncode_MatchesTheGenericAvroEncodingOfTheSchema() throws Exception {
+        // Given - le même événement écrit par la bibliothèque Avro à partir du fichier de schéma
+        Schema schema;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("avro/weather-change-event-v1.avsc")) {
+            schema = new Schema.Parser().parse(in);
+        }
+        Schema conditionsSchema = schema.getField("oldConditions").schema().getTypes().get(1);
+        GenericRecord conditions = new GenericData.Record(conditionsSchema);
+        conditions.put("pluiePrevue", 4.0);
+        conditions.put("date", 1_763_460_930_123_456L);
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("eventId", "id-1");
+        record.put("stationId", 3L);
+        record.put("newConditions", conditions);
+        record.put("timestamp", 1_763_460_930_123_456L);
+        record.put("severity", new GenericData.EnumSymbol(schema.getField("severity").schema().getTypes().get(1), "HIGH"));
+        ByteBuffer expected = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), schema).encode(record);
+
+        WeatherChangeEvent event = new WeatherChangeEvent("id-1", 3L, null, null,
+                new WeatherConditions(null, null, 4.0, null, T0), T0, ChangeSeverity.HIGH, null);
+
+        // When
+        byte[] data = WeatherChangeEventAvro.encode(event);
+
+        // Then
+        assertThat(ByteBuffer.wrap(data)).isEqualTo(expected);
+    }
+
+    @Test
+    void testDeserialize_AvroKeepsMissingValuesNull() {
+        // Given - ancien producteur sans identifiant, conditions précédentes inconnues
+        WeatherChangeEvent event = new WeatherChangeEvent(3L, null, null,
+                new WeatherConditions(null, null, 4.0, null, null), T0, null, null);
+
+        // When
+        WeatherChangeEvent decoded = deserializer.deserialize("weather-change-events", WeatherChangeEventAvro.encode(event));
+
+        // Then
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    @Test
+    void testDeserialize_FallsBackToJsonForLegacyMessages() {
+        // Given - message publié avant le passage à Avro
+        WeatherChangeEvent event = new WeatherChangeEvent("legacy-1", 7L, "Station Sud",
+                new WeatherConditions(20.0, 10.0, 0.0, 5.0, T0),
+                new WeatherConditions(20.0, 10.0, 12.0, 5.0, T0),
+                T0, ChangeSeverity.HIGH, "Pluie");
+        byte[] json;
+        try (JsonSerializer<WeatherChangeEvent> serializer = new JsonSerializer<>()) {
+            serializer.setAddTypeInfo(false);
+            json = serializer.serialize("weather-change-events", event);
+        }
+
+        // When
+        WeatherChangeEvent decoded = deserializer.deserialize("weather-change-events", json);
+
+        // Then
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    @Test
+    void testDeserialize_RejectsTruncatedAvroMessage() {
+        // Given
+        byte[] data = WeatherChangeEventAvro.encode(new WeatherChangeEvent("id-1", 1L, "Station",
+                null, null, T0, ChangeSeverity.LOW, "Mise à jour"));
+        byte[] truncated = Arrays.copyOf(data, 14);
+
+        // When/Then - l'ErrorHandlingDeserializer l'enverra au DLT
+        assertThatThrownBy(() -> deserializer.deserialize("weather-change-events", truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void testEncode_IsMuchSmallerThanJson() {
+        // Given
+        WeatherChangeEvent event = new WeatherChangeEvent("5f0c1d1e-2b7a-4c55-9d3e-7d8a0b6c1f42", 12L, "Station Nord",
+                new WeatherConditions(25.5, 14.0, 0.0, 10.0, T0.plusDays(1)),
+                new WeatherConditions(31.0, 18.5, 22.5, 35.0, T0.plusDays(1)),
+                T0, ChangeSeverity.CRITICAL, "Augmentation des précipitations prévues de 22,5 mm.");
+
+        // When
+        byte[] avro = WeatherChangeEventAvro.encode(event);
+        byte[] json;
+        try (JsonSerializer<WeatherChangeEvent> serializer = new JsonSerializer<>()) {
+            json = serializer.serialize("weather-change-events", event);
+        }
+
+        // Then
+        assertThat(avro.length).isLessThan(json.length / 2);
+    }
+}
@@ -0,0 +1,186 @@
+package com.irrigation.arrosage.kafka;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.event.WeatherChangeEventAvro;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmark de l'encodage des WeatherChangeEvent : JSON (ancien format) contre Avro binaire
+ *
+ * Affiche d'abord la taille par événement, brute puis dans un lot Kafka de 500 enregistrements
+ * compressé (none, lz4, zstd), puis mesure le débit de sérialisation et de désérialisation (JMH). Lancement :
+ * mvn test -Dtest=WeatherChangeEventSerdeBenchmark -Dbenchmark.serde=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherChangeEventSerdeBenchmark {
+
+    private static final int EVENTS = 500;
+    private static final String TOPIC = "weather-change-events";
+
+    private WeatherChangeEvent[] events;
+    private byte[][] jsonPayloads;
+    private byte[][] avroPayloads;
+    private JsonSerializer<WeatherChangeEvent> jsonSerializer;
+    private JsonDeserializer<WeatherChangeEvent> jsonDeserializer;
+
+    @Setup
+    public void setUp() {
+        events = events();
+        jsonSerializer = jsonSerializer();
+        jsonDeserializer = jsonDeserializer();
+        jsonPayloads = new byte[EVENTS][];
+        avroPayloads = new byte[EVENTS][];
+        for (int i = 0; i < EVENTS; i++) {
+            jsonPayloads[i] = jsonSerializer.serialize(TOPIC, events[i]);
+            avroPayloads[i] = WeatherChangeEventAvro.encode(events[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void jsonSerialize(Blackhole blackhole) {
+        for (WeatherChangeEvent event : events) {
+            blackhole.consume(jsonSerializer.serialize(TOPIC, event));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void avroSerialize(Blackhole blackhole) {
+        for (WeatherChangeEvent event : events) {
+            blackhole.consume(WeatherChangeEventAvro.encode(event));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void jsonDeserialize(Blackhole blackhole) {
+        for (byte[] payload : jsonPayloads) {
+            blackhole.consume(jsonDeserializer.deserialize(TOPIC, payload));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void avroDeserialize(Blackhole blackhole) throws IOException {
+        for (byte[] payload : avroPayloads) {
+            blackhole.consume(WeatherChangeEventAvro.decode(payload));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.serde", matches = "true")
+    void runBenchmark() throws RunnerException {
+        WeatherChangeEvent[] sample = events();
+        try (JsonSerializer<WeatherChangeEvent> serializer = jsonSerializer()) {
+            printSizes("json", sample, event -> serializer.serialize(TOPIC, event));
+        }
+        printSizes("avro", sample, WeatherChangeEventAvro::encode);
+
+        new Runner(new OptionsBuilder()
+                .include(WeatherChangeEventSerdeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static void printSizes(String format, WeatherChangeEvent[] sample, Function<WeatherChangeEvent, byte[]> encoder) {
+        long raw = 0;
+        for (WeatherChangeEvent event : sample) {
+            raw += encoder.apply(event).length;
+        }
+        StringBuilder line = new StringBuilder(String.format("%s: %.1f B/event raw", format, (double) raw / EVENTS));
+        for (CompressionType compression : new CompressionType[] {CompressionType.NONE, CompressionType.LZ4, CompressionType.ZSTD}) {
+            MemoryRecordsBuilder builder = MemoryRecords.builder(ByteBuffer.allocate(1 << 20), compression,
+                    TimestampType.CREATE_TIME, 0L);
+            for (WeatherChangeEvent event : sample) {
+                builder.append(System.currentTimeMillis(),
+                        ("station-" + event.getStationId()).getBytes(StandardCharsets.UTF_8), encoder.apply(event));
+            }
+            line.append(String.format(", %.1f B/event in a %s batch", (double) builder.build().sizeInBytes() / EVENTS,
+                    compression.name));
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * Événements représentatifs d'un rafraîchissement : 7 jours de prévisions pour des stations successives
+     */
+    private static WeatherChangeEvent[] events() {
+        Random random = new Random(42);
+        ChangeSeverity[] severities = ChangeSeverity.values();
+        LocalDateTime now = LocalDateTime.of(2025, 11, 19, 8, 0, 12, 345_678_000);
+        WeatherChangeEvent[] events = new WeatherChangeEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            LocalDateTime date = now.toLocalDate().plusDays(i % 7).atStartOfDay();
+            double pluie = Math.round(random.nextDouble() * 300) / 10.0;
+            events[i] = new WeatherChangeEvent(UUID.randomUUID().toString(), (long) (i / 7), "Station " + (i / 7),
+                    new WeatherConditions(Math.round(100 + random.nextDouble() * 250) / 10.0, 8.5, 0.0,
+                            Math.round(random.nextDouble() * 300) / 10.0, date),
+                    new WeatherConditions(Math.round(100 + random.nextDouble() * 250) / 10.0, 9.0, pluie,
+                            Math.round(random.nextDouble() * 500) / 10.0, date),
+                    now.plusNanos(i * 1_000L), severities[random.nextInt(severities.length)],
+                    String.format("Augmentation des précipitations prévues de %.1f mm.", pluie));
+        }
+        return events;
+    }
+
+    private static JsonSerializer<WeatherChangeEvent> jsonSerializer() {
+        JsonSerializer<WeatherChangeEvent> serializer = new JsonSerializer<>();
+        serializer.setAddTypeInfo(false);
+        return serializer;
+    }
+
+    private static JsonDeserializer<WeatherChangeEvent> jsonDeserializer() {
+        JsonDeserializer<WeatherChangeEvent> deserializer = new JsonDeserializer<>();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "com.irrigation.arrosage.event",
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false,
+                JsonDeserializer.VALUE_DEFAULT_TYPE, WeatherChangeEvent.class.getName()), false);
+        return deserializer;
+    }
+}
@@ -0,0 +1,167 @@
+package com.irrigation.arrosage.kafka;
+
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherDeadLetterReplayerTest {
+
+    private static final String DLT = "weather-change-events-dlt";
+    private static final TopicPartition P0 = new TopicPartition(DLT, 0);
+    private static final TopicPartition P1 = new TopicPartition(DLT, 1);
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private IrrigationMetricsCollector metricsCollector;
+
+    private MockConsumer<String, byte[]> consumer;
+
+    private WeatherDeadLetterReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void close() {
+                // garder les offsets commités lisibles après le rejeu
+            }
+        };
+        consumer.updatePartitions(DLT, List.of(partition(0), partition(1)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+        when(consumerFactory.createConsumer()).thenReturn(consumer);
+        replayer = new WeatherDeadLetterReplayer(consumerFactory, kafkaTemplate, metricsCollector, "weather-change-events");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplay_SendsOriginalBytesToMainTopicAndCommitsReplayedOffsets() {
+        // Given - deux messages en partition 0, un en partition 1
+        consumer.updateEndOffsets(Map.of(P0, 2L, P1, 1L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(deadLetter(0, 0L, "{\"stationId\":1}"));
+            consumer.addRecord(deadLetter(0, 1L, "{\"stationId\":2}"));
+            consumer.addRecord(deadLetter(1, 0L, "not json"));
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // When
+        int replayed = replayer.replay(100);
+
+        // Then
+        assertThat(replayed).isEqualTo(3);
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(3)).send(sent.capture());
+        ProducerRecord<String, Object> first = sent.getAllValues().stream()
+                .filter(record -> (DLT + "-0@0").equals(replayedFrom(record)))
+                .findFirst().orElseThrow();
+        assertThat(first.topic()).isEqualTo("weather-change-events");
+        assertThat(first.key()).isEqualTo("station-1");
+        assertThat((byte[]) first.value()).isEqualTo("{\"stationId\":1}".getBytes(StandardCharsets.UTF_8));
+        assertThat(consumer.committed(Set.of(P0, P1)))
+                .containsEntry(P0, new OffsetAndMetadata(2L))
+                .containsEntry(P1, new OffsetAndMetadata(1L));
+        verify(metricsCollector).recordWeatherDeadLettersReplayed(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplay_StopsAtMaxAndOnlyCommitsWhatWasSent() {
+        // Given
+        consumer.updateEndOffsets(Map.of(P0, 3L, P1, 0L));
+        consumer.schedulePollTask(() -> {
+            for (long offset = 0; offset < 3; offset++) {
+                consumer.addRecord(deadLetter(0, offset, "{}"));
+            }
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // When
+        int replayed = replayer.replay(2);
+
+        // Then - le troisième reste en attente pour le prochain rejeu
+        assertThat(replayed).isEqualTo(2);
+        assertThat(consumer.committed(Set.of(P0))).containsEntry(P0, new OffsetAndMetadata(2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplay_CommitsMessagesSentBeforeAFailedSend() {
+        // Given
+        consumer.updateEndOffsets(Map.of(P0, 2L, P1, 0L));
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(deadLetter(0, 0L, "{}"));
+            consumer.addRecord(deadLetter(0, 1L, "{}"));
+        });
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")));
+
+        // When/Then
+        assertThatThrownBy(() -> replayer.replay(100))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(DLT + "-0@1");
+        assertThat(consumer.committed(Set.of(P0))).containsEntry(P0, new OffsetAndMetadata(1L));
+        verify(metricsCollector).recordWeatherDeadLettersReplayed(1);
+    }
+
+    @Test
+    void testPending_CountsMessagesAfterCommittedOffsetPerPartition() {
+        // Given - partition 0 déjà rejouée jusqu'à l'offset 3
+        consumer.updateEndOffsets(Map.of(P0, 5L, P1, 2L));
+        consumer.assign(List.of(P0, P1));
+        consumer.commitSync(Map.of(P0, new OffsetAndMetadata(3L)));
+
+        // When
+        Map<Integer, Long> pending = replayer.pending();
+
+        // Then
+        assertThat(pending).containsExactly(Map.entry(0, 2L), Map.entry(1, 2L));
+    }
+
+    private static String replayedFrom(ProducerRecord<String, Object> record) {
+        return new String(record.headers().lastHeader(WeatherDeadLetterReplayer.REPLAYED_FROM_HEADER).value(),
+                StandardCharsets.UTF_8);
+    }
+
+    private static PartitionInfo partition(int partition) {
+        return new PartitionInfo(DLT, partition, null, null, null);
+    }
+
+    private static ConsumerRecord<String, byte[]> deadLetter(int partition, long offset, String payload) {
+        return new ConsumerRecord<>(DLT, partition, offset, "station-" + (offset + 1),
+                payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.irrigation.arrosage.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IrrigationMetricsCollectorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IrrigationMetricsCollector metricsCollector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsCollector = new IrrigationMetricsCollector(meterRegistry);
+        ReflectionTestUtils.invokeMethod(metricsCollector, "initializeMetrics");
+    }
+
+    @Test
+    void testInitialize_PreRegistersExecutionMetersPerOutcome() {
+        // Then - tous les compteurs existent avant la première exécution
+        for (String outcome : new String[]{IrrigationMetricsCollector.OUTCOME_SUCCESS, IrrigationMetricsCollector.OUTCOME_FAILURE}) {
+            assertThat(meterRegistry.find("irrigation.programs.outcome").tag("outcome", outcome).counter()).isNotNull();
+            assertThat(meterRegistry.find("irrigation.journal.write.duration").tag("outcome", outcome).timer()).isNotNull();
+            assertThat(meterRegistry.find("irrigation.tick.duration").tag("outcome", outcome).timer()).isNotNull();
+        }
+        assertThat(meterRegistry.find("irrigation.dispatch.lag").timer()).isNotNull();
+        assertThat(meterRegistry.find("irrigation.claim.conflicts").counter()).isNotNull();
+        // Les compteurs existants gardent leur unique série, sans tag outcome
+        assertThat(meterRegistry.find("irrigation.programs.executed").counters()).hasSize(1);
+        assertThat(meterRegistry.get("irrigation.programs.executed").counter().getId().getTag("outcome")).isNull();
+        assertThat(meterRegistry.find("irrigation.execution.duration").timers()).hasSize(1);
+        assertThat(meterRegistry.get("irrigation.execution.duration").timer().getId().getTag("outcome")).isNull();
+        assertThat(meterRegistry.find("irrigation.programs.backlog").gauge()).isNotNull();
+    }
+
+    @Test
+    void testRecordProgramExecution_RecordsByOutcomeWithoutNewMeters() {
+        // Given
+        int meterCount = meterRegistry.getMeters().size();
+
+        // When
+        metricsCollector.recordProgramExecution(TimeUnit.MILLISECONDS.toNanos(20), true);
+        metricsCollector.recordProgramExecution(TimeUnit.MILLISECONDS.toNanos(30), true);
+        metricsCollector.recordProgramExecution(TimeUnit.MILLISECONDS.toNanos(5), false);
+        metricsCollector.recordDispatchLag(-1_000);
+        metricsCollector.incrementClaimConflicts();
+
+        // Then
+        assertThat(meterRegistry.getMeters()).hasSize(meterCount);
+        assertThat(meterRegistry.get("irrigation.programs.executed").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("irrigation.programs.outcome").tag("outcome", "success").counter().count())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("irrigation.programs.outcome").tag("outcome", "failure").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("irrigation.execution.duration").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(55.0);
+        assertThat(meterRegistry.get("irrigation.dispatch.lag").timer().totalTime(TimeUnit.MILLISECONDS)).isZero();
+        assertThat(meterRegistry.get("irrigation.claim.conflicts").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testProgramsBacklog_NeverNegative() {
+        // When
+        metricsCollector.setProgramsBacklog(150);
+        metricsCollector.decrementProgramsBacklog(100);
+
+        // Then
+        assertThat(meterRegistry.get("irrigation.programs.backlog").gauge().value()).isEqualTo(50.0);
+
+        // When - programmes ajoutés par une autre instance entre deux comptages
+        metricsCollector.decrementProgramsBacklog(100);
+
+        // Then
+        assertThat(meterRegistry.get("irrigation.programs.backlog").gauge().value()).isZero();
+    }
+}
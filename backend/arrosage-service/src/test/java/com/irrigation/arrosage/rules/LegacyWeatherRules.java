@@ -0,0 +1,93 @@
+package com.irrigation.arrosage.rules;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.service.WeatherAdjustment;
+
+/**
+ * Chaînes if/else codées en dur qui précédaient le moteur de règles
+ *
+ * Référence pour vérifier que les règles par défaut donnent les mêmes ajustements
+ * et pour le benchmark d'évaluation.
+ */
+final class LegacyWeatherRules {
+
+    private LegacyWeatherRules() {
+    }
+
+    static WeatherAdjustment evaluate(WeatherChangeEvent event) {
+        switch (event.getSeverity()) {
+            case CRITICAL:
+                return critical(event);
+            case HIGH:
+                return high(event);
+            case MEDIUM:
+                return medium(event);
+            default:
+                return WeatherAdjustment.NONE;
+        }
+    }
+
+    private static WeatherAdjustment critical(WeatherChangeEvent event) {
+        WeatherConditions newConditions = event.getNewConditions();
+        if (newConditions.getPluiePrevue() != null && newConditions.getPluiePrevue() > 20) {
+            return WeatherAdjustment.cancel("heavy rain forecast");
+        } else if (temperatureChange(event) > 10) {
+            return temperatureAdjustment(newConditions);
+        } else if (newConditions.getVent() != null && newConditions.getVent() > 30) {
+            return WeatherAdjustment.scale(1, 1.4, "duration +40% for high wind");
+        }
+        return WeatherAdjustment.NONE;
+    }
+
+    private static WeatherAdjustment high(WeatherChangeEvent event) {
+        WeatherConditions oldConditions = event.getOldConditions();
+        WeatherConditions newConditions = event.getNewConditions();
+        if (oldConditions.getPluiePrevue() != null && newConditions.getPluiePrevue() != null
+                && newConditions.getPluiePrevue() > oldConditions.getPluiePrevue() + 10) {
+            double rainDiff = newConditions.getPluiePrevue() - oldConditions.getPluiePrevue();
+            double reductionFactor = Math.min(0.5, rainDiff / 20.0);
+            return WeatherAdjustment.scale(1 - reductionFactor, 1,
+                    "volume -" + (int) (reductionFactor * 100) + "% for rain forecast");
+        } else if (temperatureChange(event) > 5) {
+            return temperatureAdjustment(newConditions);
+        } else if (oldConditions.getVent() != null && newConditions.getVent() != null
+                && newConditions.getVent() > oldConditions.getVent() + 10) {
+            return WeatherAdjustment.scale(1, 1.2, "duration +20% for wind");
+        }
+        return WeatherAdjustment.NONE;
+    }
+
+    private static WeatherAdjustment medium(WeatherChangeEvent event) {
+        WeatherConditions oldConditions = event.getOldConditions();
+        WeatherConditions newConditions = event.getNewConditions();
+        if (newConditions.getPluiePrevue() != null && oldConditions.getPluiePrevue() != null
+                && newConditions.getPluiePrevue() > oldConditions.getPluiePrevue() + 5) {
+            return WeatherAdjustment.scale(0.9, 1, "volume -10% for moderate rain increase");
+        } else if (newConditions.getVent() != null && oldConditions.getVent() != null
+                && newConditions.getVent() > oldConditions.getVent() + 7) {
+            return WeatherAdjustment.scale(1, 1.1, "duration +10% for moderate wind increase");
+        }
+        return WeatherAdjustment.NONE;
+    }
+
+    private static double temperatureChange(WeatherChangeEvent event) {
+        Double oldTemperature = event.getOldConditions().getTemperatureMax();
+        Double newTemperature = event.getNewConditions().getTemperatureMax();
+        if (oldTemperature == null || newTemperature == null) {
+            return 0;
+        }
+        return Math.abs(newTemperature - oldTemperature);
+    }
+
+    private static WeatherAdjustment temperatureAdjustment(WeatherConditions conditions) {
+        if (conditions.getTemperatureMax() > 30) {
+            return WeatherAdjustment.scale(1.3, 1.2, "volume +30%, duration +20% for high temperature");
+        } else if (conditions.getTemperatureMax() > 25) {
+            return WeatherAdjustment.scale(1.15, 1, "volume +15% for warm temperature");
+        } else if (conditions.getTemperatureMax() < 15) {
+            return WeatherAdjustment.scale(0.85, 1, "volume -15% for low temperature");
+        }
+        return WeatherAdjustment.NONE;
+    }
+}
@@ -0,0 +1,93 @@
+package com.irrigation.arrosage.rules;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de l'évaluation des règles météo : table compilée contre les chaînes if/else d'origine
+ *
+ * Les événements couvrent toutes les sévérités et toutes les branches. Lancement :
+ * mvn test -Dtest=WeatherRuleEngineBenchmark -Dbenchmark.rules=true
+ * (ajouter -Dbenchmark.rules.profiler=gc pour mesurer les allocations par évaluation)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherRuleEngineBenchmark {
+
+    private static final int EVENTS = 1024;
+
+    private WeatherChangeEvent[] events;
+    private CompiledWeatherRules compiledRules;
+
+    @Setup
+    public void setUp() {
+        compiledRules = new WeatherRuleEngine(new DefaultResourceLoader(), "classpath:weather-rules.json").getRules();
+        Random random = new Random(42);
+        ChangeSeverity[] severities = ChangeSeverity.values();
+        LocalDateTime date = LocalDateTime.of(2025, 11, 19, 8, 0);
+        events = new WeatherChangeEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = new WeatherChangeEvent((long) (i % 50), "Station",
+                    new WeatherConditions(10 + random.nextDouble() * 25, 5.0, random.nextDouble() * 15,
+                            random.nextDouble() * 30, date),
+                    new WeatherConditions(5 + random.nextDouble() * 35, 5.0, random.nextDouble() * 40,
+                            random.nextDouble() * 50, date),
+                    date, severities[random.nextInt(severities.length)], "Benchmark");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void compiledRules(Blackhole blackhole) {
+        for (WeatherChangeEvent event : events) {
+            blackhole.consume(compiledRules.evaluate(event));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void hardCodedChains(Blackhole blackhole) {
+        for (WeatherChangeEvent event : events) {
+            blackhole.consume(LegacyWeatherRules.evaluate(event));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.rules", matches = "true")
+    void runBenchmark() throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(WeatherRuleEngineBenchmark.class.getSimpleName());
+        String profiler = System.getProperty("benchmark.rules.profiler");
+        if (profiler != null) {
+            options.addProfiler(profiler);
+        }
+        new Runner(options.build()).run();
+    }
+}
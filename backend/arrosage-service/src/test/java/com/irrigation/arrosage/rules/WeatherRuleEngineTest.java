@@ -0,0 +1,185 @@
+package com.irrigation.arrosage.rules;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.service.WeatherAdjustment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WeatherRuleEngineTest {
+
+    private static final LocalDateTime TOMORROW = LocalDateTime.of(2025, 11, 19, 8, 0);
+    private static final List<Double> PLUIES = Arrays.asList(null, 0.0, 4.0, 9.0, 12.0, 21.0, 35.0);
+    private static final List<Double> VENTS = Arrays.asList(null, 5.0, 14.0, 20.0, 35.0);
+    private static final List<Double> TEMPERATURES = Arrays.asList(null, 10.0, 14.0, 20.0, 27.0, 33.0);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDefaultRules_MatchTheFormerHardCodedChains() {
+        // Given
+        WeatherRuleEngine engine = new WeatherRuleEngine(new DefaultResourceLoader(), "classpath:weather-rules.json");
+        int compared = 0;
+
+        // When/Then - toutes les combinaisons d'anciennes et nouvelles conditions, pour chaque sévérité
+        for (ChangeSeverity severity : ChangeSeverity.values()) {
+            for (WeatherConditions oldConditions : conditions()) {
+                for (WeatherConditions newConditions : conditions()) {
+                    WeatherChangeEvent event = new WeatherChangeEvent(1L, "Station 1", oldConditions, newConditions,
+                            TOMORROW, severity, "Changement météo");
+                    WeatherAdjustment expected = LegacyWeatherRules.evaluate(event);
+                    WeatherAdjustment actual = engine.evaluate(event);
+
+                    assertThat(actual.getStatut()).as("%s", event).isEqualTo(expected.getStatut());
+                    assertThat(actual.getVolumeFactor()).as("%s", event).isEqualByComparingTo(expected.getVolumeFactor());
+                    assertThat(actual.getDureeFactor()).as("%s", event).isEqualByComparingTo(expected.getDureeFactor());
+                    compared++;
+                }
+            }
+        }
+        assertThat(compared).isGreaterThan(100_000);
+    }
+
+    @Test
+    void testEvaluate_ProportionalRainReductionIsCapped() {
+        // Given
+        WeatherRuleEngine engine = new WeatherRuleEngine(new DefaultResourceLoader(), "classpath:weather-rules.json");
+
+        // When - 15 mm / 20 = 75 %, plafonné à 50 %
+        WeatherAdjustment adjustment = engine.evaluate(rainEvent(ChangeSeverity.HIGH, 0.0, 15.0));
+
+        // Then
+        assertThat(adjustment.getVolumeFactor()).isEqualByComparingTo("0.5");
+        assertThat(adjustment.getDureeFactor()).isEqualByComparingTo("1");
+        assertThat(adjustment.getStatut()).isNull();
+        assertThat(adjustment.getReason()).isEqualTo("volume -50% for rain forecast");
+    }
+
+    @Test
+    void testReloadIfModified_AppliesEditedRulesWithoutRestart() throws IOException {
+        // Given
+        Path rules = copyDefaultRules();
+        WeatherRuleEngine engine = new WeatherRuleEngine(new DefaultResourceLoader(), "file:" + rules);
+        WeatherChangeEvent windEvent = windEvent(45.0);
+        assertThat(engine.evaluate(windEvent).getDureeFactor()).isEqualByComparingTo("1.4");
+
+        // When - durée +50 % au lieu de +40 % par vent fort
+        rewrite(rules, Files.readString(rules).replace("\"dureeFactor\": 1.4", "\"dureeFactor\": 1.5"));
+        engine.reloadIfModified();
+
+        // Then
+        assertThat(engine.evaluate(windEvent).getDureeFactor()).isEqualByComparingTo("1.5");
+    }
+
+    @Test
+    void testReloadIfModified_KeepsPreviousRulesWhenFileIsInvalid() throws IOException {
+        // Given
+        Path rules = copyDefaultRules();
+        WeatherRuleEngine engine = new WeatherRuleEngine(new DefaultResourceLoader(), "file:" + rules);
+
+        // When - action sans type
+        rewrite(rules, Files.readString(rules).replace("\"type\": \"CANCEL\"", "\"type\": null"));
+        engine.reloadIfModified();
+
+        // Then
+        assertThat(engine.evaluate(rainEvent(ChangeSeverity.CRITICAL, 0.0, 30.0)).getStatut())
+                .isEqualTo(StatutProgramme.ANNULE);
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidRulesAtStartup() throws IOException {
+        // Given
+        Path rules = tempDir.resolve("weather-rules.json");
+        Files.writeString(rules, """
+                {"rules": [{"name": "broken", "when": [{"field": "NEW_VENT", "op": "GT"}], "action": {"type": "NONE"}}]}
+                """);
+
+        // When/Then
+        assertThatThrownBy(() -> new WeatherRuleEngine(new DefaultResourceLoader(), "file:" + rules))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("broken");
+    }
+
+    @Test
+    void testCompile_RuleWithoutSeverityAppliesToEverySeverity() {
+        // Given
+        WeatherRuleSet.Condition frost = new WeatherRuleSet.Condition();
+        frost.setField(WeatherRuleField.NEW_TEMPERATURE_MAX);
+        frost.setOp(WeatherRuleOperator.LE);
+        frost.setValue(0.0);
+        WeatherRuleSet.Action cancel = new WeatherRuleSet.Action();
+        cancel.setType(WeatherRuleSet.ActionType.CANCEL);
+        WeatherRuleSet.Rule rule = new WeatherRuleSet.Rule();
+        rule.setName("frost");
+        rule.setWhen(List.of(frost));
+        rule.setAction(cancel);
+        WeatherRuleSet ruleSet = new WeatherRuleSet();
+        ruleSet.setRules(List.of(rule));
+
+        // When
+        CompiledWeatherRules compiled = CompiledWeatherRules.compile(ruleSet);
+
+        // Then
+        for (ChangeSeverity severity : ChangeSeverity.values()) {
+            WeatherChangeEvent event = new WeatherChangeEvent(1L, "Station 1",
+                    new WeatherConditions(5.0, 0.0, 0.0, 10.0, TOMORROW),
+                    new WeatherConditions(-2.0, -5.0, 0.0, 10.0, TOMORROW),
+                    TOMORROW, severity, "Gel");
+            assertThat(compiled.evaluate(event).getStatut()).isEqualTo(StatutProgramme.ANNULE);
+        }
+        assertThat(compiled.ruleCount()).isEqualTo(ChangeSeverity.values().length);
+    }
+
+    private Path copyDefaultRules() throws IOException {
+        Path rules = tempDir.resolve("weather-rules.json");
+        try (InputStream in = getClass().getResourceAsStream("/weather-rules.json")) {
+            Files.write(rules, in.readAllBytes());
+        }
+        return rules;
+    }
+
+    private static void rewrite(Path file, String content) throws IOException {
+        long previous = Files.getLastModifiedTime(file).toMillis();
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        // la résolution de la date de modification peut être d'une seconde
+        file.toFile().setLastModified(previous + 2000);
+    }
+
+    private static List<WeatherConditions> conditions() {
+        return PLUIES.stream()
+                .flatMap(pluie -> VENTS.stream()
+                        .flatMap(vent -> TEMPERATURES.stream()
+                                .map(temperature -> new WeatherConditions(temperature, 10.0, pluie, vent, TOMORROW))))
+                .toList();
+    }
+
+    private static WeatherChangeEvent rainEvent(ChangeSeverity severity, double oldPluie, double newPluie) {
+        return new WeatherChangeEvent(1L, "Station 1",
+                new WeatherConditions(22.0, 12.0, oldPluie, 10.0, TOMORROW),
+                new WeatherConditions(22.0, 12.0, newPluie, 10.0, TOMORROW),
+                TOMORROW, severity, "Pluie");
+    }
+
+    private static WeatherChangeEvent windEvent(double newVent) {
+        return new WeatherChangeEvent(1L, "Station 1",
+                new WeatherConditions(22.0, 12.0, 0.0, 10.0, TOMORROW),
+                new WeatherConditions(22.0, 12.0, 0.0, newVent, TOMORROW),
+                TOMORROW, ChangeSeverity.CRITICAL, "Vent fort");
+    }
+}
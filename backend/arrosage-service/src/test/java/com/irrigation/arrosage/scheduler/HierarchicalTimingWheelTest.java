@@ -0,0 +1,129 @@
+package com.irrigation.arrosage.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private HierarchicalTimingWheel<Long> wheel;
+
+    @BeforeEach
+    void setUp() {
+        // 100 ms x 8 cases : niveaux de 0,8 s, 6,4 s, 51,2 s...
+        wheel = new HierarchicalTimingWheel<>(100, 8, START);
+    }
+
+    @Test
+    void testAdvance_FiresAtDeadlineWithinOneTick() {
+        // Given
+        wheel.schedule(1L, START + 350);
+
+        // When/Then
+        assertThat(wheel.advance(START + 349)).isEmpty();
+        assertThat(wheel.advance(START + 400)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void testAdvance_CascadesFromCoarseLevels() {
+        // Given - échéance lointaine (niveau 3 de la roue)
+        long deadline = START + 3 * 60_000 + 1_234;
+        wheel.schedule(1L, deadline);
+
+        // When - l'horloge avance par ticks
+        List<Long> fired = new ArrayList<>();
+        long firedAt = -1;
+        for (long now = START; now <= deadline + 200 && fired.isEmpty(); now += 100) {
+            fired.addAll(wheel.advance(now));
+            firedAt = now;
+        }
+
+        // Then
+        assertThat(fired).containsExactly(1L);
+        assertThat(firedAt).isBetween(deadline, deadline + 100);
+    }
+
+    @Test
+    void testAdvance_LargeJumpFiresEverythingInDeadlineOrder() {
+        // Given
+        wheel.schedule(3L, START + 50_000);
+        wheel.schedule(1L, START + 1_000);
+        wheel.schedule(2L, START + 7_000);
+
+        // When - aucun tick pendant une minute (pause GC, exécution longue...)
+        List<Long> fired = wheel.advance(START + 60_000);
+
+        // Then
+        assertThat(fired).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void testSchedule_PastDeadlineIsReadyOnNextAdvance() {
+        // When
+        wheel.schedule(1L, START - 5_000);
+
+        // Then
+        assertThat(wheel.contains(1L)).isTrue();
+        assertThat(wheel.advance(START)).containsExactly(1L);
+    }
+
+    @Test
+    void testSchedule_ReschedulingReplacesPreviousDeadline() {
+        // Given
+        wheel.schedule(1L, START + 500);
+
+        // When - programme décalé
+        wheel.schedule(1L, START + 10_000);
+
+        // Then
+        assertThat(wheel.advance(START + 1_000)).isEmpty();
+        assertThat(wheel.advance(START + 10_100)).containsExactly(1L);
+    }
+
+    @Test
+    void testCancel_RemovesDeadline() {
+        // Given
+        wheel.schedule(1L, START + 500);
+        wheel.schedule(2L, START + 500);
+
+        // When
+        boolean cancelled = wheel.cancel(1L);
+
+        // Then
+        assertThat(cancelled).isTrue();
+        assertThat(wheel.cancel(1L)).isFalse();
+        assertThat(wheel.advance(START + 1_000)).containsExactly(2L);
+    }
+
+    @Test
+    void testAdvance_RandomDeadlinesAllFireOnTime() {
+        // Given
+        Random random = new Random(42);
+        int count = 2_000;
+        long[] deadlines = new long[count];
+        for (int i = 0; i < count; i++) {
+            deadlines[i] = START + random.nextInt(3_600_000);
+            wheel.schedule((long) i, deadlines[i]);
+        }
+
+        // When - ticks d'une seconde pendant une heure
+        int fired = 0;
+        for (long now = START; now <= START + 3_601_000; now += 1_000) {
+            for (Long key : wheel.advance(now)) {
+                // Then - jamais en avance, au plus un intervalle d'horloge de retard
+                assertThat(deadlines[key.intValue()]).isBetween(now - 1_000, now);
+                fired++;
+            }
+        }
+        assertThat(fired).isEqualTo(count);
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -1,6 +1,9 @@
 package com.irrigation.arrosage.scheduler;
 
+import com.irrigation.arrosage.service.ArchiveService;
 import com.irrigation.arrosage.service.IrrigationExecutionService;
+import com.irrigation.arrosage.service.PartitionedExecutionEngine;
+import com.irrigation.arrosage.service.SchedulerLeaseService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,12 +24,28 @@ class IrrigationSchedulerTest {
     @Mock
     private IrrigationExecutionService executionService;
 
+    @Mock
+    private PartitionedExecutionEngine partitionedExecutionEngine;
+
+    @Mock
+    private TimeWheelDispatcher timeWheelDispatcher;
+
+    @Mock
+    private ArchiveService archiveService;
+
+    @Mock
+    private SchedulerLeaseService schedulerLeaseService;
+
     @InjectMocks
     private IrrigationScheduler scheduler;
 
     @BeforeEach
     void setUp() {
-        // Setup if needed
+        // Instance leader par défaut
+        lenient().when(schedulerLeaseService.runIfLeader(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
     }
 
     @Test
@@ -51,6 +72,30 @@ class IrrigationSchedulerTest {
         verify(executionService, times(1)).executeScheduledPrograms(any(LocalDateTime.class));
     }
 
+    @Test
+    void testExecuteScheduledIrrigationPrograms_SkippedWhenTimeWheelEnabled() {
+        // Given
+        when(timeWheelDispatcher.isEnabled()).thenReturn(true);
+
+        // When
+        scheduler.executeScheduledIrrigationPrograms();
+
+        // Then - programmes are dispatched by the time wheel, not by the cron poll
+        verifyNoInteractions(executionService, partitionedExecutionEngine);
+    }
+
+    @Test
+    void testExecuteScheduledIrrigationPrograms_SkippedWhenNotLeader() {
+        // Given - une autre instance détient le bail d'exécution
+        when(schedulerLeaseService.runIfLeader(eq(SchedulerLeaseService.JOB_EXECUTION), any())).thenReturn(false);
+
+        // When
+        scheduler.executeScheduledIrrigationPrograms();
+
+        // Then
+        verifyNoInteractions(executionService, partitionedExecutionEngine);
+    }
+
     @Test
     void testExecuteScheduledIrrigationPrograms_ExceptionHandling() {
         // Given
@@ -64,41 +109,67 @@ class IrrigationSchedulerTest {
         verify(executionService, times(1)).executeScheduledPrograms(any(LocalDateTime.class));
     }
 
+    @Test
+    void testExecuteScheduledIrrigationPrograms_ParallelEngineEnabled() {
+        // Given
+        when(partitionedExecutionEngine.isEnabled()).thenReturn(true);
+        when(partitionedExecutionEngine.executeScheduledPrograms(any(LocalDateTime.class))).thenReturn(4);
+
+        // When
+        scheduler.executeScheduledIrrigationPrograms();
+
+        // Then - Sequential path should not be used
+        verify(partitionedExecutionEngine, times(1)).executeScheduledPrograms(any(LocalDateTime.class));
+        verify(executionService, never()).executeScheduledPrograms(any(LocalDateTime.class));
+    }
+
     @Test
     void testCleanupOldPrograms_Success() {
         // Given
-        when(executionService.archiveCompletedPrograms(any(LocalDateTime.class))).thenReturn(5);
+        when(archiveService.archiveCompletedPrograms()).thenReturn(5);
 
         // When
         scheduler.cleanupOldPrograms();
 
         // Then
-        verify(executionService, times(1)).archiveCompletedPrograms(any(LocalDateTime.class));
+        verify(archiveService, times(1)).archiveCompletedPrograms();
     }
 
     @Test
     void testCleanupOldPrograms_NoPrograms() {
         // Given
-        when(executionService.archiveCompletedPrograms(any(LocalDateTime.class))).thenReturn(0);
+        when(archiveService.archiveCompletedPrograms()).thenReturn(0);
+
+        // When
+        scheduler.cleanupOldPrograms();
+
+        // Then
+        verify(archiveService, times(1)).archiveCompletedPrograms();
+    }
+
+    @Test
+    void testCleanupOldPrograms_SkippedWhenNotLeader() {
+        // Given
+        when(schedulerLeaseService.runIfLeader(eq(SchedulerLeaseService.JOB_CLEANUP), any())).thenReturn(false);
 
         // When
         scheduler.cleanupOldPrograms();
 
         // Then
-        verify(executionService, times(1)).archiveCompletedPrograms(any(LocalDateTime.class));
+        verifyNoInteractions(archiveService);
     }
 
     @Test
     void testCleanupOldPrograms_ExceptionHandling() {
         // Given
-        when(executionService.archiveCompletedPrograms(any(LocalDateTime.class)))
+        when(archiveService.archiveCompletedPrograms())
                 .thenThrow(new RuntimeException("Cleanup error"));
 
         // When - Should not throw exception
         scheduler.cleanupOldPrograms();
 
         // Then
-        verify(executionService, times(1)).archiveCompletedPrograms(any(LocalDateTime.class));
+        verify(archiveService, times(1)).archiveCompletedPrograms();
     }
 
     @Test
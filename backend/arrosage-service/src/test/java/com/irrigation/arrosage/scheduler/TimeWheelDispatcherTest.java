@@ -0,0 +1,231 @@
+package com.irrigation.arrosage.scheduler;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.service.ExecutionAdmission;
+import com.irrigation.arrosage.service.IrrigationExecutionService;
+import com.irrigation.arrosage.service.PartitionedExecutionEngine;
+import com.irrigation.arrosage.service.SchedulerLeaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimeWheelDispatcherTest {
+
+    @Mock
+    private ProgrammeArrosageRepository programmeRepository;
+
+    @Mock
+    private IrrigationExecutionService executionService;
+
+    @Mock
+    private PartitionedExecutionEngine partitionedExecutionEngine;
+
+    @Mock
+    private ExecutionAdmission executionAdmission;
+
+    @Mock
+    private SchedulerLeaseService schedulerLeaseService;
+
+    @BeforeEach
+    void setUp() {
+        // Instance leader par défaut
+        lenient().when(schedulerLeaseService.runIfLeader(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+    }
+
+    @Test
+    void testReconcile_SchedulesUpcomingProgrammesAndDispatchesOverdue() {
+        // Given
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+        when(programmeRepository.findEcheances(eq(StatutProgramme.PLANIFIE), any(), any()))
+                .thenReturn(List.of(echeance(1L, LocalDateTime.now().plusHours(1)),
+                        echeance(2L, LocalDateTime.now().plusHours(2))));
+        when(programmeRepository.existsByStatutAndDatePlanifieeLessThanEqual(eq(StatutProgramme.PLANIFIE), any()))
+                .thenReturn(true);
+
+        // When
+        dispatcher.reconcile();
+
+        // Then
+        assertThat(dispatcher.getPendingCount()).isEqualTo(2);
+        verify(executionService).executeScheduledPrograms(any(LocalDateTime.class));
+    }
+
+    @Test
+    void testReconcile_NoDispatchWithoutOverdueProgrammes() {
+        // Given
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+        when(programmeRepository.findEcheances(eq(StatutProgramme.PLANIFIE), any(), any())).thenReturn(List.of());
+        when(programmeRepository.existsByStatutAndDatePlanifieeLessThanEqual(eq(StatutProgramme.PLANIFIE), any()))
+                .thenReturn(false);
+
+        // When
+        dispatcher.reconcile();
+
+        // Then
+        verifyNoInteractions(executionService, partitionedExecutionEngine);
+    }
+
+    @Test
+    void testOnProgrammeSaved_SchedulesPlannedAndCancelsOthers() {
+        // Given
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+        ProgrammeArrosage programme = programme(1L, StatutProgramme.PLANIFIE, LocalDateTime.now().plusMinutes(30));
+
+        // When - hors transaction, la modification est appliquée immédiatement
+        dispatcher.onProgrammeSaved(programme);
+
+        // Then
+        assertThat(dispatcher.getPendingCount()).isEqualTo(1);
+
+        // When - programme annulé
+        programme.setStatut(StatutProgramme.ANNULE);
+        dispatcher.onProgrammeSaved(programme);
+
+        // Then
+        assertThat(dispatcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    void testOnProgrammeSaved_IgnoresProgrammesBeyondHorizon() {
+        // Given
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+
+        // When
+        dispatcher.onProgrammeSaved(programme(1L, StatutProgramme.PLANIFIE, LocalDateTime.now().plusDays(3)));
+
+        // Then - sera chargé par un rapprochement ultérieur
+        assertThat(dispatcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    void testTick_DispatchesDueProgrammesThroughPartitionedEngine() {
+        // Given
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+        dispatcher.onProgrammeSaved(programme(1L, StatutProgramme.PLANIFIE, LocalDateTime.now().minusSeconds(1)));
+        when(partitionedExecutionEngine.isEnabled()).thenReturn(true);
+        when(partitionedExecutionEngine.executeScheduledPrograms(any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        dispatcher.tick();
+
+        // Then
+        verify(partitionedExecutionEngine).executeScheduledPrograms(any(LocalDateTime.class));
+        verifyNoInteractions(executionService);
+        assertThat(dispatcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    void testTick_SchedulesRetryWhenProgrammesWereDeferred() {
+        // Given - le contrôle d'admission a laissé des programmes dus en PLANIFIE
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+        dispatcher.onProgrammeSaved(programme(1L, StatutProgramme.PLANIFIE, LocalDateTime.now().minusSeconds(1)));
+        when(executionAdmission.isEnabled()).thenReturn(true);
+        when(executionAdmission.getDeferDelay()).thenReturn(Duration.ofMinutes(1));
+        when(programmeRepository.existsByStatutAndDatePlanifieeLessThanEqual(eq(StatutProgramme.PLANIFIE), any()))
+                .thenReturn(true);
+
+        // When
+        dispatcher.tick();
+
+        // Then - un nouveau passage est programmé après le délai de report
+        verify(executionService).executeScheduledPrograms(any(LocalDateTime.class));
+        assertThat(dispatcher.getPendingCount()).isEqualTo(1);
+
+        // When
+        dispatcher.tick();
+
+        // Then - la relance n'est pas encore échue
+        verify(executionService, times(1)).executeScheduledPrograms(any(LocalDateTime.class));
+        assertThat(dispatcher.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testTick_NoDispatchWhenNotLeader() {
+        // Given - une autre instance détient le bail d'exécution
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+        dispatcher.onProgrammeSaved(programme(1L, StatutProgramme.PLANIFIE, LocalDateTime.now().minusSeconds(1)));
+        when(schedulerLeaseService.runIfLeader(eq(SchedulerLeaseService.JOB_EXECUTION), any())).thenReturn(false);
+
+        // When
+        dispatcher.tick();
+
+        // Then - l'échéance est consommée, le leader exécute le programme
+        verifyNoInteractions(executionService, partitionedExecutionEngine);
+        assertThat(dispatcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    void testTick_NoDispatchWhenNothingIsDue() {
+        // Given
+        TimeWheelDispatcher dispatcher = dispatcher(true);
+        dispatcher.onProgrammeSaved(programme(1L, StatutProgramme.PLANIFIE, LocalDateTime.now().plusHours(1)));
+
+        // When
+        dispatcher.tick();
+
+        // Then
+        verifyNoInteractions(executionService, partitionedExecutionEngine);
+        assertThat(dispatcher.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testDisabled_DoesNothing() {
+        // Given
+        TimeWheelDispatcher dispatcher = dispatcher(false);
+
+        // When
+        dispatcher.start();
+        dispatcher.onProgrammeSaved(programme(1L, StatutProgramme.PLANIFIE, LocalDateTime.now().minusSeconds(1)));
+        dispatcher.tick();
+        dispatcher.reconcile();
+
+        // Then
+        assertThat(dispatcher.getPendingCount()).isZero();
+        verifyNoInteractions(programmeRepository, executionService, partitionedExecutionEngine);
+    }
+
+    private TimeWheelDispatcher dispatcher(boolean enabled) {
+        return new TimeWheelDispatcher(programmeRepository, executionService, partitionedExecutionEngine,
+                executionAdmission, schedulerLeaseService, enabled, 100, 64, Duration.ofHours(24));
+    }
+
+    private ProgrammeArrosage programme(Long id, StatutProgramme statut, LocalDateTime datePlanifiee) {
+        ProgrammeArrosage programme = new ProgrammeArrosage();
+        programme.setId(id);
+        programme.setStatut(statut);
+        programme.setDatePlanifiee(datePlanifiee);
+        return programme;
+    }
+
+    private ProgrammeArrosageRepository.Echeance echeance(Long id, LocalDateTime datePlanifiee) {
+        return new ProgrammeArrosageRepository.Echeance() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getDatePlanifiee() {
+                return datePlanifiee;
+            }
+        };
+    }
+}
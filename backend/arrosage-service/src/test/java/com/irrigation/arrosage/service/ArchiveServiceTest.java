@@ -0,0 +1,123 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.repository.JournalArrosageRepository;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArchiveServiceTest {
+
+    @Mock
+    private ProgrammeArrosageRepository programmeRepository;
+
+    @Mock
+    private JournalArrosageRepository journalRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SchedulerLeaseService schedulerLeaseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Query partitionQuery;
+
+    private ArchiveService archiveService;
+
+    private LocalDateTime cutoff;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new ArchiveService(programmeRepository, journalRepository, entityManager,
+                schedulerLeaseService, transactionManager, Duration.ofDays(30), 100);
+        cutoff = LocalDateTime.of(2025, 11, 18, 0, 0);
+    }
+
+    @Test
+    void testArchiveCompletedPrograms_NothingToArchive() {
+        // Given
+        when(programmeRepository.findOldestDatePlanifiee(StatutProgramme.TERMINE, cutoff)).thenReturn(null);
+        when(programmeRepository.archiveCompletedChunk(eq(cutoff), eq(100), any())).thenReturn(0);
+
+        // When
+        int archived = archiveService.archiveCompletedPrograms(cutoff);
+
+        // Then
+        assertThat(archived).isZero();
+        verifyNoInteractions(entityManager, journalRepository);
+    }
+
+    @Test
+    void testArchiveCompletedPrograms_MovesChunksUntilExhausted() {
+        // Given - 250 programmes : deux lots complets puis un lot partiel
+        stubPartitions(cutoff.minusDays(10), cutoff.minusDays(9), cutoff.minusDays(9));
+        when(programmeRepository.archiveCompletedChunk(eq(cutoff), eq(100), any()))
+                .thenReturn(100, 100, 50);
+
+        // When
+        int archived = archiveService.archiveCompletedPrograms(cutoff);
+
+        // Then
+        assertThat(archived).isEqualTo(250);
+        verify(programmeRepository, times(3)).archiveCompletedChunk(eq(cutoff), eq(100), any());
+    }
+
+    @Test
+    void testArchiveCompletedPrograms_CreatesOneMonthlyPartitionPerMonthOnce() {
+        // Given - programmes d'août à novembre, journaux de septembre à octobre
+        stubPartitions(LocalDateTime.of(2025, 8, 20, 6, 0),
+                LocalDateTime.of(2025, 9, 1, 6, 0), LocalDateTime.of(2025, 10, 31, 6, 0));
+        when(programmeRepository.archiveCompletedChunk(eq(cutoff), anyInt(), any())).thenReturn(0);
+
+        // When
+        archiveService.archiveCompletedPrograms(cutoff);
+        archiveService.archiveCompletedPrograms(cutoff);
+
+        // Then - 4 partitions programmes + 2 partitions journaux, vérifiées une seule fois
+        verify(entityManager, times(6)).createNativeQuery(anyString());
+        verify(partitionQuery).setParameter("month", LocalDate.of(2025, 8, 1));
+        verify(partitionQuery, times(2)).setParameter("month", LocalDate.of(2025, 9, 1));
+        verify(partitionQuery, times(2)).setParameter("month", LocalDate.of(2025, 10, 1));
+        verify(partitionQuery).setParameter("month", LocalDate.of(2025, 11, 1));
+        verify(partitionQuery, times(4)).setParameter("parent", ArchiveService.PROGRAMME_ARCHIVE);
+        verify(partitionQuery, times(2)).setParameter("parent", ArchiveService.JOURNAL_ARCHIVE);
+    }
+
+    @Test
+    void testIncludesArchivedHistory() {
+        assertThat(archiveService.includesArchivedHistory(LocalDateTime.now().minusDays(31))).isTrue();
+        assertThat(archiveService.includesArchivedHistory(LocalDateTime.now().minusDays(7))).isFalse();
+        assertThat(archiveService.includesArchivedHistory(null)).isFalse();
+    }
+
+    private void stubPartitions(LocalDateTime oldestProgramme, LocalDateTime oldestJournal, LocalDateTime latestJournal) {
+        when(programmeRepository.findOldestDatePlanifiee(StatutProgramme.TERMINE, cutoff)).thenReturn(oldestProgramme);
+        when(journalRepository.findOldestDateExecution(StatutProgramme.TERMINE, cutoff)).thenReturn(oldestJournal);
+        when(journalRepository.findLatestDateExecution(StatutProgramme.TERMINE, cutoff)).thenReturn(latestJournal);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(partitionQuery);
+        when(partitionQuery.setParameter(anyString(), any())).thenReturn(partitionQuery);
+        when(partitionQuery.getSingleResult()).thenReturn(true);
+    }
+}
@@ -0,0 +1,145 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.Parcelle;
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionAdmissionTest {
+
+    @Mock
+    private IrrigationMetricsCollector metricsCollector;
+
+    private final Parcelle nord = parcelle(1L, "Ferme du Nord");
+    private final Parcelle nordEst = parcelle(2L, "Ferme du Nord");
+    private final Parcelle sud = parcelle(3L, null);
+
+    @Test
+    void testTryAdmit_DefersBeyondParcelleLimit() {
+        // Given
+        ExecutionAdmission admission = admission(true, 2, 0, 0);
+
+        // When
+        ExecutionAdmission.Slot slot = admission.openSlot();
+
+        // Then
+        assertThat(slot.tryAdmit(programme(1L, nord))).isTrue();
+        assertThat(slot.tryAdmit(programme(2L, nord))).isTrue();
+        assertThat(slot.tryAdmit(programme(3L, nord))).isFalse();
+        assertThat(slot.tryAdmit(programme(4L, sud))).isTrue();
+        assertThat(slot.getAdmittedCount()).isEqualTo(3);
+        assertThat(slot.getDeferredCount()).isEqualTo(1);
+        verify(metricsCollector).incrementAdmissionDeferred(IrrigationMetricsCollector.DEFERRAL_PARCELLE);
+    }
+
+    @Test
+    void testTryAdmit_DefersBeyondExploitationLimitAcrossParcelles() {
+        // Given - deux parcelles de la même exploitation
+        ExecutionAdmission admission = admission(true, 0, 2, 0);
+        ExecutionAdmission.Slot slot = admission.openSlot();
+
+        // When/Then
+        assertThat(slot.tryAdmit(programme(1L, nord))).isTrue();
+        assertThat(slot.tryAdmit(programme(2L, nordEst))).isTrue();
+        assertThat(slot.tryAdmit(programme(3L, nordEst))).isFalse();
+        // Parcelle sans exploitation : seule la limite globale s'applique
+        assertThat(slot.tryAdmit(programme(4L, sud))).isTrue();
+        verify(metricsCollector).incrementAdmissionDeferred(IrrigationMetricsCollector.DEFERRAL_EXPLOITATION);
+    }
+
+    @Test
+    void testTryAdmit_GlobalLimitIsSharedByOpenSlots() {
+        // Given
+        ExecutionAdmission admission = admission(true, 0, 0, 3);
+        ExecutionAdmission.Slot first = admission.openSlot();
+        ExecutionAdmission.Slot second = admission.openSlot();
+
+        // When
+        first.tryAdmit(programme(1L, nord));
+        first.tryAdmit(programme(2L, sud));
+
+        // Then
+        assertThat(second.remaining()).isEqualTo(1);
+        assertThat(second.tryAdmit(programme(3L, nordEst))).isTrue();
+        assertThat(second.isFull()).isTrue();
+        assertThat(second.tryAdmit(programme(4L, nordEst))).isFalse();
+        assertThat(admission.getInFlight()).isEqualTo(3);
+        verify(metricsCollector).incrementAdmissionDeferred(IrrigationMetricsCollector.DEFERRAL_GLOBAL);
+    }
+
+    @Test
+    void testClose_ReleasesPlacesForNextPass() {
+        // Given
+        ExecutionAdmission admission = admission(true, 1, 1, 1);
+        try (ExecutionAdmission.Slot slot = admission.openSlot()) {
+            slot.tryAdmit(programme(1L, nord));
+        }
+
+        // When - passage suivant
+        ExecutionAdmission.Slot next = admission.openSlot();
+
+        // Then
+        assertThat(next.tryAdmit(programme(2L, nord))).isTrue();
+        next.close();
+        next.close();
+        assertThat(admission.getInFlight()).isZero();
+        verify(metricsCollector, times(2)).setAdmissionInFlight(0);
+    }
+
+    @Test
+    void testRelease_FreesPlaceAsSoonAsProgrammeFinishes() {
+        // Given
+        ExecutionAdmission admission = admission(true, 1, 0, 0);
+        ExecutionAdmission.Slot slot = admission.openSlot();
+        assertThat(slot.tryAdmit(programme(1L, nord))).isTrue();
+        assertThat(slot.tryAdmit(programme(2L, nord))).isFalse();
+
+        // When - le programme 1 est terminé, le 2 n'a pas de place à rendre
+        slot.release(1L);
+        slot.release(2L);
+
+        // Then - la parcelle est libre dans le même passage
+        assertThat(admission.getInFlight()).isZero();
+        assertThat(slot.tryAdmit(programme(3L, nord))).isTrue();
+        slot.close();
+        assertThat(admission.getInFlight()).isZero();
+    }
+
+    @Test
+    void testDisabled_AdmitsEverything() {
+        // Given
+        ExecutionAdmission admission = admission(false, 1, 1, 1);
+        ExecutionAdmission.Slot slot = admission.openSlot();
+
+        // When/Then
+        assertThat(slot.tryAdmit(programme(1L, nord))).isTrue();
+        assertThat(slot.tryAdmit(programme(2L, nord))).isTrue();
+        assertThat(slot.isFull()).isFalse();
+        assertThat(slot.remaining()).isEqualTo(Integer.MAX_VALUE);
+        verify(metricsCollector, never()).incrementAdmissionDeferred(anyString());
+        verifyNoMoreInteractions(metricsCollector);
+    }
+
+    private ExecutionAdmission admission(boolean enabled, int maxPerParcelle, int maxPerExploitation, int maxInFlight) {
+        return new ExecutionAdmission(metricsCollector, enabled, maxPerParcelle, maxPerExploitation, maxInFlight,
+                Duration.ofMinutes(1));
+    }
+
+    private static Parcelle parcelle(Long id, String exploitation) {
+        return Parcelle.builder().id(id).nom("Parcelle " + id).culture("Tomates").exploitation(exploitation).build();
+    }
+
+    private static ProgrammeArrosage programme(Long id, Parcelle parcelle) {
+        return ProgrammeArrosage.builder().id(id).parcelle(parcelle).build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.cache.ForecastCacheIndex;
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ForecastCacheInvalidatorTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ForecastCacheIndex forecastCacheIndex;
+
+    @Mock
+    private Cache forecastsCache;
+
+    @InjectMocks
+    private ForecastCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        when(cacheManager.getCache(ForecastCacheInvalidator.FORECASTS_CACHE)).thenReturn(forecastsCache);
+    }
+
+    @Test
+    void testEvict_StationListAndIndexedKeysCoveringTheChangedDate() {
+        // Given - la station 1 a deux périodes en cache qui contiennent le 2 juin
+        when(forecastCacheIndex.keysCovering(1L, DAY.toLocalDate()))
+                .thenReturn(List.of("station:1:2025-06-01:2025-06-04", "station:1:2025-06-02:2025-06-05", "id:42"));
+
+        // When
+        invalidator.evict(List.of(event(1L, DAY, DAY)));
+
+        // Then
+        verify(forecastsCache).evict("all");
+        verify(forecastsCache).evict("station:1");
+        verify(forecastsCache).evict("station:1:day:2025-06-02");
+        verify(forecastsCache).evict("station:1:2025-06-01:2025-06-04");
+        verify(forecastsCache).evict("station:1:2025-06-02:2025-06-05");
+        verify(forecastsCache).evict("id:42");
+        verifyNoMoreInteractions(forecastsCache);
+    }
+
+    @Test
+    void testEvict_LooksUpOldAndNewDatesOncePerStation() {
+        // Given - prévision déplacée au lendemain, deux événements pour la même station
+        LocalDateTime nextDay = DAY.plusDays(1);
+        when(forecastCacheIndex.keysCovering(anyLong(), any(LocalDate.class))).thenReturn(List.of());
+
+        // When
+        invalidator.evict(List.of(event(1L, DAY, nextDay), event(1L, DAY, DAY), event(2L, DAY, DAY)));
+
+        // Then
+        verify(forecastCacheIndex).keysCovering(1L, DAY.toLocalDate());
+        verify(forecastCacheIndex).keysCovering(1L, nextDay.toLocalDate());
+        verify(forecastCacheIndex).keysCovering(2L, DAY.toLocalDate());
+        verify(forecastsCache, times(1)).evict("all");
+        verify(forecastsCache).evict("station:2");
+        verify(forecastsCache).evict("station:1:day:2025-06-03");
+    }
+
+    @Test
+    void testEvict_RedisErrorDoesNotReachTheConsumer() {
+        // Given
+        when(forecastCacheIndex.keysCovering(anyLong(), any(LocalDate.class)))
+                .thenThrow(new IllegalStateException("Redis down"));
+
+        // When - ne lève pas : les entrées expireront avec leur durée de vie
+        invalidator.evict(List.of(event(1L, DAY, DAY)));
+
+        // Then
+        verify(forecastsCache, never()).evict(anyString());
+    }
+
+    private static WeatherChangeEvent event(Long stationId, LocalDateTime oldDate, LocalDateTime newDate) {
+        return new WeatherChangeEvent(stationId, "Station " + stationId,
+                new WeatherConditions(25.0, 15.0, 0.0, 10.0, oldDate),
+                new WeatherConditions(25.0, 15.0, 20.0, 10.0, newDate),
+                LocalDateTime.now(), ChangeSeverity.HIGH, "Pluie en hausse");
+    }
+}
@@ -0,0 +1,160 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.client.MeteoServiceClient;
+import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ForecastDayGridTest {
+
+    private static final LocalDate JUNE_1 = LocalDate.of(2025, 6, 1);
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private MeteoServiceClient meteoServiceClient;
+
+    private Cache cache;
+    private ForecastDayGrid grid;
+
+    @BeforeEach
+    void setUp() {
+        cache = spy(new ConcurrentMapCache("forecasts"));
+        lenient().when(cacheManager.getCache("forecasts")).thenReturn(cache);
+        grid = new ForecastDayGrid(cacheManager, meteoServiceClient, 31);
+    }
+
+    @Test
+    void testRollingWindow_FetchesOnlyTheNewDay() {
+        // Given - la fenêtre du 1er au 4 juin est en cache
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(3)))
+                .thenReturn(days(JUNE_1, 4));
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1.plusDays(4), JUNE_1.plusDays(4)))
+                .thenReturn(days(JUNE_1.plusDays(4), 1));
+        grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(3));
+
+        // When - fenêtre glissée d'un jour
+        List<PrevisionMeteoDTO> previsions = grid.getPrevisionsByPeriode(7L, JUNE_1.plusDays(1), JUNE_1.plusDays(4));
+
+        // Then
+        assertThat(previsions).extracting(PrevisionMeteoDTO::getDate)
+                .containsExactly(JUNE_1.plusDays(1), JUNE_1.plusDays(2), JUNE_1.plusDays(3), JUNE_1.plusDays(4));
+        verify(meteoServiceClient).getPrevisionsByPeriode(7L, JUNE_1.plusDays(4), JUNE_1.plusDays(4));
+        verifyNoMoreInteractions(meteoServiceClient);
+    }
+
+    @Test
+    void testSubRange_ServedFromCachedDays() {
+        // Given
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(6))).thenReturn(days(JUNE_1, 7));
+        grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(6));
+
+        // When
+        List<PrevisionMeteoDTO> previsions = grid.getPrevisionsByPeriode(7L, JUNE_1.plusDays(2), JUNE_1.plusDays(4));
+
+        // Then
+        assertThat(previsions).hasSize(3);
+        verify(meteoServiceClient, times(1)).getPrevisionsByPeriode(anyLong(), any(), any());
+    }
+
+    @Test
+    void testGapInTheMiddle_FetchedInOneCall() {
+        // Given - 1er et 4 juin en cache, 2 et 3 manquants
+        cache.put("station:7:day:2025-06-01", days(JUNE_1, 1));
+        cache.put("station:7:day:2025-06-04", days(JUNE_1.plusDays(3), 1));
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1.plusDays(1), JUNE_1.plusDays(2)))
+                .thenReturn(days(JUNE_1.plusDays(1), 2));
+
+        // When
+        List<PrevisionMeteoDTO> previsions = grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(3));
+
+        // Then
+        assertThat(previsions).extracting(PrevisionMeteoDTO::getDate)
+                .containsExactly(JUNE_1, JUNE_1.plusDays(1), JUNE_1.plusDays(2), JUNE_1.plusDays(3));
+    }
+
+    @Test
+    void testDayWithoutForecast_CachedAsEmpty() {
+        // Given - meteo-service n'a rien pour le 3 juin
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(2))).thenReturn(days(JUNE_1, 2));
+        grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(2));
+
+        // When
+        List<PrevisionMeteoDTO> previsions = grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(2));
+
+        // Then
+        assertThat(previsions).hasSize(2);
+        assertThat(cache.get("station:7:day:2025-06-03", List.class)).isEmpty();
+        verify(meteoServiceClient, times(1)).getPrevisionsByPeriode(anyLong(), any(), any());
+    }
+
+    @Test
+    void testEmptyResponse_NotCached() {
+        // Given - réponse du fallback, service météo indisponible
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(3))).thenReturn(List.of());
+
+        // When
+        List<PrevisionMeteoDTO> previsions = grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(3));
+
+        // Then
+        assertThat(previsions).isEmpty();
+        verify(cache, never()).put(anyString(), any());
+    }
+
+    @Test
+    void testCacheError_TreatedAsMissingDay() {
+        // Given
+        doThrow(new IllegalStateException("Redis down")).when(cache).get(anyString(), eq(List.class));
+        doThrow(new IllegalStateException("Redis down")).when(cache).put(anyString(), any());
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(1))).thenReturn(days(JUNE_1, 2));
+
+        // When
+        List<PrevisionMeteoDTO> previsions = grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(1));
+
+        // Then
+        assertThat(previsions).hasSize(2);
+    }
+
+    @Test
+    void testLongPeriod_BypassesGrid() {
+        // Given
+        when(meteoServiceClient.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(60))).thenReturn(days(JUNE_1, 61));
+
+        // When
+        List<PrevisionMeteoDTO> previsions = grid.getPrevisionsByPeriode(7L, JUNE_1, JUNE_1.plusDays(60));
+
+        // Then
+        assertThat(previsions).hasSize(61);
+        verifyNoInteractions(cache);
+    }
+
+    private static List<PrevisionMeteoDTO> days(LocalDate start, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> PrevisionMeteoDTO.builder()
+                        .id(100L + start.getDayOfMonth() + i)
+                        .stationId(7L)
+                        .date(start.plusDays(i))
+                        .pluiePrevue(BigDecimal.ONE)
+                        .build())
+                .toList();
+    }
+}
@@ -4,16 +4,28 @@ import com.irrigation.arrosage.dto.JournalArrosageDTO;
 import com.irrigation.arrosage.entity.Parcelle;
 import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.journal.WriteBehindJournal;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
 import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -22,6 +34,12 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +51,24 @@ class IrrigationExecutionServiceTest {
     @Mock
     private JournalArrosageService journalService;
 
+    @Mock
+    private WriteBehindJournal writeBehindJournal;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IrrigationMetricsCollector metricsCollector;
+
+    @Mock
+    private ExecutionAdmission executionAdmission;
+
+    @Mock
+    private SchedulerLeaseService schedulerLeaseService;
+
     @InjectMocks
     private IrrigationExecutionService executionService;
 
@@ -47,7 +83,7 @@ class IrrigationExecutionServiceTest {
         testParcelle = new Parcelle();
         testParcelle.setId(1L);
         testParcelle.setNom("Parcelle Test");
-        testParcelle.setSuperficie(5000.0);
+        testParcelle.setSuperficie(new BigDecimal("5000.00"));
         testParcelle.setCulture("Tomates");
 
         testProgramme = new ProgrammeArrosage();
@@ -55,14 +91,17 @@ class IrrigationExecutionServiceTest {
         testProgramme.setParcelle(testParcelle);
         testProgramme.setDatePlanifiee(LocalDateTime.of(2025, 11, 18, 8, 0));
         testProgramme.setDuree(60);
-        testProgramme.setVolumePrevu(25.0);
-        testProgramme.setStatut(StatutProgramme.PLANIFIE);
+        testProgramme.setVolumePrevu(new BigDecimal("25.00"));
+        testProgramme.setStatut(StatutProgramme.EN_COURS);
+
+        // Contrôle d'admission désactivé par défaut : tous les programmes réservés sont admis
+        lenient().when(executionAdmission.openSlot()).thenReturn(admission(false, 0).openSlot());
     }
 
     @Test
     void testExecuteScheduledPrograms_NoProgramsToExecute() {
         // Given
-        when(programmeRepository.findByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE))
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
                 .thenReturn(Collections.emptyList());
 
         // When
@@ -70,19 +109,18 @@ class IrrigationExecutionServiceTest {
 
         // Then
         assertThat(result).isEqualTo(0);
-        verify(programmeRepository).findByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE);
-        verify(journalService, never()).createJournal(any());
+        verify(programmeRepository).claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt());
+        verify(journalService, never()).create(any());
+        verify(journalService, never()).createAll(any());
     }
 
     @Test
     void testExecuteScheduledPrograms_SingleProgramSuccess() {
         // Given
-        when(programmeRepository.findByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE))
-                .thenReturn(Collections.singletonList(testProgramme));
-        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Collections.singletonList(testProgramme))
+                .thenReturn(Collections.emptyList());
         when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
-        when(journalService.createJournal(any(JournalArrosageDTO.class)))
-                .thenReturn(new JournalArrosageDTO());
 
         // When
         int result = executionService.executeScheduledPrograms(executionTime);
@@ -90,71 +128,237 @@ class IrrigationExecutionServiceTest {
         // Then
         assertThat(result).isEqualTo(1);
 
-        // Verify status transitions: PLANIFIE -> EN_COURS -> TERMINE
+        // Programme already claimed EN_COURS: a single write to TERMINE, no re-read
         ArgumentCaptor<ProgrammeArrosage> programmeCaptor = ArgumentCaptor.forClass(ProgrammeArrosage.class);
-        verify(programmeRepository, times(2)).save(programmeCaptor.capture());
+        verify(programmeRepository, times(1)).save(programmeCaptor.capture());
+        assertThat(programmeCaptor.getValue().getStatut()).isEqualTo(StatutProgramme.TERMINE);
+        verify(programmeRepository, never()).findById(any());
 
-        List<ProgrammeArrosage> savedPrograms = programmeCaptor.getAllValues();
-        assertThat(savedPrograms.get(0).getStatut()).isEqualTo(StatutProgramme.EN_COURS);
-        assertThat(savedPrograms.get(1).getStatut()).isEqualTo(StatutProgramme.TERMINE);
+        // Verify journal entry was written with the chunk's bulk insert
+        ArgumentCaptor<List<JournalArrosageDTO>> journalCaptor = ArgumentCaptor.forClass(List.class);
+        verify(journalService).createAll(journalCaptor.capture());
+        verify(journalService, never()).create(any());
 
-        // Verify journal entry was created
-        ArgumentCaptor<JournalArrosageDTO> journalCaptor = ArgumentCaptor.forClass(JournalArrosageDTO.class);
-        verify(journalService).createJournal(journalCaptor.capture());
-
-        JournalArrosageDTO journal = journalCaptor.getValue();
+        assertThat(journalCaptor.getValue()).hasSize(1);
+        JournalArrosageDTO journal = journalCaptor.getValue().get(0);
         assertThat(journal.getProgrammeId()).isEqualTo(1L);
-        assertThat(journal.getVolumeReel()).isBetween(22.5, 27.5); // ±10% of 25.0
+        assertThat(journal.getVolumeReel()).isBetween(new BigDecimal("22.50"), new BigDecimal("27.50")); // ±10% of 25.0
         assertThat(journal.getRemarque()).isNotNull();
     }
 
     @Test
-    void testExecuteScheduledPrograms_MultipleProgramsSuccess() {
+    void testExecuteScheduledPrograms_RecordsExecutionMetrics() {
         // Given
-        ProgrammeArrosage programme2 = new ProgrammeArrosage();
-        programme2.setId(2L);
-        programme2.setParcelle(testParcelle);
-        programme2.setDatePlanifiee(LocalDateTime.of(2025, 11, 18, 9, 0));
-        programme2.setDuree(45);
-        programme2.setVolumePrevu(20.0);
-        programme2.setStatut(StatutProgramme.PLANIFIE);
-
-        when(programmeRepository.findByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE))
-                .thenReturn(Arrays.asList(testProgramme, programme2));
-        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
-        when(programmeRepository.findById(2L)).thenReturn(Optional.of(programme2));
+        when(programmeRepository.countByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE))
+                .thenReturn(1L);
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Collections.singletonList(testProgramme))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
+
+        // When
+        executionService.executeScheduledPrograms(executionTime);
+
+        // Then
+        verify(metricsCollector).setProgramsBacklog(1L);
+        verify(metricsCollector).decrementProgramsBacklog(1);
+        verify(metricsCollector).recordDispatchLag(longThat(lag -> lag > 0)); // planifié à 08:00
+        verify(metricsCollector).recordProgramExecution(anyLong(), eq(true));
+        verify(metricsCollector).recordWaterUsage(anyDouble());
+        verify(metricsCollector).recordJournalWrite(anyLong(), eq(true));
+        verify(metricsCollector).recordTick(anyLong(), eq(true));
+        verify(metricsCollector, never()).recordProgramExecution(anyLong(), eq(false));
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_RecordsFailedTick() {
+        // Given
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        // When
+        assertThrows(RuntimeException.class, () -> executionService.executeScheduledPrograms(executionTime));
+
+        // Then
+        verify(metricsCollector).recordTick(anyLong(), eq(false));
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_WriteBehindJournal() {
+        // Given
+        when(writeBehindJournal.isEnabled()).thenReturn(true);
+        when(writeBehindJournal.appendAll(any())).thenReturn(List.of("log:0:0"));
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Collections.singletonList(testProgramme))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        int result = executionService.executeScheduledPrograms(executionTime);
+
+        // Then - journal appended to the local log, no database insert on the execution path
+        assertThat(result).isEqualTo(1);
+        verify(writeBehindJournal).appendAll(argThat(journals ->
+                journals.size() == 1 && journals.get(0).getProgrammeId().equals(1L)));
+        verify(journalService, never()).createAll(any());
+        verify(journalService, never()).create(any());
+        assertThat(testProgramme.getWriteBehindKey()).isEqualTo("log:0:0");
+    }
+
+    @Test
+    void testExecuteClaimedProgram_WriteBehindAppendsBeforeCommit() {
+        // Given
+        when(writeBehindJournal.isEnabled()).thenReturn(true);
+        when(writeBehindJournal.appendAll(any())).thenReturn(List.of("log:0:0"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            executionService.executeClaimedProgram(testProgramme, executionTime);
+
+            // Then - entrée ajoutée avant la validation, sa clé part avec le passage à TERMINE
+            InOrder inOrder = inOrder(writeBehindJournal, programmeRepository);
+            inOrder.verify(writeBehindJournal).appendAll(argThat(journals ->
+                    journals.size() == 1 && journals.get(0).getProgrammeId().equals(1L)));
+            inOrder.verify(programmeRepository).save(argThat(programme ->
+                    programme.getStatut() == StatutProgramme.TERMINE
+                            && "log:0:0".equals(programme.getWriteBehindKey())));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testExecuteClaimedProgram_WriteBehindAppendFailureFailsExecution() {
+        // Given
+        when(writeBehindJournal.isEnabled()).thenReturn(true);
+        when(writeBehindJournal.appendAll(any())).thenThrow(new UncheckedIOException(new IOException("No space left")));
+
+        // When / Then - l'échec est propagé : la transaction est annulée, le programme n'est pas TERMINE
+        assertThrows(UncheckedIOException.class,
+                () -> executionService.executeClaimedProgram(testProgramme, executionTime));
+        verify(programmeRepository, never()).save(any());
+        assertThat(testProgramme.getStatut()).isNotEqualTo(StatutProgramme.TERMINE);
+        assertThat(testProgramme.getWriteBehindKey()).isNull();
+    }
+
+    @Test
+    void testExecuteClaimedProgram_CountsExecutionOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            executionService.executeClaimedProgram(testProgramme, executionTime);
+
+            // Then - rien n'est compté tant que la transaction n'est pas validée
+            verify(metricsCollector, never()).recordProgramExecution(anyLong(), anyBoolean());
+            verify(metricsCollector, never()).recordWaterUsage(anyDouble());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(metricsCollector).recordProgramExecution(anyLong(), eq(true));
+            verify(metricsCollector).recordWaterUsage(anyDouble());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testExecuteClaimedProgram_RolledBackSuccessIsNotCounted() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When - le lot est annulé après l'exécution, le programme sera repris seul
+            executionService.executeClaimedProgram(testProgramme, executionTime);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            verify(metricsCollector, never()).recordProgramExecution(anyLong(), anyBoolean());
+            verify(metricsCollector, never()).recordWaterUsage(anyDouble());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testExecuteClaimedProgram_FailureCountedWhenTransactionRollsBack() {
+        // Given
+        when(journalService.create(any(JournalArrosageDTO.class)))
+                .thenThrow(new RuntimeException("Journal creation failed"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            assertThrows(RuntimeException.class,
+                    () -> executionService.executeClaimedProgram(testProgramme, executionTime));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            verify(metricsCollector).recordProgramExecution(anyLong(), eq(false));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_MultipleBatchesInChronologicalOrder() {
+        // Given - claim returns rows in arbitrary order
+        ProgrammeArrosage programme2 = createProgramme(2L, LocalDateTime.of(2025, 11, 18, 7, 0));
+        ProgrammeArrosage programme3 = createProgramme(3L, LocalDateTime.of(2025, 11, 18, 9, 0));
+
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Arrays.asList(testProgramme, programme2))
+                .thenReturn(Collections.singletonList(programme3))
+                .thenReturn(Collections.emptyList());
         when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
-        when(journalService.createJournal(any(JournalArrosageDTO.class)))
-                .thenReturn(new JournalArrosageDTO());
 
         // When
         int result = executionService.executeScheduledPrograms(executionTime);
 
         // Then
-        assertThat(result).isEqualTo(2);
-        verify(journalService, times(2)).createJournal(any(JournalArrosageDTO.class));
+        assertThat(result).isEqualTo(3);
+        ArgumentCaptor<List<JournalArrosageDTO>> journalCaptor = ArgumentCaptor.forClass(List.class);
+        verify(journalService, times(2)).createAll(journalCaptor.capture());
+        assertThat(journalCaptor.getAllValues())
+                .flatExtracting(journals -> journals)
+                .extracting(JournalArrosageDTO::getProgrammeId)
+                .containsExactly(2L, 1L, 3L);
     }
 
     @Test
-    void testExecuteSingleProgram_AlreadyInProgress() {
-        // Given - Programme already in EN_COURS status
-        testProgramme.setStatut(StatutProgramme.EN_COURS);
-        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
+    void testExecuteScheduledPrograms_ReleasesStaleClaimsFirst() {
+        // Given
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        executionService.executeScheduledPrograms(executionTime);
+
+        // Then - reservations older than the default 30 min timeout are put back in PLANIFIE
+        verify(programmeRepository).releaseStaleReservations(
+                executionTime.minusMinutes(30), StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS);
+    }
+
+    @Test
+    void testExecuteSingleProgram_AlreadyClaimed() {
+        // Given - Programme already taken by another instance
+        testProgramme.setStatut(StatutProgramme.PLANIFIE);
+        when(programmeRepository.claimProgramme(1L, executionTime, StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS))
+                .thenReturn(0);
 
         // When
         executionService.executeSingleProgram(testProgramme, executionTime);
 
         // Then - Should skip execution
         verify(programmeRepository, never()).save(any());
-        verify(journalService, never()).createJournal(any());
+        verify(journalService, never()).create(any());
+        verify(metricsCollector).incrementClaimConflicts();
     }
 
     @Test
     void testExecuteSingleProgram_VolumeVariance() {
         // Given
-        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
+        when(programmeRepository.claimProgramme(1L, executionTime, StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS))
+                .thenReturn(1);
         when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
-        when(journalService.createJournal(any(JournalArrosageDTO.class)))
+        when(journalService.create(any(JournalArrosageDTO.class)))
                 .thenReturn(new JournalArrosageDTO());
 
         // When - Execute multiple times to test variance
@@ -165,20 +369,27 @@ class IrrigationExecutionServiceTest {
 
         // Then - All volumes should be within ±10% of planned
         ArgumentCaptor<JournalArrosageDTO> journalCaptor = ArgumentCaptor.forClass(JournalArrosageDTO.class);
-        verify(journalService, times(10)).createJournal(journalCaptor.capture());
+        verify(journalService, times(10)).create(journalCaptor.capture());
 
         List<JournalArrosageDTO> journals = journalCaptor.getAllValues();
         for (JournalArrosageDTO journal : journals) {
-            assertThat(journal.getVolumeReel()).isBetween(22.5, 27.5);
+            assertThat(journal.getVolumeReel()).isBetween(new BigDecimal("22.50"), new BigDecimal("27.50"));
         }
     }
 
     @Test
     void testExecuteSingleProgram_ExecutionFailure() {
         // Given
-        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
-        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
-        when(journalService.createJournal(any(JournalArrosageDTO.class)))
+        testProgramme.setStatut(StatutProgramme.PLANIFIE);
+        when(programmeRepository.claimProgramme(1L, executionTime, StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS))
+                .thenReturn(1);
+        List<StatutProgramme> savedStatuts = new ArrayList<>();
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenAnswer(invocation -> {
+            ProgrammeArrosage saved = invocation.getArgument(0);
+            savedStatuts.add(saved.getStatut());
+            return saved;
+        });
+        when(journalService.create(any(JournalArrosageDTO.class)))
                 .thenThrow(new RuntimeException("Journal creation failed"));
 
         // When/Then - Should throw exception
@@ -187,33 +398,28 @@ class IrrigationExecutionServiceTest {
         });
 
         // Status should be reverted to PLANIFIE for retry
-        ArgumentCaptor<ProgrammeArrosage> programmeCaptor = ArgumentCaptor.forClass(ProgrammeArrosage.class);
-        verify(programmeRepository, times(2)).save(programmeCaptor.capture());
-
-        List<ProgrammeArrosage> savedPrograms = programmeCaptor.getAllValues();
-        assertThat(savedPrograms.get(0).getStatut()).isEqualTo(StatutProgramme.EN_COURS);
-        assertThat(savedPrograms.get(1).getStatut()).isEqualTo(StatutProgramme.PLANIFIE);
+        assertThat(savedStatuts).containsExactly(StatutProgramme.PLANIFIE);
+        assertThat(testProgramme.getDateReservation()).isNull();
     }
 
     @Test
     void testExecuteScheduledPrograms_PartialFailure() {
         // Given
-        ProgrammeArrosage programme2 = new ProgrammeArrosage();
-        programme2.setId(2L);
-        programme2.setParcelle(testParcelle);
-        programme2.setDatePlanifiee(LocalDateTime.of(2025, 11, 18, 9, 0));
-        programme2.setDuree(45);
-        programme2.setVolumePrevu(20.0);
-        programme2.setStatut(StatutProgramme.PLANIFIE);
-
-        when(programmeRepository.findByDatePlanifieeBeforeAndStatut(executionTime, StatutProgramme.PLANIFIE))
-                .thenReturn(Arrays.asList(testProgramme, programme2));
-        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
-        when(programmeRepository.findById(2L)).thenReturn(Optional.of(programme2));
+        ProgrammeArrosage programme2 = createProgramme(2L, LocalDateTime.of(2025, 11, 18, 9, 0));
+
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Arrays.asList(testProgramme, programme2))
+                .thenReturn(Collections.emptyList());
         when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
 
-        // First program succeeds, second fails
-        when(journalService.createJournal(any(JournalArrosageDTO.class)))
+        // The chunk's bulk insert fails: programmes are retried one by one,
+        // the first succeeds and the second fails
+        when(journalService.createAll(any())).thenThrow(new RuntimeException("Batch insert failed"));
+        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
+        when(programmeRepository.findById(2L)).thenReturn(Optional.of(programme2));
+        when(programmeRepository.claimProgramme(anyLong(), eq(executionTime), eq(StatutProgramme.PLANIFIE), eq(StatutProgramme.EN_COURS)))
+                .thenReturn(1);
+        when(journalService.create(any(JournalArrosageDTO.class)))
                 .thenReturn(new JournalArrosageDTO())
                 .thenThrow(new RuntimeException("Failed to create journal"));
 
@@ -230,50 +436,154 @@ class IrrigationExecutionServiceTest {
     }
 
     @Test
-    void testArchiveCompletedPrograms_NoProgramsToArchive() {
-        // Given
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-        when(programmeRepository.findByDatePlanifieeBeforeAndStatut(cutoffDate, StatutProgramme.TERMINE))
+    void testExecuteScheduledPrograms_KeysetChunksClearPersistenceContext() {
+        // Given - deux lots successifs
+        ProgrammeArrosage second = new ProgrammeArrosage();
+        second.setId(7L);
+        second.setParcelle(testParcelle);
+        second.setDatePlanifiee(LocalDateTime.of(2025, 11, 18, 9, 0));
+        second.setDuree(30);
+        second.setVolumePrevu(new BigDecimal("10.00"));
+        second.setStatut(StatutProgramme.EN_COURS);
+
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Collections.singletonList(testProgramme))
+                .thenReturn(Collections.singletonList(second))
                 .thenReturn(Collections.emptyList());
 
         // When
-        int result = executionService.archiveCompletedPrograms(cutoffDate);
+        int result = executionService.executeScheduledPrograms(executionTime);
 
-        // Then
-        assertThat(result).isEqualTo(0);
+        // Then - chaque lot reprend après le dernier programme du lot précédent
+        assertThat(result).isEqualTo(2);
+        InOrder inOrder = inOrder(programmeRepository, entityManager);
+        inOrder.verify(programmeRepository).claimDueProgrammesAfter(
+                eq(executionTime), eq(ProgrammeArrosageRepository.KEYSET_ORIGIN), eq(0L), anyInt());
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(programmeRepository).claimDueProgrammesAfter(
+                eq(executionTime), eq(testProgramme.getDatePlanifiee()), eq(1L), anyInt());
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(programmeRepository).claimDueProgrammesAfter(
+                eq(executionTime), eq(second.getDatePlanifiee()), eq(7L), anyInt());
     }
 
     @Test
-    void testArchiveCompletedPrograms_WithOldPrograms() {
-        // Given
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-        testProgramme.setStatut(StatutProgramme.TERMINE);
-        testProgramme.setDatePlanifiee(LocalDateTime.now().minusDays(35));
+    void testExecuteScheduledPrograms_RolledBackChunkDoesNotStopBacklog() {
+        // Given - la validation du premier lot échoue, ses programmes sont repris un par un
+        ProgrammeArrosage second = new ProgrammeArrosage();
+        second.setId(7L);
+        second.setParcelle(testParcelle);
+        second.setDatePlanifiee(LocalDateTime.of(2025, 11, 18, 9, 0));
+        second.setDuree(30);
+        second.setVolumePrevu(new BigDecimal("10.00"));
+        second.setStatut(StatutProgramme.EN_COURS);
+
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Collections.singletonList(testProgramme))
+                .thenReturn(Collections.singletonList(second))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
+        when(programmeRepository.claimProgramme(1L, executionTime, StatutProgramme.PLANIFIE, StatutProgramme.EN_COURS))
+                .thenReturn(1);
+        when(journalService.create(any(JournalArrosageDTO.class))).thenReturn(new JournalArrosageDTO());
+        doThrow(new RuntimeException("Transaction rolled back"))
+                .doNothing()
+                .when(entityManager).flush();
+
+        // When
+        int result = executionService.executeScheduledPrograms(executionTime);
 
-        when(programmeRepository.findByDatePlanifieeBeforeAndStatut(cutoffDate, StatutProgramme.TERMINE))
-                .thenReturn(Collections.singletonList(testProgramme));
+        // Then - le lot suivant reprend après le lot annulé
+        assertThat(result).isEqualTo(2);
+        verify(journalService).create(argThat(journal -> journal.getProgrammeId().equals(1L)));
+        verify(programmeRepository).claimDueProgrammesAfter(
+                eq(executionTime), eq(testProgramme.getDatePlanifiee()), eq(1L), anyInt());
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_DefersProgrammesBeyondParcelleLimit() {
+        // Given - un seul programme à la fois par parcelle, deux programmes dus sur la même parcelle
+        when(executionAdmission.openSlot()).thenReturn(admission(true, 1).openSlot());
+        ProgrammeArrosage programme2 = createProgramme(2L, LocalDateTime.of(2025, 11, 18, 9, 0));
+        programme2.setDateReservation(executionTime);
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Arrays.asList(testProgramme, programme2))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
-        int result = executionService.archiveCompletedPrograms(cutoffDate);
+        int result = executionService.executeScheduledPrograms(executionTime);
 
-        // Then
+        // Then - le second programme est remis en PLANIFIE, sans journal d'échec
         assertThat(result).isEqualTo(1);
+        assertThat(testProgramme.getStatut()).isEqualTo(StatutProgramme.TERMINE);
+        assertThat(programme2.getStatut()).isEqualTo(StatutProgramme.PLANIFIE);
+        assertThat(programme2.getDateReservation()).isNull();
+        ArgumentCaptor<List<JournalArrosageDTO>> journalCaptor = ArgumentCaptor.forClass(List.class);
+        verify(journalService).createAll(journalCaptor.capture());
+        assertThat(journalCaptor.getValue()).extracting(JournalArrosageDTO::getProgrammeId).containsExactly(1L);
+        verify(journalService, never()).create(any());
+
+        // Le programme différé reste dans la file d'attente et n'est pas repris dans ce passage
+        verify(metricsCollector).incrementAdmissionDeferred(IrrigationMetricsCollector.DEFERRAL_PARCELLE);
+        verify(metricsCollector).decrementProgramsBacklog(1);
+        verify(programmeRepository).claimDueProgrammesAfter(
+                eq(executionTime), eq(programme2.getDatePlanifiee()), eq(2L), anyInt());
     }
 
     @Test
-    void testExecuteSingleProgram_RemarqueGeneration() {
+    void testExecuteScheduledPrograms_ClaimsNoMoreThanGlobalLimit() {
+        // Given - au plus un programme en cours pour l'instance
+        when(executionAdmission.openSlot()).thenReturn(
+                new ExecutionAdmission(metricsCollector, true, 0, 0, 1, Duration.ofMinutes(1)).openSlot());
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), eq(1)))
+                .thenReturn(Collections.singletonList(testProgramme))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
+
+        // When
+        int result = executionService.executeScheduledPrograms(executionTime);
+
+        // Then - chaque réservation est limitée à la place restante
+        assertThat(result).isEqualTo(1);
+        verify(programmeRepository, times(2)).claimDueProgrammesAfter(any(), any(), any(), eq(1));
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_ReleasesPlaceWhenProgrammeFinishes() {
+        // Given - un seul programme à la fois par parcelle, deux lots successifs sur la même parcelle
+        ExecutionAdmission admission = admission(true, 1);
+        when(executionAdmission.openSlot()).thenReturn(admission.openSlot());
+        ProgrammeArrosage programme2 = createProgramme(2L, LocalDateTime.of(2025, 11, 18, 9, 0));
+        when(programmeRepository.claimDueProgrammesAfter(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Collections.singletonList(testProgramme))
+                .thenReturn(Collections.singletonList(programme2))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        int result = executionService.executeScheduledPrograms(executionTime);
+
+        // Then - la place du premier programme est rendue dès son exécution terminée
+        assertThat(result).isEqualTo(2);
+        assertThat(programme2.getStatut()).isEqualTo(StatutProgramme.TERMINE);
+        verify(metricsCollector, never()).incrementAdmissionDeferred(anyString());
+        assertThat(admission.getInFlight()).isZero();
+    }
+
+    @Test
+    void testExecuteClaimedProgram_RemarqueGeneration() {
         // Given
-        when(programmeRepository.findById(1L)).thenReturn(Optional.of(testProgramme));
         when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(testProgramme);
-        when(journalService.createJournal(any(JournalArrosageDTO.class)))
+        when(journalService.create(any(JournalArrosageDTO.class)))
                 .thenReturn(new JournalArrosageDTO());
 
         // When
-        executionService.executeSingleProgram(testProgramme, executionTime);
+        executionService.executeClaimedProgram(testProgramme, executionTime);
 
         // Then
         ArgumentCaptor<JournalArrosageDTO> journalCaptor = ArgumentCaptor.forClass(JournalArrosageDTO.class);
-        verify(journalService).createJournal(journalCaptor.capture());
+        verify(journalService).create(journalCaptor.capture());
 
         JournalArrosageDTO journal = journalCaptor.getValue();
         assertThat(journal.getRemarque()).containsAnyOf(
@@ -283,4 +593,19 @@ class IrrigationExecutionServiceTest {
                 "inférieur"
         );
     }
+
+    private ExecutionAdmission admission(boolean enabled, int maxPerParcelle) {
+        return new ExecutionAdmission(metricsCollector, enabled, maxPerParcelle, 0, 0, Duration.ofMinutes(1));
+    }
+
+    private ProgrammeArrosage createProgramme(Long id, LocalDateTime datePlanifiee) {
+        ProgrammeArrosage programme = new ProgrammeArrosage();
+        programme.setId(id);
+        programme.setParcelle(testParcelle);
+        programme.setDatePlanifiee(datePlanifiee);
+        programme.setDuree(45);
+        programme.setVolumePrevu(new BigDecimal("20.00"));
+        programme.setStatut(StatutProgramme.EN_COURS);
+        return programme;
+    }
 }
@@ -0,0 +1,259 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.dto.JournalArrosageDTO;
+import com.irrigation.arrosage.entity.JournalArrosage;
+import com.irrigation.arrosage.entity.Parcelle;
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.repository.JournalArrosageRepository;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.service.JournalArrosageService.WriteBehindResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalArrosageServiceTest {
+
+    @Mock
+    private JournalArrosageRepository journalRepository;
+
+    @Mock
+    private ProgrammeArrosageRepository programmeRepository;
+
+    @Mock
+    private ArchiveService archiveService;
+
+    @InjectMocks
+    private JournalArrosageService journalService;
+
+    private ProgrammeArrosage programme1;
+    private ProgrammeArrosage programme2;
+    private LocalDateTime executionTime;
+
+    @BeforeEach
+    void setUp() {
+        executionTime = LocalDateTime.of(2025, 11, 18, 10, 0);
+        Parcelle parcelle = Parcelle.builder().id(1L).nom("Parcelle Nord")
+                .superficie(new BigDecimal("5000.00")).culture("Tomates").build();
+
+        programme1 = ProgrammeArrosage.builder().id(1L).parcelle(parcelle)
+                .datePlanifiee(executionTime.minusHours(2)).duree(60)
+                .volumePrevu(new BigDecimal("25.00")).statut(StatutProgramme.TERMINE).build();
+        programme2 = ProgrammeArrosage.builder().id(2L).parcelle(parcelle)
+                .datePlanifiee(executionTime.minusHours(1)).duree(30)
+                .volumePrevu(new BigDecimal("10.00")).statut(StatutProgramme.PLANIFIE).build();
+    }
+
+    @Test
+    void testCreateAll_LoadsProgrammesOnceAndSavesInOneBatch() {
+        // Given
+        when(programmeRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(programme1, programme2));
+        when(journalRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<JournalArrosageDTO> result = journalService.createAll(Arrays.asList(
+                journal(1L, "24.10"), journal(2L, "10.20")));
+
+        // Then
+        assertThat(result).extracting(JournalArrosageDTO::getProgrammeId).containsExactly(1L, 2L);
+        assertThat(result).extracting(JournalArrosageDTO::getParcelleNom).containsOnly("Parcelle Nord");
+        verify(programmeRepository, times(1)).findAllById(anyIterable());
+        verify(programmeRepository, never()).findById(any());
+        verify(programmeRepository, never()).save(any());
+        verify(journalRepository, never()).save(any(JournalArrosage.class));
+
+        // Programme encore PLANIFIE : passé à TERMINE comme avec create()
+        assertThat(programme2.getStatut()).isEqualTo(StatutProgramme.TERMINE);
+    }
+
+    @Test
+    void testCreateAll_UnknownProgramme() {
+        // Given
+        when(programmeRepository.findAllById(anyIterable())).thenReturn(Collections.singletonList(programme1));
+
+        // When/Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                journalService.createAll(Arrays.asList(journal(1L, "24.10"), journal(99L, "5.00"))));
+        assertThat(exception.getMessage()).contains("99");
+        verify(journalRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void testCreateAll_EmptyList() {
+        // When
+        List<JournalArrosageDTO> result = journalService.createAll(Collections.emptyList());
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(programmeRepository, journalRepository);
+    }
+
+    @Test
+    void testCreateAllOnce_SkipsWrittenKeysAndRejectsUnknownProgramme() {
+        // Given - la clé "a" a été insérée avant un arrêt, le programme 99 n'existe plus
+        programme2.setStatut(StatutProgramme.TERMINE);
+        programme2.setWriteBehindKey("b");
+        Map<String, JournalArrosageDTO> journals = new LinkedHashMap<>();
+        journals.put("a", journal(1L, "24.10"));
+        journals.put("b", journal(2L, "10.20"));
+        journals.put("c", journal(99L, "5.00"));
+        when(journalRepository.findExistingWriteBehindKeys(journals.keySet())).thenReturn(List.of("a"));
+        when(programmeRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(programme1, programme2));
+
+        // When
+        WriteBehindResult result = journalService.createAllOnce(journals);
+
+        // Then - seule la clé "b" est insérée, avec sa clé
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getRejected()).containsExactly("c");
+        ArgumentCaptor<List<JournalArrosage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(journalRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(JournalArrosage::getWriteBehindKey).containsExactly("b");
+    }
+
+    @Test
+    void testCreateAllOnce_InsertsOnlyCommittedEntries() {
+        // Given - "a" : exécution validée avec une autre entrée ; "b" : transaction pas encore validée ;
+        // "c" : programme TERMINE sans clé (entrée ajoutée après la validation par une version précédente)
+        ProgrammeArrosage programme3 = ProgrammeArrosage.builder().id(3L).parcelle(programme1.getParcelle())
+                .datePlanifiee(executionTime).duree(30).volumePrevu(new BigDecimal("8.00"))
+                .statut(StatutProgramme.TERMINE).build();
+        programme1.setWriteBehindKey("a2");
+        programme2.setStatut(StatutProgramme.EN_COURS);
+        Map<String, JournalArrosageDTO> journals = new LinkedHashMap<>();
+        journals.put("a", journal(1L, "24.10"));
+        journals.put("b", journal(2L, "10.20"));
+        journals.put("c", journal(3L, "8.10"));
+        when(journalRepository.findExistingWriteBehindKeys(journals.keySet())).thenReturn(List.of());
+        when(programmeRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(programme1, programme2, programme3));
+
+        // When
+        WriteBehindResult result = journalService.createAllOnce(journals);
+
+        // Then
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getRolledBack()).containsExactly("a");
+        assertThat(result.getUncommitted()).containsExactly("b");
+        ArgumentCaptor<List<JournalArrosage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(journalRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(JournalArrosage::getWriteBehindKey).containsExactly("c");
+    }
+
+    @Test
+    void testFindByPeriode_RecentPeriodDoesNotReadArchives() {
+        // Given
+        LocalDateTime start = executionTime.minusDays(7);
+        when(journalRepository.findByDateExecutionBetween(start, executionTime))
+                .thenReturn(Collections.singletonList(entity(10L, programme1, executionTime.minusDays(1))));
+        when(archiveService.includesArchivedHistory(start)).thenReturn(false);
+
+        // When
+        List<JournalArrosageDTO> result = journalService.findByPeriode(start, executionTime);
+
+        // Then
+        assertThat(result).extracting(JournalArrosageDTO::getId).containsExactly(10L);
+        verify(journalRepository, never()).findArchivedByDateExecutionBetween(any(), any());
+    }
+
+    @Test
+    void testFindByPeriode_OlderPeriodMergesArchives() {
+        // Given
+        LocalDateTime start = executionTime.minusDays(90);
+        when(journalRepository.findByDateExecutionBetween(start, executionTime))
+                .thenReturn(Collections.singletonList(entity(10L, programme1, executionTime.minusDays(1))));
+        when(archiveService.includesArchivedHistory(start)).thenReturn(true);
+        when(journalRepository.findArchivedByDateExecutionBetween(start, executionTime))
+                .thenReturn(Arrays.asList(archived(3L, executionTime.minusDays(40)), archived(2L, executionTime.minusDays(60))));
+
+        // When
+        List<JournalArrosageDTO> result = journalService.findByPeriode(start, executionTime);
+
+        // Then - plus récents d'abord, archives comprises
+        assertThat(result).extracting(JournalArrosageDTO::getId).containsExactly(10L, 3L, 2L);
+        assertThat(result.get(1).getParcelleNom()).isEqualTo("Parcelle Nord");
+    }
+
+    @Test
+    void testFindByProgrammeId_FallsBackToArchives() {
+        // Given
+        when(journalRepository.findByProgrammeId(7L)).thenReturn(Collections.emptyList());
+        when(journalRepository.findArchivedByProgrammeId(7L))
+                .thenReturn(Collections.singletonList(archived(3L, executionTime.minusDays(40))));
+
+        // When
+        List<JournalArrosageDTO> result = journalService.findByProgrammeId(7L);
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getProgrammeId()).isEqualTo(7L);
+        assertThat(result.get(0).getVolumeReel()).isEqualByComparingTo("12.00");
+    }
+
+    private JournalArrosage entity(Long id, ProgrammeArrosage programme, LocalDateTime dateExecution) {
+        return JournalArrosage.builder().id(id).programme(programme).dateExecution(dateExecution)
+                .volumeReel(new BigDecimal("24.10")).remarque("ok").build();
+    }
+
+    private JournalArrosageRepository.ArchivedJournal archived(Long id, LocalDateTime dateExecution) {
+        return new JournalArrosageRepository.ArchivedJournal() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getProgrammeId() {
+                return 7L;
+            }
+
+            @Override
+            public String getParcelleNom() {
+                return "Parcelle Nord";
+            }
+
+            @Override
+            public LocalDateTime getDateExecution() {
+                return dateExecution;
+            }
+
+            @Override
+            public BigDecimal getVolumeReel() {
+                return new BigDecimal("12.00");
+            }
+
+            @Override
+            public String getRemarque() {
+                return "ok";
+            }
+        };
+    }
+
+    private JournalArrosageDTO journal(Long programmeId, String volume) {
+        JournalArrosageDTO dto = new JournalArrosageDTO();
+        dto.setProgrammeId(programmeId);
+        dto.setDateExecution(executionTime);
+        dto.setVolumeReel(new BigDecimal(volume));
+        dto.setRemarque("Arrosage effectué avec succès");
+        return dto;
+    }
+}
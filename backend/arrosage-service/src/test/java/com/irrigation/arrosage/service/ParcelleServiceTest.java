@@ -2,7 +2,6 @@ package com.irrigation.arrosage.service;
 
 import com.irrigation.arrosage.dto.ParcelleDTO;
 import com.irrigation.arrosage.entity.Parcelle;
-import com.irrigation.arrosage.exception.ResourceNotFoundException;
 import com.irrigation.arrosage.repository.ParcelleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +10,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +25,9 @@ class ParcelleServiceTest {
     @Mock
     private ParcelleRepository parcelleRepository;
 
+    @Mock
+    private StationParcelleIndex stationParcelleIndex;
+
     @InjectMocks
     private ParcelleService parcelleService;
 
@@ -36,12 +39,12 @@ class ParcelleServiceTest {
         parcelle = new Parcelle();
         parcelle.setId(1L);
         parcelle.setNom("Parcelle Test");
-        parcelle.setSuperficie(5000.0);
+        parcelle.setSuperficie(new BigDecimal("5000.0"));
         parcelle.setCulture("Tomates");
 
         parcelleDTO = new ParcelleDTO();
         parcelleDTO.setNom("Parcelle Test");
-        parcelleDTO.setSuperficie(5000.0);
+        parcelleDTO.setSuperficie(new BigDecimal("5000.0"));
         parcelleDTO.setCulture("Tomates");
     }
 
@@ -49,20 +52,21 @@ class ParcelleServiceTest {
     void testCreateParcelle() {
         when(parcelleRepository.save(any(Parcelle.class))).thenReturn(parcelle);
 
-        ParcelleDTO result = parcelleService.createParcelle(parcelleDTO);
+        ParcelleDTO result = parcelleService.create(parcelleDTO);
 
         assertNotNull(result);
         assertEquals("Parcelle Test", result.getNom());
-        assertEquals(5000.0, result.getSuperficie());
+        assertEquals(new BigDecimal("5000.0"), result.getSuperficie());
         assertEquals("Tomates", result.getCulture());
         verify(parcelleRepository, times(1)).save(any(Parcelle.class));
+        verify(stationParcelleIndex).onParcelleSaved(parcelle);
     }
 
     @Test
     void testGetParcelleById_Success() {
         when(parcelleRepository.findById(1L)).thenReturn(Optional.of(parcelle));
 
-        ParcelleDTO result = parcelleService.getParcelleById(1L);
+        ParcelleDTO result = parcelleService.findById(1L);
 
         assertNotNull(result);
         assertEquals("Parcelle Test", result.getNom());
@@ -73,8 +77,8 @@ class ParcelleServiceTest {
     void testGetParcelleById_NotFound() {
         when(parcelleRepository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> {
-            parcelleService.getParcelleById(1L);
+        assertThrows(RuntimeException.class, () -> {
+            parcelleService.findById(1L);
         });
         verify(parcelleRepository, times(1)).findById(1L);
     }
@@ -84,7 +88,7 @@ class ParcelleServiceTest {
         List<Parcelle> parcelles = Arrays.asList(parcelle);
         when(parcelleRepository.findAll()).thenReturn(parcelles);
 
-        List<ParcelleDTO> results = parcelleService.getAllParcelles();
+        List<ParcelleDTO> results = parcelleService.findAll();
 
         assertNotNull(results);
         assertEquals(1, results.size());
@@ -97,7 +101,7 @@ class ParcelleServiceTest {
         List<Parcelle> parcelles = Arrays.asList(parcelle);
         when(parcelleRepository.findByCulture("Tomates")).thenReturn(parcelles);
 
-        List<ParcelleDTO> results = parcelleService.getParcellesByCulture("Tomates");
+        List<ParcelleDTO> results = parcelleService.findByCulture("Tomates");
 
         assertNotNull(results);
         assertEquals(1, results.size());
@@ -111,7 +115,7 @@ class ParcelleServiceTest {
         when(parcelleRepository.save(any(Parcelle.class))).thenReturn(parcelle);
 
         parcelleDTO.setNom("Parcelle Modifiée");
-        ParcelleDTO result = parcelleService.updateParcelle(1L, parcelleDTO);
+        ParcelleDTO result = parcelleService.update(1L, parcelleDTO);
 
         assertNotNull(result);
         assertEquals("Parcelle Modifiée", result.getNom());
@@ -124,18 +128,19 @@ class ParcelleServiceTest {
         when(parcelleRepository.existsById(1L)).thenReturn(true);
         doNothing().when(parcelleRepository).deleteById(1L);
 
-        parcelleService.deleteParcelle(1L);
+        parcelleService.delete(1L);
 
         verify(parcelleRepository, times(1)).existsById(1L);
         verify(parcelleRepository, times(1)).deleteById(1L);
+        verify(stationParcelleIndex).onParcelleDeleted(1L);
     }
 
     @Test
     void testDeleteParcelle_NotFound() {
         when(parcelleRepository.existsById(1L)).thenReturn(false);
 
-        assertThrows(ResourceNotFoundException.class, () -> {
-            parcelleService.deleteParcelle(1L);
+        assertThrows(RuntimeException.class, () -> {
+            parcelleService.delete(1L);
         });
         verify(parcelleRepository, times(1)).existsById(1L);
         verify(parcelleRepository, never()).deleteById(1L);
@@ -0,0 +1,220 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.Parcelle;
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionedExecutionEngineTest {
+
+    @Mock
+    private ProgrammeArrosageRepository programmeRepository;
+
+    @Mock
+    private IrrigationExecutionService executionService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IrrigationMetricsCollector metricsCollector;
+
+    private PartitionedExecutionEngine engine;
+
+    private LocalDateTime executionTime;
+    private Parcelle parcelleNord;
+    private Parcelle parcelleSud;
+
+    @BeforeEach
+    void setUp() {
+        engine = engine(admission(false, 0, 0, 0));
+
+        executionTime = LocalDateTime.of(2025, 11, 18, 10, 0);
+        parcelleNord = Parcelle.builder().id(1L).nom("Parcelle Nord")
+                .superficie(new BigDecimal("5000.00")).culture("Tomates").build();
+        parcelleSud = Parcelle.builder().id(2L).nom("Parcelle Sud")
+                .superficie(new BigDecimal("7500.00")).culture("Maïs").build();
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_NoProgramsToExecute() {
+        // Given
+        when(executionService.claimDueProgrammes(eq(executionTime), any(), any(), anyInt())).thenReturn(Collections.emptyList());
+
+        // When
+        int result = engine.executeScheduledPrograms(executionTime);
+
+        // Then
+        assertThat(result).isZero();
+        verify(executionService).releaseStaleClaims(executionTime);
+        verify(executionService, never()).executeClaimedProgram(any(), any());
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_DrainsClaimedBatchesPartitionedByParcelle() {
+        // Given
+        ProgrammeArrosage p1 = programme(1L, parcelleNord, 8);
+        ProgrammeArrosage p2 = programme(2L, parcelleSud, 8);
+        ProgrammeArrosage p3 = programme(3L, parcelleNord, 9);
+        when(executionService.claimDueProgrammes(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Arrays.asList(p1, p2))
+                .thenReturn(Collections.singletonList(p3))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.findById(1L)).thenReturn(Optional.of(p1));
+        when(programmeRepository.findById(2L)).thenReturn(Optional.of(p2));
+        when(programmeRepository.findById(3L)).thenReturn(Optional.of(p3));
+
+        // When
+        int result = engine.executeScheduledPrograms(executionTime);
+
+        // Then
+        assertThat(result).isEqualTo(3);
+        InOrder nord = inOrder(executionService);
+        nord.verify(executionService).executeClaimedProgram(p1, executionTime);
+        nord.verify(executionService).executeClaimedProgram(p3, executionTime);
+        verify(executionService).executeClaimedProgram(p2, executionTime);
+        verify(executionService, never()).handleExecutionFailure(any(), anyString());
+
+        // Backlog décrémenté lot après lot, durée du passage enregistrée
+        verify(executionService).refreshBacklog(executionTime);
+        verify(metricsCollector).decrementProgramsBacklog(2);
+        verify(metricsCollector).decrementProgramsBacklog(1);
+        verify(metricsCollector).recordTick(anyLong(), eq(true));
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_FailureIsIsolatedToProgramme() {
+        // Given
+        ProgrammeArrosage p1 = programme(1L, parcelleNord, 8);
+        ProgrammeArrosage p2 = programme(2L, parcelleNord, 9);
+        when(executionService.claimDueProgrammes(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Arrays.asList(p1, p2))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.findById(1L)).thenReturn(Optional.of(p1));
+        when(programmeRepository.findById(2L)).thenReturn(Optional.of(p2));
+        doThrow(new RuntimeException("Journal creation failed"))
+                .when(executionService).executeClaimedProgram(p1, executionTime);
+
+        // When
+        int result = engine.executeScheduledPrograms(executionTime);
+
+        // Then - Le premier programme est annulé, le second est exécuté
+        assertThat(result).isEqualTo(1);
+        verify(executionService).handleExecutionFailure(eq(p1), eq("Journal creation failed"));
+        verify(executionService).executeClaimedProgram(p2, executionTime);
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_DefersProgrammesBeyondAdmissionLimits() {
+        // Given - un programme à la fois par parcelle
+        engine = engine(admission(true, 1, 0, 0));
+        ProgrammeArrosage p1 = programme(1L, parcelleNord, 8);
+        ProgrammeArrosage p2 = programme(2L, parcelleSud, 8);
+        ProgrammeArrosage p3 = programme(3L, parcelleNord, 9);
+        when(executionService.claimDueProgrammes(eq(executionTime), any(), any(), anyInt()))
+                .thenReturn(Arrays.asList(p1, p2, p3))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.findById(1L)).thenReturn(Optional.of(p1));
+        when(programmeRepository.findById(2L)).thenReturn(Optional.of(p2));
+
+        // When
+        int result = engine.executeScheduledPrograms(executionTime);
+
+        // Then - le second programme de la parcelle Nord est différé, pas annulé
+        assertThat(result).isEqualTo(2);
+        verify(executionService).deferProgramme(p3);
+        verify(executionService, never()).executeClaimedProgram(eq(p3), any());
+        verify(executionService, never()).handleExecutionFailure(any(), anyString());
+        verify(metricsCollector).incrementAdmissionDeferred(IrrigationMetricsCollector.DEFERRAL_PARCELLE);
+        verify(metricsCollector).decrementProgramsBacklog(2);
+
+        // La réservation suivante reprend après le dernier programme réservé
+        verify(executionService).claimDueProgrammes(executionTime, p3.getDatePlanifiee(), 3L, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testExecuteScheduledPrograms_ClaimsNoMoreThanFreePlaces() {
+        // Given - au plus deux programmes en cours pour l'instance
+        ExecutionAdmission admission = admission(true, 0, 0, 2);
+        engine = engine(admission);
+        ProgrammeArrosage p1 = programme(1L, parcelleNord, 8);
+        ProgrammeArrosage p2 = programme(2L, parcelleSud, 8);
+        when(executionService.claimDueProgrammes(eq(executionTime), any(), any(), eq(2)))
+                .thenReturn(Arrays.asList(p1, p2))
+                .thenReturn(Collections.emptyList());
+        when(programmeRepository.findById(1L)).thenReturn(Optional.of(p1));
+        when(programmeRepository.findById(2L)).thenReturn(Optional.of(p2));
+
+        // When
+        int result = engine.executeScheduledPrograms(executionTime);
+
+        // Then - chaque réservation est limitée aux places libres, rendues à la fin de chaque exécution
+        assertThat(result).isEqualTo(2);
+        verify(executionService, times(2)).claimDueProgrammes(any(), any(), any(), eq(2));
+        verify(executionService, never()).deferProgramme(any());
+        assertThat(admission.getInFlight()).isZero();
+    }
+
+    @Test
+    void testExecutePartition_ReportsThroughput() {
+        // Given
+        ProgrammeArrosage p1 = programme(1L, parcelleNord, 8);
+        when(programmeRepository.findById(1L)).thenReturn(Optional.of(p1));
+
+        // When
+        PartitionedExecutionEngine.PartitionResult result =
+                engine.executePartition(1L, Collections.singletonList(1L), executionTime, programmeId -> { });
+
+        // Then
+        assertThat(result.getParcelleId()).isEqualTo(1L);
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailed()).isZero();
+        assertThat(result.getThroughput()).isPositive();
+    }
+
+    private PartitionedExecutionEngine engine(ExecutionAdmission admission) {
+        // Exécuteur synchrone pour des tests déterministes
+        return new PartitionedExecutionEngine(programmeRepository, executionService,
+                Runnable::run, metricsCollector, admission, transactionManager, true);
+    }
+
+    private ExecutionAdmission admission(boolean enabled, int maxPerParcelle, int maxPerExploitation, int maxInFlight) {
+        return new ExecutionAdmission(metricsCollector, enabled, maxPerParcelle, maxPerExploitation, maxInFlight,
+                Duration.ofMinutes(1));
+    }
+
+    private ProgrammeArrosage programme(Long id, Parcelle parcelle, int hour) {
+        return ProgrammeArrosage.builder()
+                .id(id)
+                .parcelle(parcelle)
+                .datePlanifiee(LocalDateTime.of(2025, 11, 18, hour, 0))
+                .duree(60)
+                .volumePrevu(new BigDecimal("25.00"))
+                .statut(StatutProgramme.EN_COURS)
+                .build();
+    }
+}
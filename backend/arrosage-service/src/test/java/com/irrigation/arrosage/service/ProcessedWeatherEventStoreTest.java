@@ -0,0 +1,143 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.exception.DuplicateWeatherEventException;
+import com.irrigation.arrosage.metrics.IrrigationMetricsCollector;
+import com.irrigation.arrosage.repository.ProcessedWeatherEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedWeatherEventStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 18, 10, 0);
+
+    @Mock
+    private ProcessedWeatherEventRepository repository;
+
+    @Mock
+    private IrrigationMetricsCollector metricsCollector;
+
+    private ProcessedWeatherEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ProcessedWeatherEventStore(repository, metricsCollector, 2, 10_000, Duration.ofDays(7));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testIsProcessed_NewEventsNeedNoDatabaseLookup() {
+        // Given
+        when(repository.findIdsProcessedSince(any())).thenReturn(List.of("event-1", "event-2"));
+
+        // When
+        long processed = IntStream.range(0, 1000)
+                .filter(i -> store.isProcessed("new-event-" + i))
+                .count();
+
+        // Then - le filtre écarte les nouveaux événements (hors faux positifs, ~1 %)
+        verify(repository, atMost(50)).existsById(anyString());
+        assertThat(processed).isZero();
+    }
+
+    @Test
+    void testMarkProcessed_DuplicateIsFoundInMemoryAfterCommit() {
+        // Given
+        when(repository.insertIfAbsent(eq("event-1,event-2"), any())).thenReturn(2);
+
+        // When
+        store.markProcessed(List.of("event-1", "event-2"));
+        boolean beforeCommit = store.isProcessed("event-1");
+        commit();
+
+        // Then
+        assertThat(beforeCommit).isFalse();
+        assertThat(store.isProcessed("event-1")).isTrue();
+        assertThat(store.isProcessed("event-2")).isTrue();
+        verify(repository, never()).existsById(anyString());
+    }
+
+    @Test
+    void testMarkProcessed_RejectsEventAlreadyRecorded() {
+        // Given - une autre instance a déjà appliqué l'un des deux événements
+        when(repository.insertIfAbsent(anyString(), any())).thenReturn(1);
+
+        // When/Then
+        assertThatThrownBy(() -> store.markProcessed(List.of("event-1", "event-2")))
+                .isInstanceOf(DuplicateWeatherEventException.class);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    void testIsProcessed_EventEvictedFromRecentEventsIsCheckedInDatabase() {
+        // Given - LRU de 2 événements
+        when(repository.insertIfAbsent(anyString(), any())).thenReturn(3);
+        when(repository.existsById("event-1")).thenReturn(true);
+        store.markProcessed(List.of("event-1", "event-2", "event-3"));
+        commit();
+
+        // When
+        boolean processed = store.isProcessed("event-1");
+
+        // Then
+        assertThat(processed).isTrue();
+        verify(repository).existsById("event-1");
+        verify(metricsCollector).incrementWeatherDedupDatabaseLookups();
+        assertThat(store.isProcessed("event-1")).isTrue();
+        verify(repository, times(1)).existsById("event-1");
+    }
+
+    @Test
+    void testKeyOf_UsesEventIdOrAStableDerivedKey() {
+        // Given
+        WeatherChangeEvent withId = event("8d0f3c4e-6f7a-4c1b-9a57-2f4d6b1e0c33");
+        WeatherChangeEvent legacy = event(null);
+
+        // When/Then
+        assertThat(ProcessedWeatherEventStore.keyOf(withId)).isEqualTo("8d0f3c4e-6f7a-4c1b-9a57-2f4d6b1e0c33");
+        assertThat(ProcessedWeatherEventStore.keyOf(legacy))
+                .isEqualTo(ProcessedWeatherEventStore.keyOf(event(null)))
+                .hasSize(36);
+        assertThat(ProcessedWeatherEventStore.keyOf(event("bad,id"))).doesNotContain(",");
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static WeatherChangeEvent event(String eventId) {
+        return new WeatherChangeEvent(eventId, 1L, "Station 1",
+                new WeatherConditions(25.0, 15.0, 0.0, 10.0, T0.plusDays(1)),
+                new WeatherConditions(25.0, 15.0, 12.0, 10.0, T0.plusDays(1)),
+                T0, ChangeSeverity.HIGH, "Pluie");
+    }
+}
@@ -1,21 +1,23 @@
 package com.irrigation.arrosage.service;
 
-import com.irrigation.arrosage.client.MeteoServiceClient;
 import com.irrigation.arrosage.dto.PrevisionMeteoDTO;
 import com.irrigation.arrosage.dto.ProgrammeArrosageDTO;
 import com.irrigation.arrosage.entity.Parcelle;
 import com.irrigation.arrosage.entity.ProgrammeArrosage;
 import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
-import com.irrigation.arrosage.exception.ResourceNotFoundException;
 import com.irrigation.arrosage.repository.ParcelleRepository;
 import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.scheduler.TimeWheelDispatcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -23,7 +25,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +38,13 @@ class ProgrammeArrosageServiceTest {
     private ParcelleRepository parcelleRepository;
 
     @Mock
-    private MeteoServiceClient meteoServiceClient;
+    private ForecastDayGrid forecastDayGrid;
+
+    @Mock
+    private TimeWheelDispatcher timeWheelDispatcher;
+
+    @Mock
+    private ArchiveService archiveService;
 
     @InjectMocks
     private ProgrammeArrosageService programmeService;
@@ -51,7 +59,7 @@ class ProgrammeArrosageServiceTest {
         parcelle = new Parcelle();
         parcelle.setId(1L);
         parcelle.setNom("Parcelle Test");
-        parcelle.setSuperficie(5000.0);
+        parcelle.setSuperficie(new BigDecimal("5000"));
         parcelle.setCulture("Tomates");
 
         programme = new ProgrammeArrosage();
@@ -59,21 +67,21 @@ class ProgrammeArrosageServiceTest {
         programme.setParcelle(parcelle);
         programme.setDatePlanifiee(LocalDateTime.now().plusDays(1));
         programme.setDuree(60);
-        programme.setVolumePrevu(25.0);
+        programme.setVolumePrevu(new BigDecimal("25.0"));
         programme.setStatut(StatutProgramme.PLANIFIE);
 
         programmeDTO = new ProgrammeArrosageDTO();
         programmeDTO.setParcelleId(1L);
         programmeDTO.setDatePlanifiee(LocalDateTime.now().plusDays(1));
         programmeDTO.setDuree(60);
-        programmeDTO.setVolumePrevu(25.0);
+        programmeDTO.setVolumePrevu(new BigDecimal("25.0"));
         programmeDTO.setStatut(StatutProgramme.PLANIFIE);
 
         previsionDTO = new PrevisionMeteoDTO();
-        previsionDTO.setDate(LocalDateTime.now().plusDays(1));
-        previsionDTO.setTemps("Ensoleillé");
-        previsionDTO.setProbabilitePluie(10.0);
-        previsionDTO.setVitesseVent(5.0);
+        previsionDTO.setStationId(1L);
+        previsionDTO.setDate(LocalDate.now().plusDays(1));
+        previsionDTO.setPluiePrevue(new BigDecimal("1.0"));
+        previsionDTO.setVent(new BigDecimal("5.0"));
     }
 
     @Test
@@ -81,19 +89,20 @@ class ProgrammeArrosageServiceTest {
         when(parcelleRepository.findById(1L)).thenReturn(Optional.of(parcelle));
         when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(programme);
 
-        ProgrammeArrosageDTO result = programmeService.createProgramme(programmeDTO);
+        ProgrammeArrosageDTO result = programmeService.create(programmeDTO);
 
         assertNotNull(result);
         assertEquals(StatutProgramme.PLANIFIE, result.getStatut());
         verify(parcelleRepository, times(1)).findById(1L);
         verify(programmeRepository, times(1)).save(any(ProgrammeArrosage.class));
+        verify(timeWheelDispatcher).onProgrammeSaved(programme);
     }
 
     @Test
     void testGetProgrammeById_Success() {
         when(programmeRepository.findById(1L)).thenReturn(Optional.of(programme));
 
-        ProgrammeArrosageDTO result = programmeService.getProgrammeById(1L);
+        ProgrammeArrosageDTO result = programmeService.findById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getParcelleId());
@@ -103,55 +112,62 @@ class ProgrammeArrosageServiceTest {
     @Test
     void testGetProgrammeById_NotFound() {
         when(programmeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(programmeRepository.findArchivedById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> {
-            programmeService.getProgrammeById(1L);
+        assertThrows(RuntimeException.class, () -> {
+            programmeService.findById(1L);
         });
     }
 
     @Test
     void testScheduleIrrigationBasedOnWeather_LowRainProbability() {
         when(parcelleRepository.findById(1L)).thenReturn(Optional.of(parcelle));
-        when(meteoServiceClient.getPrevisionByStationAndDate(anyLong(), any()))
-                .thenReturn(previsionDTO);
-        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(programme);
+        when(forecastDayGrid.getPrevisionsByPeriode(eq(1L), any(), any())).thenReturn(List.of(previsionDTO));
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         LocalDateTime datePlanifiee = LocalDateTime.now().plusDays(1);
         ProgrammeArrosageDTO result = programmeService.scheduleIrrigationBasedOnWeather(1L, 1L, datePlanifiee);
 
+        // 5000 m² * (5 mm - 1 mm) / 1000 = 20 m³, à 0.5 m³/min
         assertNotNull(result);
-        verify(meteoServiceClient, times(1)).getPrevisionByStationAndDate(anyLong(), any());
-        verify(programmeRepository, times(1)).save(any(ProgrammeArrosage.class));
+        assertEquals(new BigDecimal("20.00"), result.getVolumePrevu());
+        assertEquals(40, result.getDuree());
+        verify(forecastDayGrid, times(1)).getPrevisionsByPeriode(1L, datePlanifiee.toLocalDate(),
+                datePlanifiee.toLocalDate().plusDays(3));
+        verify(timeWheelDispatcher).onProgrammeSaved(any(ProgrammeArrosage.class));
     }
 
     @Test
     void testScheduleIrrigationBasedOnWeather_HighRainProbability() {
-        previsionDTO.setProbabilitePluie(60.0);
+        previsionDTO.setPluiePrevue(new BigDecimal("6.0"));
         when(parcelleRepository.findById(1L)).thenReturn(Optional.of(parcelle));
-        when(meteoServiceClient.getPrevisionByStationAndDate(anyLong(), any()))
-                .thenReturn(previsionDTO);
-        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(programme);
+        when(forecastDayGrid.getPrevisionsByPeriode(eq(1L), any(), any())).thenReturn(List.of(previsionDTO));
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         LocalDateTime datePlanifiee = LocalDateTime.now().plusDays(1);
         ProgrammeArrosageDTO result = programmeService.scheduleIrrigationBasedOnWeather(1L, 1L, datePlanifiee);
 
+        // La pluie prévue couvre les besoins : aucun volume à apporter
         assertNotNull(result);
-        // Volume should be reduced due to high rain probability
-        verify(programmeRepository, times(1)).save(any(ProgrammeArrosage.class));
+        assertEquals(0, result.getVolumePrevu().signum());
+        assertEquals(0, result.getDuree());
     }
 
     @Test
-    void testScheduleIrrigationBasedOnWeather_CircuitBreakerFallback() {
+    void testScheduleIrrigationFallback_UsesDefaultNeeds() {
         when(parcelleRepository.findById(1L)).thenReturn(Optional.of(parcelle));
-        when(meteoServiceClient.getPrevisionByStationAndDate(anyLong(), any()))
-                .thenThrow(new RuntimeException("Service unavailable"));
+        when(programmeRepository.save(any(ProgrammeArrosage.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         LocalDateTime datePlanifiee = LocalDateTime.now().plusDays(1);
+        ProgrammeArrosageDTO result = programmeService.scheduleIrrigationFallback(1L, 1L, datePlanifiee,
+                new RuntimeException("Service unavailable"));
 
-        // The circuit breaker should handle the exception and use fallback logic
-        assertDoesNotThrow(() -> {
-            programmeService.scheduleIrrigationBasedOnWeather(1L, 1L, datePlanifiee);
-        });
+        // Sans prévisions, le besoin de base est appliqué : 5000 m² * 5 mm / 1000
+        ArgumentCaptor<ProgrammeArrosage> saved = ArgumentCaptor.forClass(ProgrammeArrosage.class);
+        verify(programmeRepository).save(saved.capture());
+        assertEquals(new BigDecimal("25.00"), saved.getValue().getVolumePrevu());
+        assertEquals(StatutProgramme.PLANIFIE, result.getStatut());
+        verifyNoInteractions(forecastDayGrid);
     }
 
     @Test
@@ -159,7 +175,7 @@ class ProgrammeArrosageServiceTest {
         List<ProgrammeArrosage> programmes = Arrays.asList(programme);
         when(programmeRepository.findByParcelleId(1L)).thenReturn(programmes);
 
-        List<ProgrammeArrosageDTO> results = programmeService.getProgrammesByParcelle(1L);
+        List<ProgrammeArrosageDTO> results = programmeService.findByParcelleId(1L);
 
         assertNotNull(results);
         assertEquals(1, results.size());
@@ -169,14 +185,16 @@ class ProgrammeArrosageServiceTest {
     @Test
     void testUpdateProgramme() {
         when(programmeRepository.findById(1L)).thenReturn(Optional.of(programme));
-        when(parcelleRepository.findById(1L)).thenReturn(Optional.of(parcelle));
         when(programmeRepository.save(any(ProgrammeArrosage.class))).thenReturn(programme);
 
         programmeDTO.setDuree(90);
-        ProgrammeArrosageDTO result = programmeService.updateProgramme(1L, programmeDTO);
+        ProgrammeArrosageDTO result = programmeService.update(1L, programmeDTO);
 
         assertNotNull(result);
+        assertEquals(90, result.getDuree());
+        verify(parcelleRepository, never()).findById(any());
         verify(programmeRepository, times(1)).save(any(ProgrammeArrosage.class));
+        verify(timeWheelDispatcher).onProgrammeSaved(programme);
     }
 
     @Test
@@ -184,9 +202,10 @@ class ProgrammeArrosageServiceTest {
         when(programmeRepository.existsById(1L)).thenReturn(true);
         doNothing().when(programmeRepository).deleteById(1L);
 
-        programmeService.deleteProgramme(1L);
+        programmeService.delete(1L);
 
         verify(programmeRepository, times(1)).existsById(1L);
         verify(programmeRepository, times(1)).deleteById(1L);
+        verify(timeWheelDispatcher).onProgrammeDeleted(1L);
     }
 }
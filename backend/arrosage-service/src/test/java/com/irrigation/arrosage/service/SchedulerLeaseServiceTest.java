@@ -0,0 +1,122 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.repository.SchedulerLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLeaseServiceTest {
+
+    @Mock
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testRunIfLeader_RunsTaskWhenLeaseAcquired() {
+        // Given
+        SchedulerLeaseService leaseService = leaseService(true);
+        when(leaseRepository.tryAcquire(eq(SchedulerLeaseService.JOB_EXECUTION), eq(leaseService.getOwner()), eq(30_000L)))
+                .thenReturn(3L);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // When
+        boolean leader = leaseService.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, () -> ran.set(true));
+
+        // Then
+        assertThat(leader).isTrue();
+        assertThat(ran).isTrue();
+        assertThat(leaseService.isLeader(SchedulerLeaseService.JOB_EXECUTION)).isTrue();
+        assertThat(meterRegistry.get("irrigation.scheduler.leader")
+                .tag("job", SchedulerLeaseService.JOB_EXECUTION).gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testRunIfLeader_SkipsTaskWhenLeaseHeldByAnotherInstance() {
+        // Given
+        SchedulerLeaseService leaseService = leaseService(true);
+        when(leaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(null);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // When
+        boolean leader = leaseService.runIfLeader(SchedulerLeaseService.JOB_CLEANUP, () -> ran.set(true));
+
+        // Then
+        assertThat(leader).isFalse();
+        assertThat(ran).isFalse();
+        assertThat(leaseService.isLeader(SchedulerLeaseService.JOB_CLEANUP)).isFalse();
+    }
+
+    @Test
+    void testCheckFence_ThrowsWhenLeaseTakenOver() {
+        // Given - le bail a été repris par une autre instance pendant la tâche
+        SchedulerLeaseService leaseService = leaseService(true);
+        when(leaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(3L);
+        when(leaseRepository.findValidToken(SchedulerLeaseService.JOB_EXECUTION, leaseService.getOwner()))
+                .thenReturn(null);
+
+        // When/Then
+        assertThatThrownBy(() -> leaseService.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, leaseService::checkFence))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("perdu");
+        assertThat(leaseService.isLeader(SchedulerLeaseService.JOB_EXECUTION)).isFalse();
+    }
+
+    @Test
+    void testCheckFence_PassesWithCurrentTokenAndOutsideLeaderTask() {
+        // Given
+        SchedulerLeaseService leaseService = leaseService(true);
+        when(leaseRepository.tryAcquire(anyString(), anyString(), anyLong())).thenReturn(3L);
+        when(leaseRepository.findValidToken(SchedulerLeaseService.JOB_EXECUTION, leaseService.getOwner()))
+                .thenReturn(3L);
+
+        // When
+        leaseService.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, leaseService::checkFence);
+        leaseService.checkFence();
+
+        // Then - hors tâche élue, le bail n'est pas relu
+        verify(leaseRepository, times(1)).findValidToken(anyString(), anyString());
+    }
+
+    @Test
+    void testDisabled_RunsTaskWithoutLease() {
+        // Given
+        SchedulerLeaseService leaseService = leaseService(false);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // When
+        boolean leader = leaseService.runIfLeader(SchedulerLeaseService.JOB_EXECUTION, () -> {
+            leaseService.checkFence();
+            ran.set(true);
+        });
+        leaseService.renewLeases();
+        leaseService.releaseLeases();
+
+        // Then
+        assertThat(leader).isTrue();
+        assertThat(ran).isTrue();
+        verifyNoInteractions(leaseRepository);
+    }
+
+    private SchedulerLeaseService leaseService(boolean enabled) {
+        return new SchedulerLeaseService(leaseRepository, transactionManager, meterRegistry, enabled,
+                Duration.ofSeconds(30), "arrosage-test");
+    }
+}
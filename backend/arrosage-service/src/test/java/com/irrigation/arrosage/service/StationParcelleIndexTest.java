@@ -0,0 +1,69 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.Parcelle;
+import com.irrigation.arrosage.repository.ParcelleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StationParcelleIndexTest {
+
+    @Mock
+    private ParcelleRepository parcelleRepository;
+
+    @InjectMocks
+    private StationParcelleIndex stationParcelleIndex;
+
+    @Test
+    void testGetAffectedParcelleIds_StationParcellesAndUnlinkedOnes() {
+        // Given - parcelles 1 et 2 sur la station 10, 3 sur la station 20, 4 sans station
+        when(parcelleRepository.findStationLinks()).thenReturn(List.of(
+                link(1L, 10L), link(2L, 10L), link(3L, 20L), link(4L, null)));
+
+        // When/Then
+        assertThat(stationParcelleIndex.getAffectedParcelleIds(10L)).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(stationParcelleIndex.getAffectedParcelleIds(20L)).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(stationParcelleIndex.getAffectedParcelleIds(30L)).containsExactly(4L);
+        // Chargé une seule fois
+        verify(parcelleRepository, times(1)).findStationLinks();
+    }
+
+    @Test
+    void testOnParcelleSavedAndDeleted_UpdatesIndexWithoutReload() {
+        // Given
+        when(parcelleRepository.findStationLinks()).thenReturn(List.of(link(1L, 10L), link(2L, 10L)));
+        stationParcelleIndex.refresh();
+
+        // When - hors transaction, la modification est appliquée immédiatement
+        stationParcelleIndex.onParcelleSaved(Parcelle.builder().id(2L).stationId(20L).build());
+        stationParcelleIndex.onParcelleSaved(Parcelle.builder().id(5L).stationId(10L).build());
+        stationParcelleIndex.onParcelleDeleted(1L);
+
+        // Then
+        assertThat(stationParcelleIndex.getAffectedParcelleIds(10L)).containsExactly(5L);
+        assertThat(stationParcelleIndex.getAffectedParcelleIds(20L)).containsExactly(2L);
+        verify(parcelleRepository, times(1)).findStationLinks();
+    }
+
+    private static ParcelleRepository.StationLink link(Long id, Long stationId) {
+        return new ParcelleRepository.StationLink() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getStationId() {
+                return stationId;
+            }
+        };
+    }
+}
@@ -0,0 +1,219 @@
+package com.irrigation.arrosage.service;
+
+import com.irrigation.arrosage.entity.ProgrammeArrosage;
+import com.irrigation.arrosage.entity.ProgrammeArrosage.StatutProgramme;
+import com.irrigation.arrosage.event.WeatherChangeEvent;
+import com.irrigation.arrosage.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.arrosage.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.arrosage.exception.DuplicateWeatherEventException;
+import com.irrigation.arrosage.repository.ProgrammeArrosageRepository;
+import com.irrigation.arrosage.rules.WeatherRuleEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WeatherBasedSchedulingServiceTest {
+
+    private static final LocalDateTime TOMORROW = LocalDateTime.of(2025, 11, 19, 8, 0);
+
+    @Mock
+    private ProgrammeArrosageRepository programmeRepository;
+
+    @Mock
+    private StationParcelleIndex stationParcelleIndex;
+
+    @Mock
+    private ProcessedWeatherEventStore processedWeatherEventStore;
+
+    @Spy
+    private WeatherRuleEngine weatherRuleEngine =
+            new WeatherRuleEngine(new DefaultResourceLoader(), "classpath:weather-rules.json");
+
+    @InjectMocks
+    private WeatherBasedSchedulingService weatherBasedSchedulingService;
+
+    @Test
+    void testHandleWeatherChange_OnlyLooksUpProgrammesOfTheStationParcelles() {
+        // Given
+        ProgrammeArrosage programme = programme(1L);
+        when(stationParcelleIndex.getAffectedParcelleIds(10L)).thenReturn(Set.of(1L, 2L));
+        when(programmeRepository.findByParcelleIdInAndDatePlanifieeBetweenAndStatut(
+                any(), eq(TOMORROW.minusHours(12)), eq(TOMORROW.plusHours(36)), eq(StatutProgramme.PLANIFIE)))
+                .thenReturn(List.of(programme));
+
+        // When - pluie forte
+        weatherBasedSchedulingService.handleWeatherChange(event(10L, ChangeSeverity.CRITICAL, 0.0, 30.0));
+
+        // Then
+        assertThat(programme.getStatut()).isEqualTo(StatutProgramme.ANNULE);
+        verify(programmeRepository).findByParcelleIdInAndDatePlanifieeBetweenAndStatut(
+                argThat(ids -> ids.containsAll(List.of(1L, 2L)) && ids.size() == 2), any(), any(), any());
+        verify(programmeRepository, never()).findByDatePlanifieeBetweenAndStatut(any(), any(), any());
+    }
+
+    @Test
+    void testHandleWeatherChange_StationWithoutParcellesTouchesNothing() {
+        // Given
+        when(stationParcelleIndex.getAffectedParcelleIds(99L)).thenReturn(Set.of());
+
+        // When
+        weatherBasedSchedulingService.handleWeatherChange(event(99L, ChangeSeverity.HIGH, 0.0, 15.0));
+
+        // Then
+        verify(programmeRepository, never()).findByParcelleIdInAndDatePlanifieeBetweenAndStatut(any(), any(), any(), any());
+        verify(programmeRepository).saveAll(List.of());
+    }
+
+    @Test
+    void testHandleWeatherChange_BulkPathIssuesOneUpdatePerParcelleChunk() {
+        // Given
+        ReflectionTestUtils.setField(weatherBasedSchedulingService, "bulkUpdateEnabled", true);
+        Set<Long> parcelleIds = LongStream.rangeClosed(1, 1500).boxed().collect(Collectors.toSet());
+        when(stationParcelleIndex.getAffectedParcelleIds(10L)).thenReturn(parcelleIds);
+        when(programmeRepository.adjustPlannedProgrammes(any(), any(), any(), any(), any(), any()))
+                .thenReturn(700, 300);
+
+        // When - vent fort : durée +40 %
+        weatherBasedSchedulingService.handleCriticalWeatherChange(new WeatherChangeEvent(10L, "Station 10",
+                new WeatherConditions(25.0, 15.0, 0.0, 10.0, TOMORROW),
+                new WeatherConditions(25.0, 15.0, 0.0, 45.0, TOMORROW),
+                TOMORROW.minusDays(1), ChangeSeverity.CRITICAL, "Vent fort"));
+
+        // Then - aucune entité chargée, deux UPDATE (1000 + 500 parcelles)
+        verify(programmeRepository).adjustPlannedProgrammes(argThat(ids -> ids.size() == 1000),
+                eq(TOMORROW.minusHours(12)), eq(TOMORROW.plusHours(36)), eq("PLANIFIE"),
+                argThat(factor -> factor.compareTo(BigDecimal.ONE) == 0),
+                argThat(factor -> factor.compareTo(new BigDecimal("1.4")) == 0));
+        verify(programmeRepository).adjustPlannedProgrammes(argThat(ids -> ids.size() == 500),
+                any(), any(), any(), any(), any());
+        verify(programmeRepository, never()).findByParcelleIdInAndDatePlanifieeBetweenAndStatut(any(), any(), any(), any());
+        verify(programmeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testHandleWeatherChange_BulkPathCancelsForHeavyRain() {
+        // Given
+        ReflectionTestUtils.setField(weatherBasedSchedulingService, "bulkUpdateEnabled", true);
+        when(stationParcelleIndex.getAffectedParcelleIds(10L)).thenReturn(Set.of(1L));
+
+        // When
+        weatherBasedSchedulingService.handleWeatherChange(event(10L, ChangeSeverity.CRITICAL, 0.0, 30.0));
+
+        // Then
+        verify(programmeRepository).adjustPlannedProgrammes(eq(List.of(1L)), any(), any(), eq("ANNULE"),
+                eq(BigDecimal.ONE), eq(BigDecimal.ONE));
+    }
+
+    @Test
+    void testApplyWeatherChanges_RecordsSourceEventsBeforeAdjusting() {
+        // Given
+        ReflectionTestUtils.setField(weatherBasedSchedulingService, "bulkUpdateEnabled", true);
+        when(stationParcelleIndex.getAffectedParcelleIds(10L)).thenReturn(Set.of(1L));
+
+        // When
+        weatherBasedSchedulingService.applyWeatherChanges(
+                List.of(event(10L, ChangeSeverity.CRITICAL, 0.0, 30.0)), List.of("event-1", "event-2"));
+
+        // Then
+        InOrder inOrder = inOrder(processedWeatherEventStore, programmeRepository);
+        inOrder.verify(processedWeatherEventStore).markProcessed(List.of("event-1", "event-2"));
+        inOrder.verify(programmeRepository).adjustPlannedProgrammes(any(), any(), any(), eq("ANNULE"), any(), any());
+    }
+
+    @Test
+    void testApplyWeatherChanges_DuplicateEventChangesNothing() {
+        // Given
+        doThrow(new DuplicateWeatherEventException("1 of 1 weather event(s) already applied"))
+                .when(processedWeatherEventStore).markProcessed(any());
+
+        // When/Then
+        assertThatThrownBy(() -> weatherBasedSchedulingService.applyWeatherChanges(
+                List.of(event(10L, ChangeSeverity.CRITICAL, 0.0, 30.0)), List.of("event-1")))
+                .isInstanceOf(DuplicateWeatherEventException.class);
+        verifyNoInteractions(programmeRepository, stationParcelleIndex);
+    }
+
+    @Test
+    void testWeatherAdjustment_EntityPathMatchesSetBasedRounding() {
+        // Given
+        ProgrammeArrosage programme = programme(1L);
+        programme.setVolumePrevu(new BigDecimal("10.05"));
+        programme.setDuree(59);
+
+        // When - volume x0.75 (arrondi HALF_UP), durée x1.1 (tronquée)
+        WeatherAdjustment.scale(0.75, 1.1, "test").applyTo(programme);
+
+        // Then - ROUND(10.05 * 0.75, 2) = 7.54 ; TRUNC(59 * 1.1) = 64
+        assertThat(programme.getVolumePrevu()).isEqualByComparingTo("7.54");
+        assertThat(programme.getDuree()).isEqualTo(64);
+        assertThat(programme.getStatut()).isEqualTo(StatutProgramme.PLANIFIE);
+        assertThat(WeatherAdjustment.scale(1, 1, "none").isNone()).isTrue();
+    }
+
+    @Test
+    void testWeatherAdjustment_DurationKeepsDoubleTruncation() {
+        // Given - 45 x 1.4 vaut 62.99999999999999 en double
+        ProgrammeArrosage programme = programme(1L);
+        programme.setDuree(45);
+
+        // When
+        WeatherAdjustment.scale(1, 1.4, "wind").applyTo(programme);
+
+        // Then - même durée qu'avant les ajustements : (int) (45 * 1.4)
+        assertThat(programme.getDuree()).isEqualTo(62);
+    }
+
+    @Test
+    void testWeatherAdjustment_DurationMatchesLegacyComputation() {
+        // Given - facteurs de durée des règles météo
+        for (double factor : new double[]{1.1, 1.2, 1.4}) {
+            for (int duree = 1; duree <= 2000; duree++) {
+                ProgrammeArrosage programme = programme(1L);
+                programme.setDuree(duree);
+
+                // When
+                WeatherAdjustment.scale(1, factor, "test").applyTo(programme);
+
+                // Then
+                assertThat(programme.getDuree()).as("%d x %s", duree, factor).isEqualTo((int) (duree * factor));
+            }
+        }
+    }
+
+    private static ProgrammeArrosage programme(Long id) {
+        ProgrammeArrosage programme = new ProgrammeArrosage();
+        programme.setId(id);
+        programme.setStatut(StatutProgramme.PLANIFIE);
+        programme.setDatePlanifiee(TOMORROW);
+        programme.setDuree(60);
+        programme.setVolumePrevu(BigDecimal.valueOf(25.00));
+        return programme;
+    }
+
+    private static WeatherChangeEvent event(Long stationId, ChangeSeverity severity, double oldPluie, double newPluie) {
+        return new WeatherChangeEvent(stationId, "Station " + stationId,
+                new WeatherConditions(25.0, 15.0, oldPluie, 10.0, TOMORROW),
+                new WeatherConditions(25.0, 15.0, newPluie, 10.0, TOMORROW),
+                TOMORROW.minusDays(1), severity, "Changement météo");
+    }
+}
@@ -1,7 +1,10 @@
 package com.irrigation.meteo.config;
 
+import com.irrigation.meteo.event.WeatherChangeEvent;
+import com.irrigation.meteo.kafka.WeatherChangeEventAvroSerializer;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -10,9 +13,11 @@ import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
@@ -24,17 +29,56 @@ public class KafkaProducerConfig {
     @Value("${app.kafka.topic.weather-change}")
     private String weatherChangeTopic;
 
+    @Value("${app.kafka.weather-change.serialization:avro}")
+    private String serialization;
+
+    @Value("${app.kafka.producer.compression-type:zstd}")
+    private String compressionType;
+
+    @Value("${app.kafka.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${app.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${app.kafka.producer.max-block-ms:5000}")
+    private int maxBlockMs;
+
+    @Value("${app.kafka.producer.request-timeout-ms:10000}")
+    private int requestTimeoutMs;
+
+    @Value("${app.kafka.producer.delivery-timeout-ms:25000}")
+    private int deliveryTimeoutMs;
+
+    /**
+     * Les changements météo sont écrits en Avro binaire (schéma local versionné), ou en JSON
+     * avec serialization=json pour les consommateurs pas encore migrés.
+     * Les envois sont regroupés pendant linger-ms puis compressés par lot (zstd, ou lz4).
+     * Un envoi abandonne avant le délai d'attente du relais de l'outbox (delivery-timeout-ms) :
+     * le lot republié ne double pas des enregistrements encore en attente dans le producteur.
+     */
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        if ("avro".equalsIgnoreCase(serialization)) {
+            serializers.put(WeatherChangeEvent.class, new WeatherChangeEventAvroSerializer());
+        }
+        serializers.put(Object.class, new JsonSerializer<>());
+        return new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), new DelegatingByTypeSerializer(serializers, true));
     }
 
     @Bean
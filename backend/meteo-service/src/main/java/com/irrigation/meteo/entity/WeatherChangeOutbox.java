@@ -0,0 +1,81 @@
+package com.irrigation.meteo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entité représentant un changement de prévision en attente de publication
+ * Une seule ligne ouverte aux fusions par station et date : conditions avant la première mise à jour
+ * non publiée, conditions après la dernière.
+ */
+@Entity
+@Table(name = "weather_change_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WeatherChangeOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "station_id", nullable = false)
+    private Long stationId;
+
+    @Column(name = "station_nom", length = 100)
+    private String stationNom;
+
+    @Column(name = "forecast_date", nullable = false)
+    private LocalDate forecastDate;
+
+    @Column(name = "old_date")
+    private LocalDate oldDate;
+
+    @Column(name = "old_temperature_max")
+    private Double oldTemperatureMax;
+
+    @Column(name = "old_temperature_min")
+    private Double oldTemperatureMin;
+
+    @Column(name = "old_pluie_prevue")
+    private Double oldPluiePrevue;
+
+    @Column(name = "old_vent")
+    private Double oldVent;
+
+    @Column(name = "new_temperature_max")
+    private Double newTemperatureMax;
+
+    @Column(name = "new_temperature_min")
+    private Double newTemperatureMin;
+
+    @Column(name = "new_pluie_prevue")
+    private Double newPluiePrevue;
+
+    @Column(name = "new_vent")
+    private Double newVent;
+
+    @Column(name = "first_changed_at", nullable = false)
+    private LocalDateTime firstChangedAt;
+
+    @Column(name = "last_changed_at", nullable = false)
+    private LocalDateTime lastChangedAt;
+
+    @Column(nullable = false)
+    private int updates;
+
+    /** Prise en charge par le relais, null si aucun envoi n'est en cours */
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    /** Envois tentés : une ligne déjà envoyée peut être sur Kafka, elle n'est plus fusionnée */
+    @Column(name = "publish_attempts", nullable = false)
+    private int publishAttempts;
+}
@@ -0,0 +1,44 @@
+package com.irrigation.meteo.event;
+
+import com.irrigation.meteo.event.WeatherChangeEvent.ChangeSeverity;
+
+/**
+ * Seuils de sévérité d'un changement météo, en table plate
+ *
+ * Pour chaque niveau (CRITICAL, HIGH, MEDIUM, du plus grave au moins grave) : écarts de pluie (mm),
+ * de température maximale (°C) et de vent (km/h) au-delà desquels le changement atteint ce niveau.
+ */
+public final class SeverityThresholds {
+
+    private static final ChangeSeverity[] LEVELS = {ChangeSeverity.CRITICAL, ChangeSeverity.HIGH, ChangeSeverity.MEDIUM};
+
+    /** Seuils historiques */
+    public static final SeverityThresholds DEFAULT = new SeverityThresholds(
+            new double[]{20, 10, 20},
+            new double[]{10, 5, 10},
+            new double[]{5, 3, 5});
+
+    /** [niveau * 3 + (0 pluie, 1 température, 2 vent)] */
+    private final double[] thresholds = new double[LEVELS.length * 3];
+
+    public SeverityThresholds(double[] critical, double[] high, double[] medium) {
+        double[][] levels = {critical, high, medium};
+        for (int level = 0; level < levels.length; level++) {
+            if (levels[level] == null || levels[level].length != 3) {
+                throw new IllegalArgumentException(
+                        "Severity thresholds of " + LEVELS[level] + " need 3 values: rain, temperature, wind");
+            }
+            System.arraycopy(levels[level], 0, thresholds, level * 3, 3);
+        }
+    }
+
+    public ChangeSeverity classify(double rainDiff, double tempDiff, double windDiff) {
+        for (int level = 0; level < LEVELS.length; level++) {
+            int offset = level * 3;
+            if (rainDiff > thresholds[offset] || tempDiff > thresholds[offset + 1] || windDiff > thresholds[offset + 2]) {
+                return LEVELS[level];
+            }
+        }
+        return ChangeSeverity.LOW;
+    }
+}
@@ -5,12 +5,18 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class WeatherChangeEvent {
     
+    /**
+     * Identifiant unique de l'événement : arrosage-service s'en sert pour n'appliquer
+     * qu'une fois un événement relivré
+     */
+    private String eventId;
     private Long stationId;
     private String stationNom;
     private WeatherConditions oldConditions;
@@ -19,6 +25,13 @@ public class WeatherChangeEvent {
     private ChangeSeverity severity;
     private String description;
     
+    public WeatherChangeEvent(Long stationId, String stationNom, WeatherConditions oldConditions,
+                              WeatherConditions newConditions, LocalDateTime timestamp,
+                              ChangeSeverity severity, String description) {
+        this(UUID.randomUUID().toString(), stationId, stationNom, oldConditions, newConditions,
+                timestamp, severity, description);
+    }
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -59,30 +72,19 @@ public class WeatherChangeEvent {
     }
     
     public static ChangeSeverity calculateSeverity(WeatherConditions oldCond, WeatherConditions newCond) {
+        return calculateSeverity(oldCond, newCond, SeverityThresholds.DEFAULT);
+    }
+    
+    public static ChangeSeverity calculateSeverity(WeatherConditions oldCond, WeatherConditions newCond,
+                                                   SeverityThresholds thresholds) {
         if (oldCond == null || newCond == null) {
             return ChangeSeverity.LOW;
         }
         
-        double tempDiff = oldCond.getTemperatureDifference(newCond);
-        double rainDiff = oldCond.getRainDifference(newCond);
-        double windDiff = oldCond.getWindSpeedDifference(newCond);
-        
-        // Check for critical conditions
-        if (rainDiff > 20 || tempDiff > 10 || windDiff > 20) {
-            return ChangeSeverity.CRITICAL;
-        }
-        
-        // Check for high severity
-        if (rainDiff > 10 || tempDiff > 5 || windDiff > 10) {
-            return ChangeSeverity.HIGH;
-        }
-        
-        // Check for medium severity
-        if (rainDiff > 5 || tempDiff > 3 || windDiff > 5) {
-            return ChangeSeverity.MEDIUM;
-        }
-        
-        return ChangeSeverity.LOW;
+        return thresholds.classify(
+                oldCond.getRainDifference(newCond),
+                oldCond.getTemperatureDifference(newCond),
+                oldCond.getWindSpeedDifference(newCond));
     }
     
     public static String generateDescription(WeatherConditions oldCond, WeatherConditions newCond) {
@@ -8,7 +8,12 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class KafkaWeatherProducer {
@@ -25,6 +30,10 @@ public class KafkaWeatherProducer {
         this.weatherChangeTopic = weatherChangeTopic;
     }
 
+    /**
+     * Fire-and-forget send, outside of any database transaction
+     * Forecast updates do not call it: their changes go through the outbox and the relay.
+     */
     public void publishWeatherChange(WeatherChangeEvent event) {
         try {
             String key = "station-" + event.getStationId();
@@ -71,4 +80,30 @@ public class KafkaWeatherProducer {
             throw new RuntimeException("Failed to publish weather change event", e);
         }
     }
+
+    /**
+     * Publish a batch of events and wait until every one is acknowledged
+     * The records are sent back to back so the producer can group them by partition;
+     * events of the same station keep their order in the list.
+     */
+    public void publishWeatherChanges(List<WeatherChangeEvent> events, long timeoutMs) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(events.size());
+        for (WeatherChangeEvent event : events) {
+            futures.add(kafkaTemplate.send(weatherChangeTopic, "station-" + event.getStationId(), event));
+        }
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(timeoutMs, TimeUnit.MILLISECONDS);
+            logger.info("Published {} weather change event(s) to topic {}", events.size(), weatherChangeTopic);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while publishing weather change events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            logger.error("Error publishing {} weather change event(s): {}", events.size(), e.getMessage());
+            throw new RuntimeException("Failed to publish weather change events", e);
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package com.irrigation.meteo.kafka;
+
+import com.irrigation.meteo.event.WeatherChangeEvent;
+import com.irrigation.meteo.event.WeatherChangeEventAvro;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Sérialiseur Kafka des changements météo au format binaire Avro (voir {@link WeatherChangeEventAvro})
+ */
+public class WeatherChangeEventAvroSerializer implements Serializer<WeatherChangeEvent> {
+
+    @Override
+    public byte[] serialize(String topic, WeatherChangeEvent event) {
+        return event != null ? WeatherChangeEventAvro.encode(event) : null;
+    }
+}
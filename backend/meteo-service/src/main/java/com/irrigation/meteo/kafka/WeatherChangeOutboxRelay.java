@@ -0,0 +1,164 @@
+package com.irrigation.meteo.kafka;
+
+import com.irrigation.meteo.entity.WeatherChangeOutbox;
+import com.irrigation.meteo.event.SeverityThresholds;
+import com.irrigation.meteo.event.WeatherChangeEvent;
+import com.irrigation.meteo.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.meteo.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.meteo.metrics.MeteoMetricsCollector;
+import com.irrigation.meteo.repository.WeatherChangeOutboxRepository;
+import com.irrigation.meteo.service.WeatherChangeOutboxService;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publication par lots des changements de prévision en attente
+ *
+ * Un changement est publié une fois sa fenêtre de regroupement écoulée depuis sa première mise à jour :
+ * une rafale de mises à jour d'une même station et date donne un seul événement, du premier état au dernier.
+ * La sévérité est calculée sur ce changement net ; un changement net faible n'est pas publié.
+ * Les lignes sont réclamées dans une transaction courte (SKIP LOCKED), envoyées hors transaction puis
+ * supprimées une fois l'accusé de Kafka reçu : une panne de Kafka ne bloque pas les mises à jour de prévision.
+ * En cas d'échec elles sont rendues et republiées avec le même identifiant ; celles d'un relais arrêté
+ * en cours d'envoi sont reprises après {@code claim-timeout-ms}. Un changement n'est envoyé qu'une fois
+ * le précédent de sa station et date publié : ils arrivent dans l'ordre sur la partition de la station.
+ */
+@Component
+@Slf4j
+public class WeatherChangeOutboxRelay {
+
+    private final WeatherChangeOutboxRepository outboxRepository;
+    private final KafkaWeatherProducer kafkaWeatherProducer;
+    private final SeverityThresholds severityThresholds;
+    private final MeteoMetricsCollector metricsCollector;
+    private final TransactionTemplate transactionTemplate;
+    private final long windowMs;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long claimTimeoutMs;
+
+    public WeatherChangeOutboxRelay(
+            WeatherChangeOutboxRepository outboxRepository,
+            KafkaWeatherProducer kafkaWeatherProducer,
+            SeverityThresholds severityThresholds,
+            MeteoMetricsCollector metricsCollector,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.weather.outbox.window-ms:5000}") long windowMs,
+            @Value("${app.weather.outbox.batch-size:500}") int batchSize,
+            @Value("${app.weather.outbox.send-timeout-ms:30000}") long sendTimeoutMs,
+            @Value("${app.weather.outbox.claim-timeout-ms:60000}") long claimTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaWeatherProducer = kafkaWeatherProducer;
+        this.severityThresholds = severityThresholds;
+        this.metricsCollector = metricsCollector;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowMs = windowMs;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+    }
+
+    /**
+     * Publier tous les changements dont la fenêtre est close, lot par lot
+     */
+    @Scheduled(fixedDelayString = "${app.weather.outbox.publish-interval-ms:1000}")
+    public void publishPending() {
+        try {
+            int claimed;
+            do {
+                claimed = publishBatch();
+            } while (claimed == batchSize);
+        } catch (RuntimeException e) {
+            metricsCollector.incrementOutboxPublishFailures();
+            log.error("Weather change publication failed, pending changes will be retried: {}", e.getMessage());
+        } finally {
+            refreshLag();
+        }
+    }
+
+    private void refreshLag() {
+        try {
+            metricsCollector.setOldestPendingChange(outboxRepository.findOldestFirstChangedAt().orElse(null));
+        } catch (RuntimeException e) {
+            log.debug("Cannot read the oldest pending weather change: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Réclamer un lot, l'envoyer puis le retirer de l'outbox
+     *
+     * @return nombre de changements retirés de l'outbox
+     */
+    int publishBatch() {
+        List<WeatherChangeOutbox> changes = transactionTemplate.execute(status -> claimBatch());
+        if (changes == null || changes.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = changes.stream().map(WeatherChangeOutbox::getId).toList();
+        List<WeatherChangeEvent> events = new ArrayList<>(changes.size());
+        for (WeatherChangeOutbox change : changes) {
+            WeatherChangeEvent event = toEvent(change);
+            if (event.getSeverity() != ChangeSeverity.LOW) {
+                events.add(event);
+            }
+        }
+        try {
+            Timer.Sample sample = metricsCollector.startOutboxPublishTimer();
+            kafkaWeatherProducer.publishWeatherChanges(events, sendTimeoutMs);
+            metricsCollector.recordOutboxPublishTime(sample);
+        } catch (RuntimeException e) {
+            releaseClaims(ids);
+            throw e;
+        }
+        outboxRepository.deleteAllByIdInBatch(ids);
+        metricsCollector.incrementOutboxEventsPublished(events.size());
+        log.info("Published {} weather change event(s) from {} pending change(s)", events.size(), changes.size());
+        return changes.size();
+    }
+
+    /**
+     * Réclamer les changements prêts : ils ne seront plus fusionnés, ni réclamés par un autre relais
+     */
+    private List<WeatherChangeOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<WeatherChangeOutbox> changes = outboxRepository.claimReady(
+                now.minusNanos(windowMs * 1_000_000), now.minusNanos(claimTimeoutMs * 1_000_000), batchSize);
+        for (WeatherChangeOutbox change : changes) {
+            change.setClaimedAt(now);
+            change.setPublishAttempts(change.getPublishAttempts() + 1);
+        }
+        return changes;
+    }
+
+    private void releaseClaims(List<Long> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.releaseClaims(ids));
+        } catch (RuntimeException e) {
+            log.warn("Cannot release {} weather change(s), they will be retried after the claim timeout: {}",
+                    ids.size(), e.getMessage());
+        }
+    }
+
+    WeatherChangeEvent toEvent(WeatherChangeOutbox change) {
+        WeatherConditions oldConditions = WeatherChangeOutboxService.oldConditions(change);
+        WeatherConditions newConditions = WeatherChangeOutboxService.newConditions(change);
+        return new WeatherChangeEvent(
+                "outbox-" + change.getId() + "-" + change.getUpdates(),
+                change.getStationId(),
+                change.getStationNom(),
+                oldConditions,
+                newConditions,
+                change.getLastChangedAt(),
+                WeatherChangeEvent.calculateSeverity(oldConditions, newConditions, severityThresholds),
+                WeatherChangeEvent.generateDescription(oldConditions, newConditions));
+    }
+}
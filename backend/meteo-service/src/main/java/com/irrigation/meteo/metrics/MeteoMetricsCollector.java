@@ -1,12 +1,17 @@
 package com.irrigation.meteo.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Custom metrics collector for Meteo Service
  * Tracks business-specific metrics for monitoring and observability
@@ -29,6 +34,12 @@ public class MeteoMetricsCollector {
     private Timer weatherApiFetchTimer;
     private Timer previsionProcessingTimer;
     
+    // Weather change outbox relay
+    private Counter outboxEventsPublishedCounter;
+    private Counter outboxPublishFailuresCounter;
+    private Timer outboxPublishTimer;
+    private final AtomicReference<LocalDateTime> oldestPendingChange = new AtomicReference<>();
+    
     @PostConstruct
     private void initializeMetrics() {
         // Initialize counters
@@ -74,6 +85,28 @@ public class MeteoMetricsCollector {
                 .tag("service", "meteo")
                 .publishPercentiles(0.5, 0.95, 0.99)
                 .register(meterRegistry);
+        
+        // Weather change outbox relay
+        outboxEventsPublishedCounter = Counter.builder("meteo.outbox.events.published")
+                .description("Total number of weather change events published from the outbox")
+                .tag("service", "meteo")
+                .register(meterRegistry);
+        
+        outboxPublishFailuresCounter = Counter.builder("meteo.outbox.publish.failures")
+                .description("Total number of outbox batches that could not be published")
+                .tag("service", "meteo")
+                .register(meterRegistry);
+        
+        outboxPublishTimer = Timer.builder("meteo.outbox.publish.duration")
+                .description("Time taken to publish one outbox batch to Kafka")
+                .tag("service", "meteo")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        
+        Gauge.builder("meteo.outbox.lag.seconds", this, MeteoMetricsCollector::outboxLagSeconds)
+                .description("Age of the oldest weather change waiting in the outbox, including the coalescing window")
+                .tag("service", "meteo")
+                .register(meterRegistry);
     }
     
     public void incrementPrevisionsFetched() {
@@ -116,6 +149,37 @@ public class MeteoMetricsCollector {
         sample.stop(previsionProcessingTimer);
     }
     
+    public void incrementOutboxEventsPublished(int count) {
+        outboxEventsPublishedCounter.increment(count);
+    }
+    
+    public void incrementOutboxPublishFailures() {
+        outboxPublishFailuresCounter.increment();
+    }
+    
+    public Timer.Sample startOutboxPublishTimer() {
+        return Timer.start(meterRegistry);
+    }
+    
+    public void recordOutboxPublishTime(Timer.Sample sample) {
+        sample.stop(outboxPublishTimer);
+    }
+    
+    /**
+     * Record the first change date of the oldest pending outbox row, null when the outbox is empty
+     */
+    public void setOldestPendingChange(LocalDateTime firstChangedAt) {
+        oldestPendingChange.set(firstChangedAt);
+    }
+    
+    double outboxLagSeconds() {
+        LocalDateTime oldest = oldestPendingChange.get();
+        if (oldest == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+    
     /**
      * Record execution of a weather API call with timing
      * @param supplier Function that performs the API call
@@ -0,0 +1,74 @@
+package com.irrigation.meteo.repository;
+
+import com.irrigation.meteo.entity.WeatherChangeOutbox;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour les changements de prévision en attente de publication
+ */
+@Repository
+public interface WeatherChangeOutboxRepository extends JpaRepository<WeatherChangeOutbox, Long> {
+
+    /**
+     * Changement en attente pour cette station et cette date, pas encore envoyé, verrouillé jusqu'à la fin
+     * de la transaction
+     * Le relais ne le verrouille que le temps de le réclamer, jamais pendant l'envoi à Kafka.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT o FROM WeatherChangeOutbox o
+            WHERE o.stationId = :stationId AND o.forecastDate = :forecastDate AND o.publishAttempts = 0
+            """)
+    Optional<WeatherChangeOutbox> findUnsentByStationIdAndForecastDate(
+            @Param("stationId") Long stationId,
+            @Param("forecastDate") LocalDate forecastDate);
+
+    /**
+     * Verrouiller les changements à envoyer, les plus anciens d'abord
+     *
+     * Sont prêts : les changements dont la fenêtre de regroupement est close et ceux déjà envoyés sans accusé,
+     * s'ils ne sont pas réclamés par un envoi en cours (ou par un relais arrêté avant {@code expiredBefore}).
+     * Un changement attend que le précédent de sa station et date soit publié : ils arrivent dans l'ordre.
+     * Les lignes déjà verrouillées par une autre instance sont ignorées.
+     */
+    @Query(value = """
+            SELECT * FROM weather_change_outbox o
+            WHERE (o.publish_attempts > 0 OR o.first_changed_at <= :cutoff)
+              AND (o.claimed_at IS NULL OR o.claimed_at <= :expiredBefore)
+              AND NOT EXISTS (
+                  SELECT 1 FROM weather_change_outbox p
+                  WHERE p.station_id = o.station_id AND p.forecast_date = o.forecast_date AND p.id < o.id)
+            ORDER BY o.id
+            LIMIT :limit
+            FOR UPDATE OF o SKIP LOCKED
+            """, nativeQuery = true)
+    List<WeatherChangeOutbox> claimReady(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("expiredBefore") LocalDateTime expiredBefore,
+            @Param("limit") int limit);
+
+    /**
+     * Rendre des changements dont l'envoi a échoué : ils sont renvoyés au passage suivant, avec le même identifiant
+     */
+    @Modifying
+    @Query("UPDATE WeatherChangeOutbox o SET o.claimedAt = null WHERE o.id IN :ids")
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Date du plus ancien changement en attente
+     */
+    @Query("SELECT MIN(o.firstChangedAt) FROM WeatherChangeOutbox o")
+    Optional<LocalDateTime> findOldestFirstChangedAt();
+}
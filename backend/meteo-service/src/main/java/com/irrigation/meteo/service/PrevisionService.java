@@ -3,9 +3,7 @@ package com.irrigation.meteo.service;
 import com.irrigation.meteo.dto.PrevisionDTO;
 import com.irrigation.meteo.entity.Prevision;
 import com.irrigation.meteo.entity.StationMeteo;
-import com.irrigation.meteo.event.WeatherChangeEvent;
 import com.irrigation.meteo.event.WeatherChangeEvent.WeatherConditions;
-import com.irrigation.meteo.kafka.KafkaWeatherProducer;
 import com.irrigation.meteo.repository.PrevisionRepository;
 import com.irrigation.meteo.repository.StationMeteoRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,8 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,7 +26,7 @@ public class PrevisionService {
 
     private final PrevisionRepository previsionRepository;
     private final StationMeteoRepository stationMeteoRepository;
-    private final KafkaWeatherProducer kafkaWeatherProducer;
+    private final WeatherChangeOutboxService weatherChangeOutboxService;
 
     /**
      * Créer une nouvelle prévision
@@ -112,11 +108,13 @@ public class PrevisionService {
         prevision.setPluiePrevue(dto.getPluiePrevue());
         prevision.setVent(dto.getVent());
         
-        Prevision updatedPrevision = previsionRepository.save(prevision);
+        // Écrit tout de suite : deux mises à jour de la même prévision s'attendent ici
+        Prevision updatedPrevision = previsionRepository.saveAndFlush(prevision);
         
-        // Check for significant changes and publish event
+        // Changement enregistré dans l'outbox, publié par lot après la fenêtre de regroupement
         WeatherConditions newConditions = createWeatherConditions(updatedPrevision);
-        detectAndPublishWeatherChange(updatedPrevision.getStation(), oldConditions, newConditions);
+        weatherChangeOutboxService.record(updatedPrevision.getStation(), updatedPrevision.getDate(),
+                oldConditions, newConditions);
         
         return mapToDTO(updatedPrevision);
     }
@@ -132,34 +130,6 @@ public class PrevisionService {
         previsionRepository.deleteById(id);
     }
     
-    /**
-     * Détecter les changements significatifs et publier un événement Kafka
-     */
-    private void detectAndPublishWeatherChange(StationMeteo station, WeatherConditions oldConditions, WeatherConditions newConditions) {
-        WeatherChangeEvent.ChangeSeverity severity = WeatherChangeEvent.calculateSeverity(oldConditions, newConditions);
-        
-        // Only publish events for MEDIUM, HIGH, or CRITICAL severity
-        if (severity == WeatherChangeEvent.ChangeSeverity.LOW) {
-            log.debug("Changement météo de faible sévérité détecté pour la station {} - Événement non publié", station.getId());
-            return;
-        }
-        
-        WeatherChangeEvent event = new WeatherChangeEvent(
-                station.getId(),
-                station.getNom(),
-                oldConditions,
-                newConditions,
-                LocalDateTime.now(),
-                severity,
-                WeatherChangeEvent.generateDescription(oldConditions, newConditions)
-        );
-        
-        log.info("Changement météo significatif détecté pour la station {} avec sévérité {} - Publication de l'événement", 
-                station.getId(), severity);
-        
-        kafkaWeatherProducer.publishWeatherChange(event);
-    }
-    
     /**
      * Créer un objet WeatherConditions à partir d'une Prevision
      */
@@ -0,0 +1,95 @@
+package com.irrigation.meteo.service;
+
+import com.irrigation.meteo.entity.StationMeteo;
+import com.irrigation.meteo.entity.WeatherChangeOutbox;
+import com.irrigation.meteo.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.meteo.repository.WeatherChangeOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Enregistrement des changements de prévision à publier
+ *
+ * Un changement est écrit dans la transaction de la mise à jour : il n'est publié que si elle est validée.
+ * Tant qu'il n'est pas envoyé, les mises à jour suivantes de la même station et date s'y fusionnent ;
+ * si les conditions reviennent à leur valeur initiale, il est supprimé. Une fois envoyé (il peut être
+ * sur Kafka), il n'est plus modifié : la mise à jour suivante ouvre un nouveau changement, sans attendre
+ * l'accusé de Kafka.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WeatherChangeOutboxService {
+
+    private final WeatherChangeOutboxRepository outboxRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(StationMeteo station, LocalDate forecastDate,
+                       WeatherConditions oldConditions, WeatherConditions newConditions) {
+        if (Objects.equals(oldConditions, newConditions)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        WeatherChangeOutbox pending = outboxRepository.findUnsentByStationIdAndForecastDate(station.getId(), forecastDate)
+                .orElse(null);
+
+        if (pending == null) {
+            outboxRepository.save(WeatherChangeOutbox.builder()
+                    .stationId(station.getId())
+                    .stationNom(station.getNom())
+                    .forecastDate(forecastDate)
+                    .oldDate(oldConditions.getDate() != null ? oldConditions.getDate().toLocalDate() : null)
+                    .oldTemperatureMax(oldConditions.getTemperatureMax())
+                    .oldTemperatureMin(oldConditions.getTemperatureMin())
+                    .oldPluiePrevue(oldConditions.getPluiePrevue())
+                    .oldVent(oldConditions.getVent())
+                    .newTemperatureMax(newConditions.getTemperatureMax())
+                    .newTemperatureMin(newConditions.getTemperatureMin())
+                    .newPluiePrevue(newConditions.getPluiePrevue())
+                    .newVent(newConditions.getVent())
+                    .firstChangedAt(now)
+                    .lastChangedAt(now)
+                    .updates(1)
+                    .build());
+            return;
+        }
+
+        if (Objects.equals(oldConditions(pending), newConditions)) {
+            log.debug("Prévision de la station {} du {} revenue à sa valeur initiale - changement annulé",
+                    station.getId(), forecastDate);
+            outboxRepository.delete(pending);
+            return;
+        }
+        pending.setStationNom(station.getNom());
+        pending.setNewTemperatureMax(newConditions.getTemperatureMax());
+        pending.setNewTemperatureMin(newConditions.getTemperatureMin());
+        pending.setNewPluiePrevue(newConditions.getPluiePrevue());
+        pending.setNewVent(newConditions.getVent());
+        pending.setLastChangedAt(now);
+        pending.setUpdates(pending.getUpdates() + 1);
+    }
+
+    /**
+     * Conditions avant la première mise à jour non publiée
+     */
+    public static WeatherConditions oldConditions(WeatherChangeOutbox change) {
+        return new WeatherConditions(change.getOldTemperatureMax(), change.getOldTemperatureMin(),
+                change.getOldPluiePrevue(), change.getOldVent(),
+                change.getOldDate() != null ? change.getOldDate().atStartOfDay() : null);
+    }
+
+    /**
+     * Conditions après la dernière mise à jour
+     */
+    public static WeatherConditions newConditions(WeatherChangeOutbox change) {
+        return new WeatherConditions(change.getNewTemperatureMax(), change.getNewTemperatureMin(),
+                change.getNewPluiePrevue(), change.getNewVent(), change.getForecastDate().atStartOfDay());
+    }
+}
@@ -0,0 +1,28 @@
+-- Changements de prévision en attente de publication Kafka
+-- Une ligne par station et date : les mises à jour successives y sont fusionnées
+-- (conditions initiales conservées, dernières conditions écrasées) jusqu'à publication
+CREATE TABLE weather_change_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    station_id BIGINT NOT NULL,
+    station_nom VARCHAR(100),
+    forecast_date DATE NOT NULL,
+    old_date DATE,
+    old_temperature_max DOUBLE PRECISION,
+    old_temperature_min DOUBLE PRECISION,
+    old_pluie_prevue DOUBLE PRECISION,
+    old_vent DOUBLE PRECISION,
+    new_temperature_max DOUBLE PRECISION,
+    new_temperature_min DOUBLE PRECISION,
+    new_pluie_prevue DOUBLE PRECISION,
+    new_vent DOUBLE PRECISION,
+    first_changed_at TIMESTAMP NOT NULL,
+    last_changed_at TIMESTAMP NOT NULL,
+    updates INT NOT NULL DEFAULT 1,
+    CONSTRAINT uk_outbox_station_date UNIQUE (station_id, forecast_date)
+);
+
+CREATE INDEX idx_outbox_first_changed ON weather_change_outbox(first_changed_at);
+
+COMMENT ON TABLE weather_change_outbox IS 'Changements de prévision en attente de publication, fusionnés par station et date';
+COMMENT ON COLUMN weather_change_outbox.first_changed_at IS 'Première mise à jour non publiée : ouvre la fenêtre de regroupement';
+COMMENT ON COLUMN weather_change_outbox.updates IS 'Nombre de mises à jour fusionnées dans la ligne';
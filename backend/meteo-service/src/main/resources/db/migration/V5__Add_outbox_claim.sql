@@ -0,0 +1,16 @@
+-- Publication outside the database transaction: the relay claims rows in a short transaction,
+-- sends them to Kafka, then deletes them once acknowledged.
+-- A row claimed once may already be on Kafka: it is never merged into again, a new update of the
+-- same station and date opens a new row published after it.
+ALTER TABLE weather_change_outbox ADD COLUMN claimed_at TIMESTAMP;
+ALTER TABLE weather_change_outbox ADD COLUMN publish_attempts INT NOT NULL DEFAULT 0;
+
+ALTER TABLE weather_change_outbox DROP CONSTRAINT uk_outbox_station_date;
+
+-- One row open to merges per station and date
+CREATE UNIQUE INDEX uk_outbox_station_date_unclaimed ON weather_change_outbox(station_id, forecast_date)
+    WHERE publish_attempts = 0;
+
+-- Add comments
+COMMENT ON COLUMN weather_change_outbox.claimed_at IS 'Prise en charge par le relais en cours d''envoi, null sinon';
+COMMENT ON COLUMN weather_change_outbox.publish_attempts IS 'Nombre d''envois tentés : au-delà de 0 la ligne n''est plus fusionnée';
@@ -0,0 +1,48 @@
+package com.irrigation.meteo.event;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Le schéma Avro est copié dans meteo-service et arrosage-service : les deux tests figent
+ * la même empreinte, si bien qu'une modification d'un seul côté fait échouer le build.
+ */
+class WeatherChangeEventAvroSchemaTest {
+
+    /** Empreintes CRC-64 (forme canonique Avro), identiques dans meteo-service et arrosage-service */
+    private static final Map<String, Long> FINGERPRINTS = Map.of(
+            "avro/weather-change-event-v1.avsc", 0xBA4BB5720F2828F3L);
+
+    @Test
+    void testSchemaVersions_MatchSharedFingerprints() throws Exception {
+        // Then - une version modifiée ou ajoutée sans mise à jour des deux services échoue ici
+        assertThat(WeatherChangeEventAvro.SCHEMA_VERSIONS).containsExactlyInAnyOrderElementsOf(FINGERPRINTS.keySet());
+        for (String resource : WeatherChangeEventAvro.SCHEMA_VERSIONS) {
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+                Schema schema = new Schema.Parser().parse(in);
+                assertThat(SchemaNormalization.parsingFingerprint64(schema))
+                        .as(resource)
+                        .isEqualTo(FINGERPRINTS.get(resource));
+            }
+        }
+    }
+
+    @Test
+    void testEncode_WritesCurrentSchemaFingerprint() {
+        // When
+        byte[] data = WeatherChangeEventAvro.encode(new WeatherChangeEvent());
+
+        // Then - marque single object puis empreinte du dernier schéma
+        String current = WeatherChangeEventAvro.SCHEMA_VERSIONS[WeatherChangeEventAvro.SCHEMA_VERSIONS.length - 1];
+        assertThat(ByteBuffer.wrap(data, 2, 8).order(ByteOrder.LITTLE_ENDIAN).getLong())
+                .isEqualTo(FINGERPRINTS.get(current));
+    }
+}
@@ -2,8 +2,11 @@ package com.irrigation.meteo.kafka;
 
 import com.irrigation.meteo.event.WeatherChangeEvent;
 import com.irrigation.meteo.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.meteo.event.WeatherChangeEventAvro;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,11 +18,12 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.KafkaMessageListenerContainer;
 import org.springframework.kafka.listener.MessageListener;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.ContainerTestUtils;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -31,11 +35,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 @EmbeddedKafka(
-        partitions = 1,
-        brokerProperties = {
-                "listeners=PLAINTEXT://localhost:9093",
-                "port=9093"
-        },
+        partitions = 3,
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers",
         topics = {"weather-change-events"}
 )
 @DirtiesContext
@@ -44,6 +45,9 @@ class KafkaWeatherProducerIntegrationTest {
     @Autowired
     private KafkaWeatherProducer kafkaWeatherProducer;
 
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
     @Value("${app.kafka.topic.weather-change}")
     private String topic;
 
@@ -53,16 +57,20 @@ class KafkaWeatherProducerIntegrationTest {
     @BeforeEach
     void setUp() {
         Map<String, Object> configs = new HashMap<>();
-        configs.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9093");
+        configs.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, embeddedKafka.getBrokersAsString());
         configs.put(ConsumerConfig.GROUP_ID_CONFIG, "test-group");
-        configs.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configs.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        configs.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        configs.put(JsonDeserializer.VALUE_DEFAULT_TYPE, WeatherChangeEvent.class);
         configs.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
+        // Les événements sont publiés en Avro binaire
+        Deserializer<WeatherChangeEvent> avroDeserializer = (recordTopic, data) -> {
+            try {
+                return WeatherChangeEventAvro.decode(data);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        };
         DefaultKafkaConsumerFactory<String, WeatherChangeEvent> consumerFactory =
-                new DefaultKafkaConsumerFactory<>(configs);
+                new DefaultKafkaConsumerFactory<>(configs, new StringDeserializer(), avroDeserializer);
 
         ContainerProperties containerProperties = new ContainerProperties(topic);
         container = new KafkaMessageListenerContainer<>(consumerFactory, containerProperties);
@@ -71,7 +79,7 @@ class KafkaWeatherProducerIntegrationTest {
         container.setupMessageListener((MessageListener<String, WeatherChangeEvent>) records::add);
 
         container.start();
-        ContainerTestUtils.waitForAssignment(container, 1);
+        ContainerTestUtils.waitForAssignment(container, embeddedKafka.getPartitionsPerTopic());
     }
 
     @AfterEach
@@ -0,0 +1,170 @@
+package com.irrigation.meteo.kafka;
+
+import com.irrigation.meteo.entity.WeatherChangeOutbox;
+import com.irrigation.meteo.event.SeverityThresholds;
+import com.irrigation.meteo.event.WeatherChangeEvent;
+import com.irrigation.meteo.event.WeatherChangeEvent.ChangeSeverity;
+import com.irrigation.meteo.metrics.MeteoMetricsCollector;
+import com.irrigation.meteo.repository.WeatherChangeOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour WeatherChangeOutboxRelay
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests de la publication des changements météo")
+class WeatherChangeOutboxRelayTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 11, 20);
+
+    @Mock
+    private WeatherChangeOutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaWeatherProducer kafkaWeatherProducer;
+
+    @Mock
+    private MeteoMetricsCollector metricsCollector;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WeatherChangeOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new WeatherChangeOutboxRelay(outboxRepository, kafkaWeatherProducer, SeverityThresholds.DEFAULT,
+                metricsCollector, transactionManager, 5000, 500, 30000, 60000);
+    }
+
+    @Test
+    @DisplayName("Lot prêt - devrait publier le changement net puis vider l'outbox")
+    @SuppressWarnings("unchecked")
+    void testPublishBatch_PublishesNetChangesAndDeletesThem() {
+        // Given - station 1 : 0 → 25 mm en 3 mises à jour ; station 2 : changement net faible
+        WeatherChangeOutbox rain = change(1L, 0.0, 25.0, 3);
+        WeatherChangeOutbox minor = change(2L, 10.0, 11.0, 2);
+        when(outboxRepository.claimReady(any(LocalDateTime.class), any(LocalDateTime.class), eq(500)))
+                .thenReturn(List.of(rain, minor));
+
+        // When
+        int published = relay.publishBatch();
+
+        // Then
+        assertThat(published).isEqualTo(2);
+        ArgumentCaptor<List<WeatherChangeEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(kafkaWeatherProducer).publishWeatherChanges(events.capture(), eq(30000L));
+        assertThat(events.getValue()).hasSize(1);
+        WeatherChangeEvent event = events.getValue().get(0);
+        assertThat(event.getEventId()).isEqualTo("outbox-1-3");
+        assertThat(event.getOldConditions().getPluiePrevue()).isEqualTo(0.0);
+        assertThat(event.getNewConditions().getPluiePrevue()).isEqualTo(25.0);
+        assertThat(event.getSeverity()).isEqualTo(ChangeSeverity.CRITICAL);
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(metricsCollector).incrementOutboxEventsPublished(1);
+    }
+
+    @Test
+    @DisplayName("Envoi - devrait réclamer le lot dans une transaction terminée avant d'attendre Kafka")
+    void testPublishBatch_SendsOutsideTheClaimTransaction() {
+        // Given
+        WeatherChangeOutbox rain = change(1L, 0.0, 25.0, 1);
+        when(outboxRepository.claimReady(any(LocalDateTime.class), any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(rain));
+
+        // When
+        relay.publishBatch();
+
+        // Then - les lignes ne sont plus verrouillées pendant l'envoi, et ne sont plus fusionnées
+        InOrder inOrder = inOrder(transactionManager, kafkaWeatherProducer, outboxRepository);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(kafkaWeatherProducer).publishWeatherChanges(anyList(), anyLong());
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        assertThat(rain.getClaimedAt()).isNotNull();
+        assertThat(rain.getPublishAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Échec Kafka - devrait rendre les changements pour le prochain passage")
+    void testPublishBatch_ReleasesChangesWhenKafkaFails() {
+        // Given
+        when(outboxRepository.claimReady(any(LocalDateTime.class), any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(change(1L, 0.0, 25.0, 1)));
+        doThrow(new RuntimeException("Failed to publish weather change events"))
+                .when(kafkaWeatherProducer).publishWeatherChanges(anyList(), anyLong());
+
+        // When/Then - les lignes restent, republiées avec le même identifiant
+        assertThatThrownBy(() -> relay.publishBatch()).isInstanceOf(RuntimeException.class);
+        verify(outboxRepository).releaseClaims(List.of(1L));
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("Rien à publier - ne devrait pas appeler Kafka")
+    void testPublishBatch_NothingReady() {
+        // Given
+        when(outboxRepository.claimReady(any(LocalDateTime.class), any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of());
+
+        // When
+        int published = relay.publishBatch();
+
+        // Then
+        assertThat(published).isZero();
+        verifyNoInteractions(kafkaWeatherProducer);
+    }
+
+    @Test
+    @DisplayName("Échec de publication - devrait compter l'échec et mettre à jour le retard")
+    void testPublishPending_RecordsFailureAndLag() {
+        // Given
+        LocalDateTime oldest = LocalDateTime.now().minusMinutes(2);
+        when(transactionManager.getTransaction(any())).thenThrow(new RuntimeException("Connection refused"));
+        when(outboxRepository.findOldestFirstChangedAt()).thenReturn(Optional.of(oldest));
+
+        // When
+        relay.publishPending();
+
+        // Then
+        verify(metricsCollector).incrementOutboxPublishFailures();
+        verify(metricsCollector).setOldestPendingChange(oldest);
+    }
+
+    private static WeatherChangeOutbox change(Long stationId, double oldPluie, double newPluie, int updates) {
+        LocalDateTime firstChangedAt = LocalDateTime.now().minusSeconds(10);
+        return WeatherChangeOutbox.builder()
+                .id(stationId)
+                .stationId(stationId)
+                .stationNom("Station " + stationId)
+                .forecastDate(DATE)
+                .oldDate(DATE)
+                .oldTemperatureMax(25.0).oldTemperatureMin(15.0).oldPluiePrevue(oldPluie).oldVent(10.0)
+                .newTemperatureMax(25.0).newTemperatureMin(15.0).newPluiePrevue(newPluie).newVent(10.0)
+                .firstChangedAt(firstChangedAt)
+                .lastChangedAt(firstChangedAt.plusSeconds(3))
+                .updates(updates)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package com.irrigation.meteo.service;
+
+import com.irrigation.meteo.entity.StationMeteo;
+import com.irrigation.meteo.entity.WeatherChangeOutbox;
+import com.irrigation.meteo.event.WeatherChangeEvent.WeatherConditions;
+import com.irrigation.meteo.repository.WeatherChangeOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour WeatherChangeOutboxService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests de l'outbox des changements météo")
+class WeatherChangeOutboxServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 11, 20);
+
+    @Mock
+    private WeatherChangeOutboxRepository outboxRepository;
+
+    @InjectMocks
+    private WeatherChangeOutboxService outboxService;
+
+    private StationMeteo station;
+
+    @BeforeEach
+    void setUp() {
+        station = StationMeteo.builder().id(1L).nom("Station Test").build();
+    }
+
+    @Test
+    @DisplayName("Premier changement - devrait créer une ligne en attente")
+    void testRecord_FirstChangeCreatesPendingRow() {
+        // Given
+        when(outboxRepository.findUnsentByStationIdAndForecastDate(1L, DATE)).thenReturn(Optional.empty());
+
+        // When
+        outboxService.record(station, DATE, conditions(0.0), conditions(12.0));
+
+        // Then
+        ArgumentCaptor<WeatherChangeOutbox> saved = ArgumentCaptor.forClass(WeatherChangeOutbox.class);
+        verify(outboxRepository).save(saved.capture());
+        assertThat(saved.getValue().getOldPluiePrevue()).isEqualTo(0.0);
+        assertThat(saved.getValue().getNewPluiePrevue()).isEqualTo(12.0);
+        assertThat(saved.getValue().getOldDate()).isEqualTo(DATE);
+        assertThat(saved.getValue().getUpdates()).isEqualTo(1);
+        assertThat(saved.getValue().getFirstChangedAt()).isEqualTo(saved.getValue().getLastChangedAt());
+    }
+
+    @Test
+    @DisplayName("Mise à jour suivante - devrait garder l'état initial et remplacer le dernier")
+    void testRecord_MergesIntoPendingChange() {
+        // Given - 0 → 12 mm en attente, puis 12 → 25 mm
+        WeatherChangeOutbox pending = pending(0.0, 12.0);
+        when(outboxRepository.findUnsentByStationIdAndForecastDate(1L, DATE)).thenReturn(Optional.of(pending));
+
+        // When
+        outboxService.record(station, DATE, conditions(12.0), conditions(25.0));
+
+        // Then - changement net 0 → 25 mm
+        assertThat(pending.getOldPluiePrevue()).isEqualTo(0.0);
+        assertThat(pending.getNewPluiePrevue()).isEqualTo(25.0);
+        assertThat(pending.getUpdates()).isEqualTo(2);
+        assertThat(pending.getLastChangedAt()).isAfterOrEqualTo(pending.getFirstChangedAt());
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Changement en cours d'envoi - devrait ouvrir une nouvelle ligne sans l'attendre")
+    void testRecord_OpensNewRowWhileThePreviousOneIsSent() {
+        // Given - 0 → 12 mm réclamé par le relais : seule une ligne non envoyée est cherchée
+        when(outboxRepository.findUnsentByStationIdAndForecastDate(1L, DATE)).thenReturn(Optional.empty());
+
+        // When
+        outboxService.record(station, DATE, conditions(12.0), conditions(25.0));
+
+        // Then - 12 → 25 mm, publié après le changement en cours d'envoi
+        ArgumentCaptor<WeatherChangeOutbox> saved = ArgumentCaptor.forClass(WeatherChangeOutbox.class);
+        verify(outboxRepository).save(saved.capture());
+        assertThat(saved.getValue().getOldPluiePrevue()).isEqualTo(12.0);
+        assertThat(saved.getValue().getNewPluiePrevue()).isEqualTo(25.0);
+        assertThat(saved.getValue().getPublishAttempts()).isZero();
+    }
+
+    @Test
+    @DisplayName("Retour à l'état initial - devrait supprimer le changement en attente")
+    void testRecord_DropsChangeRevertedBeforePublication() {
+        // Given
+        WeatherChangeOutbox pending = pending(0.0, 12.0);
+        when(outboxRepository.findUnsentByStationIdAndForecastDate(1L, DATE)).thenReturn(Optional.of(pending));
+
+        // When
+        outboxService.record(station, DATE, conditions(12.0), conditions(0.0));
+
+        // Then
+        verify(outboxRepository).delete(pending);
+    }
+
+    @Test
+    @DisplayName("Conditions inchangées - ne devrait rien enregistrer")
+    void testRecord_IgnoresUpdateWithoutChange() {
+        // When
+        outboxService.record(station, DATE, conditions(5.0), conditions(5.0));
+
+        // Then
+        verifyNoInteractions(outboxRepository);
+    }
+
+    private WeatherChangeOutbox pending(double oldPluie, double newPluie) {
+        WeatherConditions oldConditions = conditions(oldPluie);
+        WeatherConditions newConditions = conditions(newPluie);
+        LocalDateTime firstChangedAt = LocalDateTime.now().minusSeconds(2);
+        return WeatherChangeOutbox.builder()
+                .id(10L)
+                .stationId(1L)
+                .stationNom("Station Test")
+                .forecastDate(DATE)
+                .oldDate(DATE)
+                .oldTemperatureMax(oldConditions.getTemperatureMax())
+                .oldTemperatureMin(oldConditions.getTemperatureMin())
+                .oldPluiePrevue(oldPluie)
+                .oldVent(oldConditions.getVent())
+                .newTemperatureMax(newConditions.getTemperatureMax())
+                .newTemperatureMin(newConditions.getTemperatureMin())
+                .newPluiePrevue(newPluie)
+                .newVent(newConditions.getVent())
+                .firstChangedAt(firstChangedAt)
+                .lastChangedAt(firstChangedAt)
+                .updates(1)
+                .build();
+    }
+
+    private static WeatherConditions conditions(double pluie) {
+        return new WeatherConditions(25.0, 15.0, pluie, 10.0, DATE.atStartOfDay());
+    }
+}
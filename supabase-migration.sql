@@ -60,6 +60,31 @@ COMMENT ON COLUMN prevision.temperature_min IS 'Température minimale prévue (
 COMMENT ON COLUMN prevision.pluie_prevue IS 'Quantité de pluie prévue (mm)';
 COMMENT ON COLUMN prevision.vent IS 'Vitesse du vent prévue (km/h)';
 
+-- Create weather_change_outbox table (changements en attente de publication Kafka)
+CREATE TABLE IF NOT EXISTS weather_change_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    station_id BIGINT NOT NULL,
+    station_nom VARCHAR(100),
+    forecast_date DATE NOT NULL,
+    old_date DATE,
+    old_temperature_max DOUBLE PRECISION,
+    old_temperature_min DOUBLE PRECISION,
+    old_pluie_prevue DOUBLE PRECISION,
+    old_vent DOUBLE PRECISION,
+    new_temperature_max DOUBLE PRECISION,
+    new_temperature_min DOUBLE PRECISION,
+    new_pluie_prevue DOUBLE PRECISION,
+    new_vent DOUBLE PRECISION,
+    first_changed_at TIMESTAMP NOT NULL,
+    last_changed_at TIMESTAMP NOT NULL,
+    updates INT NOT NULL DEFAULT 1,
+    CONSTRAINT uk_outbox_station_date UNIQUE (station_id, forecast_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_first_changed ON weather_change_outbox(first_changed_at);
+
+COMMENT ON TABLE weather_change_outbox IS 'Changements de prévision en attente de publication, fusionnés par station et date';
+
 -- ============================================
 -- ARROSAGE SERVICE TABLES
 -- ============================================
@@ -72,15 +97,21 @@ CREATE TABLE IF NOT EXISTS parcelle (
     culture VARCHAR(100) NOT NULL,
     CONSTRAINT uk_parcelle_nom UNIQUE (nom)
 );
+ALTER TABLE parcelle ADD COLUMN IF NOT EXISTS exploitation VARCHAR(100);
+ALTER TABLE parcelle ADD COLUMN IF NOT EXISTS station_id BIGINT;
 
 -- Create indexes for parcelle
 CREATE INDEX IF NOT EXISTS idx_parcelle_culture ON parcelle(culture);
+CREATE INDEX IF NOT EXISTS idx_parcelle_exploitation ON parcelle(exploitation);
+CREATE INDEX IF NOT EXISTS idx_parcelle_station ON parcelle(station_id);
 
 -- Add comments
 COMMENT ON TABLE parcelle IS 'Table des parcelles agricoles';
 COMMENT ON COLUMN parcelle.nom IS 'Nom de la parcelle';
 COMMENT ON COLUMN parcelle.superficie IS 'Superficie de la parcelle en m²';
 COMMENT ON COLUMN parcelle.culture IS 'Type de culture sur la parcelle';
+COMMENT ON COLUMN parcelle.exploitation IS 'Exploitation agricole de la parcelle (limite d''arrosages simultanés)';
+COMMENT ON COLUMN parcelle.station_id IS 'Station météo (meteo-service) couvrant la parcelle';
 
 -- Create programme_arrosage table
 CREATE TABLE IF NOT EXISTS programme_arrosage (
@@ -90,14 +121,20 @@ CREATE TABLE IF NOT EXISTS programme_arrosage (
     duree INTEGER NOT NULL CHECK (duree > 0),
     volume_prevu NUMERIC(10, 2) NOT NULL CHECK (volume_prevu > 0),
     statut VARCHAR(20) NOT NULL CHECK (statut IN ('PLANIFIE', 'EN_COURS', 'TERMINE', 'ANNULE')),
+    date_reservation TIMESTAMP,
     CONSTRAINT fk_programme_parcelle FOREIGN KEY (parcelle_id) 
         REFERENCES parcelle(id) ON DELETE CASCADE
 );
 
+-- Upgrade existing installations
+ALTER TABLE programme_arrosage ADD COLUMN IF NOT EXISTS date_reservation TIMESTAMP;
+
 -- Create indexes for programme_arrosage
-CREATE INDEX IF NOT EXISTS idx_programme_parcelle ON programme_arrosage(parcelle_id);
+CREATE INDEX IF NOT EXISTS idx_programme_parcelle_statut_date ON programme_arrosage(parcelle_id, statut, date_planifiee);
+DROP INDEX IF EXISTS idx_programme_parcelle;
 CREATE INDEX IF NOT EXISTS idx_programme_date ON programme_arrosage(date_planifiee);
 CREATE INDEX IF NOT EXISTS idx_programme_statut ON programme_arrosage(statut);
+CREATE INDEX IF NOT EXISTS idx_programme_statut_date ON programme_arrosage(statut, date_planifiee, id);
 
 -- Add comments
 COMMENT ON TABLE programme_arrosage IS 'Table des programmes d''arrosage planifiés';
@@ -106,6 +143,7 @@ COMMENT ON COLUMN programme_arrosage.date_planifiee IS 'Date et heure planifiée
 COMMENT ON COLUMN programme_arrosage.duree IS 'Durée prévue de l''arrosage en minutes';
 COMMENT ON COLUMN programme_arrosage.volume_prevu IS 'Volume d''eau prévu en m³';
 COMMENT ON COLUMN programme_arrosage.statut IS 'Statut du programme (PLANIFIE, EN_COURS, TERMINE, ANNULE)';
+COMMENT ON COLUMN programme_arrosage.date_reservation IS 'Date de prise en charge du programme par une instance (EN_COURS)';
 
 -- Create journal_arrosage table
 CREATE TABLE IF NOT EXISTS journal_arrosage (
@@ -118,6 +156,9 @@ CREATE TABLE IF NOT EXISTS journal_arrosage (
         REFERENCES programme_arrosage(id) ON DELETE CASCADE
 );
 
+-- Séquence allouée par blocs de 50 (identifiants pré-alloués par Hibernate, INSERT en batch)
+ALTER SEQUENCE journal_arrosage_id_seq INCREMENT BY 50;
+
 -- Create indexes for journal_arrosage
 CREATE INDEX IF NOT EXISTS idx_journal_programme ON journal_arrosage(programme_id);
 CREATE INDEX IF NOT EXISTS idx_journal_date ON journal_arrosage(date_execution);
@@ -129,6 +170,94 @@ COMMENT ON COLUMN journal_arrosage.date_execution IS 'Date et heure d''exécutio
 COMMENT ON COLUMN journal_arrosage.volume_reel IS 'Volume d''eau réellement utilisé en m³';
 COMMENT ON COLUMN journal_arrosage.remarque IS 'Remarques ou observations sur l''exécution';
 
+-- Create archive tables (programmes terminés et journaux, partitionnés par mois)
+CREATE TABLE IF NOT EXISTS programme_arrosage_archive (
+    id BIGINT NOT NULL,
+    parcelle_id BIGINT NOT NULL,
+    date_planifiee TIMESTAMP NOT NULL,
+    duree INTEGER NOT NULL,
+    volume_prevu NUMERIC(10, 2) NOT NULL,
+    statut VARCHAR(20) NOT NULL,
+    date_reservation TIMESTAMP,
+    date_archivage TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, date_planifiee)
+) PARTITION BY RANGE (date_planifiee);
+
+CREATE TABLE IF NOT EXISTS journal_arrosage_archive (
+    id BIGINT NOT NULL,
+    programme_id BIGINT NOT NULL,
+    parcelle_id BIGINT NOT NULL,
+    date_execution TIMESTAMP NOT NULL,
+    volume_reel NUMERIC(10, 2) NOT NULL,
+    remarque VARCHAR(500),
+    date_archivage TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, date_execution)
+) PARTITION BY RANGE (date_execution);
+
+-- Rows outside any monthly partition
+CREATE TABLE IF NOT EXISTS programme_arrosage_archive_default PARTITION OF programme_arrosage_archive DEFAULT;
+CREATE TABLE IF NOT EXISTS journal_arrosage_archive_default PARTITION OF journal_arrosage_archive DEFAULT;
+
+-- Create indexes for archive tables (propagated to every partition)
+CREATE INDEX IF NOT EXISTS idx_programme_archive_parcelle ON programme_arrosage_archive(parcelle_id, date_planifiee);
+CREATE INDEX IF NOT EXISTS idx_journal_archive_programme ON journal_arrosage_archive(programme_id);
+CREATE INDEX IF NOT EXISTS idx_journal_archive_parcelle ON journal_arrosage_archive(parcelle_id, date_execution);
+
+-- Create the monthly partition <parent>_YYYY_MM if missing
+-- Rows of that month already stored in the default partition are moved into it before attaching.
+CREATE OR REPLACE FUNCTION ensure_archive_partition(p_parent TEXT, p_column TEXT, p_month DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month)::DATE;
+    v_to DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::DATE;
+    v_name TEXT := p_parent || '_' || to_char(v_from, 'YYYY_MM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(v_name));
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name, p_parent);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                   p_parent || '_default', p_column, v_from, p_column, v_to, v_name);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', p_parent, v_name, v_from, v_to);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Add comments
+COMMENT ON TABLE programme_arrosage_archive IS 'Archive mensuelle des programmes d''arrosage terminés';
+COMMENT ON TABLE journal_arrosage_archive IS 'Archive mensuelle des journaux des programmes archivés';
+COMMENT ON COLUMN programme_arrosage_archive.date_archivage IS 'Date de déplacement vers l''archive';
+COMMENT ON COLUMN journal_arrosage_archive.parcelle_id IS 'Parcelle du programme (dénormalisée à l''archivage)';
+COMMENT ON COLUMN journal_arrosage_archive.date_archivage IS 'Date de déplacement vers l''archive';
+
+-- Create scheduler_lease table (un leader par tâche planifiée, jeton de fencing)
+CREATE TABLE IF NOT EXISTS scheduler_lease (
+    job_name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(200) NOT NULL,
+    fencing_token BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    renewed_at TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE scheduler_lease IS 'Baux des tâches planifiées (élection d''un leader par tâche)';
+COMMENT ON COLUMN scheduler_lease.owner IS 'Instance détentrice du bail';
+COMMENT ON COLUMN scheduler_lease.fencing_token IS 'Jeton incrémenté à chaque changement de détenteur';
+COMMENT ON COLUMN scheduler_lease.expires_at IS 'Fin de validité du bail (horloge de la base)';
+
+-- Create processed_weather_event table (déduplication des événements météo)
+CREATE TABLE IF NOT EXISTS processed_weather_event (
+    event_id VARCHAR(64) PRIMARY KEY,
+    processed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_processed_weather_event_processed_at ON processed_weather_event(processed_at);
+
+COMMENT ON TABLE processed_weather_event IS 'Événements de changement météo déjà appliqués (déduplication)';
+COMMENT ON COLUMN processed_weather_event.event_id IS 'Identifiant de l''événement (ou clé dérivée pour les anciens producteurs)';
+COMMENT ON COLUMN processed_weather_event.processed_at IS 'Date d''application, pour la purge après la rétention';
+
 -- ============================================
 -- SAMPLE DATA (Optional - for testing)
 -- ============================================
@@ -185,3 +314,4 @@ ON CONFLICT DO NOTHING;
 -- SELECT * FROM parcelle;
 -- SELECT * FROM programme_arrosage;
 -- SELECT * FROM journal_arrosage;
+-- SELECT * FROM programme_arrosage_archive;